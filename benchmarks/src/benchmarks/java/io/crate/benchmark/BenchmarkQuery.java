@@ -0,0 +1,58 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.benchmark;
+
+import java.util.Random;
+
+/**
+ * A named statement of the query mix.
+ * Subclasses can override {@link #args(Random)} to vary the parameters per execution.
+ */
+public class BenchmarkQuery {
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final String name;
+    private final String statement;
+
+    public BenchmarkQuery(String name, String statement) {
+        this.name = name;
+        this.statement = statement;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String statement() {
+        return statement;
+    }
+
+    public Object[] args(Random random) {
+        return NO_ARGS;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
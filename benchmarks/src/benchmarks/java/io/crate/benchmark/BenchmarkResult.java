@@ -0,0 +1,130 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.benchmark;
+
+import io.crate.operation.reference.sys.query.LatencyHistogram;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Latencies and throughput of all measured executions of one {@link BenchmarkQuery}
+ */
+public class BenchmarkResult {
+
+    static final String HEADER = String.format(Locale.ENGLISH, "%-26s %6s %6s %10s %10s %10s %10s %10s %10s",
+        "query", "runs", "errors", "ops/s", "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms");
+
+    private final BenchmarkQuery query;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicReference<String> firstError = new AtomicReference<>();
+    private long wallTimeNanos;
+
+    public BenchmarkResult(BenchmarkQuery query) {
+        this.query = query;
+    }
+
+    public void record(long durationNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(durationNanos);
+        histogram.record(micros);
+        totalMicros.addAndGet(micros);
+    }
+
+    public void recordError(Throwable t) {
+        errors.incrementAndGet();
+        firstError.compareAndSet(null, t.getMessage());
+    }
+
+    public long errors() {
+        return errors.get();
+    }
+
+    @Nullable
+    public String firstError() {
+        return firstError.get();
+    }
+
+    public BenchmarkQuery query() {
+        return query;
+    }
+
+    public void wallTime(long nanos) {
+        wallTimeNanos = nanos;
+    }
+
+    public long runs() {
+        return histogram.count();
+    }
+
+    public double throughput() {
+        if (wallTimeNanos == 0) {
+            return 0.0d;
+        }
+        return histogram.count() / (wallTimeNanos / 1_000_000_000.0d);
+    }
+
+    public double meanMillis() {
+        long count = histogram.count();
+        return count == 0 ? 0.0d : totalMicros.get() / (double) count / 1000.0d;
+    }
+
+    public double percentileMillis(double percentile) {
+        return histogram.valueAtPercentile(percentile) / 1000.0d;
+    }
+
+    public String toRow() {
+        return String.format(Locale.ENGLISH, "%-26s %6d %6d %10.1f %10.2f %10.2f %10.2f %10.2f %10.2f",
+            query.name(),
+            runs(),
+            errors.get(),
+            throughput(),
+            meanMillis(),
+            percentileMillis(50),
+            percentileMillis(90),
+            percentileMillis(99),
+            histogram.max() / 1000.0d);
+    }
+
+    public void toXContent(XContentBuilder builder) throws IOException {
+        builder.startObject()
+            .field("query", query.name())
+            .field("stmt", query.statement())
+            .field("runs", runs())
+            .field("errors", errors.get())
+            .field("first_error", firstError.get())
+            .field("throughput", throughput())
+            .field("mean", meanMillis())
+            .field("p50", percentileMillis(50))
+            .field("p90", percentileMillis(90))
+            .field("p99", percentileMillis(99))
+            .field("max", histogram.max() / 1000.0d)
+            .endObject();
+    }
+}
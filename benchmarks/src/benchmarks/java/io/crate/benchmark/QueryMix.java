@@ -0,0 +1,94 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.benchmark;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * The fixed set of statements which are executed against the {@link StarSchema}.
+ *
+ * COPY TO writes into the given export directory and COPY FROM reads these files again,
+ * so the COPY TO query must run before the COPY FROM query.
+ */
+public class QueryMix {
+
+    public static List<BenchmarkQuery> queries(final StarSchema schema, final String exportDir) {
+        return ImmutableList.of(
+            new BenchmarkQuery("point_lookup",
+                "select name, country, segment from customers where id = ?") {
+                @Override
+                public Object[] args(Random random) {
+                    return new Object[]{random.nextInt(schema.numCustomers())};
+                }
+            },
+            new BenchmarkQuery("filtered_fetch",
+                "select id, customer_id, amount from sales where date_id = ? limit 100") {
+                @Override
+                public Object[] args(Random random) {
+                    return new Object[]{random.nextInt(schema.numDays())};
+                }
+            },
+            new BenchmarkQuery("top_n",
+                "select id, customer_id, product_id, amount from sales order by amount desc limit 100"),
+            new BenchmarkQuery("top_n_parted",
+                "select id, customer_id, product_id, amount from sales_parted where year = 2016 " +
+                "order by amount desc limit 100"),
+            new BenchmarkQuery("global_aggregate",
+                "select count(*), sum(amount), avg(quantity) from sales"),
+            new BenchmarkQuery("group_by_low_cardinality",
+                "select year, count(*), sum(amount) from sales_parted group by year"),
+            new BenchmarkQuery("group_by_high_cardinality",
+                "select customer_id, sum(amount) from sales group by customer_id order by 2 desc limit 10"),
+            new BenchmarkQuery("group_by_dimension",
+                "select country, segment, count(*) from customers group by country, segment"),
+            new BenchmarkQuery("join_fact_dimension",
+                "select c.name, s.amount from customers c, sales s " +
+                "where c.id = s.customer_id and c.country = ? and s.date_id = ? " +
+                "order by s.amount desc limit 50") {
+                @Override
+                public Object[] args(Random random) {
+                    return new Object[]{
+                        StarSchema.COUNTRIES[random.nextInt(StarSchema.COUNTRIES.length)],
+                        random.nextInt(schema.numDays())
+                    };
+                }
+            },
+            new BenchmarkQuery("join_dimensions",
+                "select p.name, d.day from products p, dates d " +
+                "where p.category = ? and d.month = 1 and d.year = 2015 order by p.name, d.day limit 100") {
+                @Override
+                public Object[] args(Random random) {
+                    return new Object[]{StarSchema.CATEGORIES[random.nextInt(StarSchema.CATEGORIES.length)]};
+                }
+            },
+            new BenchmarkQuery("copy_to",
+                String.format(Locale.ENGLISH, "copy sales to directory '%s'", exportDir)),
+            new BenchmarkQuery("copy_from",
+                String.format(Locale.ENGLISH,
+                    "copy sales_copy from '%s/*' with (overwrite_duplicates = true, shared = true)", exportDir))
+        );
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.benchmark;
+
+import io.crate.testing.SQLTransportExecutor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A generated star schema with a sales fact table and customer, product and date dimensions.
+ *
+ * The fact table exists twice, once plain and once partitioned by year.
+ * The number of customers, products and sales grows linearly with the scale factor,
+ * the date dimension always covers two years.
+ */
+public class StarSchema {
+
+    static final int CUSTOMERS_PER_SCALE = 1_000;
+    static final int PRODUCTS_PER_SCALE = 200;
+    static final int SALES_PER_SCALE = 100_000;
+    static final int NUM_DAYS = 730;
+    static final int BULK_SIZE = 1_000;
+
+    static final String[] COUNTRIES = {"AT", "CH", "DE", "DK", "ES", "FR", "GB", "IT", "NL", "US"};
+    static final String[] SEGMENTS = {"consumer", "smb", "enterprise"};
+    static final String[] CATEGORIES = {"books", "electronics", "garden", "kitchen", "sports", "toys"};
+
+    private static final long FIRST_DAY = 1420070400000L; // 2015-01-01
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private static final String SALES_COLUMNS = "(" +
+        "id long, " +
+        "customer_id integer, " +
+        "product_id integer, " +
+        "date_id integer, " +
+        "year integer, " +
+        "quantity integer, " +
+        "amount double";
+
+    private final int scale;
+    private final long seed;
+
+    public StarSchema(int scale, long seed) {
+        assert scale > 0 : "scale must be greater than 0";
+        this.scale = scale;
+        this.seed = seed;
+    }
+
+    public int numCustomers() {
+        return CUSTOMERS_PER_SCALE * scale;
+    }
+
+    public int numProducts() {
+        return PRODUCTS_PER_SCALE * scale;
+    }
+
+    public int numSales() {
+        return SALES_PER_SCALE * scale;
+    }
+
+    public int numDays() {
+        return NUM_DAYS;
+    }
+
+    public List<String> createTableStatements() {
+        return Arrays.asList(
+            "create table customers (" +
+            "   id integer primary key," +
+            "   name string," +
+            "   country string," +
+            "   segment string" +
+            ") with (number_of_replicas = 0)",
+            "create table products (" +
+            "   id integer primary key," +
+            "   name string," +
+            "   category string," +
+            "   price double" +
+            ") with (number_of_replicas = 0)",
+            "create table dates (" +
+            "   id integer primary key," +
+            "   day timestamp," +
+            "   month integer," +
+            "   year integer" +
+            ") with (number_of_replicas = 0)",
+            "create table sales " + SALES_COLUMNS + ") " +
+            "clustered into 6 shards with (number_of_replicas = 0)",
+            "create table sales_parted " + SALES_COLUMNS + ") " +
+            "clustered into 2 shards partitioned by (year) with (number_of_replicas = 0)",
+            "create table sales_copy " + SALES_COLUMNS + ", primary key (id)) " +
+            "clustered into 6 shards with (number_of_replicas = 0)"
+        );
+    }
+
+    /**
+     * create all tables and insert the generated rows using bulk requests
+     */
+    public void load(SQLTransportExecutor executor) {
+        for (String statement : createTableStatements()) {
+            executor.exec(statement);
+        }
+        executor.ensureGreen();
+
+        Random random = new Random(seed);
+        BulkInserter customers = new BulkInserter(executor,
+            "insert into customers (id, name, country, segment) values (?, ?, ?, ?)");
+        for (int i = 0; i < numCustomers(); i++) {
+            customers.add(i, "customer-" + i, COUNTRIES[random.nextInt(COUNTRIES.length)],
+                SEGMENTS[random.nextInt(SEGMENTS.length)]);
+        }
+        customers.flush();
+
+        BulkInserter products = new BulkInserter(executor,
+            "insert into products (id, name, category, price) values (?, ?, ?, ?)");
+        for (int i = 0; i < numProducts(); i++) {
+            products.add(i, "product-" + i, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                1 + random.nextInt(10_000) / 100.0d);
+        }
+        products.flush();
+
+        BulkInserter dates = new BulkInserter(executor,
+            "insert into dates (id, day, month, year) values (?, ?, ?, ?)");
+        for (int i = 0; i < NUM_DAYS; i++) {
+            dates.add(i, FIRST_DAY + i * DAY_MILLIS, (i % 365) / 31 + 1, year(i));
+        }
+        dates.flush();
+
+        String salesInsert = " (id, customer_id, product_id, date_id, year, quantity, amount) values (?, ?, ?, ?, ?, ?, ?)";
+        BulkInserter sales = new BulkInserter(executor, "insert into sales" + salesInsert);
+        BulkInserter salesParted = new BulkInserter(executor, "insert into sales_parted" + salesInsert);
+        for (long i = 0; i < numSales(); i++) {
+            int dateId = random.nextInt(NUM_DAYS);
+            int quantity = 1 + random.nextInt(10);
+            Object[] row = new Object[]{
+                i,
+                random.nextInt(numCustomers()),
+                random.nextInt(numProducts()),
+                dateId,
+                year(dateId),
+                quantity,
+                quantity * (1 + random.nextInt(10_000) / 100.0d)
+            };
+            sales.add(row);
+            salesParted.add(row);
+        }
+        sales.flush();
+        salesParted.flush();
+
+        executor.exec("refresh table customers, products, dates, sales, sales_parted");
+        executor.exec("optimize table customers, products, dates, sales, sales_parted");
+    }
+
+    private static int year(int dateId) {
+        return 2015 + dateId / 365;
+    }
+
+    private static class BulkInserter {
+
+        private final SQLTransportExecutor executor;
+        private final String statement;
+        private final List<Object[]> bulkArgs = new ArrayList<>(BULK_SIZE);
+
+        BulkInserter(SQLTransportExecutor executor, String statement) {
+            this.executor = executor;
+            this.statement = statement;
+        }
+
+        void add(Object... args) {
+            bulkArgs.add(args);
+            if (bulkArgs.size() >= BULK_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (bulkArgs.isEmpty()) {
+                return;
+            }
+            executor.execBulk(statement, bulkArgs.toArray(new Object[bulkArgs.size()][]));
+            bulkArgs.clear();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.benchmark;
+
+import com.carrotsearch.randomizedtesting.annotations.TimeoutSuite;
+import io.crate.integrationtests.SQLTransportIntegrationTest;
+import org.apache.lucene.util.TimeUnits;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.test.ESIntegTestCase;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Loads a {@link StarSchema} into a cluster of <code>benchmark.nodes</code> nodes
+ * and measures the statements of the {@link QueryMix}.
+ *
+ * Supported system properties:
+ *
+ * <ul>
+ *     <li>benchmark.nodes: number of nodes, default 3</li>
+ *     <li>benchmark.scale: scale factor of the star schema, default 1</li>
+ *     <li>benchmark.iterations: measured executions per query, default 50</li>
+ *     <li>benchmark.warmup: executions per query before measuring, default 5</li>
+ *     <li>benchmark.concurrency: number of concurrent clients, default 1</li>
+ *     <li>benchmark.output: if set, the results are written as JSON into this file</li>
+ * </ul>
+ */
+@ESIntegTestCase.ClusterScope(scope = ESIntegTestCase.Scope.SUITE, numDataNodes = 0, numClientNodes = 0,
+    randomDynamicTemplates = false, transportClientRatio = 0)
+@TimeoutSuite(millis = 4 * TimeUnits.HOUR)
+public class StarSchemaBenchmark extends SQLTransportIntegrationTest {
+
+    private static final ESLogger LOGGER = Loggers.getLogger(StarSchemaBenchmark.class);
+
+    private static final int NODES = Integer.getInteger("benchmark.nodes", 3);
+    private static final int SCALE = Integer.getInteger("benchmark.scale", 1);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 50);
+    private static final int WARMUP = Integer.getInteger("benchmark.warmup", 5);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 1);
+    private static final String OUTPUT = System.getProperty("benchmark.output");
+
+    private static final TimeValue TIMEOUT = TimeValue.timeValueMinutes(10);
+
+    @Test
+    public void testQueryMix() throws Exception {
+        internalCluster().ensureAtLeastNumDataNodes(NODES);
+
+        StarSchema schema = new StarSchema(SCALE, randomLong());
+        long loadStarted = System.nanoTime();
+        schema.load(sqlExecutor);
+        LOGGER.info("loaded star schema with scale factor {} ({} sales) into {} nodes in {}",
+            SCALE, schema.numSales(), NODES, TimeValue.timeValueNanos(System.nanoTime() - loadStarted));
+
+        Path exportDir = createTempDir();
+        List<BenchmarkResult> results = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            for (BenchmarkQuery query : QueryMix.queries(schema, exportDir.toAbsolutePath().toString())) {
+                run(executor, query, WARMUP, new BenchmarkResult(query));
+                BenchmarkResult result = new BenchmarkResult(query);
+                run(executor, query, ITERATIONS, result);
+                results.add(result);
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        report(results);
+        for (BenchmarkResult result : results) {
+            assertThat(result.query().name() + " failed: " + result.firstError(), result.errors(), is(0L));
+        }
+    }
+
+    private void run(ExecutorService executor,
+                     final BenchmarkQuery query,
+                     int iterations,
+                     final BenchmarkResult result) throws Exception {
+        final Random random = new Random(randomLong());
+        List<Future<?>> futures = new ArrayList<>(iterations);
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    Object[] args = query.args(random);
+                    long executionStarted = System.nanoTime();
+                    try {
+                        sqlExecutor.exec(query.statement(), args, TIMEOUT);
+                        result.record(System.nanoTime() - executionStarted);
+                    } catch (Throwable t) {
+                        result.recordError(t);
+                        LOGGER.warn("execution of query {} failed", t, query.name());
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        result.wallTime(System.nanoTime() - started);
+    }
+
+    private void report(List<BenchmarkResult> results) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ENGLISH,
+            "%nnodes: %d, scale: %d, iterations: %d, warmup: %d, concurrency: %d%n",
+            NODES, SCALE, ITERATIONS, WARMUP, CONCURRENCY));
+        sb.append(BenchmarkResult.HEADER).append('\n');
+        for (BenchmarkResult result : results) {
+            sb.append(result.toRow()).append('\n');
+        }
+        for (BenchmarkResult result : results) {
+            if (result.errors() > 0) {
+                sb.append(String.format(Locale.ENGLISH, "%s failed: %s%n", result.query().name(), result.firstError()));
+            }
+        }
+        LOGGER.info("{}", sb);
+
+        if (OUTPUT == null) {
+            return;
+        }
+        Path path = Paths.get(OUTPUT);
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (OutputStream out = Files.newOutputStream(path)) {
+            XContentBuilder builder = XContentFactory.jsonBuilder(out).prettyPrint();
+            builder.startObject()
+                .field("nodes", NODES)
+                .field("scale", SCALE)
+                .field("iterations", ITERATIONS)
+                .field("warmup", WARMUP)
+                .field("concurrency", CONCURRENCY)
+                .startArray("queries");
+            for (BenchmarkResult result : results) {
+                result.toXContent(builder);
+            }
+            builder.endArray().endObject();
+            builder.close();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.core.collections;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free buffer which keeps the most recently added elements.
+ *
+ * The capacity is split into stripes. A writing thread always adds to the same stripe and overwrites the
+ * oldest element of that stripe once it is full, so writers neither block nor evict each other's elements
+ * unless they share a stripe. As a consequence the buffer contains approximately the last {@code capacity}
+ * elements if the writes are spread over several threads. Small buffers consist of a single stripe.
+ *
+ * {@link #iterator()} iterates over a snapshot which is taken when the iterator is created.
+ */
+public class StripedRingBuffer<E> implements Iterable<E> {
+
+    private static final int MIN_STRIPE_CAPACITY = 64;
+
+    private final Stripe<E>[] stripes;
+    private final int stripeMask;
+    private final int capacity;
+
+    /**
+     * @param capacity the maximum number of elements, a buffer with a capacity of 0 drops all elements
+     */
+    public StripedRingBuffer(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors());
+    }
+
+    @SuppressWarnings("unchecked")
+    public StripedRingBuffer(int capacity, int concurrency) {
+        assert capacity >= 0 : "capacity must not be negative";
+        this.capacity = capacity;
+        if (capacity == 0) {
+            stripes = new Stripe[0];
+            stripeMask = 0;
+            return;
+        }
+        int numStripes = Integer.highestOneBit(Math.max(1, Math.min(concurrency, capacity / MIN_STRIPE_CAPACITY)));
+        stripes = new Stripe[numStripes];
+        stripeMask = numStripes - 1;
+        int stripeCapacity = capacity / numStripes;
+        int remainder = capacity % numStripes;
+        for (int i = 0; i < numStripes; i++) {
+            stripes[i] = new Stripe<>(i < remainder ? stripeCapacity + 1 : stripeCapacity);
+        }
+    }
+
+    public void add(E element) {
+        if (capacity == 0) {
+            return;
+        }
+        stripes[stripeIndex()].add(element);
+    }
+
+    public void addAll(Iterable<? extends E> elements) {
+        for (E element : elements) {
+            add(element);
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<E> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        List<E> snapshot = new ArrayList<>(size());
+        for (Stripe<E> stripe : stripes) {
+            stripe.copyTo(snapshot);
+        }
+        return snapshot.iterator();
+    }
+
+    private int stripeIndex() {
+        if (stripeMask == 0) {
+            return 0;
+        }
+        // thread ids are sequential; spread them so that threads of the same pool don't share stripes
+        int h = (int) Thread.currentThread().getId() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & stripeMask;
+    }
+
+    private static class Stripe<E> {
+
+        private final AtomicReferenceArray<E> slots;
+        private final AtomicLong writeIndex = new AtomicLong();
+
+        Stripe(int capacity) {
+            slots = new AtomicReferenceArray<>(capacity);
+        }
+
+        void add(E element) {
+            long idx = writeIndex.getAndIncrement();
+            slots.set((int) (idx % slots.length()), element);
+        }
+
+        int size() {
+            return (int) Math.min(writeIndex.get(), slots.length());
+        }
+
+        /**
+         * copies the elements of this stripe, oldest first, into target
+         */
+        void copyTo(List<E> target) {
+            int length = slots.length();
+            int start = (int) (writeIndex.get() % length);
+            for (int i = 0; i < length; i++) {
+                E element = slots.get((start + i) % length);
+                if (element != null) {
+                    target.add(element);
+                }
+            }
+        }
+    }
+}
@@ -80,6 +80,9 @@ public final class SqlFormatter {
         @Override
         protected Void visitExplain(Explain node, Integer indent) {
             append(indent, "EXPLAIN ");
+            if (node.isAnalyze()) {
+                builder.append("ANALYZE ");
+            }
             for (ExplainOption explainOption : node.getOptions()) {
                 process(explainOption, indent);
             }
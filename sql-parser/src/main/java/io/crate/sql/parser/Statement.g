@@ -652,7 +652,7 @@ frameBound
     ;
 
 explainStmt
-    : EXPLAIN explainOptions? statement -> ^(EXPLAIN explainOptions? statement)
+    : EXPLAIN ANALYZE? explainOptions? statement -> ^(EXPLAIN ANALYZE? explainOptions? statement)
     ;
 
 explainOptions
@@ -1097,7 +1097,7 @@ optimizeStmt
     ;
 
 nonReserved
-    : ALIAS | ANALYZER | BERNOULLI | BLOB | CATALOGS | CHAR_FILTERS | CLUSTERED
+    : ALIAS | ANALYZE | ANALYZER | BERNOULLI | BLOB | CATALOGS | CHAR_FILTERS | CLUSTERED
     | COLUMNS | COPY | CURRENT | DATE | DAY | DISTRIBUTED | DUPLICATE | DYNAMIC | EXPLAIN
     | EXTENDS | FOLLOWING | FORMAT | FULLTEXT | FUNCTIONS | GEO_POINT | GEO_SHAPE | GLOBAL
     | GRAPHVIZ | HOUR | IGNORED | KEY | KILL | LOGICAL | MATERIALIZED | MINUTE
@@ -1266,6 +1266,7 @@ IGNORED: 'IGNORED';
 
 ARRAY: 'ARRAY';
 
+ANALYZE: 'ANALYZE';
 ANALYZER: 'ANALYZER';
 EXTENDS: 'EXTENDS';
 TOKENIZER: 'TOKENIZER';
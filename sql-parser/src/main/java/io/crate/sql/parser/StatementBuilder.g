@@ -571,7 +571,7 @@ whenList returns [List<WhenClause> value = new ArrayList<>()]
     ;
 
 explain returns [Statement value]
-    : ^(EXPLAIN explainOptions? statement) { $value = new Explain($statement.value, $explainOptions.value); }
+    : ^(EXPLAIN (analyze=ANALYZE)? explainOptions? statement) { $value = new Explain($statement.value, $explainOptions.value, $analyze != null); }
     ;
 
 explainOptions returns [List<ExplainOption> value = new ArrayList<>()]
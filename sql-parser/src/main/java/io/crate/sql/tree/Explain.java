@@ -34,9 +34,16 @@ public class Explain
 {
     private final Statement statement;
     private final List<ExplainOption> options;
+    private final boolean analyze;
 
     public Explain(Statement statement, List<ExplainOption> options)
     {
+        this(statement, options, false);
+    }
+
+    public Explain(Statement statement, List<ExplainOption> options, boolean analyze)
+    {
+        this.analyze = analyze;
         this.statement = checkNotNull(statement, "statement is null");
         if (options == null) {
             this.options = ImmutableList.of();
@@ -56,6 +63,14 @@ public class Explain
         return options;
     }
 
+    /**
+     * @return true if the statement should be executed and the plan be annotated with its execution statistics
+     */
+    public boolean isAnalyze()
+    {
+        return analyze;
+    }
+
     @Override
     public <R, C> R accept(AstVisitor<R, C> visitor, C context)
     {
@@ -65,7 +80,7 @@ public class Explain
     @Override
     public int hashCode()
     {
-        return Objects.hashCode(statement, options);
+        return Objects.hashCode(statement, options, analyze);
     }
 
     @Override
@@ -79,7 +94,8 @@ public class Explain
         }
         Explain o = (Explain) obj;
         return Objects.equal(statement, o.statement) &&
-                Objects.equal(options, o.options);
+                Objects.equal(options, o.options) &&
+                analyze == o.analyze;
     }
 
     @Override
@@ -88,6 +104,7 @@ public class Explain
         return MoreObjects.toStringHelper(this)
                 .add("statement", statement)
                 .add("options", options)
+                .add("analyze", analyze)
                 .toString();
     }
 }
@@ -0,0 +1,121 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport;
+
+import io.crate.Streamer;
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowN;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Measures encoding and decoding of a {@link StreamBucket} with a single column of the given data type.
+ * Run with the gc profiler to see the allocation rate per row.
+ */
+@State(value = Scope.Benchmark)
+public class StreamBucketBenchmark {
+
+    private static final int NUM_ROWS = 10_000;
+
+    @Param(value = {"string", "integer", "long", "double", "boolean", "timestamp", "ip"})
+    public String dataType;
+
+    @Param(value = {"false", "true"})
+    public boolean compressed;
+
+    private Streamer<?>[] streamers;
+    private Row[] rows;
+    private BucketCompressor compressor;
+    private BytesReference encoded;
+
+    @Setup
+    public void prepare() throws IOException {
+        DataType type = DataTypes.ofName(dataType);
+        streamers = new Streamer[]{type.streamer()};
+        compressor = compressed ? new BucketCompressor(0, 1.0d) : null;
+
+        String[] countries = Locale.getISOCountries();
+        Random random = new Random(42);
+        rows = new Row[NUM_ROWS];
+        for (int i = 0; i < NUM_ROWS; i++) {
+            Object value;
+            switch (dataType) {
+                case "string":
+                    value = new BytesRef(countries[random.nextInt(countries.length)]);
+                    break;
+                case "integer":
+                    value = random.nextInt();
+                    break;
+                case "double":
+                    value = random.nextDouble();
+                    break;
+                case "boolean":
+                    value = random.nextBoolean();
+                    break;
+                case "ip":
+                    value = new BytesRef(String.format(Locale.ENGLISH, "10.0.%d.%d", random.nextInt(256), random.nextInt(256)));
+                    break;
+                default:
+                    value = random.nextLong();
+            }
+            rows[i] = new RowN(new Object[]{value});
+        }
+        encoded = encode();
+    }
+
+    private BytesReference encode() throws IOException {
+        StreamBucket.Builder builder = new StreamBucket.Builder(streamers, compressor);
+        for (Row row : rows) {
+            builder.add(row);
+        }
+        BytesStreamOutput out = new BytesStreamOutput();
+        builder.build().writeTo(out);
+        return out.bytes();
+    }
+
+    @Benchmark
+    public BytesReference measureEncode() throws IOException {
+        return encode();
+    }
+
+    @Benchmark
+    public long measureDecode() throws IOException {
+        StreamBucket bucket = new StreamBucket(streamers);
+        bucket.readFrom(StreamInput.wrap(encoded));
+        long numValues = 0;
+        for (Row row : bucket) {
+            if (row.get(0) != null) {
+                numValues++;
+            }
+        }
+        return numValues;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.collect;
+
+import io.crate.metadata.settings.CrateSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.node.settings.NodeSettingsService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+
+/**
+ * Measures the bookkeeping overhead of {@link StatsTables} per query.
+ * A query is simulated as a job with two operations; the benchmark runs on all available cores
+ * to include the contention on the shared tables and logs.
+ */
+@State(value = Scope.Benchmark)
+@Threads(value = Threads.MAX)
+public class StatsTablesBenchmark {
+
+    /**
+     * 0 disables the stats, otherwise the sampling interval
+     */
+    @Param(value = {"0", "1", "10"})
+    public int samplingInterval;
+
+    private StatsTables statsTables;
+
+    @Setup
+    public void prepare() {
+        Settings settings = Settings.builder()
+                .put(CrateSettings.STATS_ENABLED.settingName(), samplingInterval > 0)
+                .put(CrateSettings.STATS_SAMPLING_INTERVAL.settingName(), Math.max(samplingInterval, 1))
+                .build();
+        statsTables = new StatsTables(settings, new NodeSettingsService(Settings.EMPTY));
+    }
+
+    @Benchmark
+    public UUID measureQuery() {
+        UUID jobId = UUID.randomUUID();
+        statsTables.jobStarted(jobId, "select * from t where id = ?");
+        statsTables.operationStarted(0, jobId, "collect");
+        statsTables.operationStarted(1, jobId, "localMerge");
+        statsTables.operationFinished(0, jobId, null, 0);
+        statsTables.operationFinished(1, jobId, null, 0);
+        statsTables.jobFinished(jobId, null);
+        return jobId;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.merge;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Ordering;
+import io.crate.core.collections.ArrayBucket;
+import io.crate.core.collections.Bucket;
+import io.crate.core.collections.Row;
+import io.crate.operation.projectors.sorting.OrderingByPosition;
+import org.openjdk.jmh.annotations.*;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+import static io.crate.testing.TestingHelpers.range;
+
+@State(value = Scope.Benchmark)
+public class SortedPagingIteratorBenchmark {
+
+    private static final Ordering<Row> ORDERING =
+        OrderingByPosition.rowOrdering(new int[]{0}, new boolean[]{false}, new Boolean[]{null});
+
+    private Bucket bucket1;
+    private Bucket bucket2;
+    private Bucket bucket3;
+
+    @Setup
+    public void prepare() {
+        bucket1 = new ArrayBucket(range(0, 100_000));
+        bucket2 = new ArrayBucket(range(50_000, 150_000));
+        bucket3 = new ArrayBucket(range(100_000, 200_000));
+    }
+
+    @SafeVarargs
+    private final Iterable<? extends KeyIterable<Integer, Row>> numbered(Iterable<Row>... buckets) {
+        return Iterables.transform(Arrays.asList(buckets), new Function<Iterable<Row>, KeyIterable<Integer, Row>>() {
+            private int i = 0;
+
+            @Nullable
+            @Override
+            public KeyIterable<Integer, Row> apply(Iterable<Row> input) {
+                return new KeyIterable<>(i++, input);
+            }
+        });
+    }
+
+    @Benchmark
+    public int measureMergeAndIterate() {
+        SortedPagingIterator<Integer, Row> iterator = new SortedPagingIterator<>(ORDERING, false);
+        iterator.merge(numbered(bucket1, bucket2));
+        int size = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            size++;
+        }
+        iterator.merge(numbered(bucket3));
+        iterator.finish();
+        while (iterator.hasNext()) {
+            iterator.next();
+            size++;
+        }
+        return size;
+    }
+
+    @Benchmark
+    public int measureRepeat() {
+        SortedPagingIterator<Integer, Row> iterator = new SortedPagingIterator<>(ORDERING, true);
+        iterator.merge(numbered(bucket1, bucket2, bucket3));
+        iterator.finish();
+        while (iterator.hasNext()) {
+            iterator.next();
+        }
+        return Iterables.size(iterator.repeat());
+    }
+}
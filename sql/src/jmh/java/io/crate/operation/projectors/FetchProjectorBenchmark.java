@@ -0,0 +1,123 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import com.carrotsearch.hppc.*;
+import com.carrotsearch.hppc.cursors.IntCursor;
+import com.carrotsearch.hppc.cursors.IntObjectCursor;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.crate.analyze.symbol.FetchReference;
+import io.crate.analyze.symbol.InputColumn;
+import io.crate.analyze.symbol.Reference;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.core.collections.Bucket;
+import io.crate.core.collections.CollectionBucket;
+import io.crate.metadata.*;
+import io.crate.metadata.table.ColumnPolicy;
+import io.crate.operation.projectors.fetch.FetchOperation;
+import io.crate.operation.projectors.fetch.FetchProjector;
+import io.crate.operation.projectors.fetch.FetchProjectorContext;
+import io.crate.planner.node.fetch.FetchSource;
+import io.crate.testing.RowCountRowReceiver;
+import io.crate.testing.RowSender;
+import io.crate.testing.TestingHelpers;
+import io.crate.types.LongType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+
+import static io.crate.testing.RowSender.rowRange;
+
+/**
+ * Measures the fetch projector with a fetch operation that answers immediately,
+ * so only the fetch id bookkeeping and the row assembly on the handler side is measured.
+ */
+@State(value = Scope.Benchmark)
+public class FetchProjectorBenchmark {
+
+    private static final TableIdent USER_TABLE_IDENT = new TableIdent(Schemas.DEFAULT_SCHEMA_NAME, "users");
+    private static final int NUM_ROWS = 100_000;
+
+    private final FetchOperation fetchOperation = new FetchOperation() {
+        @Override
+        public ListenableFuture<IntObjectMap<? extends Bucket>> fetch(String nodeId, IntObjectMap<? extends IntContainer> toFetch) {
+            IntObjectHashMap<Bucket> readerToBuckets = new IntObjectHashMap<>();
+            for (IntObjectCursor<? extends IntContainer> cursor : toFetch) {
+                List<Object[]> rows = new ArrayList<>(cursor.value.size());
+                for (IntCursor docIdCursor : cursor.value) {
+                    rows.add(new Object[]{(long) docIdCursor.value});
+                }
+                readerToBuckets.put(cursor.key, new CollectionBucket(rows));
+            }
+            return Futures.<IntObjectMap<? extends Bucket>>immediateFuture(readerToBuckets);
+        }
+    };
+
+    private Functions functions;
+    private Reference idRef;
+
+    @Setup
+    public void prepare() {
+        functions = TestingHelpers.getFunctions();
+        idRef = new Reference(new ReferenceInfo(new ReferenceIdent(USER_TABLE_IDENT, "id"),
+            RowGranularity.DOC,
+            LongType.INSTANCE,
+            ColumnPolicy.STRICT,
+            ReferenceInfo.IndexType.NOT_ANALYZED,
+            true));
+    }
+
+    private FetchProjectorContext fetchProjectorContext() {
+        IntSet readerIds = new IntHashSet();
+        readerIds.add(0);
+        Map<String, IntSet> nodeToReaderIds = Collections.singletonMap("nodeOne", readerIds);
+
+        TreeMap<Integer, String> readerIndices = new TreeMap<>();
+        readerIndices.put(0, "t1");
+        Map<String, TableIdent> indexToTable = Collections.singletonMap("t1", USER_TABLE_IDENT);
+
+        FetchSource fetchSource = new FetchSource(Collections.<ReferenceInfo>emptyList(),
+            Collections.singletonList(new InputColumn(0)),
+            Collections.singletonList(idRef));
+        Map<TableIdent, FetchSource> tableToFetchSource = Collections.singletonMap(USER_TABLE_IDENT, fetchSource);
+        return new FetchProjectorContext(tableToFetchSource, nodeToReaderIds, readerIndices, indexToTable);
+    }
+
+    @Benchmark
+    public RowCountRowReceiver measureFetch() {
+        List<Symbol> outputSymbols = Collections.<Symbol>singletonList(new FetchReference(new InputColumn(0), idRef));
+        FetchProjector fetchProjector = new FetchProjector(
+            fetchOperation,
+            MoreExecutors.directExecutor(),
+            functions,
+            outputSymbols,
+            fetchProjectorContext()
+        );
+        RowCountRowReceiver rowReceiver = new RowCountRowReceiver();
+        fetchProjector.downstream(rowReceiver);
+        fetchProjector.prepare();
+        new RowSender(rowRange(0, NUM_ROWS), fetchProjector, MoreExecutors.directExecutor()).run();
+        return rowReceiver;
+    }
+}
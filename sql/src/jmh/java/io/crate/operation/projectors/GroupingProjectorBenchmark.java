@@ -0,0 +1,135 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.analyze.symbol.Aggregation;
+import io.crate.analyze.symbol.InputColumn;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.core.collections.Row;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Functions;
+import io.crate.operation.AggregationContext;
+import io.crate.operation.Input;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.impl.MinimumAggregation;
+import io.crate.operation.aggregation.impl.SumAggregation;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.collect.InputCollectExpression;
+import io.crate.testing.RowCountRowReceiver;
+import io.crate.testing.TestingHelpers;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+@State(value = Scope.Benchmark)
+public class GroupingProjectorBenchmark {
+
+    private static final int NUM_ROWS = 1_000_000;
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+        new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+
+    private Functions functions;
+    private Object[] stringKeys;
+
+    private static class SpareRow implements Row {
+
+        Object value;
+
+        @Override
+        public int size() {
+            return 1;
+        }
+
+        @Override
+        public Object get(int index) {
+            return value;
+        }
+
+        @Override
+        public Object[] materialize() {
+            return new Object[]{value};
+        }
+    }
+
+    @Setup
+    public void prepare() {
+        functions = TestingHelpers.getFunctions();
+        String[] countries = Locale.getISOCountries();
+        stringKeys = new Object[countries.length];
+        for (int i = 0; i < countries.length; i++) {
+            stringKeys[i] = new BytesRef(countries[i]);
+        }
+    }
+
+    private GroupingProjector createProjector(String aggregationName, DataType type) {
+        InputCollectExpression keyInput = new InputCollectExpression(0);
+        List<Input<?>> keyInputs = Arrays.<Input<?>>asList(keyInput);
+        CollectExpression[] collectExpressions = new CollectExpression[]{keyInput};
+
+        FunctionIdent functionIdent = new FunctionIdent(aggregationName, Arrays.asList(type));
+        FunctionInfo functionInfo = new FunctionInfo(functionIdent, type, FunctionInfo.Type.AGGREGATE);
+        AggregationFunction function = (AggregationFunction) functions.get(functionIdent);
+        Aggregation aggregation = Aggregation.finalAggregation(functionInfo,
+            Arrays.<Symbol>asList(new InputColumn(0)), Aggregation.Step.ITER);
+        AggregationContext aggregationContext = new AggregationContext(function, aggregation);
+        aggregationContext.addInput(keyInput);
+
+        GroupingProjector groupingProjector = new GroupingProjector(Arrays.asList(type), keyInputs,
+            collectExpressions, new AggregationContext[]{aggregationContext}, RAM_ACCOUNTING_CONTEXT);
+        groupingProjector.downstream(new RowCountRowReceiver());
+        groupingProjector.prepare();
+        return groupingProjector;
+    }
+
+    @Benchmark
+    public GroupingProjector measureGroupByMinBytesRef() {
+        GroupingProjector groupingProjector = createProjector(MinimumAggregation.NAME, DataTypes.STRING);
+        SpareRow row = new SpareRow();
+        for (int i = 0; i < NUM_ROWS; i++) {
+            row.value = stringKeys[i % stringKeys.length];
+            groupingProjector.setNextRow(row);
+        }
+        groupingProjector.finish(RepeatHandle.UNSUPPORTED);
+        return groupingProjector;
+    }
+
+    @Benchmark
+    public GroupingProjector measureGroupBySumInteger() {
+        GroupingProjector groupingProjector = createProjector(SumAggregation.NAME, DataTypes.INTEGER);
+        SpareRow row = new SpareRow();
+        for (int i = 0; i < NUM_ROWS; i++) {
+            row.value = i % 200;
+            groupingProjector.setNextRow(row);
+        }
+        groupingProjector.finish(RepeatHandle.UNSUPPORTED);
+        return groupingProjector;
+    }
+}
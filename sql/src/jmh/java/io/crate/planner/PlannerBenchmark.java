@@ -0,0 +1,165 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.planner;
+
+import io.crate.analyze.Analysis;
+import io.crate.analyze.Analyzer;
+import io.crate.analyze.ParameterContext;
+import io.crate.analyze.repositories.RepositorySettingsModule;
+import io.crate.core.collections.TreeMapBuilder;
+import io.crate.executor.transport.RepositoryService;
+import io.crate.metadata.*;
+import io.crate.metadata.table.SchemaInfo;
+import io.crate.metadata.table.TableInfo;
+import io.crate.metadata.table.TestingTableInfo;
+import io.crate.operation.aggregation.impl.AggregationImplModule;
+import io.crate.operation.operator.OperatorModule;
+import io.crate.operation.predicate.PredicateModule;
+import io.crate.operation.scalar.ScalarFunctionModule;
+import io.crate.operation.tablefunctions.TableFunctionModule;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.Statement;
+import io.crate.testing.TestingHelpers;
+import io.crate.types.DataTypes;
+import org.elasticsearch.action.admin.indices.template.put.TransportPutIndexTemplateAction;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.common.inject.Injector;
+import org.elasticsearch.common.inject.ModulesBuilder;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.settings.SettingsModule;
+import org.elasticsearch.test.cluster.NoopClusterService;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures analyzer and planner latency of typical statements against a mocked two node cluster.
+ * Parsing is excluded, the statements are parsed once during setup.
+ */
+@State(value = Scope.Benchmark)
+public class PlannerBenchmark {
+
+    private static final ParameterContext PARAMETER_CONTEXT =
+        new ParameterContext(new Object[0], new Object[0][], Schemas.DEFAULT_SCHEMA_NAME);
+
+    @Param(value = {
+        "select name from users where id = 1",
+        "select name, date from users where name = 'Arthur' order by date desc limit 100",
+        "select name, count(*) from users group by name order by 2 desc limit 10",
+        "select count(*), max(date) from users where text = 'foo'",
+        "insert into users (id, name, date) values (1, 'Arthur', 0)",
+        "update users set name = 'Trillian' where id = 1",
+        "delete from users where name = 'Arthur'"
+    })
+    public String statement;
+
+    private ThreadPool threadPool;
+    private Analyzer analyzer;
+    private Planner planner;
+    private Statement parsedStatement;
+    private Analysis analysis;
+
+    @Setup
+    public void prepare() {
+        threadPool = TestingHelpers.newMockedThreadPool();
+        Injector injector = new ModulesBuilder()
+            .add(new AggregationImplModule())
+            .add(new ScalarFunctionModule())
+            .add(new TableFunctionModule())
+            .add(new PredicateModule())
+            .add(new OperatorModule())
+            .add(new RepositorySettingsModule())
+            .add(new SettingsModule(Settings.EMPTY))
+            .add(new BenchmarkModule())
+            .createInjector();
+        analyzer = injector.getInstance(Analyzer.class);
+        planner = injector.getInstance(Planner.class);
+        parsedStatement = SqlParser.createStatement(statement);
+        analysis = analyzer.analyze(parsedStatement, PARAMETER_CONTEXT);
+    }
+
+    @TearDown
+    public void cleanup() throws InterruptedException {
+        threadPool.shutdown();
+        threadPool.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public Analysis measureAnalyze() {
+        return analyzer.analyze(parsedStatement, PARAMETER_CONTEXT);
+    }
+
+    @Benchmark
+    public Plan measurePlan() {
+        return planner.plan(analysis, UUID.randomUUID());
+    }
+
+    @Benchmark
+    public Plan measureAnalyzeAndPlan() {
+        return planner.plan(analyzer.analyze(parsedStatement, PARAMETER_CONTEXT), UUID.randomUUID());
+    }
+
+    private class BenchmarkModule extends MetaDataModule {
+
+        @Override
+        protected void configure() {
+            bind(RepositoryService.class).toInstance(mock(RepositoryService.class));
+            bind(TableStatsService.class).toInstance(mock(TableStatsService.class));
+            bind(ThreadPool.class).toInstance(threadPool);
+            bind(IndexNameExpressionResolver.class).toInstance(new IndexNameExpressionResolver(Settings.EMPTY));
+            bind(FulltextAnalyzerResolver.class).toInstance(mock(FulltextAnalyzerResolver.class));
+            bind(ClusterService.class).toInstance(new NoopClusterService());
+            bind(TransportPutIndexTemplateAction.class).toInstance(mock(TransportPutIndexTemplateAction.class));
+            super.configure();
+        }
+
+        @Override
+        protected void bindSchemas() {
+            super.bindSchemas();
+            TableIdent userTableIdent = new TableIdent(Schemas.DEFAULT_SCHEMA_NAME, "users");
+            Routing routing = new Routing(TreeMapBuilder.<String, Map<String, List<Integer>>>newMapBuilder()
+                .put("nodeOne", TreeMapBuilder.<String, List<Integer>>newMapBuilder().put("users", Arrays.asList(1, 2)).map())
+                .put("nodeTwo", TreeMapBuilder.<String, List<Integer>>newMapBuilder().put("users", Arrays.asList(3, 4)).map())
+                .map());
+            TableInfo userTableInfo = TestingTableInfo.builder(userTableIdent, routing)
+                .add("name", DataTypes.STRING, null)
+                .add("id", DataTypes.LONG, null)
+                .add("date", DataTypes.TIMESTAMP, null)
+                .add("text", DataTypes.STRING, null, ReferenceInfo.IndexType.ANALYZED)
+                .addPrimaryKey("id")
+                .clusteredBy("id")
+                .build();
+            SchemaInfo schemaInfo = mock(SchemaInfo.class);
+            when(schemaInfo.getTableInfo(userTableIdent.name())).thenReturn(userTableInfo);
+            schemaBinder.addBinding(Schemas.DEFAULT_SCHEMA_NAME).toInstance(schemaInfo);
+        }
+    }
+}
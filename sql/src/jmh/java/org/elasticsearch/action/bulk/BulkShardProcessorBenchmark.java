@@ -0,0 +1,136 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import io.crate.analyze.symbol.Reference;
+import io.crate.executor.transport.ShardResponse;
+import io.crate.executor.transport.ShardUpsertRequest;
+import io.crate.metadata.ReferenceIdent;
+import io.crate.metadata.ReferenceInfo;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.TableIdent;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.admin.indices.create.TransportBulkCreateIndicesAction;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.BitSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures how fast the {@link BulkShardProcessor} partitions items into shard requests.
+ * The request executor acknowledges every request immediately, so no transport or indexing cost is included.
+ */
+@State(value = Scope.Benchmark)
+public class BulkShardProcessorBenchmark {
+
+    private static final int NUM_ITEMS = 100_000;
+    private static final int NUM_SHARDS = 6;
+
+    @Param(value = {"100", "1000", "10000"})
+    public int bulkSize;
+
+    private final BulkRequestExecutor<ShardUpsertRequest> requestExecutor = new BulkRequestExecutor<ShardUpsertRequest>() {
+        @Override
+        public void execute(ShardUpsertRequest request, ActionListener<ShardResponse> listener) {
+            ShardResponse response = new ShardResponse();
+            for (int i = 0; i < request.itemIndices().size(); i++) {
+                response.add(request.itemIndices().get(i));
+            }
+            listener.onResponse(response);
+        }
+    };
+
+    private Reference[] insertColumns;
+    private ShardId[] shardIds;
+    private String[] ids;
+    private BytesRef[] values;
+    private BulkRetryCoordinatorPool coordinatorPool;
+    private ClusterService clusterService;
+    private TransportBulkCreateIndicesAction createIndicesAction;
+
+    @Setup
+    public void prepare() {
+        TableIdent charactersIdent = new TableIdent(null, "characters");
+        insertColumns = new Reference[]{new Reference(new ReferenceInfo(
+            new ReferenceIdent(charactersIdent, "name"), RowGranularity.DOC, DataTypes.STRING))};
+        shardIds = new ShardId[NUM_SHARDS];
+        for (int i = 0; i < NUM_SHARDS; i++) {
+            shardIds[i] = new ShardId(charactersIdent.indexName(), i);
+        }
+        ids = new String[NUM_ITEMS];
+        values = new BytesRef[NUM_ITEMS];
+        for (int i = 0; i < NUM_ITEMS; i++) {
+            ids[i] = String.valueOf(i);
+            values[i] = new BytesRef("Arthur" + i);
+        }
+
+        BulkRetryCoordinator coordinator = new BulkRetryCoordinator(mock(ThreadPool.class));
+        coordinatorPool = mock(BulkRetryCoordinatorPool.class);
+        when(coordinatorPool.coordinator(any(ShardId.class))).thenReturn(coordinator);
+        when(coordinatorPool.shardBatchStats()).thenReturn(new ShardBatchStats());
+        clusterService = mock(ClusterService.class);
+        createIndicesAction = mock(TransportBulkCreateIndicesAction.class);
+    }
+
+    @Benchmark
+    public BitSet measureBuildRequests() throws ExecutionException, InterruptedException {
+        ShardUpsertRequest.Builder builder = new ShardUpsertRequest.Builder(
+            TimeValue.timeValueSeconds(60),
+            false,
+            false,
+            null,
+            insertColumns,
+            UUID.randomUUID()
+        );
+        BulkShardProcessor<ShardUpsertRequest> bulkShardProcessor = new BulkShardProcessor<>(
+            clusterService,
+            createIndicesAction,
+            new IndexNameExpressionResolver(Settings.EMPTY),
+            Settings.EMPTY,
+            coordinatorPool,
+            false,
+            bulkSize,
+            builder,
+            requestExecutor,
+            UUID.randomUUID()
+        );
+        for (int i = 0; i < NUM_ITEMS; i++) {
+            bulkShardProcessor.addForExistingShard(shardIds[i % NUM_SHARDS],
+                new ShardUpsertRequest.Item(ids[i], null, new Object[]{values[i]}, null), null);
+        }
+        bulkShardProcessor.close();
+        return bulkShardProcessor.result().get();
+    }
+}
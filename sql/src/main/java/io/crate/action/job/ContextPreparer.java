@@ -48,6 +48,7 @@ import io.crate.operation.join.NestedLoopOperation;
 import io.crate.operation.projectors.FlatProjectorChain;
 import io.crate.operation.projectors.RowDownstreamFactory;
 import io.crate.operation.projectors.RowReceiver;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.distribution.UpstreamPhase;
 import io.crate.planner.node.ExecutionPhase;
@@ -334,7 +335,21 @@ public class ContextPreparer extends AbstractComponent {
         /**
          * Retrieve the rowReceiver of the downstream of phase
          */
-        RowReceiver getRowReceiver(UpstreamPhase phase, int pageSize) {
+        /**
+         * @return new stats for an operation of the job, the rows of each projection are only counted if the
+         *         job is profiled
+         */
+        OperationStats newOperationStats() {
+            return new OperationStats(contextBuilder.profile());
+        }
+
+        /**
+         * @param ramAccountingContext context of the phase, pages for a downstream on the same node are accounted to it
+         */
+        RowReceiver getRowReceiver(UpstreamPhase phase,
+                                   int pageSize,
+                                   OperationStats stats,
+                                   @Nullable RamAccountingContext ramAccountingContext) {
             NodeOperation nodeOperation = opCtx.nodeOperationMap.get(phase.executionPhaseId());
             if (nodeOperation == null) {
                 return handlerPhaseRowReceiver(phase.executionPhaseId());
@@ -353,7 +368,7 @@ public class ContextPreparer extends AbstractComponent {
                 case BROADCAST:
                 case MODULO:
                     RowReceiver downstream = rowDownstreamFactory.createDownstream(
-                            nodeOperation, phase.distributionInfo(), jobId(), pageSize);
+                            nodeOperation, phase.distributionInfo(), jobId(), pageSize, stats, ramAccountingContext);
                     traceGetRowReceiver(
                             phase, phase.distributionInfo().distributionType().toString(), nodeOperation, downstream);
                     return downstream;
@@ -421,13 +436,16 @@ public class ContextPreparer extends AbstractComponent {
                 throw new IllegalArgumentException("The routing of the countNode doesn't contain the current nodeId");
             }
 
-            RowReceiver rowReceiver = context.getRowReceiver(phase, 0);
+            OperationStats stats = context.newOperationStats();
+            // the count phase sends a single row per node, so there's nothing to account
+            RowReceiver rowReceiver = context.getRowReceiver(phase, 0, stats, null);
             context.registerSubContext(new CountContext(
                     phase.executionPhaseId(),
                     countOperation,
                     rowReceiver,
                     indexShardMap,
-                    phase.whereClause()
+                    phase.whereClause(),
+                    stats
             ));
             return true;
         }
@@ -439,7 +457,10 @@ public class ContextPreparer extends AbstractComponent {
             boolean upstreamOnSameNode = context.opCtx.upstreamsAreOnSameNode(phase.executionPhaseId());
 
             int pageSize = Paging.getWeightedPageSize(Paging.PAGE_SIZE, 1.0d / phase.executionNodes().size());
-            RowReceiver rowReceiver = context.getRowReceiver(phase, pageSize);
+            OperationStats stats = context.newOperationStats();
+            // without projections there is no sub context of this phase which would close the ramAccountingContext
+            RowReceiver rowReceiver = context.getRowReceiver(phase, pageSize, stats,
+                    upstreamOnSameNode && phase.projections().isEmpty() ? null : ramAccountingContext);
 
             if (upstreamOnSameNode) {
                 if (!phase.projections().isEmpty()) {
@@ -450,7 +471,8 @@ public class ContextPreparer extends AbstractComponent {
                             pageDownstreamFactory.projectorFactory(),
                             phase.projections(),
                             rowReceiver,
-                            ramAccountingContext);
+                            ramAccountingContext,
+                            stats);
                     context.registerRowReceiver(phase.executionPhaseId(), projectorChainContext.rowReceiver());
                     context.registerSubContext(projectorChainContext);
                     return true;
@@ -463,11 +485,12 @@ public class ContextPreparer extends AbstractComponent {
             Tuple<PageDownstream, FlatProjectorChain> pageDownstreamProjectorChain =
                     pageDownstreamFactory.createMergeNodePageDownstream(
                             phase,
-                            rowReceiver,
+                            stats.countRowsOut(rowReceiver),
                             false,
                             ramAccountingContext,
                             // no separate executor because TransportDistributedResultAction already runs in a threadPool
-                            Optional.<Executor>absent());
+                            Optional.<Executor>absent(),
+                            stats);
 
 
             context.registerSubContext(new PageDownstreamContext(
@@ -479,7 +502,8 @@ public class ContextPreparer extends AbstractComponent {
                     DataTypes.getStreamer(phase.inputTypes()),
                     ramAccountingContext,
                     phase.numUpstreams(),
-                    pageDownstreamProjectorChain.v2()));
+                    pageDownstreamProjectorChain.v2(),
+                    stats));
             return true;
         }
 
@@ -487,15 +511,17 @@ public class ContextPreparer extends AbstractComponent {
         @Override
         public Boolean visitRoutedCollectPhase(final RoutedCollectPhase phase, final PreparerContext context) {
             RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(circuitBreaker, phase);
+            OperationStats stats = context.newOperationStats();
             RowReceiver rowReceiver = context.getRowReceiver(phase,
-                    MoreObjects.firstNonNull(phase.nodePageSizeHint(), Paging.PAGE_SIZE));
+                    MoreObjects.firstNonNull(phase.nodePageSizeHint(), Paging.PAGE_SIZE), stats, ramAccountingContext);
             context.registerSubContext(new JobCollectContext(
                     phase,
                     collectOperation,
                     clusterService.state().nodes().localNodeId(),
                     ramAccountingContext,
                     rowReceiver,
-                    context.sharedShardContexts
+                    context.sharedShardContexts,
+                    stats
             ));
             return true;
         }
@@ -503,14 +529,16 @@ public class ContextPreparer extends AbstractComponent {
         @Override
         public Boolean visitCollectPhase(CollectPhase phase, PreparerContext context) {
             RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(circuitBreaker, phase);
-            RowReceiver rowReceiver = context.getRowReceiver(phase, Paging.PAGE_SIZE);
+            OperationStats stats = context.newOperationStats();
+            RowReceiver rowReceiver = context.getRowReceiver(phase, Paging.PAGE_SIZE, stats, ramAccountingContext);
             context.registerSubContext(new JobCollectContext(
                     phase,
                     collectOperation,
                     clusterService.state().nodes().localNodeId(),
                     ramAccountingContext,
                     rowReceiver,
-                    context.sharedShardContexts
+                    context.sharedShardContexts,
+                    stats
             ));
             return true;
         }
@@ -550,7 +578,10 @@ public class ContextPreparer extends AbstractComponent {
         @Override
         public Boolean visitNestedLoopPhase(NestedLoopPhase phase, PreparerContext context) {
             RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(circuitBreaker, phase);
-            RowReceiver downstreamRowReceiver = context.getRowReceiver(phase, Paging.PAGE_SIZE);
+            OperationStats stats = context.newOperationStats();
+            // the ramAccountingContext is closed by the contexts of the inputs, they may finish before the last page
+            RowReceiver downstreamRowReceiver = stats.countRowsOut(
+                    context.getRowReceiver(phase, Paging.PAGE_SIZE, stats, null));
 
             FlatProjectorChain flatProjectorChain;
             if (!phase.projections().isEmpty()) {
@@ -559,7 +590,8 @@ public class ContextPreparer extends AbstractComponent {
                         ramAccountingContext,
                         phase.projections(),
                         downstreamRowReceiver,
-                        phase.jobId()
+                        phase.jobId(),
+                        stats
                 );
             } else {
                 flatProjectorChain = FlatProjectorChain.withReceivers(Collections.singletonList(downstreamRowReceiver));
@@ -593,7 +625,8 @@ public class ContextPreparer extends AbstractComponent {
                     flatProjectorChain,
                     nestedLoopOperation,
                 left,
-                right
+                right,
+                stats
             ));
             return true;
         }
@@ -609,12 +642,14 @@ public class ContextPreparer extends AbstractComponent {
                 ctx.phaseIdToRowReceivers.put(toKey(nlPhaseId, inputId), downstream);
                 return null;
             }
+            OperationStats stats = ctx.newOperationStats();
             Tuple<PageDownstream, FlatProjectorChain> pageDownstreamWithChain = pageDownstreamFactory.createMergeNodePageDownstream(
                     mergePhase,
-                    downstream,
+                    stats.countRowsOut(downstream),
                     true,
                     ramAccountingContext,
-                    Optional.of(threadPool.executor(ThreadPool.Names.SEARCH))
+                    Optional.of(stats.measured(threadPool.executor(ThreadPool.Names.SEARCH))),
+                    stats
             );
             return new PageDownstreamContext(
                     pageDownstreamContextLogger,
@@ -625,7 +660,8 @@ public class ContextPreparer extends AbstractComponent {
                     StreamerVisitor.streamerFromOutputs(mergePhase),
                     ramAccountingContext,
                     mergePhase.numUpstreams(),
-                    pageDownstreamWithChain.v2()
+                    pageDownstreamWithChain.v2(),
+                    stats
             );
         }
     }
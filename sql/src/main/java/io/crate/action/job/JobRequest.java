@@ -36,13 +36,22 @@ public class JobRequest extends TransportRequest {
     private UUID jobId;
     private String coordinatorNodeId;
     private Collection<? extends NodeOperation> nodeOperations;
+    private boolean profile;
 
     public JobRequest() {}
 
     public JobRequest(UUID jobId, String coordinatorNodeId, Collection<? extends NodeOperation> nodeOperations) {
+        this(jobId, coordinatorNodeId, nodeOperations, false);
+    }
+
+    public JobRequest(UUID jobId,
+                      String coordinatorNodeId,
+                      Collection<? extends NodeOperation> nodeOperations,
+                      boolean profile) {
         this.jobId = jobId;
         this.coordinatorNodeId = coordinatorNodeId;
         this.nodeOperations = nodeOperations;
+        this.profile = profile;
     }
 
     public UUID jobId() {
@@ -57,6 +66,13 @@ public class JobRequest extends TransportRequest {
         return coordinatorNodeId;
     }
 
+    /**
+     * @return true if the execution statistics of the job are kept for EXPLAIN ANALYZE
+     */
+    public boolean profile() {
+        return profile;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
@@ -70,6 +86,7 @@ public class JobRequest extends TransportRequest {
             nodeOperations.add(new NodeOperation(in));
         }
         this.nodeOperations = nodeOperations;
+        profile = in.readBoolean();
     }
 
     @Override
@@ -84,5 +101,6 @@ public class JobRequest extends TransportRequest {
         for (NodeOperation nodeOperation : nodeOperations) {
             nodeOperation.writeTo(out);
         }
+        out.writeBoolean(profile);
     }
 }
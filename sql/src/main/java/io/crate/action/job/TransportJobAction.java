@@ -80,7 +80,8 @@ public class TransportJobAction implements NodeAction<JobRequest, JobResponse> {
 
     @Override
     public void nodeOperation(final JobRequest request, final ActionListener<JobResponse> actionListener) {
-        JobExecutionContext.Builder contextBuilder = jobContextService.newBuilder(request.jobId(), request.coordinatorNodeId());
+        JobExecutionContext.Builder contextBuilder = jobContextService.newBuilder(
+            request.jobId(), request.coordinatorNodeId(), request.profile());
 
         SharedShardContexts sharedShardContexts = new SharedShardContexts(indicesService);
         List<ListenableFuture<Bucket>> directResponseFutures = contextPreparer.prepareOnRemote(
@@ -0,0 +1,113 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.action.sql;
+
+import java.util.Arrays;
+
+/**
+ * The argument sets of a bulk request.
+ * <p>
+ * The argument sets may be parsed lazily from the request body, so they are meant to be read in order
+ * using {@link #get(int)}. Only the current argument set is kept in memory then.
+ */
+public abstract class BulkArgs {
+
+    public static final BulkArgs EMPTY = of(SQLBulkRequest.EMPTY_BULK_ARGS);
+
+    public static BulkArgs of(Object[][] bulkArgs) {
+        return new ArrayBulkArgs(bulkArgs);
+    }
+
+    /**
+     * @return the number of argument sets
+     */
+    public abstract int size();
+
+    /**
+     * Returns the argument set at the given position. Reading the argument sets in order is cheap,
+     * reading a previous one may require to parse the argument sets again.
+     */
+    public abstract Object[] get(int idx);
+
+    /**
+     * @throws IllegalArgumentException if the argument sets have a different number of arguments
+     */
+    public abstract void validate() throws IllegalArgumentException;
+
+    /**
+     * Materializes all argument sets
+     */
+    public Object[][] toArray() {
+        Object[][] bulkArgs = new Object[size()][];
+        for (int i = 0; i < bulkArgs.length; i++) {
+            bulkArgs[i] = get(i);
+        }
+        return bulkArgs;
+    }
+
+    protected static IllegalArgumentException mixedNumberOfArguments() {
+        return new IllegalArgumentException("mixed number of arguments inside bulk arguments");
+    }
+
+    private static class ArrayBulkArgs extends BulkArgs {
+
+        private final Object[][] bulkArgs;
+
+        private ArrayBulkArgs(Object[][] bulkArgs) {
+            this.bulkArgs = bulkArgs;
+        }
+
+        @Override
+        public int size() {
+            return bulkArgs.length;
+        }
+
+        @Override
+        public Object[] get(int idx) {
+            return bulkArgs[idx];
+        }
+
+        @Override
+        public void validate() throws IllegalArgumentException {
+            if (bulkArgs.length == 0) {
+                return;
+            }
+            int length = bulkArgs[0].length;
+            for (Object[] bulkArg : bulkArgs) {
+                if (bulkArg.length != length) {
+                    throw mixedNumberOfArguments();
+                }
+            }
+        }
+
+        @Override
+        public Object[][] toArray() {
+            return bulkArgs;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.deepToString(bulkArgs);
+        }
+    }
+}
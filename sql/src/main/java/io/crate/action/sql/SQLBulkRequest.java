@@ -26,12 +26,11 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
 import java.io.IOException;
-import java.util.Arrays;
 
 public class SQLBulkRequest extends SQLBaseRequest {
 
     public final static Object[][] EMPTY_BULK_ARGS = new Object[0][];
-    private Object[][] bulkArgs;
+    private BulkArgs bulkArgs = BulkArgs.EMPTY;
 
     public SQLBulkRequest() { // used for serialization
 
@@ -46,12 +45,28 @@ public class SQLBulkRequest extends SQLBaseRequest {
         bulkArgs(bulkArgs);
     }
 
+    public SQLBulkRequest(String stmt, BulkArgs bulkArgs) {
+        super(stmt);
+        bulkArgs(bulkArgs);
+    }
+
+    /**
+     * Materializes all argument sets, use {@link #bulkArgSets()} to read them one by one
+     */
     public Object[][] bulkArgs() {
+        return bulkArgs.toArray();
+    }
+
+    public BulkArgs bulkArgSets() {
         return bulkArgs;
     }
 
     public void bulkArgs(Object[][] bulkArgs){
-        this.bulkArgs = MoreObjects.firstNonNull(bulkArgs, EMPTY_BULK_ARGS);
+        this.bulkArgs = BulkArgs.of(MoreObjects.firstNonNull(bulkArgs, EMPTY_BULK_ARGS));
+    }
+
+    public void bulkArgs(BulkArgs bulkArgs){
+        this.bulkArgs = MoreObjects.firstNonNull(bulkArgs, BulkArgs.EMPTY);
     }
 
     @Override
@@ -60,16 +75,17 @@ public class SQLBulkRequest extends SQLBaseRequest {
 
         int bulkArgsLength = in.readVInt();
         if (bulkArgsLength == 0) {
-            bulkArgs = EMPTY_BULK_ARGS;
+            bulkArgs = BulkArgs.EMPTY;
         } else {
-            bulkArgs = new Object[bulkArgsLength][];
+            Object[][] args = new Object[bulkArgsLength][];
             for (int i = 0; i < bulkArgsLength; i++) {
                 int bulkArgLength = in.readVInt();
-                bulkArgs[i] = new Object[bulkArgLength];
+                args[i] = new Object[bulkArgLength];
                 for (int j = 0; j < bulkArgLength; j++) {
-                    bulkArgs[i][j] = in.readGenericValue();
+                    args[i][j] = in.readGenericValue();
                 }
             }
+            bulkArgs = BulkArgs.of(args);
         }
     }
 
@@ -77,9 +93,10 @@ public class SQLBulkRequest extends SQLBaseRequest {
     public void writeTo(StreamOutput out) throws IOException {
         super.writeTo(out);
 
-        out.writeVInt(bulkArgs.length);
-        for (int i = 0, bulkArgsLength = bulkArgs.length; i < bulkArgsLength; i++) {
-            Object[] bulkArg = bulkArgs[i];
+        // the argument sets are written one by one so lazily parsed ones are never materialized at once
+        out.writeVInt(bulkArgs.size());
+        for (int i = 0, bulkArgsLength = bulkArgs.size(); i < bulkArgsLength; i++) {
+            Object[] bulkArg = bulkArgs.get(i);
             out.writeVInt(bulkArg.length);
             for (int i1 = 0, bulkArgLength = bulkArg.length; i1 < bulkArgLength; i1++) {
                 out.writeGenericValue(bulkArg[i1]);
@@ -91,6 +108,6 @@ public class SQLBulkRequest extends SQLBaseRequest {
     public String toString() {
         return MoreObjects.toStringHelper(this)
                 .add("stmt", stmt())
-                .add("bulkArgs", Arrays.asList(bulkArgs)).toString();
+                .add("bulkArgs", bulkArgs).toString();
     }
 }
@@ -38,6 +38,10 @@ public class SQLBulkRequestBuilder extends ActionRequestBuilder<SQLBulkRequest,
         request.bulkArgs(bulkArgs);
     }
 
+    public void bulkArgs(BulkArgs bulkArgs) {
+        request.bulkArgs(bulkArgs);
+    }
+
     public void includeTypesOnResponse(boolean includeTypes) {
         request.includeTypesOnResponse(includeTypes);
     }
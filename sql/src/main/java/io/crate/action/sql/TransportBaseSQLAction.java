@@ -34,6 +34,7 @@ import io.crate.executor.transport.kill.KillResponse;
 import io.crate.executor.transport.kill.TransportKillJobsNodeAction;
 import io.crate.metadata.PartitionName;
 import io.crate.operation.collect.StatsTables;
+import io.crate.operation.reference.sys.query.SlowQuery;
 import io.crate.planner.Plan;
 import io.crate.planner.PlanPrinter;
 import io.crate.planner.Planner;
@@ -46,6 +47,8 @@ import org.elasticsearch.action.support.TransportAction;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
 import org.elasticsearch.common.inject.Provider;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
 import org.elasticsearch.index.IndexNotFoundException;
@@ -65,10 +68,9 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.NodeDisconnectedException;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.IOException;
-import java.util.Collections;
-import java.util.Locale;
-import java.util.UUID;
+import java.util.*;
 
 public abstract class TransportBaseSQLAction<TRequest extends SQLBaseRequest, TResponse extends SQLBaseResponse>
     extends TransportAction<TRequest, TResponse> {
@@ -137,10 +139,11 @@ public abstract class TransportBaseSQLAction<TRequest extends SQLBaseRequest, TR
         long startTime = System.nanoTime();
         statsTables.jobStarted(jobId, request.stmt());
 
-        doExecute(request, new StatsTableListenerWrapper<>(listener, statsTables, jobId), jobId, startTime);
+        doExecute(request, new StatsTableListenerWrapper<>(listener, statsTables, jobId, request, startTime), jobId, startTime);
     }
 
-    private void doExecute(TRequest request, ActionListener<TResponse> listener, UUID jobId, long startTime) {
+    private void doExecute(TRequest request, StatsTableListenerWrapper<TResponse> statsListener, UUID jobId, long startTime) {
+        ActionListener<TResponse> listener = statsListener;
         if (disabled) {
             listener.onFailure(new NodeDisconnectedException(clusterService.localNode(), actionName));
             return;
@@ -160,6 +163,7 @@ public abstract class TransportBaseSQLAction<TRequest extends SQLBaseRequest, TR
             Plan plan = planner.plan(analysis, jobId);
             assert plan != null;
             tracePlan(plan);
+            statsListener.plan(plan);
             executePlan(executor, analysis, plan, listener, request, startTime);
         } catch (Throwable e) {
             logger.debug("Error executing SQLRequest", e);
@@ -297,27 +301,115 @@ public abstract class TransportBaseSQLAction<TRequest extends SQLBaseRequest, TR
 
 
     private static class StatsTableListenerWrapper<TResponse extends SQLBaseResponse> implements ActionListener<TResponse> {
+
+        private static final ESLogger LOGGER = Loggers.getLogger(StatsTableListenerWrapper.class);
+
         private final ActionListener<TResponse> delegate;
         private final StatsTables statsTables;
         private final UUID jobId;
-
-        StatsTableListenerWrapper(ActionListener<TResponse> delegate, StatsTables statsTables, UUID jobId) {
+        private final SQLBaseRequest request;
+        private final String stmt;
+        private final long startTime;
+        @Nullable
+        private volatile Plan plan;
+
+        StatsTableListenerWrapper(ActionListener<TResponse> delegate,
+                                  StatsTables statsTables,
+                                  UUID jobId,
+                                  SQLBaseRequest request,
+                                  long startTime) {
             this.delegate = delegate;
             this.statsTables = statsTables;
             this.jobId = jobId;
+            this.request = request;
+            this.stmt = request.stmt();
+            this.startTime = startTime;
+        }
+
+        /**
+         * The plan which is executed, it is part of the slow query log entry if the statement takes too long.
+         */
+        void plan(Plan plan) {
+            this.plan = plan;
         }
 
         @Override
         public void onResponse(TResponse tResponse) {
             delegate.onResponse(tResponse);
+            long duration = System.nanoTime() - startTime;
+            long rowCount = rowCount(tResponse);
             statsTables.jobFinished(jobId, null);
+            statsTables.queryFinished(stmt, duration, rowCount, false);
+            if (statsTables.isSlowQuery(duration)) {
+                recordSlowQuery(duration, rowCount, null);
+            }
         }
 
         @Override
         public void onFailure(Throwable t) {
             SQLActionException e = buildSQLActionException(t);
             delegate.onFailure(e);
+            long duration = System.nanoTime() - startTime;
             statsTables.jobFinished(jobId, e.getMessage());
+            statsTables.queryFinished(stmt, duration, -1L, true);
+            if (statsTables.isSlowQuery(duration)) {
+                recordSlowQuery(duration, -1L, e.getMessage());
+            }
+        }
+
+        private void recordSlowQuery(long duration, long rowCount, @Nullable String error) {
+            Set<String> nodes = new TreeSet<>();
+            Set<String> shards = new TreeSet<>();
+            String planJson = null;
+            Plan plan = this.plan;
+            if (plan != null) {
+                try {
+                    Map<String, Object> planMap = PlanPrinter.objectMap(plan);
+                    SlowQuery.collectNodesAndShards(planMap, nodes, shards);
+                    planJson = JsonXContent.contentBuilder().value(planMap).bytes().toUtf8();
+                } catch (Throwable t) {
+                    LOGGER.debug("Failed to print plan of slow query", t);
+                }
+            }
+            statsTables.slowQueryFinished(new SlowQuery(
+                jobId,
+                stmt,
+                parameters(request, statsTables.redactSlowQueryParameters()),
+                planJson,
+                new ArrayList<>(nodes),
+                new ArrayList<>(shards),
+                statsTables.operationTimings(jobId),
+                duration,
+                rowCount,
+                error
+            ));
+        }
+
+        @Nullable
+        private static String parameters(SQLBaseRequest request, boolean redact) {
+            if (request instanceof SQLRequest) {
+                return SlowQuery.renderParameters(((SQLRequest) request).args(), BulkArgs.EMPTY, redact);
+            }
+            if (request instanceof SQLBulkRequest) {
+                return SlowQuery.renderParameters(SQLRequest.EMPTY_ARGS, ((SQLBulkRequest) request).bulkArgSets(), redact);
+            }
+            return null;
+        }
+
+        private static long rowCount(SQLBaseResponse response) {
+            if (response instanceof SQLResponse) {
+                return ((SQLResponse) response).rowCount();
+            }
+            if (response instanceof SQLBulkResponse) {
+                long rowCount = 0L;
+                for (SQLBulkResponse.Result result : ((SQLBulkResponse) response).results()) {
+                    if (result.rowCount() > 0) {
+                        rowCount += result.rowCount();
+                    }
+                }
+                return rowCount;
+            }
+            return -1L;
         }
     }
 
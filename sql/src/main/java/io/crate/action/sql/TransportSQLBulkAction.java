@@ -75,7 +75,7 @@ public class TransportSQLBulkAction extends TransportBaseSQLAction<SQLBulkReques
     @Override
     public ParameterContext getParamContext(SQLBulkRequest request) {
         return new ParameterContext(
-                SQLRequest.EMPTY_ARGS, request.bulkArgs(), request.getDefaultSchema(), request.getRequestFlags());
+                SQLRequest.EMPTY_ARGS, request.bulkArgSets(), request.getDefaultSchema(), request.getRequestFlags());
     }
 
     @Override
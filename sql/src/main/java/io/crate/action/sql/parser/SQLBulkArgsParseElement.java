@@ -22,6 +22,7 @@
 package io.crate.action.sql.parser;
 
 
+import io.crate.action.sql.BulkArgs;
 import org.elasticsearch.common.xcontent.XContentParser;
 
 import java.io.IOException;
@@ -38,8 +39,14 @@ public class SQLBulkArgsParseElement extends SQLArgsParseElement implements SQLP
             throw new SQLParseSourceException(context, "Field [" + parser.currentName() + "] has an invalid value");
         }
 
-        Object[][] params = parseSubArrays(context, parser);
-        context.bulkArgs(params);
+        if (context.source() == null) {
+            Object[][] params = parseSubArrays(context, parser);
+            context.bulkArgs(BulkArgs.of(params));
+        } else {
+            // the argument sets are only validated and counted here,
+            // they are parsed one by one from the source while the statement is analyzed
+            context.bulkArgs(countSubArrays(context, parser));
+        }
     }
 
     private Object[][] parseSubArrays(SQLXContentSourceContext context, XContentParser parser) throws IOException {
@@ -54,4 +61,39 @@ public class SQLBulkArgsParseElement extends SQLArgsParseElement implements SQLP
         }
         return list.toArray(new Object[list.size()][]);
     }
+
+    private BulkArgs countSubArrays(SQLXContentSourceContext context, XContentParser parser) throws IOException {
+        XContentParser.Token token;
+        int numArgSets = 0;
+        int numArgs = -1;
+        boolean mixedNumberOfArgs = false;
+        while((token = parser.nextToken()) != XContentParser.Token.END_ARRAY){
+            if(token == XContentParser.Token.START_ARRAY) {
+                int numSubArrayArgs = countSubArray(context, parser);
+                if (numArgs == -1) {
+                    numArgs = numSubArrayArgs;
+                } else if (numArgs != numSubArrayArgs) {
+                    mixedNumberOfArgs = true;
+                }
+                numArgSets++;
+            } else {
+                throw new SQLParseSourceException(context, "Field [" + parser.currentName() + "] has an invalid value");
+            }
+        }
+        return new XContentBulkArgs(context, numArgSets, mixedNumberOfArgs);
+    }
+
+    private int countSubArray(SQLXContentSourceContext context, XContentParser parser) throws IOException {
+        XContentParser.Token token;
+        int numArgs = 0;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+            if (token == XContentParser.Token.START_ARRAY || token == XContentParser.Token.START_OBJECT) {
+                parser.skipChildren();
+            } else if (token == null || (!token.isValue() && token != XContentParser.Token.VALUE_NULL)) {
+                throw new SQLParseSourceException(context, "Field [" + parser.currentName() + "] has an invalid value");
+            }
+            numArgs++;
+        }
+        return numArgs;
+    }
 }
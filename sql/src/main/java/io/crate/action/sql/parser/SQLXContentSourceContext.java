@@ -21,6 +21,11 @@
 
 package io.crate.action.sql.parser;
 
+import io.crate.action.sql.BulkArgs;
+import org.elasticsearch.common.bytes.BytesReference;
+
+import javax.annotation.Nullable;
+
 /**
  * Context for information gathered by parsing an XContent based sql request
  */
@@ -28,7 +33,8 @@ public class SQLXContentSourceContext {
 
     private String stmt;
     private Object[] args;
-    private Object[][] bulkArgs;
+    private BulkArgs bulkArgs;
+    private BytesReference source;
 
     public String stmt() {
         return stmt;
@@ -46,12 +52,23 @@ public class SQLXContentSourceContext {
         this.args = args;
     }
 
-
-    public Object[][] bulkArgs() {
+    public BulkArgs bulkArgs() {
         return bulkArgs;
     }
 
-    public void bulkArgs(Object[][] bulkArgs) {
+    public void bulkArgs(BulkArgs bulkArgs) {
         this.bulkArgs = bulkArgs;
     }
+
+    /**
+     * The parsed request body, the bulk args are parsed lazily from it if it is set
+     */
+    @Nullable
+    public BytesReference source() {
+        return source;
+    }
+
+    public void source(BytesReference source) {
+        this.source = source;
+    }
 }
@@ -67,6 +67,7 @@ public class SQLXContentSourceParser {
         XContentParser parser = null;
         try {
             if (source != null && source.length() != 0) {
+                context.source(source);
                 parser = XContentFactory.xContent(source).createParser(source);
                 parse(parser);
             }
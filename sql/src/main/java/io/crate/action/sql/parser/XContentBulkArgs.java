@@ -0,0 +1,132 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.action.sql.parser;
+
+import com.google.common.base.Throwables;
+import io.crate.action.sql.BulkArgs;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Bulk args which are parsed one argument set at a time from the body of the request.
+ * Only the current argument set is kept in memory, the body itself is held by the request anyway.
+ */
+class XContentBulkArgs extends BulkArgs {
+
+    private final SQLXContentSourceContext context;
+    private final BytesReference source;
+    private final int size;
+    private final boolean mixedNumberOfArgs;
+    private final SQLArgsParseElement argsParseElement = new SQLArgsParseElement();
+
+    private XContentParser parser;
+    private int nextIdx;
+    private int currentIdx = -1;
+    private Object[] current;
+
+    XContentBulkArgs(SQLXContentSourceContext context, int size, boolean mixedNumberOfArgs) {
+        assert context.source() != null : "source must be set to parse the bulk args lazily";
+        this.context = context;
+        this.source = context.source();
+        this.size = size;
+        this.mixedNumberOfArgs = mixedNumberOfArgs;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized Object[] get(int idx) {
+        if (idx < 0 || idx >= size) {
+            throw new IndexOutOfBoundsException(String.format(Locale.ENGLISH,
+                "bulk args index %d out of bounds, size is %d", idx, size));
+        }
+        if (idx == currentIdx) {
+            return current;
+        }
+        try {
+            if (parser == null || idx < nextIdx) {
+                reset();
+            }
+            while (nextIdx <= idx) {
+                parser.nextToken();
+                current = argsParseElement.parseSubArray(context, parser);
+                currentIdx = nextIdx;
+                nextIdx++;
+            }
+            if (nextIdx == size) {
+                close();
+            }
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+        return current;
+    }
+
+    @Override
+    public void validate() throws IllegalArgumentException {
+        if (mixedNumberOfArgs) {
+            throw mixedNumberOfArguments();
+        }
+    }
+
+    /**
+     * Positions a new parser in front of the first argument set
+     */
+    private void reset() throws IOException {
+        close();
+        nextIdx = 0;
+        currentIdx = -1;
+        current = null;
+        parser = XContentFactory.xContent(source).createParser(source);
+        parser.nextToken();
+        while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+            if (SQLXContentSourceParser.Fields.BULK_ARGS.equals(fieldName)) {
+                return;
+            }
+            parser.skipChildren();
+        }
+        close();
+        throw new IllegalStateException("Field [" + SQLXContentSourceParser.Fields.BULK_ARGS + "] not found in source");
+    }
+
+    private void close() {
+        if (parser != null) {
+            parser.close();
+            parser = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "XContentBulkArgs{size=" + size + "}";
+    }
+}
@@ -48,6 +48,7 @@ import io.crate.metadata.settings.SettingsAppliers;
 import io.crate.metadata.settings.StringSetting;
 import io.crate.metadata.table.Operation;
 import io.crate.metadata.table.TableInfo;
+import io.crate.operation.collect.files.CSVOptions;
 import io.crate.planner.projection.WriterProjection;
 import io.crate.sql.tree.*;
 import io.crate.types.CollectionType;
@@ -69,7 +70,7 @@ public class CopyStatementAnalyzer {
             new StringSetting("compression", ImmutableSet.of("gzip"), true);
 
     private static final StringSetting OUTPUT_FORMAT_SETTINGS =
-            new StringSetting("format", ImmutableSet.of("json_object", "json_array"), true);
+            new StringSetting("format", ImmutableSet.of("json_object", "json_array", "columnar"), true);
 
     private static final ImmutableMap<String, SettingsApplier> SETTINGS_APPLIERS =
             ImmutableMap.<String, SettingsApplier>builder()
@@ -108,6 +109,7 @@ public class CopyStatementAnalyzer {
             nodeFilters = discoveryNodePredicate(analysis.parameterContext().parameters(), properties.remove(NodeFilters.NAME));
             settings = settingsFromProperties(properties, context.expressionAnalyzer, context.expressionAnalysisContext);
         }
+        validateFileFormat(settings);
         Symbol uri = context.processExpression(node.path());
 
         if (!(uri.valueType() == DataTypes.STRING ||
@@ -118,6 +120,16 @@ public class CopyStatementAnalyzer {
         return new CopyFromAnalyzedStatement(tableInfo, settings, uri, partitionIdent, nodeFilters);
     }
 
+    private static void validateFileFormat(Settings settings) {
+        String format = settings.get(CSVOptions.FORMAT, "json");
+        if (format.equalsIgnoreCase("csv")) {
+            CSVOptions.fromSettings(settings, ImmutableList.<Symbol>of());
+        } else if (!format.equalsIgnoreCase("json") && !format.equalsIgnoreCase("columnar")) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "Invalid format '%s' for COPY FROM, supported formats are json, csv and columnar", format));
+        }
+    }
+
     private static Predicate<DiscoveryNode> discoveryNodePredicate(Object[] parameters, @Nullable Expression nodeFiltersExpression) {
         if (nodeFiltersExpression == null) {
             return Predicates.alwaysTrue();
@@ -176,6 +188,13 @@ public class CopyStatementAnalyzer {
                 outputs.add(DocReferenceConverter.convertIf(symbol));
             }
             columnsDefined = true;
+        } else if (outputFormat == WriterProjection.OutputFormat.COLUMNAR) {
+            // the columnar format stores typed values, so all top level columns are written instead of the source
+            outputNames = new ArrayList<>(tableInfo.columns().size());
+            for (ReferenceInfo referenceInfo : tableInfo.columns()) {
+                outputNames.add(referenceInfo.ident().columnIdent().name());
+                outputs.add(DocReferenceConverter.convertIf(new Reference(referenceInfo)));
+            }
         } else {
             Reference sourceRef;
             if (tableRelation.tableInfo().isPartitioned() && partitions.isEmpty()) {
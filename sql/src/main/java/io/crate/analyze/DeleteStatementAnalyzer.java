@@ -113,7 +113,7 @@ public class DeleteStatementAnalyzer extends DefaultTraversalVisitor<AnalyzedSta
         );
 
         if (context.parameterContext().hasBulkParams()) {
-            numNested = context.parameterContext().bulkParameters.length;
+            numNested = context.parameterContext().numBulkParams();
         }
         for (int i = 0; i < numNested; i++) {
             context.parameterContext().setBulkIdx(i);
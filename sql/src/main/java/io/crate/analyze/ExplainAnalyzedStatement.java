@@ -38,9 +38,15 @@ public class ExplainAnalyzedStatement implements AnalyzedStatement, AnalyzedRela
 
     final AnalyzedStatement statement;
     private final List<Field> fields;
+    private final boolean analyze;
 
     public ExplainAnalyzedStatement(String columnName, AnalyzedStatement statement) {
+        this(columnName, statement, false);
+    }
+
+    public ExplainAnalyzedStatement(String columnName, AnalyzedStatement statement, boolean analyze) {
         this.statement = statement;
+        this.analyze = analyze;
         this.fields = Collections.singletonList(new Field(this, new OutputName(columnName), DataTypes.OBJECT));
     }
 
@@ -53,6 +59,13 @@ public class ExplainAnalyzedStatement implements AnalyzedStatement, AnalyzedRela
         return statement;
     }
 
+    /**
+     * @return true if the statement is executed and its plan is annotated with the execution statistics
+     */
+    public boolean analyze() {
+        return analyze;
+    }
+
     @Override
     public <C, R> R accept(AnalyzedRelationVisitor<C, R> visitor, C context) {
         return visitor.visitExplain(this, context);
@@ -21,6 +21,7 @@
 
 package io.crate.analyze;
 
+import io.crate.action.sql.BulkArgs;
 import io.crate.action.sql.SQLBaseRequest;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
@@ -38,7 +39,7 @@ public class ParameterContext {
 
     final Object[] parameters;
 
-    final Object[][] bulkParameters;
+    final BulkArgs bulkParameters;
 
     @Nullable
     private final String defaultSchema;
@@ -49,10 +50,19 @@ public class ParameterContext {
 
     public ParameterContext(Object[] parameters, Object[][] bulkParameters,
                             @Nullable String defaultSchema, int headerFlags) {
+        this(parameters, BulkArgs.of(bulkParameters), defaultSchema, headerFlags);
+    }
+
+    /**
+     * @param bulkParameters the argument sets of a bulk request, they are read in order and only once by the
+     *                       analyzers so they can be parsed lazily
+     */
+    public ParameterContext(Object[] parameters, BulkArgs bulkParameters,
+                            @Nullable String defaultSchema, int headerFlags) {
         this.parameters = parameters;
         this.defaultSchema = defaultSchema;
-        if (bulkParameters.length > 0) {
-            validateBulkParams(bulkParameters);
+        if (bulkParameters.size() > 0) {
+            bulkParameters.validate();
         }
         this.bulkParameters = bulkParameters;
         this.headerFlags = headerFlags;
@@ -71,15 +81,6 @@ public class ParameterContext {
         return defaultSchema;
     }
 
-    private void validateBulkParams(Object[][] bulkParams) {
-        int length = bulkParams[0].length;
-        for (Object[] bulkParam : bulkParams) {
-            if (bulkParam.length != length) {
-                throw new IllegalArgumentException("mixed number of arguments inside bulk arguments");
-            }
-        }
-    }
-
     private static DataType guessTypeSafe(Object value) throws IllegalArgumentException {
         DataType guessedType = DataTypes.guessType(value);
         if (guessedType == null) {
@@ -90,7 +91,11 @@ public class ParameterContext {
     }
 
     public boolean hasBulkParams() {
-        return bulkParameters.length > 0;
+        return bulkParameters.size() > 0;
+    }
+
+    public int numBulkParams() {
+        return bulkParameters.size();
     }
 
     public void setBulkIdx(int i) {
@@ -99,7 +104,7 @@ public class ParameterContext {
 
     public Object[] parameters() {
         if (hasBulkParams()) {
-            return bulkParameters[currentIdx];
+            return bulkParameters.get(currentIdx);
         }
         return parameters;
     }
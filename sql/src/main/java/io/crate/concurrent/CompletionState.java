@@ -25,6 +25,8 @@ package io.crate.concurrent;
 public class CompletionState {
 
     private long bytesUsed = -1;
+    private long pageBytes = 0;
+    private long pageBytesCompressed = 0;
 
     public void bytesUsed(long bytesUsed) {
         this.bytesUsed = bytesUsed;
@@ -33,4 +35,23 @@ public class CompletionState {
     public long bytesUsed() {
         return bytesUsed;
     }
+
+    public void pageBytes(long pageBytes, long pageBytesCompressed) {
+        this.pageBytes = pageBytes;
+        this.pageBytesCompressed = pageBytesCompressed;
+    }
+
+    /**
+     * @return the uncompressed size of the received pages
+     */
+    public long pageBytes() {
+        return pageBytes;
+    }
+
+    /**
+     * @return the size of the received pages as they were transferred
+     */
+    public long pageBytesCompressed() {
+        return pageBytesCompressed;
+    }
 }
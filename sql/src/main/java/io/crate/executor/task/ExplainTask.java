@@ -24,25 +24,64 @@ package io.crate.executor.task;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import io.crate.action.sql.ResultReceiver;
+import io.crate.concurrent.CompletionListener;
+import io.crate.concurrent.CompletionMultiListener;
+import io.crate.core.collections.Row;
 import io.crate.core.collections.Row1;
 import io.crate.executor.Task;
 import io.crate.executor.TaskResult;
+import io.crate.executor.transport.profile.CollectProfileRequest;
+import io.crate.executor.transport.profile.CollectProfileResponse;
+import io.crate.executor.transport.profile.TransportCollectProfileNodeAction;
+import io.crate.jobs.PhaseProfile;
+import io.crate.operation.projectors.RowReceiver;
 import io.crate.planner.PlanPrinter;
 import io.crate.planner.node.management.ExplainPlan;
+import org.elasticsearch.action.ActionListener;
 
-import java.util.List;
-import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
 
+/**
+ * Returns the plan of a statement as a single row.
+ *
+ * For EXPLAIN ANALYZE the statement is executed first; its result is discarded.
+ * Each phase of the plan is then annotated with the execution statistics of the phase on each node
+ * and each projection with the number of rows it emitted on each node.
+ */
 public class ExplainTask implements Task {
 
     private final ExplainPlan explainPlan;
+    @Nullable
+    private final Task subTask;
+    @Nullable
+    private final TransportCollectProfileNodeAction collectProfileNodeAction;
 
     public ExplainTask(ExplainPlan explainPlan) {
+        this(explainPlan, null, null);
+    }
+
+    /**
+     * @param subTask the task of the subPlan which is executed if the plan is explained with ANALYZE
+     */
+    public ExplainTask(ExplainPlan explainPlan,
+                       @Nullable Task subTask,
+                       @Nullable TransportCollectProfileNodeAction collectProfileNodeAction) {
+        assert !explainPlan.analyze() || (subTask != null && collectProfileNodeAction != null)
+            : "subTask and collectProfileNodeAction are required for EXPLAIN ANALYZE";
         this.explainPlan = explainPlan;
+        this.subTask = subTask;
+        this.collectProfileNodeAction = collectProfileNodeAction;
     }
 
     @Override
     public void execute(ResultReceiver resultReceiver) {
+        if (explainPlan.analyze()) {
+            assert subTask != null : "subTask must not be null";
+            subTask.execute(new AnalyzeResultReceiver(resultReceiver));
+            return;
+        }
         try {
             Map<String, Object> map = PlanPrinter.objectMap(explainPlan.subPlan());
             resultReceiver.setNextRow(new Row1(map));
@@ -56,4 +95,165 @@ public class ExplainTask implements Task {
     public List<? extends ListenableFuture<TaskResult>> executeBulk() {
         throw new UnsupportedOperationException("ExplainTask cannot be executed as bulk operation");
     }
+
+    /**
+     * @return a copy of the planMap in which the phases and their projections are annotated with the given profiles
+     */
+    static Map<String, Object> annotate(Map<String, Object> planMap,
+                                        Map<Integer, Map<String, PhaseProfile>> profilesByPhase) {
+        Map<String, Object> annotated = new LinkedHashMap<>(planMap.size() + 1);
+        for (Map.Entry<String, Object> entry : planMap.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Map) {
+                //noinspection unchecked
+                value = annotate((Map<String, Object>) value, profilesByPhase);
+            }
+            annotated.put(entry.getKey(), value);
+        }
+        Object phaseId = planMap.get("id");
+        if (!planMap.containsKey("phaseType") || !(phaseId instanceof Integer)) {
+            return annotated;
+        }
+        Map<String, PhaseProfile> nodeProfiles = profilesByPhase.get(phaseId);
+        if (nodeProfiles == null) {
+            return annotated;
+        }
+        Map<String, Object> profile = new TreeMap<>();
+        for (Map.Entry<String, PhaseProfile> entry : nodeProfiles.entrySet()) {
+            profile.put(entry.getKey(), profileMap(entry.getValue()));
+        }
+        annotated.put("profile", profile);
+
+        Object projections = planMap.get("projections");
+        if (projections instanceof Iterable) {
+            List<Object> annotatedProjections = new ArrayList<>();
+            int projectionIdx = 0;
+            for (Object projection : (Iterable<?>) projections) {
+                Map<String, Object> annotatedProjection = new LinkedHashMap<>();
+                //noinspection unchecked
+                annotatedProjection.putAll((Map<String, Object>) projection);
+                Map<String, Object> projectionProfile = new TreeMap<>();
+                for (Map.Entry<String, PhaseProfile> entry : nodeProfiles.entrySet()) {
+                    long[] projectionRowsOut = entry.getValue().projectionRowsOut();
+                    if (projectionIdx < projectionRowsOut.length) {
+                        projectionProfile.put(entry.getKey(),
+                            Collections.singletonMap("rowsOut", projectionRowsOut[projectionIdx]));
+                    }
+                }
+                if (!projectionProfile.isEmpty()) {
+                    annotatedProjection.put("profile", projectionProfile);
+                }
+                annotatedProjections.add(annotatedProjection);
+                projectionIdx++;
+            }
+            annotated.put("projections", annotatedProjections);
+        }
+        return annotated;
+    }
+
+    private static Map<String, Object> profileMap(PhaseProfile phaseProfile) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", phaseProfile.name());
+        map.put("wallTime", millis(phaseProfile.wallTimeNanos()));
+        map.put("cpuTime", phaseProfile.cpuTimeNanos() < 0 ? null : millis(phaseProfile.cpuTimeNanos()));
+        map.put("rowsIn", phaseProfile.rowsIn());
+        map.put("rowsOut", phaseProfile.rowsOut());
+        map.put("pagesSent", phaseProfile.pagesSent());
+        map.put("bytesSent", phaseProfile.bytesSent());
+        map.put("pagesReceived", phaseProfile.pagesReceived());
+        map.put("bytesReceived", phaseProfile.bytesReceived());
+        map.put("pausedTime", millis(phaseProfile.pausedNanos()));
+        if (phaseProfile.error() != null) {
+            map.put("error", phaseProfile.error());
+        }
+        return map;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0d;
+    }
+
+    private class AnalyzeResultReceiver implements ResultReceiver {
+
+        private final ResultReceiver resultReceiver;
+        private final long startedNanos = System.nanoTime();
+        private long rows = 0L;
+        private CompletionListener listener = CompletionListener.NO_OP;
+
+        AnalyzeResultReceiver(ResultReceiver resultReceiver) {
+            this.resultReceiver = resultReceiver;
+        }
+
+        @Override
+        public RowReceiver.Result setNextRow(Row row) {
+            rows++;
+            return RowReceiver.Result.CONTINUE;
+        }
+
+        @Override
+        public void finish() {
+            listener.onSuccess(null);
+            collectProfile(null);
+        }
+
+        @Override
+        public void fail(@Nonnull Throwable t) {
+            listener.onFailure(t);
+            collectProfile(t);
+        }
+
+        @Override
+        public void addListener(CompletionListener listener) {
+            this.listener = CompletionMultiListener.merge(this.listener, listener);
+        }
+
+        /**
+         * The profiles are collected even if the statement failed, so that they're removed from the nodes.
+         */
+        private void collectProfile(@Nullable final Throwable failure) {
+            final long executionTimeNanos = System.nanoTime() - startedNanos;
+            assert collectProfileNodeAction != null : "collectProfileNodeAction must not be null";
+            collectProfileNodeAction.executeOnAllNodes(
+                new CollectProfileRequest(explainPlan.subPlan().jobId()),
+                new ActionListener<CollectProfileResponse>() {
+                    @Override
+                    public void onResponse(CollectProfileResponse response) {
+                        if (failure != null) {
+                            resultReceiver.fail(failure);
+                            return;
+                        }
+                        try {
+                            Map<String, Object> map = annotate(
+                                PlanPrinter.objectMap(explainPlan.subPlan()), profilesByPhase(response.profiles()));
+                            map.put("executionTime", millis(executionTimeNanos));
+                            map.put("rows", rows);
+                            resultReceiver.setNextRow(new Row1(map));
+                            resultReceiver.finish();
+                        } catch (Throwable t) {
+                            resultReceiver.fail(t);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Throwable e) {
+                        resultReceiver.fail(failure == null ? e : failure);
+                    }
+                });
+        }
+    }
+
+    private static Map<Integer, Map<String, PhaseProfile>> profilesByPhase(Map<String, List<PhaseProfile>> profilesByNode) {
+        Map<Integer, Map<String, PhaseProfile>> profilesByPhase = new HashMap<>();
+        for (Map.Entry<String, List<PhaseProfile>> entry : profilesByNode.entrySet()) {
+            for (PhaseProfile phaseProfile : entry.getValue()) {
+                Map<String, PhaseProfile> nodeProfiles = profilesByPhase.get(phaseProfile.phaseId());
+                if (nodeProfiles == null) {
+                    nodeProfiles = new HashMap<>();
+                    profilesByPhase.put(phaseProfile.phaseId(), nodeProfiles);
+                }
+                nodeProfiles.put(entry.getKey(), phaseProfile);
+            }
+        }
+        return profilesByPhase;
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport;
+
+import com.ning.compress.lzf.LZFDecoder;
+import com.ning.compress.lzf.LZFEncoder;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compresses the payload of {@link StreamBucket}s using LZF before they're sent to another node.
+ *
+ * The compression is adaptive: pages smaller than the configured minimum size are sent uncompressed and
+ * if the compression of a page didn't reach the configured ratio, the next {@link #PAGES_TO_SKIP} pages are
+ * sent uncompressed before compressing is tried again.
+ *
+ * An instance is meant to be shared by all buckets of the same result stream, so that the measured
+ * ratio applies to pages with similar content.
+ */
+public class BucketCompressor {
+
+    public static final String ENABLED_SETTING = "pages.compression.enabled";
+    public static final String MIN_SIZE_SETTING = "pages.compression.min_size";
+    public static final String MAX_RATIO_SETTING = "pages.compression.max_ratio";
+
+    public static final boolean DEFAULT_ENABLED = false;
+    public static final ByteSizeValue DEFAULT_MIN_SIZE = new ByteSizeValue(64, ByteSizeUnit.KB);
+    public static final double DEFAULT_MAX_RATIO = 0.8d;
+
+    static final int PAGES_TO_SKIP = 10;
+
+    private final long minSize;
+    private final double maxRatio;
+    private final AtomicInteger pagesToSkip = new AtomicInteger(0);
+
+    /**
+     * @return a new compressor or null if page compression is disabled
+     */
+    @Nullable
+    public static BucketCompressor fromSettings(Settings settings) {
+        if (!settings.getAsBoolean(ENABLED_SETTING, DEFAULT_ENABLED)) {
+            return null;
+        }
+        return new BucketCompressor(
+                settings.getAsBytesSize(MIN_SIZE_SETTING, DEFAULT_MIN_SIZE).bytes(),
+                settings.getAsDouble(MAX_RATIO_SETTING, DEFAULT_MAX_RATIO));
+    }
+
+    public BucketCompressor(long minSize, double maxRatio) {
+        this.minSize = minSize;
+        this.maxRatio = maxRatio;
+    }
+
+    /**
+     * @return the compressed bytes or null if the bytes should be sent uncompressed
+     */
+    @Nullable
+    public BytesReference compress(BytesReference bytes) {
+        int length = bytes.length();
+        if (length < minSize) {
+            return null;
+        }
+        if (pagesToSkip.get() > 0 && pagesToSkip.getAndDecrement() > 0) {
+            return null;
+        }
+        BytesArray array = bytes.toBytesArray();
+        byte[] compressed = LZFEncoder.encode(array.array(), array.arrayOffset(), array.length());
+        if (compressed.length > length * maxRatio) {
+            pagesToSkip.set(PAGES_TO_SKIP);
+            if (compressed.length >= length) {
+                return null;
+            }
+        }
+        return new BytesArray(compressed);
+    }
+
+    public static BytesReference decompress(BytesReference bytes) throws IOException {
+        BytesArray array = bytes.toBytesArray();
+        return new BytesArray(LZFDecoder.decode(array.array(), array.arrayOffset(), array.length()));
+    }
+}
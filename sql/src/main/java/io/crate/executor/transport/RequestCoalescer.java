@@ -0,0 +1,178 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.executor.transport;
+
+import com.twitter.jsr166e.LongAdder;
+import org.elasticsearch.action.ActionListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects requests with the same key which arrive within a window of each other into a batch,
+ * so that they can be sent as one request.
+ *
+ * A batch is sent once the window has elapsed or once it contains the maximum number of requests.
+ * A full batch is sent by the thread which added the last request; a batch whose window elapsed
+ * is handed from the scheduler to the given executor, so that the scheduler thread never runs
+ * transport work.
+ *
+ * @param <Key> requests with equal keys are added to the same batch
+ */
+public class RequestCoalescer<Key, Request, Response> {
+
+    public interface BatchSender<Request, Response> {
+
+        /**
+         * sends a batch; the listeners are in the same order as the requests
+         */
+        void send(List<Request> requests, List<ActionListener<Response>> listeners);
+    }
+
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    private final BatchSender<Request, Response> sender;
+
+    private final Object lock = new Object();
+    private final Map<Key, Batch<Request, Response>> pendingBatches = new HashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final AtomicInteger largestBatch = new AtomicInteger(0);
+
+    public RequestCoalescer(ScheduledExecutorService scheduler,
+                            Executor executor,
+                            long windowMicros,
+                            int maxBatchSize,
+                            BatchSender<Request, Response> sender) {
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.sender = sender;
+    }
+
+    public void add(final Key key, Request request, ActionListener<Response> listener) {
+        requests.increment();
+        Batch<Request, Response> batchToSend = null;
+        Batch<Request, Response> batchToSchedule = null;
+        synchronized (lock) {
+            Batch<Request, Response> batch = pendingBatches.get(key);
+            if (batch == null) {
+                batch = new Batch<>();
+                pendingBatches.put(key, batch);
+                batchToSchedule = batch;
+            }
+            batch.add(request, listener);
+            if (batch.size() >= maxBatchSize) {
+                pendingBatches.remove(key);
+                batchToSend = batch;
+            }
+        }
+        if (batchToSend != null) {
+            send(batchToSend);
+        } else if (batchToSchedule != null) {
+            final Batch<Request, Response> batch = batchToSchedule;
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (lock) {
+                        if (pendingBatches.get(key) != batch) {
+                            // already sent because it became full
+                            return;
+                        }
+                        pendingBatches.remove(key);
+                    }
+                    sendOnExecutor(batch);
+                }
+            }, windowMicros, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    private void sendOnExecutor(final Batch<Request, Response> batch) {
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    send(batch);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            for (ActionListener<Response> listener : batch.listeners) {
+                listener.onFailure(e);
+            }
+        }
+    }
+
+    private void send(Batch<Request, Response> batch) {
+        batches.increment();
+        int size = batch.size();
+        int largest;
+        while (size > (largest = largestBatch.get()) && !largestBatch.compareAndSet(largest, size)) {
+            // retry
+        }
+        sender.send(batch.requests, batch.listeners);
+    }
+
+    /**
+     * @return the number of requests which have been added
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return the number of batches which have been sent
+     */
+    public long batches() {
+        return batches.sum();
+    }
+
+    public int largestBatch() {
+        return largestBatch.get();
+    }
+
+    private static class Batch<Request, Response> {
+
+        private final List<Request> requests = new ArrayList<>();
+        private final List<ActionListener<Response>> listeners = new ArrayList<>();
+
+        void add(Request request, ActionListener<Response> listener) {
+            requests.add(request);
+            listeners.add(listener);
+        }
+
+        int size() {
+            return requests.size();
+        }
+    }
+}
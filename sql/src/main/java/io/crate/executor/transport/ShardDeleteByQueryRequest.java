@@ -0,0 +1,107 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.executor.transport;
+
+import com.google.common.base.Objects;
+import io.crate.analyze.WhereClause;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Deletes the documents of a shard which match a where clause.
+ *
+ * The request is sent without items. The primary resolves up to {@link #batchSize()} matching documents,
+ * deletes them and adds them as items, so the replicas delete exactly the same documents.
+ */
+public class ShardDeleteByQueryRequest extends ShardDeleteRequest {
+
+    private WhereClause whereClause;
+    private int batchSize;
+    private boolean refresh;
+
+    public ShardDeleteByQueryRequest() {
+    }
+
+    /**
+     * @param refresh whether the shard must be refreshed before resolving the documents,
+     *                required if a previous batch deleted documents which would be visible otherwise
+     */
+    public ShardDeleteByQueryRequest(ShardId shardId,
+                                     UUID jobId,
+                                     WhereClause whereClause,
+                                     int batchSize,
+                                     boolean refresh) {
+        super(shardId, null, jobId);
+        this.whereClause = whereClause;
+        this.batchSize = batchSize;
+        this.refresh = refresh;
+    }
+
+    public WhereClause whereClause() {
+        return whereClause;
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public boolean refresh() {
+        return refresh;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        whereClause = new WhereClause(in);
+        batchSize = in.readVInt();
+        refresh = in.readBoolean();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        whereClause.writeTo(out);
+        out.writeVInt(batchSize);
+        out.writeBoolean(refresh);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        if (!super.equals(o)) return false;
+        ShardDeleteByQueryRequest that = (ShardDeleteByQueryRequest) o;
+        return batchSize == that.batchSize &&
+               refresh == that.refresh &&
+               Objects.equal(whereClause, that.whereClause);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(super.hashCode(), whereClause, batchSize, refresh);
+    }
+}
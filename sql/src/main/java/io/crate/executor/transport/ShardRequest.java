@@ -67,6 +67,15 @@ public abstract class ShardRequest<T extends ReplicationRequest<T>, I extends Sh
         items.add(item);
     }
 
+    /**
+     * removes all items, used by requests whose items are determined on the primary
+     * so that a retried primary operation doesn't add them twice
+     */
+    protected void clearItems() {
+        locations.clear();
+        items.clear();
+    }
+
     public List<I> items() {
         return items;
     }
@@ -49,6 +49,12 @@ public class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, ShardUp
     private Boolean isRawSourceInsert = null;
     private boolean validateConstraints = true;
 
+    /**
+     * Set by the primary if the ids of the items are auto generated, the inserts are then append-only
+     * on the primary and on the replicas
+     */
+    private boolean autoGeneratedIds = false;
+
     /**
      * List of column names used on update
      */
@@ -129,6 +135,15 @@ public class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, ShardUp
         return this;
     }
 
+    public boolean autoGeneratedIds() {
+        return autoGeneratedIds;
+    }
+
+    public ShardUpsertRequest autoGeneratedIds(boolean autoGeneratedIds) {
+        this.autoGeneratedIds = autoGeneratedIds;
+        return this;
+    }
+
     public Boolean isRawSourceInsert() {
         if (isRawSourceInsert == null) {
             isRawSourceInsert =
@@ -159,6 +174,7 @@ public class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, ShardUp
         continueOnError = in.readBoolean();
         overwriteDuplicates = in.readBoolean();
         validateConstraints = in.readBoolean();
+        autoGeneratedIds = in.readBoolean();
         readItems(in, locations.size());
     }
 
@@ -185,6 +201,7 @@ public class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, ShardUp
         out.writeBoolean(continueOnError);
         out.writeBoolean(overwriteDuplicates);
         out.writeBoolean(validateConstraints);
+        out.writeBoolean(autoGeneratedIds);
         writeItems(out);
     }
 
@@ -203,6 +220,7 @@ public class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, ShardUp
         return continueOnError == items.continueOnError &&
                overwriteDuplicates == items.overwriteDuplicates &&
                validateConstraints == items.validateConstraints &&
+               autoGeneratedIds == items.autoGeneratedIds &&
                Objects.equal(isRawSourceInsert, items.isRawSourceInsert) &&
                Arrays.equals(updateColumns, items.updateColumns) &&
                Arrays.equals(insertColumns, items.insertColumns) &&
@@ -211,7 +229,7 @@ public class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, ShardUp
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(super.hashCode(), continueOnError, overwriteDuplicates, isRawSourceInsert, validateConstraints, updateColumns, insertColumns, insertValuesStreamer);
+        return Objects.hashCode(super.hashCode(), continueOnError, overwriteDuplicates, isRawSourceInsert, validateConstraints, autoGeneratedIds, updateColumns, insertColumns, insertValuesStreamer);
     }
 
     /**
@@ -225,6 +243,14 @@ public class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, ShardUp
         @Nullable
         private BytesReference source;
 
+        /**
+         * Source and version of the document to update as already read by the collector on the shard,
+         * used instead of fetching the document on the primary
+         */
+        @Nullable
+        private BytesReference currentSource;
+        private long currentVersion = Versions.NOT_FOUND;
+
         /**
          * List of symbols used on update if document exist
          */
@@ -295,6 +321,20 @@ public class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, ShardUp
             this.source = source;
         }
 
+        @Nullable
+        public BytesReference currentSource() {
+            return currentSource;
+        }
+
+        public long currentVersion() {
+            return currentVersion;
+        }
+
+        public void currentSource(@Nullable BytesReference currentSource, long currentVersion) {
+            this.currentSource = currentSource;
+            this.currentVersion = currentVersion;
+        }
+
         public boolean retryOnConflict() {
             return version == Versions.MATCH_ANY;
         }
@@ -319,6 +359,8 @@ public class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, ShardUp
                    versionType == item.versionType &&
                    opType == item.opType &&
                    Objects.equal(source, item.source) &&
+                   currentVersion == item.currentVersion &&
+                   Objects.equal(currentSource, item.currentSource) &&
                    Arrays.equals(updateAssignments, item.updateAssignments) &&
                    Arrays.equals(insertValues, item.insertValues) &&
                    Arrays.equals(insertValuesStreamer, item.insertValuesStreamer);
@@ -326,8 +368,8 @@ public class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, ShardUp
 
         @Override
         public int hashCode() {
-            return Objects.hashCode(super.hashCode(), version, versionType, opType, source, updateAssignments,
-                    insertValues, insertValuesStreamer);
+            return Objects.hashCode(super.hashCode(), version, versionType, opType, source, currentSource,
+                    currentVersion, updateAssignments, insertValues, insertValuesStreamer);
         }
 
         static Item readItem(StreamInput in, @Nullable Streamer[] streamers) throws IOException {
@@ -360,6 +402,10 @@ public class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, ShardUp
             if (in.readBoolean()) {
                 source = in.readBytesReference();
             }
+            if (in.readBoolean()) {
+                currentSource = in.readBytesReference();
+                currentVersion = in.readLong();
+            }
         }
 
         @Override
@@ -391,6 +437,12 @@ public class ShardUpsertRequest extends ShardRequest<ShardUpsertRequest, ShardUp
             if (sourceAvailable) {
                 out.writeBytesReference(source);
             }
+            boolean currentSourceAvailable = currentSource != null;
+            out.writeBoolean(currentSourceAvailable);
+            if (currentSourceAvailable) {
+                out.writeBytesReference(currentSource);
+                out.writeLong(currentVersion);
+            }
         }
     }
 
@@ -29,11 +29,15 @@ import io.crate.Streamer;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Row;
 import io.crate.core.collections.RowN;
+import io.crate.types.StringType;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.settings.Settings;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
@@ -42,50 +46,122 @@ import java.util.Iterator;
 
 public class StreamBucket implements Bucket, Streamable {
 
+    /**
+     * Nodes before this version expect the encoded rows to follow the size of a bucket directly.
+     * They receive the rows uncompressed, without dictionary encoding and without the header
+     * which tells how a bucket is encoded.
+     */
+    static final Version HEADER_VERSION = Version.V_2_3_3;
+
+    /**
+     * Whether string columns are encoded using a per-bucket dictionary, see {@link StringDictionaryCodec}.
+     */
+    public static final String DICTIONARY_ENCODING_SETTING = "pages.dictionary_encoding.enabled";
+    public static final boolean DEFAULT_DICTIONARY_ENCODING = false;
+
+    private static final byte COMPRESSED = 1;
+    private static final byte DICTIONARY_ENCODED = 2;
+
     private Streamer<?>[] streamers;
     private int size = -1;
     private BytesReference bytes;
+    private boolean compressed = false;
+    private boolean dictionaryEncoded = false;
+    private int uncompressedSize = 0;
 
-    public static class Builder {
+    public static class Builder implements BucketBuilder {
 
 
         private static final int INITIAL_PAGE_SIZE = 1024;
         private int size = 0;
         private final Streamer<?>[] streamers;
+        private final BucketCompressor compressor;
+        private final StringDictionaryCodec.Encoder[] encoders;
+        private boolean dictionaryEncoded = false;
         private BytesStreamOutput out;
 
         public Builder(Streamer<?>[] streamers) {
+            this(streamers, null);
+        }
+
+        public Builder(Streamer<?>[] streamers, @Nullable BucketCompressor compressor) {
+            this(streamers, compressor, false);
+        }
+
+        /**
+         * @param dictionaryEncoding if true string columns are encoded using a per-bucket dictionary
+         */
+        public Builder(Streamer<?>[] streamers, @Nullable BucketCompressor compressor, boolean dictionaryEncoding) {
             assert validStreamers(streamers) : "streamers must not be null and they shouldn't be of undefinedType";
             this.streamers = streamers;
+            this.compressor = compressor;
+            this.encoders = new StringDictionaryCodec.Encoder[streamers == null ? 0 : streamers.length];
+            if (dictionaryEncoding) {
+                for (int i = 0; i < encoders.length; i++) {
+                    if (streamers[i] instanceof StringType) {
+                        encoders[i] = new StringDictionaryCodec.Encoder();
+                        dictionaryEncoded = true;
+                    }
+                }
+            }
             out = new BytesStreamOutput(INITIAL_PAGE_SIZE);
         }
 
+        @Override
         public void add(Row row) throws IOException {
             assert streamers.length == row.size() : "number of streamer must match row size";
 
             size++;
             for (int i = 0; i < row.size(); i++) {
-                streamers[i].writeValueTo(out, row.get(i));
+                StringDictionaryCodec.Encoder encoder = encoders[i];
+                if (encoder == null) {
+                    streamers[i].writeValueTo(out, row.get(i));
+                } else {
+                    encoder.write(out, (BytesRef) row.get(i));
+                }
             }
         }
 
+        @Override
+        public int size() {
+            return size;
+        }
+
         public void writeToStream(StreamOutput output) throws IOException {
-            output.writeVInt(size);
-            if (size > 0) {
-                output.writeBytesReference(out.bytes());
-            }
+            uncompressedBucket().writeTo(output);
         }
 
-        public StreamBucket build() throws IOException {
+        private StreamBucket uncompressedBucket() {
             StreamBucket sb = new StreamBucket(streamers);
             sb.size = size;
             sb.bytes = out.bytes();
+            sb.uncompressedSize = sb.bytes.length();
+            sb.dictionaryEncoded = dictionaryEncoded;
+            return sb;
+        }
+
+        @Override
+        public StreamBucket build() throws IOException {
+            StreamBucket sb = uncompressedBucket();
+            if (compressor != null && size > 0) {
+                BytesReference compressedBytes = compressor.compress(sb.bytes);
+                if (compressedBytes != null) {
+                    sb.bytes = compressedBytes;
+                    sb.compressed = true;
+                }
+            }
             return sb;
         }
 
+        @Override
         public void reset() {
             out = new BytesStreamOutput(size); // next bucket is probably going to have the same size
             size = 0;
+            for (StringDictionaryCodec.Encoder encoder : encoders) {
+                if (encoder != null) {
+                    encoder.reset();
+                }
+            }
         }
     }
 
@@ -104,6 +180,48 @@ public class StreamBucket implements Bucket, Streamable {
         this.streamers = streamers;
     }
 
+    /**
+     * @return the size of the encoded rows in bytes
+     */
+    public int uncompressedSizeInBytes() {
+        return uncompressedSize;
+    }
+
+    /**
+     * @return the number of bytes this bucket occupies on the wire, this equals
+     * {@link #uncompressedSizeInBytes()} if the bucket isn't compressed
+     */
+    public int sizeInBytes() {
+        return bytes == null ? 0 : bytes.length();
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public boolean isDictionaryEncoded() {
+        return dictionaryEncoded;
+    }
+
+    /**
+     * @return whether dictionary encoding of string columns is enabled in the given node settings
+     */
+    public static boolean dictionaryEncoding(Settings settings) {
+        return settings.getAsBoolean(DICTIONARY_ENCODING_SETTING, DEFAULT_DICTIONARY_ENCODING);
+    }
+
+    private synchronized BytesReference uncompressedBytes() {
+        if (compressed) {
+            try {
+                bytes = BucketCompressor.decompress(bytes);
+            } catch (IOException e) {
+                throw Throwables.propagate(e);
+            }
+            compressed = false;
+        }
+        return bytes;
+    }
+
     private static boolean validStreamers(Streamer<?>[] streamers) {
         if (streamers == null || streamers.length == 0) {
             return true;
@@ -128,10 +246,22 @@ public class StreamBucket implements Bucket, Streamable {
 
     private class RowIterator implements Iterator<Row> {
 
-        private final StreamInput input = bytes.streamInput();
+        private final StreamInput input;
         private int pos = 0;
         private final Object[] current = new Object[streamers.length];
         private final Row row = new RowN(current);
+        private final StringDictionaryCodec.Decoder[] decoders = new StringDictionaryCodec.Decoder[streamers.length];
+
+        RowIterator(BytesReference bytes) {
+            input = bytes.streamInput();
+            if (dictionaryEncoded) {
+                for (int c = 0; c < streamers.length; c++) {
+                    if (streamers[c] instanceof StringType) {
+                        decoders[c] = new StringDictionaryCodec.Decoder();
+                    }
+                }
+            }
+        }
 
         @Override
         public boolean hasNext() {
@@ -142,7 +272,12 @@ public class StreamBucket implements Bucket, Streamable {
         public Row next() {
             for (int c = 0; c < streamers.length; c++) {
                 try {
-                    current[c] = streamers[c].readValueFrom(input);
+                    StringDictionaryCodec.Decoder decoder = decoders[c];
+                    if (decoder == null) {
+                        current[c] = streamers[c].readValueFrom(input);
+                    } else {
+                        current[c] = decoder.read(input);
+                    }
                 } catch (IOException e) {
                     Throwables.propagate(e);
                 }
@@ -163,14 +298,39 @@ public class StreamBucket implements Bucket, Streamable {
             return Collections.emptyIterator();
         }
         assert streamers != null;
-        return new RowIterator();
+        return new RowIterator(uncompressedBytes());
+    }
+
+    /**
+     * @return the rows of this bucket encoded with the regular streamers of the columns
+     */
+    private BytesReference plainBytes() throws IOException {
+        assert streamers != null : "streamers are required to re-encode a dictionary encoded bucket";
+        BytesStreamOutput plain = new BytesStreamOutput(uncompressedSize);
+        Iterator<Row> rows = new RowIterator(compressed ? BucketCompressor.decompress(bytes) : bytes);
+        while (rows.hasNext()) {
+            Row row = rows.next();
+            for (int c = 0; c < streamers.length; c++) {
+                streamers[c].writeValueTo(plain, row.get(c));
+            }
+        }
+        return plain.bytes();
     }
 
     @Override
     public void readFrom(StreamInput in) throws IOException {
         size = in.readVInt();
         if (size > 0) {
+            byte flags = in.getVersion().onOrAfter(HEADER_VERSION) ? in.readByte() : 0;
+            compressed = (flags & COMPRESSED) != 0;
+            dictionaryEncoded = (flags & DICTIONARY_ENCODED) != 0;
+            if (compressed) {
+                uncompressedSize = in.readVInt();
+            }
             bytes = in.readBytesReference();
+            if (!compressed) {
+                uncompressedSize = bytes.length();
+            }
         }
     }
 
@@ -179,6 +339,25 @@ public class StreamBucket implements Bucket, Streamable {
         assert size > -1;
         out.writeVInt(size);
         if (size > 0) {
+            if (out.getVersion().before(HEADER_VERSION)) {
+                if (dictionaryEncoded) {
+                    out.writeBytesReference(plainBytes());
+                } else {
+                    out.writeBytesReference(compressed ? BucketCompressor.decompress(bytes) : bytes);
+                }
+                return;
+            }
+            byte flags = 0;
+            if (compressed) {
+                flags |= COMPRESSED;
+            }
+            if (dictionaryEncoded) {
+                flags |= DICTIONARY_ENCODED;
+            }
+            out.writeByte(flags);
+            if (compressed) {
+                out.writeVInt(uncompressedSize);
+            }
             out.writeBytesReference(bytes);
         }
     }
@@ -0,0 +1,146 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport;
+
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Encoding of string columns in a {@link StreamBucket} using a per-bucket dictionary.
+ *
+ * Every value is written as a single vInt code, followed by the bytes for literals:
+ * <pre>
+ *  0              null
+ *  2 * id + 2     the value which was added to the dictionary with the given id
+ *  4 * length + 1 literal value
+ *  4 * length + 3 literal value which is added to the dictionary with the next id
+ * </pre>
+ *
+ * The encoder only looks up and adds values while the measured repetition rate is high,
+ * otherwise values are written as plain literals which costs at most one byte more than
+ * the regular encoding of {@link io.crate.types.StringType}. The rate is measured again
+ * within the first values of each bucket.
+ */
+final class StringDictionaryCodec {
+
+    /**
+     * number of values after which the repetition rate is checked
+     */
+    static final int WINDOW = 128;
+
+    /**
+     * minimum fraction of values within a window that must be found in the dictionary
+     */
+    static final double MIN_HIT_RATIO = 0.5;
+
+    static final int MAX_DICTIONARY_SIZE = 4096;
+
+    private static final int NULL = 0;
+
+    private StringDictionaryCodec() {
+    }
+
+    static class Encoder {
+
+        private final ObjectIntHashMap<BytesRef> ids = new ObjectIntHashMap<>();
+        private boolean enabled = true;
+        private int numValues = 0;
+        private int numHits = 0;
+
+        void write(StreamOutput out, @Nullable BytesRef value) throws IOException {
+            if (value == null) {
+                out.writeVInt(NULL);
+                return;
+            }
+            if (!enabled) {
+                writeLiteral(out, value, 1);
+                return;
+            }
+            numValues++;
+            int idx = ids.indexOf(value);
+            if (ids.indexExists(idx)) {
+                numHits++;
+                out.writeVInt(2 * ids.indexGet(idx) + 2);
+            } else if (ids.size() < MAX_DICTIONARY_SIZE) {
+                ids.indexInsert(idx, BytesRef.deepCopyOf(value), ids.size());
+                writeLiteral(out, value, 3);
+            } else {
+                writeLiteral(out, value, 1);
+            }
+            if (numValues == WINDOW) {
+                enabled = numHits >= WINDOW * MIN_HIT_RATIO;
+                numValues = 0;
+                numHits = 0;
+            }
+        }
+
+        private static void writeLiteral(StreamOutput out, BytesRef value, int flag) throws IOException {
+            out.writeVInt(4 * value.length + flag);
+            out.writeBytes(value.bytes, value.offset, value.length);
+        }
+
+        boolean enabled() {
+            return enabled;
+        }
+
+        /**
+         * Called if a bucket has been built. The dictionary of a bucket can't be used for the next one and
+         * the repetition rate is measured again, so that the encoding adapts if the values change.
+         */
+        void reset() {
+            enabled = true;
+            ids.clear();
+            numValues = 0;
+            numHits = 0;
+        }
+    }
+
+    static class Decoder {
+
+        private final ArrayList<BytesRef> values = new ArrayList<>();
+
+        /**
+         * @return the decoded value, repeated values are the same BytesRef instance
+         */
+        @Nullable
+        BytesRef read(StreamInput in) throws IOException {
+            int code = in.readVInt();
+            if (code == NULL) {
+                return null;
+            }
+            if ((code & 1) == 0) {
+                return values.get((code - 2) / 2);
+            }
+            BytesRef value = in.readBytesRef(code >>> 2);
+            if ((code & 2) != 0) {
+                values.add(value);
+            }
+            return value;
+        }
+    }
+}
@@ -25,6 +25,8 @@ import io.crate.action.job.TransportJobAction;
 import io.crate.action.sql.TransportSQLAction;
 import io.crate.executor.transport.kill.TransportKillAllNodeAction;
 import io.crate.executor.transport.kill.TransportKillJobsNodeAction;
+import io.crate.executor.transport.profile.TransportCollectProfileNodeAction;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.cluster.repositories.delete.TransportDeleteRepositoryAction;
 import org.elasticsearch.action.admin.cluster.repositories.put.TransportPutRepositoryAction;
 import org.elasticsearch.action.admin.cluster.settings.TransportClusterUpdateSettingsAction;
@@ -61,11 +63,14 @@ public class TransportActionProvider {
     private final Provider<TransportDeleteIndexTemplateAction> transportDeleteIndexTemplateActionProvider;
     private final Provider<TransportClusterUpdateSettingsAction> transportClusterUpdateSettingsActionProvider;
     private final Provider<TransportShardDeleteAction> transportShardDeleteActionProvider;
+    private final Provider<TransportShardDeleteByQueryAction> transportShardDeleteByQueryActionProvider;
     private final Provider<TransportDeleteAction> transportDeleteActionProvider;
 
     private final Provider<TransportGetAction> transportGetActionProvider;
     private final Provider<TransportMultiGetAction> transportMultiGetActionProvider;
+    private final Provider<TransportCoalescingGetAction> transportCoalescingGetActionProvider;
     private final Provider<TransportShardUpsertAction> transportShardUpsertActionProvider;
+    private final Provider<TransportCoalescingShardUpsertAction> transportCoalescingShardUpsertActionProvider;
     private final Provider<TransportPutMappingAction> transportPutMappingActionProvider;
     private final Provider<TransportRefreshAction> transportRefreshActionProvider;
     private final Provider<TransportForceMergeAction> transportForceMergeActionProvider;
@@ -75,6 +80,7 @@ public class TransportActionProvider {
     private final Provider<TransportJobAction> transportJobInitActionProvider;
     private final Provider<TransportKillAllNodeAction> transportKillAllNodeActionProvider;
     private final Provider<TransportKillJobsNodeAction> transportKillJobsNodeActionProvider;
+    private final Provider<TransportCollectProfileNodeAction> transportCollectProfileNodeActionProvider;
 
     private final Provider<TransportPutRepositoryAction> transportPutRepositoryActionProvider;
     private final Provider<TransportDeleteRepositoryAction> transportDeleteRepositoryActionProvider;
@@ -94,10 +100,13 @@ public class TransportActionProvider {
                                    Provider<TransportDeleteIndexTemplateAction> transportDeleteIndexTemplateActionProvider,
                                    Provider<TransportClusterUpdateSettingsAction> transportClusterUpdateSettingsActionProvider,
                                    Provider<TransportShardDeleteAction> transportShardDeleteActionProvider,
+                                   Provider<TransportShardDeleteByQueryAction> transportShardDeleteByQueryActionProvider,
                                    Provider<TransportDeleteAction> transportDeleteActionProvider,
                                    Provider<TransportGetAction> transportGetActionProvider,
                                    Provider<TransportMultiGetAction> transportMultiGetActionProvider,
+                                   Provider<TransportCoalescingGetAction> transportCoalescingGetActionProvider,
                                    Provider<TransportShardUpsertAction> transportShardUpsertActionProvider,
+                                   Provider<TransportCoalescingShardUpsertAction> transportCoalescingShardUpsertActionProvider,
                                    Provider<TransportKillAllNodeAction> transportKillAllNodeActionProvider,
                                    Provider<TransportPutMappingAction> transportPutMappingActionProvider,
                                    Provider<TransportRefreshAction> transportRefreshActionProvider,
@@ -106,6 +115,7 @@ public class TransportActionProvider {
                                    Provider<TransportJobAction> transportJobInitActionProvider,
                                    Provider<TransportBulkCreateIndicesAction> transportBulkCreateIndicesActionProvider,
                                    Provider<TransportKillJobsNodeAction> transportKillJobsNodeActionProvider,
+                                   Provider<TransportCollectProfileNodeAction> transportCollectProfileNodeActionProvider,
                                    Provider<TransportPutRepositoryAction> transportPutRepositoryActionProvider,
                                    Provider<TransportDeleteRepositoryAction> transportDeleteRepositoryActionProvider,
                                    Provider<TransportDeleteSnapshotAction> transportDeleteSnapshotActionProvider,
@@ -119,10 +129,13 @@ public class TransportActionProvider {
         this.transportDeleteIndexTemplateActionProvider = transportDeleteIndexTemplateActionProvider;
         this.transportClusterUpdateSettingsActionProvider = transportClusterUpdateSettingsActionProvider;
         this.transportShardDeleteActionProvider = transportShardDeleteActionProvider;
+        this.transportShardDeleteByQueryActionProvider = transportShardDeleteByQueryActionProvider;
         this.transportDeleteActionProvider = transportDeleteActionProvider;
         this.transportGetActionProvider = transportGetActionProvider;
         this.transportMultiGetActionProvider = transportMultiGetActionProvider;
+        this.transportCoalescingGetActionProvider = transportCoalescingGetActionProvider;
         this.transportShardUpsertActionProvider = transportShardUpsertActionProvider;
+        this.transportCoalescingShardUpsertActionProvider = transportCoalescingShardUpsertActionProvider;
         this.transportKillAllNodeActionProvider = transportKillAllNodeActionProvider;
         this.transportFetchNodeActionProvider = transportFetchNodeActionProvider;
         this.transportPutMappingActionProvider = transportPutMappingActionProvider;
@@ -132,6 +145,7 @@ public class TransportActionProvider {
         this.transportJobInitActionProvider = transportJobInitActionProvider;
         this.transportBulkCreateIndicesActionProvider = transportBulkCreateIndicesActionProvider;
         this.transportKillJobsNodeActionProvider = transportKillJobsNodeActionProvider;
+        this.transportCollectProfileNodeActionProvider = transportCollectProfileNodeActionProvider;
         this.transportPutRepositoryActionProvider = transportPutRepositoryActionProvider;
         this.transportDeleteRepositoryActionProvider = transportDeleteRepositoryActionProvider;
         this.transportDeleteSnapshotActionProvider = transportDeleteSnapshotActionProvider;
@@ -180,14 +194,32 @@ public class TransportActionProvider {
         return transportMultiGetActionProvider.get();
     }
 
+    public TransportCoalescingGetAction transportCoalescingGetAction() {
+        return transportCoalescingGetActionProvider.get();
+    }
+
     public BulkRequestExecutor<ShardUpsertRequest> transportShardUpsertActionDelegate() {
         return new TransportShardUpsertActionDelegate(transportShardUpsertActionProvider.get());
     }
 
+    public BulkRequestExecutor<ShardUpsertRequest> transportCoalescingShardUpsertActionDelegate() {
+        final TransportCoalescingShardUpsertAction action = transportCoalescingShardUpsertActionProvider.get();
+        return new BulkRequestExecutor<ShardUpsertRequest>() {
+            @Override
+            public void execute(ShardUpsertRequest request, ActionListener<ShardResponse> listener) {
+                action.execute(request, listener);
+            }
+        };
+    }
+
     public BulkRequestExecutor<ShardDeleteRequest> transportShardDeleteActionDelegate() {
         return new TransportShardDeleteActionDelegate(transportShardDeleteActionProvider.get());
     }
 
+    public TransportShardDeleteByQueryAction transportShardDeleteByQueryAction() {
+        return transportShardDeleteByQueryActionProvider.get();
+    }
+
     public TransportJobAction transportJobInitAction() {
         return transportJobInitActionProvider.get();
     }
@@ -220,6 +252,10 @@ public class TransportActionProvider {
         return transportKillJobsNodeActionProvider.get();
     }
 
+    public TransportCollectProfileNodeAction transportCollectProfileNodeAction() {
+        return transportCollectProfileNodeActionProvider.get();
+    }
+
     public TransportPutRepositoryAction transportPutRepositoryAction() {
         return transportPutRepositoryActionProvider.get();
     }
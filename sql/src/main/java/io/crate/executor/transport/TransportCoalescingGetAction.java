@@ -0,0 +1,192 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.get.*;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.TransportAction;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.tasks.TaskManager;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.List;
+
+/**
+ * Executes primary key lookups.
+ *
+ * Lookups which arrive within {@link #WINDOW_SETTING} microseconds of each other are
+ * coalesced into a single {@link MultiGetRequest}, which is split into one shard level multi get
+ * per shard, instead of paying one transport round trip per lookup.
+ * The responses are handed back to the listeners of the individual lookups.
+ *
+ * A batch is sent once the window has elapsed or once it contains {@link #MAX_BATCH_SIZE_SETTING} lookups.
+ */
+@Singleton
+public class TransportCoalescingGetAction extends TransportAction<GetRequest, GetResponse> {
+
+    public static final String NAME = "crate/sql/get/coalesce";
+
+    public static final String ENABLED_SETTING = "lookups.coalesce.enabled";
+    public static final String WINDOW_SETTING = "lookups.coalesce.window_micros";
+    public static final String MAX_BATCH_SIZE_SETTING = "lookups.coalesce.max_batch_size";
+
+    public static final boolean DEFAULT_ENABLED = true;
+    public static final long DEFAULT_WINDOW_MICROS = 200L;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+    /**
+     * all lookups share one batch, the multi get request splits it by shard
+     */
+    private static final Object BATCH_KEY = new Object();
+
+    private final RequestExecutor<GetRequest, GetResponse> getExecutor;
+    private final RequestExecutor<MultiGetRequest, MultiGetResponse> multiGetExecutor;
+    private final boolean enabled;
+    private final RequestCoalescer<Object, GetRequest, GetResponse> coalescer;
+
+    @Inject
+    public TransportCoalescingGetAction(Settings settings,
+                                        ThreadPool threadPool,
+                                        ActionFilters actionFilters,
+                                        IndexNameExpressionResolver indexNameExpressionResolver,
+                                        TransportService transportService,
+                                        final TransportGetAction getAction,
+                                        final TransportMultiGetAction multiGetAction) {
+        this(settings, threadPool, actionFilters, indexNameExpressionResolver, transportService.getTaskManager(),
+            new RequestExecutor<GetRequest, GetResponse>() {
+                @Override
+                public void execute(GetRequest request, ActionListener<GetResponse> listener) {
+                    getAction.execute(request, listener);
+                }
+            },
+            new RequestExecutor<MultiGetRequest, MultiGetResponse>() {
+                @Override
+                public void execute(MultiGetRequest request, ActionListener<MultiGetResponse> listener) {
+                    multiGetAction.execute(request, listener);
+                }
+            });
+    }
+
+    TransportCoalescingGetAction(Settings settings,
+                                 ThreadPool threadPool,
+                                 ActionFilters actionFilters,
+                                 IndexNameExpressionResolver indexNameExpressionResolver,
+                                 TaskManager taskManager,
+                                 RequestExecutor<GetRequest, GetResponse> getExecutor,
+                                 RequestExecutor<MultiGetRequest, MultiGetResponse> multiGetExecutor) {
+        super(settings, NAME, threadPool, actionFilters, indexNameExpressionResolver, taskManager);
+        this.getExecutor = getExecutor;
+        this.multiGetExecutor = multiGetExecutor;
+        long windowMicros = settings.getAsLong(WINDOW_SETTING, DEFAULT_WINDOW_MICROS);
+        int maxBatchSize = settings.getAsInt(MAX_BATCH_SIZE_SETTING, DEFAULT_MAX_BATCH_SIZE);
+        this.enabled = settings.getAsBoolean(ENABLED_SETTING, DEFAULT_ENABLED) && windowMicros > 0 && maxBatchSize > 1;
+        this.coalescer = new RequestCoalescer<>(threadPool.scheduler(), threadPool.generic(), windowMicros, maxBatchSize,
+            new RequestCoalescer.BatchSender<GetRequest, GetResponse>() {
+                @Override
+                public void send(List<GetRequest> requests, List<ActionListener<GetResponse>> listeners) {
+                    sendBatch(requests, listeners);
+                }
+            });
+    }
+
+    @Override
+    protected void doExecute(GetRequest request, ActionListener<GetResponse> listener) {
+        if (!enabled || !canCoalesce(request)) {
+            getExecutor.execute(request, listener);
+            return;
+        }
+        coalescer.add(BATCH_KEY, request, listener);
+    }
+
+    /**
+     * only lookups which use the same options as the multi get request can be coalesced
+     */
+    private static boolean canCoalesce(GetRequest request) {
+        return request.realtime()
+               && !request.refresh()
+               && request.preference() == null
+               && request.fields() == null
+               && request.version() == Versions.MATCH_ANY;
+    }
+
+    void sendBatch(List<GetRequest> requests, final List<ActionListener<GetResponse>> listeners) {
+        if (requests.size() == 1) {
+            getExecutor.execute(requests.get(0), listeners.get(0));
+            return;
+        }
+
+        MultiGetRequest multiGetRequest = new MultiGetRequest();
+        multiGetRequest.realtime(true);
+        for (GetRequest request : requests) {
+            MultiGetRequest.Item item = new MultiGetRequest.Item(request.index(), request.type(), request.id());
+            item.routing(request.routing());
+            item.fetchSourceContext(request.fetchSourceContext());
+            multiGetRequest.add(item);
+        }
+        multiGetExecutor.execute(multiGetRequest, new ActionListener<MultiGetResponse>() {
+            @Override
+            public void onResponse(MultiGetResponse response) {
+                MultiGetItemResponse[] responses = response.getResponses();
+                for (int i = 0; i < responses.length; i++) {
+                    ActionListener<GetResponse> listener = listeners.get(i);
+                    MultiGetItemResponse itemResponse = responses[i];
+                    if (itemResponse.isFailed()) {
+                        listener.onFailure(itemResponse.getFailure().getFailure());
+                    } else {
+                        listener.onResponse(itemResponse.getResponse());
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                for (ActionListener<GetResponse> listener : listeners) {
+                    listener.onFailure(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the number of lookups which went through the coalescer
+     */
+    public long lookups() {
+        return coalescer.requests();
+    }
+
+    /**
+     * @return the number of requests which have been sent for the coalesced lookups
+     */
+    public long batches() {
+        return coalescer.batches();
+    }
+
+    public int largestBatch() {
+        return coalescer.largestBatch();
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.executor.transport;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import io.crate.analyze.symbol.Reference;
+import io.crate.exceptions.JobKilledException;
+import io.crate.jobs.JobContextService;
+import io.crate.jobs.KillAllListener;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.TransportAction;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.tasks.TaskManager;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Executes single row upserts.
+ *
+ * Upserts of a single row which target the same shard with the same columns and options and which arrive
+ * within {@link #WINDOW_SETTING} microseconds of each other are merged into one {@link ShardUpsertRequest},
+ * so that the rows share one replication round trip and translog sync instead of paying one each.
+ *
+ * The merged request continues on errors, so the rows succeed or fail independently.
+ * A row which fails is executed once more with its own request, as only that request
+ * reports the exact failure to a caller which doesn't continue on errors.
+ *
+ * The merged request runs under its own job id, so that killing a job doesn't abort the rows of other jobs.
+ * Instead, the rows of a killed job are failed right away and left out of the merged request if it hasn't
+ * been sent yet. Like with a kill that arrives while a shard processes a request, a row which was already
+ * sent may still be written.
+ *
+ * A batch is sent once the window has elapsed or once it contains {@link #MAX_BATCH_SIZE_SETTING} rows.
+ */
+@Singleton
+public class TransportCoalescingShardUpsertAction extends TransportAction<ShardUpsertRequest, ShardResponse>
+    implements KillAllListener {
+
+    public static final String NAME = "crate/sql/data/upsert/coalesce";
+
+    public static final String ENABLED_SETTING = "inserts.coalesce.enabled";
+    public static final String WINDOW_SETTING = "inserts.coalesce.window_micros";
+    public static final String MAX_BATCH_SIZE_SETTING = "inserts.coalesce.max_batch_size";
+
+    public static final boolean DEFAULT_ENABLED = true;
+    public static final long DEFAULT_WINDOW_MICROS = 500L;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 128;
+
+    private final RequestExecutor<ShardUpsertRequest, ShardResponse> shardUpsertExecutor;
+    private final boolean enabled;
+    private final RequestCoalescer<BatchKey, Row, ShardResponse> coalescer;
+    private final Multimap<UUID, Row> activeRows = Multimaps.synchronizedMultimap(HashMultimap.<UUID, Row>create());
+
+    @Inject
+    public TransportCoalescingShardUpsertAction(Settings settings,
+                                                ThreadPool threadPool,
+                                                ActionFilters actionFilters,
+                                                IndexNameExpressionResolver indexNameExpressionResolver,
+                                                TransportService transportService,
+                                                JobContextService jobContextService,
+                                                final TransportShardUpsertAction shardUpsertAction) {
+        this(settings, threadPool, actionFilters, indexNameExpressionResolver, transportService.getTaskManager(),
+            new RequestExecutor<ShardUpsertRequest, ShardResponse>() {
+                @Override
+                public void execute(ShardUpsertRequest request, ActionListener<ShardResponse> listener) {
+                    shardUpsertAction.execute(request, listener);
+                }
+            });
+        jobContextService.addListener(this);
+    }
+
+    TransportCoalescingShardUpsertAction(Settings settings,
+                                         ThreadPool threadPool,
+                                         ActionFilters actionFilters,
+                                         IndexNameExpressionResolver indexNameExpressionResolver,
+                                         TaskManager taskManager,
+                                         RequestExecutor<ShardUpsertRequest, ShardResponse> shardUpsertExecutor) {
+        super(settings, NAME, threadPool, actionFilters, indexNameExpressionResolver, taskManager);
+        this.shardUpsertExecutor = shardUpsertExecutor;
+        long windowMicros = settings.getAsLong(WINDOW_SETTING, DEFAULT_WINDOW_MICROS);
+        int maxBatchSize = settings.getAsInt(MAX_BATCH_SIZE_SETTING, DEFAULT_MAX_BATCH_SIZE);
+        this.enabled = settings.getAsBoolean(ENABLED_SETTING, DEFAULT_ENABLED) && windowMicros > 0 && maxBatchSize > 1;
+        this.coalescer = new RequestCoalescer<>(threadPool.scheduler(), threadPool.generic(), windowMicros, maxBatchSize,
+            new RequestCoalescer.BatchSender<Row, ShardResponse>() {
+                @Override
+                public void send(List<Row> rows, List<ActionListener<ShardResponse>> listeners) {
+                    sendBatch(rows);
+                }
+            });
+    }
+
+    @Override
+    protected void doExecute(ShardUpsertRequest request, ActionListener<ShardResponse> listener) {
+        if (!enabled || request.items().size() != 1) {
+            shardUpsertExecutor.execute(request, listener);
+            return;
+        }
+        Row row = new Row(request, listener);
+        activeRows.put(request.jobId(), row);
+        coalescer.add(new BatchKey(request), row, row);
+    }
+
+    @Override
+    public void killAllJobs(long timestamp) {
+        List<Row> killed = new ArrayList<>();
+        synchronized (activeRows) {
+            for (Row row : activeRows.values()) {
+                if (row.addedAt < timestamp) {
+                    killed.add(row);
+                }
+            }
+        }
+        kill(killed);
+    }
+
+    @Override
+    public void killJob(UUID jobId) {
+        List<Row> killed;
+        synchronized (activeRows) {
+            killed = new ArrayList<>(activeRows.get(jobId));
+        }
+        kill(killed);
+    }
+
+    private static void kill(List<Row> rows) {
+        for (Row row : rows) {
+            row.onFailure(new JobKilledException());
+        }
+    }
+
+    private void sendBatch(List<Row> rows) {
+        final List<Row> batch = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (!row.isDone()) {
+                // rows of killed jobs have been answered already
+                batch.add(row);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batch.size() == 1) {
+            Row row = batch.get(0);
+            shardUpsertExecutor.execute(row.request, row);
+            return;
+        }
+
+        ShardUpsertRequest first = batch.get(0).request;
+        ShardUpsertRequest request = new ShardUpsertRequest(
+            first.shardId(), first.updateColumns(), first.insertColumns(), first.routing(), UUID.randomUUID());
+        request.continueOnError(true);
+        request.overwriteDuplicates(first.overwriteDuplicates());
+        request.validateConstraints(first.validateConstraints());
+        request.timeout(first.timeout());
+        for (int i = 0; i < batch.size(); i++) {
+            request.add(i, batch.get(i).request.items().get(0));
+        }
+        shardUpsertExecutor.execute(request, new ActionListener<ShardResponse>() {
+            @Override
+            public void onResponse(ShardResponse response) {
+                boolean[] responded = new boolean[batch.size()];
+                for (int i = 0; i < response.itemIndices().size(); i++) {
+                    int position = response.itemIndices().get(i);
+                    responded[position] = true;
+                    respond(batch.get(position), response, response.failures().get(i));
+                }
+                for (int i = 0; i < responded.length; i++) {
+                    if (responded[i]) {
+                        continue;
+                    }
+                    Row row = batch.get(i);
+                    if (response.failure() == null) {
+                        shardUpsertExecutor.execute(row.request, row);
+                    } else {
+                        // the merged request was aborted before this row was processed
+                        ShardResponse rowResponse = new ShardResponse();
+                        rowResponse.failure(response.failure());
+                        row.onResponse(rowResponse);
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                for (Row row : batch) {
+                    row.onFailure(e);
+                }
+            }
+        });
+    }
+
+    private void respond(Row row, ShardResponse response, @Nullable ShardResponse.Failure failure) {
+        if (row.isDone()) {
+            return;
+        }
+        if (failure != null && !row.request.continueOnError()) {
+            // a row that doesn't continue on errors expects the exception itself, which only its own request reports
+            shardUpsertExecutor.execute(row.request, row);
+            return;
+        }
+        ShardResponse rowResponse = new ShardResponse();
+        rowResponse.setShardInfo(response.getShardInfo());
+        rowResponse.add(row.request.itemIndices().get(0), failure);
+        row.onResponse(rowResponse);
+    }
+
+    /**
+     * @return the number of single row upserts which went through the coalescer
+     */
+    public long rows() {
+        return coalescer.requests();
+    }
+
+    /**
+     * @return the number of requests which have been sent for the coalesced upserts
+     */
+    public long batches() {
+        return coalescer.batches();
+    }
+
+    public int largestBatch() {
+        return coalescer.largestBatch();
+    }
+
+    /**
+     * Upserts can only be merged if the request level options of their requests are the same.
+     */
+    private static class BatchKey {
+
+        private final ShardId shardId;
+        @Nullable
+        private final String routing;
+        @Nullable
+        private final List<String> updateColumns;
+        @Nullable
+        private final List<Reference> insertColumns;
+        private final boolean overwriteDuplicates;
+        private final boolean validateConstraints;
+        private final TimeValue timeout;
+
+        BatchKey(ShardUpsertRequest request) {
+            shardId = request.shardId();
+            routing = request.routing();
+            updateColumns = request.updateColumns() == null ? null : Arrays.asList(request.updateColumns());
+            insertColumns = request.insertColumns() == null ? null : Arrays.asList(request.insertColumns());
+            overwriteDuplicates = request.overwriteDuplicates();
+            validateConstraints = request.validateConstraints();
+            timeout = request.timeout();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            BatchKey that = (BatchKey) o;
+            return overwriteDuplicates == that.overwriteDuplicates &&
+                   validateConstraints == that.validateConstraints &&
+                   Objects.equal(shardId, that.shardId) &&
+                   Objects.equal(routing, that.routing) &&
+                   Objects.equal(updateColumns, that.updateColumns) &&
+                   Objects.equal(insertColumns, that.insertColumns) &&
+                   Objects.equal(timeout, that.timeout);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(shardId, routing, updateColumns, insertColumns,
+                overwriteDuplicates, validateConstraints, timeout);
+        }
+    }
+
+    /**
+     * A coalesced upsert; its listener is called once, either with the outcome of the row or
+     * with a {@link JobKilledException} if the job of the row is killed before.
+     */
+    private class Row implements ActionListener<ShardResponse> {
+
+        private final ShardUpsertRequest request;
+        private final ActionListener<ShardResponse> listener;
+        private final long addedAt = System.nanoTime();
+        private final AtomicBoolean done = new AtomicBoolean(false);
+
+        Row(ShardUpsertRequest request, ActionListener<ShardResponse> listener) {
+            this.request = request;
+            this.listener = listener;
+        }
+
+        boolean isDone() {
+            return done.get();
+        }
+
+        @Override
+        public void onResponse(ShardResponse response) {
+            if (done.compareAndSet(false, true)) {
+                activeRows.remove(request.jobId(), this);
+                listener.onResponse(response);
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable e) {
+            if (done.compareAndSet(false, true)) {
+                activeRows.remove(request.jobId(), this);
+                listener.onFailure(e);
+            }
+        }
+    }
+}
@@ -40,6 +40,7 @@ import io.crate.executor.transport.task.elasticsearch.ESClusterUpdateSettingsTas
 import io.crate.executor.transport.task.elasticsearch.ESDeletePartitionTask;
 import io.crate.executor.transport.task.elasticsearch.ESDeleteTask;
 import io.crate.executor.transport.task.elasticsearch.ESGetTask;
+import io.crate.jobs.AdmissionController;
 import io.crate.jobs.JobContextService;
 import io.crate.metadata.Functions;
 import io.crate.metadata.NestedReferenceResolver;
@@ -96,6 +97,7 @@ public class TransportExecutor implements Executor {
     private final TransportActionProvider transportActionProvider;
     private final IndicesService indicesService;
     private final BulkRetryCoordinatorPool bulkRetryCoordinatorPool;
+    private final AdmissionController admissionController;
 
     private final ProjectionToProjectorVisitor globalProjectionToProjectionVisitor;
 
@@ -115,7 +117,8 @@ public class TransportExecutor implements Executor {
                              ShowStatementDispatcher showStatementDispatcherProvider,
                              ClusterService clusterService,
                              IndicesService indicesService,
-                             BulkRetryCoordinatorPool bulkRetryCoordinatorPool) {
+                             BulkRetryCoordinatorPool bulkRetryCoordinatorPool,
+                             AdmissionController admissionController) {
         this.jobContextService = jobContextService;
         this.contextPreparer = contextPreparer;
         this.transportActionProvider = transportActionProvider;
@@ -126,6 +129,7 @@ public class TransportExecutor implements Executor {
         this.clusterService = clusterService;
         this.indicesService = indicesService;
         this.bulkRetryCoordinatorPool = bulkRetryCoordinatorPool;
+        this.admissionController = admissionController;
         plan2TaskVisitor = new TaskCollectingVisitor();
         EvaluatingNormalizer normalizer = new EvaluatingNormalizer(functions, RowGranularity.CLUSTER, referenceResolver);
         ImplementationSymbolVisitor globalImplementationSymbolVisitor = new ImplementationSymbolVisitor(functions);
@@ -161,7 +165,14 @@ public class TransportExecutor implements Executor {
 
         @Override
         public Task visitExplainPlan(ExplainPlan explainPlan, Void context) {
-            return new ExplainTask(explainPlan);
+            if (!explainPlan.analyze()) {
+                return new ExplainTask(explainPlan);
+            }
+            Task subTask = process(explainPlan.subPlan(), context);
+            if (subTask instanceof ExecutionPhasesTask) {
+                ((ExecutionPhasesTask) subTask).profile();
+            }
+            return new ExplainTask(explainPlan, subTask, transportActionProvider.transportCollectProfileNodeAction());
         }
 
         @Override
@@ -179,6 +190,7 @@ public class TransportExecutor implements Executor {
                     contextPreparer,
                     jobContextService,
                     indicesService,
+                    admissionController,
                     transportActionProvider.transportJobInitAction(),
                     transportActionProvider.transportKillJobsNodeAction(),
                     nodeOperationTrees
@@ -191,9 +203,10 @@ public class TransportExecutor implements Executor {
                 functions,
                 globalProjectionToProjectionVisitor,
                 transportActionProvider.transportMultiGetAction(),
-                transportActionProvider.transportGetAction(),
+                transportActionProvider.transportCoalescingGetAction(),
                 plan,
-                jobContextService);
+                jobContextService,
+                admissionController);
         }
 
         @Override
@@ -229,7 +242,18 @@ public class TransportExecutor implements Executor {
 
         @Override
         public Task visitESDelete(ESDelete plan, Void context) {
-            return new ESDeleteTask(plan, transportActionProvider.transportDeleteAction(), jobContextService);
+            if (plan.numBulkResponses() > 0) {
+                return new DeleteByIdTask(
+                    plan,
+                    clusterService,
+                    indexNameExpressionResolver,
+                    clusterService.state().metaData().settings(),
+                    transportActionProvider.transportShardDeleteActionDelegate(),
+                    transportActionProvider.transportBulkCreateIndicesAction(),
+                    bulkRetryCoordinatorPool,
+                    jobContextService);
+            }
+            return new ESDeleteTask(plan, transportActionProvider.transportDeleteAction(), jobContextService, admissionController);
         }
 
         @Override
@@ -239,7 +263,7 @@ public class TransportExecutor implements Executor {
                 clusterService,
                 indexNameExpressionResolver,
                 clusterService.state().metaData().settings(),
-                transportActionProvider.transportShardUpsertActionDelegate(),
+                transportActionProvider.transportCoalescingShardUpsertActionDelegate(),
                 transportActionProvider.transportCreateIndexAction(),
                 transportActionProvider.transportBulkCreateIndicesAction(),
                 bulkRetryCoordinatorPool,
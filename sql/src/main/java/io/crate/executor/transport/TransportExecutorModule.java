@@ -26,6 +26,7 @@ import io.crate.action.job.TransportJobAction;
 import io.crate.executor.Executor;
 import io.crate.executor.transport.distributed.TransportDistributedResultAction;
 import io.crate.executor.transport.kill.TransportKillAllNodeAction;
+import io.crate.executor.transport.profile.TransportCollectProfileNodeAction;
 import io.crate.lucene.LuceneQueryBuilder;
 import org.elasticsearch.common.inject.AbstractModule;
 
@@ -42,7 +43,11 @@ public class TransportExecutorModule extends AbstractModule {
         bind(TransportDistributedResultAction.class).asEagerSingleton();
         bind(TransportShardUpsertAction.class).asEagerSingleton();
         bind(TransportShardDeleteAction.class).asEagerSingleton();
+        bind(TransportShardDeleteByQueryAction.class).asEagerSingleton();
         bind(TransportFetchNodeAction.class).asEagerSingleton();
         bind(TransportKillAllNodeAction.class).asEagerSingleton();
+        bind(TransportCollectProfileNodeAction.class).asEagerSingleton();
+        bind(TransportCoalescingGetAction.class).asEagerSingleton();
+        bind(TransportCoalescingShardUpsertAction.class).asEagerSingleton();
     }
 }
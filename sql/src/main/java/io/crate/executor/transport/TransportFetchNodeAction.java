@@ -22,6 +22,7 @@
 package io.crate.executor.transport;
 
 import com.carrotsearch.hppc.IntObjectMap;
+import com.carrotsearch.hppc.cursors.ObjectCursor;
 import io.crate.Streamer;
 import io.crate.breaker.CrateCircuitBreakerService;
 import io.crate.breaker.RamAccountingContext;
@@ -127,14 +128,22 @@ public class TransportFetchNodeAction implements NodeAction<NodeFetchRequest, No
 
                 @Override
                 protected void doRun() throws Exception {
+                    // requests from the local node aren't serialized, so there is no point in compressing them
+                    boolean compress = request.remoteAddress() != null;
                     IntObjectMap<StreamBucket> fetched = nodeFetchOperation.doFetch(
-                            fetchContext, request.toFetch());
+                            fetchContext, request.toFetch(), compress);
+                    long pageBytes = 0;
+                    long pageBytesCompressed = 0;
+                    for (ObjectCursor<StreamBucket> cursor : fetched.values()) {
+                        pageBytes += cursor.value.uncompressedSizeInBytes();
+                        pageBytesCompressed += cursor.value.sizeInBytes();
+                    }
                     // no streamers needed to serialize, since the buckets are StreamBuckets
                     NodeFetchResponse response = NodeFetchResponse.forSending(fetched);
                     fetchContext.close();
                     fetchResponse.onResponse(response);
                     statsTables.operationFinished(request.fetchPhaseId(), request.jobId(), null,
-                            ramAccountingContext.totalBytes());
+                            ramAccountingContext.totalBytes(), pageBytes, pageBytesCompressed);
                 }
 
                 @Override
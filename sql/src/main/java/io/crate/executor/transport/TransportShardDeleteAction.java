@@ -100,7 +100,7 @@ public class TransportShardDeleteAction extends TransportShardAction<ShardDelete
 
                 }
             } catch (Throwable t) {
-                if (!TransportActions.isShardNotAvailableException(t)) {
+                if (!TransportActions.isShardNotAvailableException(t) && !(t instanceof VersionConflictEngineException)) {
                     throw t;
                 } else {
                     logger.debug("{} failed to execute delete for [{}]/[{}]",
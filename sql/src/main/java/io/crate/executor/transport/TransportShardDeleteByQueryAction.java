@@ -0,0 +1,205 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.executor.transport;
+
+import com.google.common.base.Throwables;
+import io.crate.exceptions.JobKilledException;
+import io.crate.jobs.JobContextService;
+import io.crate.lucene.LuceneQueryBuilder;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.SimpleCollector;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.action.index.MappingUpdatedAction;
+import org.elasticsearch.cluster.action.shard.ShardStateAction;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.fieldvisitor.JustUidFieldsVisitor;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deletes the documents of a shard which match the where clause of a {@link ShardDeleteByQueryRequest}.
+ *
+ * The matching documents are resolved and deleted on the primary within a single operation. The ids and
+ * versions of the deleted documents are added to the request, which is then replicated like a
+ * {@link ShardDeleteRequest}.
+ */
+@Singleton
+public class TransportShardDeleteByQueryAction extends TransportShardAction<ShardDeleteByQueryRequest> {
+
+    private final static String ACTION_NAME = "indices:crate/data/write/delete_by_query";
+
+    private final LuceneQueryBuilder luceneQueryBuilder;
+
+    @Inject
+    public TransportShardDeleteByQueryAction(Settings settings,
+                                             TransportService transportService,
+                                             MappingUpdatedAction mappingUpdatedAction,
+                                             IndexNameExpressionResolver indexNameExpressionResolver,
+                                             ClusterService clusterService,
+                                             IndicesService indicesService,
+                                             ThreadPool threadPool,
+                                             ShardStateAction shardStateAction,
+                                             ActionFilters actionFilters,
+                                             JobContextService jobContextService,
+                                             LuceneQueryBuilder luceneQueryBuilder) {
+        super(settings, ACTION_NAME, transportService, mappingUpdatedAction, indexNameExpressionResolver,
+                clusterService, indicesService, threadPool, shardStateAction, actionFilters, ShardDeleteByQueryRequest.class);
+        this.luceneQueryBuilder = luceneQueryBuilder;
+        jobContextService.addListener(this);
+    }
+
+    @Override
+    protected boolean checkWriteConsistency() {
+        return true;
+    }
+
+    @Override
+    protected ShardResponse processRequestItems(ShardId shardId,
+                                                ShardDeleteByQueryRequest request,
+                                                AtomicBoolean killed) throws InterruptedException {
+        ShardResponse shardResponse = new ShardResponse();
+        IndexService indexService = indicesService.indexServiceSafe(request.index());
+        IndexShard indexShard = indexService.shardSafe(shardId.id());
+
+        // the items of a previous attempt of this primary operation
+        request.clearItems();
+        if (request.refresh()) {
+            indexShard.refresh("delete_by_query");
+        }
+        List<String> ids = matchingIds(request, indexService, indexShard, killed);
+        for (int location = 0; location < ids.size(); location++) {
+            if (killed.get()) {
+                // only the items added so far have been processed and will be processed on the replica
+                shardResponse.failure(new InterruptedException(JobKilledException.MESSAGE));
+                break;
+            }
+            ShardDeleteRequest.Item item = new ShardDeleteRequest.Item(ids.get(location));
+            request.add(location, item);
+
+            Engine.Delete delete = indexShard.prepareDeleteOnPrimary(
+                request.type(), item.id(), item.version(), item.versionType());
+            indexShard.delete(delete);
+            // update the request with the version so it will go to the replicas
+            item.versionType(delete.versionType().versionTypeForReplicationAndRecovery());
+            item.version(delete.version());
+
+            if (delete.found()) {
+                shardResponse.add(location);
+            } else {
+                // deleted concurrently
+                shardResponse.add(location, new ShardResponse.Failure(item.id(), "Document not found while deleting", false));
+            }
+        }
+        return shardResponse;
+    }
+
+    private List<String> matchingIds(ShardDeleteByQueryRequest request,
+                                     IndexService indexService,
+                                     IndexShard indexShard,
+                                     AtomicBoolean killed) {
+        LuceneQueryBuilder.Context ctx = luceneQueryBuilder.convert(
+            request.whereClause(), indexService.mapperService(), indexService.fieldData(), indexService.cache());
+        UidCollector uidCollector = new UidCollector(request.batchSize(), killed);
+        try (Engine.Searcher searcher = indexShard.acquireSearcher("delete_by_query")) {
+            searcher.searcher().search(ctx.query(), uidCollector);
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+        return uidCollector.ids;
+    }
+
+    @Override
+    protected void processRequestItemsOnReplica(ShardId shardId, ShardDeleteByQueryRequest request) {
+        IndexService indexService = indicesService.indexServiceSafe(request.index());
+        IndexShard indexShard = indexService.shardSafe(shardId.id());
+        for (ShardDeleteRequest.Item item : request.items()) {
+            try {
+                Engine.Delete delete = indexShard.prepareDeleteOnReplica(request.type(), item.id(), item.version(), item.versionType());
+                indexShard.delete(delete);
+                logger.trace("{} REPLICA: successfully deleted [{}]/[{}]", request.shardId(), request.type(), item.id());
+            } catch (Throwable e) {
+                // if its not an ignore replica failure, we need to make sure to bubble up the failure
+                // so we will fail the shard
+                if (!ignoreReplicaException(e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * collects the ids of up to {@code limit} documents
+     */
+    private static class UidCollector extends SimpleCollector {
+
+        private final int limit;
+        private final AtomicBoolean killed;
+        private final List<String> ids = new ArrayList<>();
+        private LeafReader reader;
+
+        UidCollector(int limit, AtomicBoolean killed) {
+            this.limit = limit;
+            this.killed = killed;
+        }
+
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) throws IOException {
+            if (ids.size() >= limit || killed.get()) {
+                // only terminates the current segment, so the check must be repeated for every segment
+                throw new CollectionTerminatedException();
+            }
+            reader = context.reader();
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+            JustUidFieldsVisitor visitor = new JustUidFieldsVisitor();
+            reader.document(doc, visitor);
+            ids.add(visitor.uid().id());
+            if (ids.size() >= limit || killed.get()) {
+                throw new CollectionTerminatedException();
+            }
+        }
+
+        @Override
+        public boolean needsScores() {
+            return false;
+        }
+    }
+}
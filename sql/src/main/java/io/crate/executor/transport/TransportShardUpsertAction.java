@@ -125,6 +125,8 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
         DocTableInfo tableInfo = schemas.getWritableTable(TableIdent.fromIndexName(request.index()));
         IndexService indexService = indicesService.indexServiceSafe(shardId.getIndex());
         IndexShard indexShard = indexService.shardSafe(shardId.id());
+        // the flag is sent to the replicas together with the processed items
+        request.autoGeneratedIds(hasAutoGeneratedIds(tableInfo));
 
         Collection<ColumnIdent> notUsedNonGeneratedColumns = ImmutableList.of();
         if (request.validateConstraints()) {
@@ -207,14 +209,21 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
                 } catch (IOException e) {
                     throw ExceptionsHelper.convertToElastic(e);
                 }
-                if (!request.overwriteDuplicates()) {
+                if (!request.overwriteDuplicates() || request.autoGeneratedIds()) {
+                    // a generated id cannot exist yet, so the insert is append-only
                     item.opType(IndexRequest.OpType.CREATE);
                 } else {
                     item.opType(IndexRequest.OpType.INDEX);
                 }
             } else {
                 item.opType(IndexRequest.OpType.INDEX);
-                SourceAndVersion sourceAndVersion = prepareUpdate(tableInfo, request, item, indexShard);
+                SourceAndVersion sourceAndVersion;
+                try {
+                    sourceAndVersion = prepareUpdate(tableInfo, request, item, indexShard);
+                } finally {
+                    // neither a retry nor the replicas must use the source read by the collector
+                    item.currentSource(null, Versions.NOT_FOUND);
+                }
                 item.source(sourceAndVersion.source);
                 version = sourceAndVersion.version;
             }
@@ -238,8 +247,19 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
         }
     }
 
+    /**
+     * The ids of tables without a primary key are generated, so inserts into them never collide with an existing
+     * document. The engine then adds the documents without looking up the id in the version map and the index,
+     * unless the request is a retry and {@link ShardUpsertRequest#canHaveDuplicates()} is set.
+     */
+    static boolean hasAutoGeneratedIds(DocTableInfo tableInfo) {
+        return tableInfo.primaryKey().isEmpty() || tableInfo.hasAutoGeneratedPrimaryKey();
+    }
+
     /**
      * Prepares an update request by converting it into an index request.
+     * The document is fetched from the shard unless the item already carries the source and version
+     * read by the collector. A concurrent change is then detected by the version check of the index operation.
      * <p/>
      * TODO: detect a NOOP and return an update response if true
      */
@@ -248,9 +268,15 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
                                            ShardUpsertRequest request,
                                            ShardUpsertRequest.Item item,
                                            IndexShard indexShard) throws ElasticsearchException {
-        final GetResult getResult = indexShard.getService().get(request.type(), item.id(),
-                new String[]{RoutingFieldMapper.NAME, ParentFieldMapper.NAME, TTLFieldMapper.NAME},
-                true, Versions.MATCH_ANY, VersionType.INTERNAL, FetchSourceContext.FETCH_SOURCE, false);
+        final GetResult getResult;
+        if (item.currentSource() != null) {
+            getResult = new GetResult(request.index(), request.type(), item.id(), item.currentVersion(), true,
+                    item.currentSource(), null);
+        } else {
+            getResult = indexShard.getService().get(request.type(), item.id(),
+                    new String[]{RoutingFieldMapper.NAME, ParentFieldMapper.NAME, TTLFieldMapper.NAME},
+                    true, Versions.MATCH_ANY, VersionType.INTERNAL, FetchSourceContext.FETCH_SOURCE, false);
+        }
 
         if (!getResult.isExists()) {
             throw new DocumentMissingException(new ShardId(request.index(), request.shardId().id()), request.type(), item.id());
@@ -377,7 +403,7 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
             return indexShard.prepareIndexOnPrimary(sourceToParse, version, item.versionType(), request.canHaveDuplicates());
         }
         return indexShard.prepareCreateOnPrimary(
-                sourceToParse, version, item.versionType(), request.canHaveDuplicates(), false);
+                sourceToParse, version, item.versionType(), request.canHaveDuplicates(), request.autoGeneratedIds());
     }
 
     private Translog.Location shardIndexOperation(ShardUpsertRequest request,
@@ -437,7 +463,7 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
                     logger.trace("[{} (R)] Creating document with id {}, source: {}", indexShard.shardId(), item.id(), item.source().toUtf8());
                 }
                 Engine.Create create = indexShard.prepareCreateOnReplica(
-                        sourceToParse, item.version(), item.versionType(), request.canHaveDuplicates(), false);
+                        sourceToParse, item.version(), item.versionType(), request.canHaveDuplicates(), request.autoGeneratedIds());
                 indexShard.create(create);
             }
         } catch (Throwable t) {
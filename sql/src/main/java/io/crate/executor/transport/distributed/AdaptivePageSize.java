@@ -0,0 +1,183 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport.distributed;
+
+import io.crate.Streamer;
+import io.crate.breaker.SizeEstimator;
+import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.core.collections.Bucket;
+import io.crate.executor.transport.StreamBucket;
+import io.crate.types.DataType;
+import io.crate.types.FixedWidthType;
+import io.crate.types.IpType;
+import io.crate.types.StringType;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The number of rows a {@link DistributingDownstream} puts into a page.
+ *
+ * The page size is limited by the planned page size (which might be derived from a limit) and by
+ * the share of the node's {@link PageMemoryBudget}, which is divided among all results that are currently sent.
+ * The initial row size is estimated from the column types using the {@link SizeEstimator}s and is adjusted by
+ * {@link #observe(Bucket[])} using the actual size of the sent buckets.
+ *
+ * The share is held until {@link #close()} is called.
+ */
+public class AdaptivePageSize {
+
+    public static final String MEMORY_BUDGET_SETTING = "pages.memory_budget";
+    public static final String DEFAULT_MEMORY_BUDGET = "2%";
+
+    static final int MIN_PAGE_SIZE = 10;
+
+    /**
+     * assumed size of types without a {@link SizeEstimator}, like objects, arrays or geo shapes
+     */
+    static final long VARIABLE_WIDTH_ESTIMATE = 256;
+
+    /**
+     * assumed average length of strings, used with the {@link io.crate.breaker.BytesRefSizeEstimator}
+     */
+    private static final BytesRef AVERAGE_STRING = new BytesRef(new byte[32]);
+
+    /**
+     * weight of an observed page compared to the previous row size estimate
+     */
+    private static final double OBSERVED_WEIGHT = 0.5;
+
+    private final int maxPageSize;
+    @Nullable
+    private final PageMemoryBudget memoryBudget;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private volatile double rowSize;
+    private volatile int pageSize;
+
+    public static long memoryBudget(Settings settings) {
+        ByteSizeValue budget = settings.getAsMemory(MEMORY_BUDGET_SETTING, DEFAULT_MEMORY_BUDGET);
+        return budget.bytes();
+    }
+
+    /**
+     * create a page size which is always maxPageSize
+     */
+    public static AdaptivePageSize fixed(int maxPageSize) {
+        return new AdaptivePageSize(maxPageSize, 1, null);
+    }
+
+    public AdaptivePageSize(int maxPageSize, Streamer<?>[] streamers, PageMemoryBudget memoryBudget) {
+        this(maxPageSize, estimateRowSize(streamers), memoryBudget);
+    }
+
+    AdaptivePageSize(int maxPageSize, long estimatedRowSize, @Nullable PageMemoryBudget memoryBudget) {
+        this.maxPageSize = maxPageSize;
+        this.memoryBudget = memoryBudget;
+        this.rowSize = Math.max(estimatedRowSize, 1);
+        if (memoryBudget != null) {
+            memoryBudget.register();
+        }
+        this.pageSize = calculatePageSize();
+    }
+
+    /**
+     * give the share of the memory budget back, once no more pages are built
+     */
+    public void close() {
+        if (memoryBudget != null && closed.compareAndSet(false, true)) {
+            memoryBudget.unregister();
+        }
+    }
+
+    public int pageSize() {
+        return pageSize;
+    }
+
+    /**
+     * adjust the page size to the size of a page that has been built and to the current share of the memory budget.
+     * Only encoded buckets are taken into account, the same bucket instance is counted once.
+     */
+    public void observe(Bucket[] buckets) {
+        long numBytes = 0;
+        long numRows = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            Bucket bucket = buckets[i];
+            if (!(bucket instanceof StreamBucket) || (i > 0 && buckets[i - 1] == bucket)) {
+                continue;
+            }
+            StreamBucket streamBucket = (StreamBucket) bucket;
+            numRows += streamBucket.size();
+            numBytes += streamBucket.uncompressedSizeInBytes();
+        }
+        observe(numRows, numBytes);
+    }
+
+    void observe(long numRows, long numBytes) {
+        if (memoryBudget == null) {
+            return;
+        }
+        if (numRows > 0) {
+            double observedRowSize = Math.max((double) numBytes / numRows, 1.0);
+            rowSize = rowSize * (1 - OBSERVED_WEIGHT) + observedRowSize * OBSERVED_WEIGHT;
+        }
+        pageSize = calculatePageSize();
+    }
+
+    private int calculatePageSize() {
+        if (memoryBudget == null) {
+            return maxPageSize;
+        }
+        long budgetRows = (long) (memoryBudget.share() / rowSize);
+        return (int) Math.max(Math.min(budgetRows, maxPageSize), Math.min(MIN_PAGE_SIZE, maxPageSize));
+    }
+
+    static long estimateRowSize(Streamer<?>[] streamers) {
+        long size = 0;
+        for (Streamer<?> streamer : streamers) {
+            size += estimateSize(streamer);
+        }
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long estimateSize(Streamer<?> streamer) {
+        if (!(streamer instanceof DataType)) {
+            return VARIABLE_WIDTH_ESTIMATE;
+        }
+        DataType type = (DataType) streamer;
+        switch (type.id()) {
+            case StringType.ID:
+            case IpType.ID:
+                SizeEstimator<BytesRef> estimator = SizeEstimatorFactory.create(type);
+                return estimator.estimateSize(AVERAGE_STRING);
+            default:
+                if (type instanceof FixedWidthType) {
+                    // same size the ConstSizeEstimator uses for non-null values
+                    return ((FixedWidthType) type).fixedSize();
+                }
+                return VARIABLE_WIDTH_ESTIMATE;
+        }
+    }
+}
@@ -25,30 +25,73 @@ import com.google.common.base.Throwables;
 import io.crate.Streamer;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Row;
+import io.crate.executor.transport.BucketCompressor;
 import io.crate.executor.transport.StreamBucket;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 
 /**
  * MultiBucketBuilder that returns N buckets where N is the number of buckets specified in the constructor.
  * Internally only one bucket is built - the same instance is returned N number of times.
+ *
+ * If a localBucketIdx is given a second, materialized bucket is built for that index
+ * (see {@link LocalBucketBuilder}) and the encoded bucket is only built if there are remote buckets.
  */
 public class BroadcastingBucketBuilder implements MultiBucketBuilder {
 
     private final int numBuckets;
+    private final int localBucketIdx;
+    @Nullable
     private final StreamBucket.Builder bucketBuilder;
+    @Nullable
+    private final LocalBucketBuilder localBucketBuilder;
     private volatile int size = 0;
 
     public BroadcastingBucketBuilder(Streamer<?>[] streamers, int numBuckets) {
+        this(streamers, numBuckets, -1);
+    }
+
+    public BroadcastingBucketBuilder(Streamer<?>[] streamers, int numBuckets, int localBucketIdx) {
+        this(streamers, numBuckets, localBucketIdx, null);
+    }
+
+    public BroadcastingBucketBuilder(Streamer<?>[] streamers,
+                                     int numBuckets,
+                                     int localBucketIdx,
+                                     @Nullable BucketCompressor compressor) {
+        this(streamers, numBuckets, localBucketIdx, compressor, false);
+    }
+
+    public BroadcastingBucketBuilder(Streamer<?>[] streamers,
+                                     int numBuckets,
+                                     int localBucketIdx,
+                                     @Nullable BucketCompressor compressor,
+                                     boolean dictionaryEncoding) {
         this.numBuckets = numBuckets;
-        this.bucketBuilder = new StreamBucket.Builder(streamers);
+        this.localBucketIdx = localBucketIdx;
+        if (localBucketIdx > -1) {
+            localBucketBuilder = new LocalBucketBuilder();
+        } else {
+            localBucketBuilder = null;
+        }
+        if (localBucketBuilder == null || numBuckets > 1) {
+            bucketBuilder = new StreamBucket.Builder(streamers, compressor, dictionaryEncoding);
+        } else {
+            bucketBuilder = null;
+        }
     }
 
     @Override
     public void add(Row row) {
         try {
             synchronized (this) {
-                bucketBuilder.add(row);
+                if (bucketBuilder != null) {
+                    bucketBuilder.add(row);
+                }
+                if (localBucketBuilder != null) {
+                    localBucketBuilder.add(row);
+                }
                 size++;
             }
         } catch (IOException e) {
@@ -64,16 +107,22 @@ public class BroadcastingBucketBuilder implements MultiBucketBuilder {
     @Override
     public synchronized void build(Bucket[] buckets) {
         assert buckets.length == numBuckets : "length of the provided array must match numBuckets";
-        final Bucket bucket;
-        try {
-            bucket = bucketBuilder.build();
-            bucketBuilder.reset();
-        } catch (IOException e) {
-            throw Throwables.propagate(e);
+        Bucket bucket = null;
+        if (bucketBuilder != null) {
+            try {
+                bucket = bucketBuilder.build();
+                bucketBuilder.reset();
+            } catch (IOException e) {
+                throw Throwables.propagate(e);
+            }
         }
         for (int i = 0; i < numBuckets; i++) {
             buckets[i] = bucket;
         }
+        if (localBucketBuilder != null) {
+            buckets[localBucketIdx] = localBucketBuilder.build();
+            localBucketBuilder.reset();
+        }
         size = 0;
     }
 }
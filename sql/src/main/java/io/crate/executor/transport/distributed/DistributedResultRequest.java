@@ -25,6 +25,7 @@ import io.crate.Streamer;
 import io.crate.core.collections.Bucket;
 import io.crate.exceptions.UnknownUpstreamFailure;
 import io.crate.executor.transport.StreamBucket;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.transport.TransportRequest;
@@ -35,9 +36,15 @@ import java.util.UUID;
 
 public class DistributedResultRequest extends TransportRequest {
 
+    /**
+     * Nodes before this version don't know about the pageIdx and always respond before the next page is sent.
+     */
+    static final Version PAGE_IDX_VERSION = Version.V_2_3_3;
+
     private byte inputId;
     private int executionPhaseId;
     private int bucketIdx;
+    private int pageIdx = -1;
 
     private Streamer<?>[] streamers;
     private Bucket rows;
@@ -69,6 +76,23 @@ public class DistributedResultRequest extends TransportRequest {
         this.isLast = isLast;
     }
 
+    /**
+     * @param pageIdx sequence number of the page within the result of this upstream.
+     *                Used by the receiver to restore the order of pages which have been sent
+     *                without waiting for the previous response.
+     */
+    public DistributedResultRequest(UUID jobId,
+                                    int executionPhaseId,
+                                    byte inputId,
+                                    int bucketIdx,
+                                    int pageIdx,
+                                    Streamer<?>[] streamers,
+                                    Bucket rows,
+                                    boolean isLast) {
+        this(jobId, executionPhaseId, inputId, bucketIdx, streamers, rows, isLast);
+        this.pageIdx = pageIdx;
+    }
+
     public DistributedResultRequest(UUID jobId,
                                     int executionPhaseId,
                                     byte inputId,
@@ -79,6 +103,17 @@ public class DistributedResultRequest extends TransportRequest {
         this.throwable = throwable;
     }
 
+    public DistributedResultRequest(UUID jobId,
+                                    int executionPhaseId,
+                                    byte inputId,
+                                    int bucketIdx,
+                                    int pageIdx,
+                                    Streamer<?>[] streamers,
+                                    Throwable throwable) {
+        this(jobId, executionPhaseId, inputId, bucketIdx, streamers, throwable);
+        this.pageIdx = pageIdx;
+    }
+
     public UUID jobId() {
         return jobId;
     }
@@ -95,6 +130,13 @@ public class DistributedResultRequest extends TransportRequest {
         return bucketIdx;
     }
 
+    /**
+     * @return the sequence number of the page or -1 if the upstream waits for a response before sending the next page
+     */
+    public int pageIdx() {
+        return pageIdx;
+    }
+
     public void streamers(Streamer<?>[] streamers) {
         if (rows instanceof StreamBucket) {
             assert streamers != null;
@@ -129,6 +171,9 @@ public class DistributedResultRequest extends TransportRequest {
         jobId = new UUID(in.readLong(), in.readLong());
         executionPhaseId = in.readVInt();
         bucketIdx = in.readVInt();
+        if (in.getVersion().onOrAfter(PAGE_IDX_VERSION)) {
+            pageIdx = in.readInt();
+        }
         isLast = in.readBoolean();
         inputId = in.readByte();
 
@@ -149,6 +194,9 @@ public class DistributedResultRequest extends TransportRequest {
         out.writeLong(jobId.getLeastSignificantBits());
         out.writeVInt(executionPhaseId);
         out.writeVInt(bucketIdx);
+        if (out.getVersion().onOrAfter(PAGE_IDX_VERSION)) {
+            out.writeInt(pageIdx);
+        }
         out.writeBoolean(isLast);
         out.writeByte(inputId);
 
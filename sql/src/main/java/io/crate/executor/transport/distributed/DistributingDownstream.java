@@ -23,21 +23,37 @@ package io.crate.executor.transport.distributed;
 
 import com.google.common.annotations.VisibleForTesting;
 import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Row;
+import io.crate.executor.transport.StreamBucket;
 import io.crate.operation.projectors.*;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * RowReceiver that sends the rows in pages to the downstream nodes.
+ *
+ * Each downstream grants a number of page credits: up to that many pages can be sent to a downstream
+ * before its response for the first one has been received. The upstream is only paused if a page is
+ * full and there are no credits left.
+ */
 public class DistributingDownstream implements RowReceiver {
 
+    public static final String PAGE_CREDITS_SETTING = "pages.credits";
+    public static final int DEFAULT_PAGE_CREDITS = 2;
+
     private static final ActionListener<DistributedResultResponse> NO_OP_ACTION_LISTENER = new ActionListener<DistributedResultResponse>() {
 
         private final ESLogger LOGGER = Loggers.getLogger(DistributingDownstream.class);
@@ -62,17 +78,26 @@ public class DistributingDownstream implements RowReceiver {
     private final int bucketIdx;
     private final TransportDistributedResultAction transportDistributedResultAction;
     private final Streamer<?>[] streamers;
-    private final int pageSize;
+    private final AdaptivePageSize pageSize;
+    private final int pageCredits;
     private final AtomicReference<Throwable> failure = new AtomicReference<>();
-    private final AtomicInteger requestsPending = new AtomicInteger(0);
     private final Downstream[] downstreams;
     private final Object lock = new Object();
     private final AtomicInteger finishedDownstreams = new AtomicInteger(0);
     private final Bucket[] buckets;
+    private final OperationStats stats;
+    @Nullable
+    private final RamAccountingContext ramAccountingContext;
+    private final long localRowSize;
 
     private volatile Result setNextRowResult = Result.CONTINUE;
     private volatile boolean killed = false;
-    private boolean hasUpstreamFinished = false;
+    private volatile boolean hasUpstreamFinished = false;
+
+    // guarded by lock
+    private boolean paused = false;
+    private long pausedAtNanos;
+    private boolean lastPageSent = false;
 
     private final AtomicInteger resumeLatch = new AtomicInteger(2);
     private ResumeHandle resumeable = ResumeHandle.INVALID;
@@ -87,6 +112,72 @@ public class DistributingDownstream implements RowReceiver {
                                   TransportDistributedResultAction transportDistributedResultAction,
                                   Streamer<?>[] streamers,
                                   int pageSize) {
+        this(logger, jobId, multiBucketBuilder, targetExecutionPhaseId, inputId, bucketIdx, downstreamNodeIds,
+                transportDistributedResultAction, streamers, pageSize, -1);
+    }
+
+    public DistributingDownstream(ESLogger logger,
+                                  UUID jobId,
+                                  MultiBucketBuilder multiBucketBuilder,
+                                  int targetExecutionPhaseId,
+                                  byte inputId,
+                                  int bucketIdx,
+                                  Collection<String> downstreamNodeIds,
+                                  TransportDistributedResultAction transportDistributedResultAction,
+                                  Streamer<?>[] streamers,
+                                  int pageSize,
+                                  int localDownstreamIdx) {
+        this(logger, jobId, multiBucketBuilder, targetExecutionPhaseId, inputId, bucketIdx, downstreamNodeIds,
+                transportDistributedResultAction, streamers, AdaptivePageSize.fixed(pageSize), 1, localDownstreamIdx);
+    }
+
+    /**
+     * @param pageSize           the number of rows after which a page is sent, this is adjusted to the size
+     *                           of the sent pages.
+     * @param pageCredits        the number of pages that can be sent to a downstream without having received
+     *                           a response. 1 means the next page is only sent after the previous one was consumed.
+     * @param localDownstreamIdx index of the downstream (within downstreamNodeIds) which is located on this node or -1.
+     *                           Buckets for this downstream are handed over directly instead of being sent via
+     *                           the transport layer. The multiBucketBuilder has to build a non-encoded bucket for it.
+     */
+    public DistributingDownstream(ESLogger logger,
+                                  UUID jobId,
+                                  MultiBucketBuilder multiBucketBuilder,
+                                  int targetExecutionPhaseId,
+                                  byte inputId,
+                                  int bucketIdx,
+                                  Collection<String> downstreamNodeIds,
+                                  TransportDistributedResultAction transportDistributedResultAction,
+                                  Streamer<?>[] streamers,
+                                  AdaptivePageSize pageSize,
+                                  int pageCredits,
+                                  int localDownstreamIdx) {
+        this(logger, jobId, multiBucketBuilder, targetExecutionPhaseId, inputId, bucketIdx, downstreamNodeIds,
+                transportDistributedResultAction, streamers, pageSize, pageCredits, localDownstreamIdx, new OperationStats(),
+                null);
+    }
+
+    /**
+     * @param stats                the stats of the operation this is the downstream of. The sent pages and the time
+     *                             spent paused waiting for page credits are accounted to it.
+     * @param ramAccountingContext context the materialized pages for the local downstream are accounted to
+     *                             until the downstream has consumed them. Encoded pages are not accounted.
+     */
+    public DistributingDownstream(ESLogger logger,
+                                  UUID jobId,
+                                  MultiBucketBuilder multiBucketBuilder,
+                                  int targetExecutionPhaseId,
+                                  byte inputId,
+                                  int bucketIdx,
+                                  Collection<String> downstreamNodeIds,
+                                  TransportDistributedResultAction transportDistributedResultAction,
+                                  Streamer<?>[] streamers,
+                                  AdaptivePageSize pageSize,
+                                  int pageCredits,
+                                  int localDownstreamIdx,
+                                  OperationStats stats,
+                                  @Nullable RamAccountingContext ramAccountingContext) {
+        assert pageCredits > 0 : "pageCredits must be greater than 0";
         this.logger = logger;
         this.jobId = jobId;
         this.multiBucketBuilder = multiBucketBuilder;
@@ -96,12 +187,16 @@ public class DistributingDownstream implements RowReceiver {
         this.transportDistributedResultAction = transportDistributedResultAction;
         this.streamers = streamers;
         this.pageSize = pageSize;
+        this.pageCredits = pageCredits;
+        this.stats = stats;
+        this.ramAccountingContext = ramAccountingContext;
+        localRowSize = AdaptivePageSize.estimateRowSize(streamers);
 
         buckets = new Bucket[downstreamNodeIds.size()];
         downstreams = new Downstream[downstreamNodeIds.size()];
         int i = 0;
         for (String downstreamNodeId : downstreamNodeIds) {
-            downstreams[i] = new Downstream(downstreamNodeId);
+            downstreams[i] = new Downstream(downstreamNodeId, i == localDownstreamIdx);
             i++;
         }
     }
@@ -113,15 +208,17 @@ public class DistributingDownstream implements RowReceiver {
         }
         multiBucketBuilder.add(row);
         synchronized (lock) {
-            if (multiBucketBuilder.size() >= pageSize) {
-                resumeLatch.set(2);
-                if (requestsPending.get() > 0) {
-                    traceLog("page is full and requests are pending");
-                    return Result.PAUSE;
-                } else {
+            if (multiBucketBuilder.size() >= pageSize.pageSize()) {
+                if (hasCredits()) {
                     traceLog("page is full - sending request");
                     multiBucketBuilder.build(buckets);
                     sendRequests(false);
+                } else {
+                    traceLog("page is full and no credits are left");
+                    resumeLatch.set(2);
+                    paused = true;
+                    pausedAtNanos = System.nanoTime();
+                    return Result.PAUSE;
                 }
             }
         }
@@ -151,13 +248,39 @@ public class DistributingDownstream implements RowReceiver {
         }
     }
 
+    /**
+     * @return true if every downstream that still needs rows can receive another page. Must be called holding the lock.
+     */
+    private boolean hasCredits() {
+        for (Downstream downstream : downstreams) {
+            if (!downstream.finished && downstream.pagesInFlight >= pageCredits) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void sendRequests(boolean isLast) {
-        requestsPending.addAndGet(downstreams.length);
+        pageSize.observe(buckets);
         for (int i = 0; i < buckets.length; i++) {
             downstreams[i].sendRequest(buckets[i], isLast);
         }
     }
 
+    /**
+     * Must be called holding the lock.
+     */
+    private void sendLastPageIfPossible() {
+        if (!lastPageSent && hasCredits()) {
+            traceLog("all upstreams finished. Sending last requests");
+            lastPageSent = true;
+            multiBucketBuilder.build(buckets);
+            sendRequests(true);
+        } else if (logger.isTraceEnabled()) {
+            traceLog("all upstreams finished. Doing nothing since there are no credits left");
+        }
+    }
+
     @Override
     public Set<Requirement> requirements() {
         return Requirements.NO_REQUIREMENTS;
@@ -178,6 +301,7 @@ public class DistributingDownstream implements RowReceiver {
     @Override
     public void kill(Throwable throwable) {
         killed = true;
+        pageSize.close();
         // downstream will also receive a kill request
     }
 
@@ -189,20 +313,18 @@ public class DistributingDownstream implements RowReceiver {
         if (killed) {
             return;
         }
-        hasUpstreamFinished = true;
+        // the last page has been built
+        pageSize.close();
         final Throwable throwable = failure.get();
-        if (throwable == null) {
-            if (requestsPending.get() == 0) {
-                traceLog("all upstreams finished. Sending last requests");
-                multiBucketBuilder.build(buckets);
-                sendRequests(true);
-            } else if (logger.isTraceEnabled()) {
-                traceLog("all upstreams finished. Doing nothing since there are pending requests");
-            }
-        } else {
-            traceLog("all upstreams finished; forwarding failure");
-            for (Downstream downstream : downstreams) {
-                downstream.forwardFailure(throwable);
+        synchronized (lock) {
+            hasUpstreamFinished = true;
+            if (throwable == null) {
+                sendLastPageIfPossible();
+            } else {
+                traceLog("all upstreams finished; forwarding failure");
+                for (Downstream downstream : downstreams) {
+                    downstream.forwardFailure(throwable);
+                }
             }
         }
     }
@@ -210,39 +332,54 @@ public class DistributingDownstream implements RowReceiver {
     private class Downstream implements ActionListener<DistributedResultResponse> {
 
         private final String targetNode;
-        private boolean finished = false;
+        private final boolean isLocal;
 
+        // guarded by lock
+        private boolean finished = false;
+        private int pagesInFlight = 0;
+        private int nextPageIdx = 0;
+        private final Deque<Long> localPageBytesInFlight = new ArrayDeque<>();
 
-        public Downstream(String targetNode) {
+        public Downstream(String targetNode, boolean isLocal) {
             this.targetNode = targetNode;
+            this.isLocal = isLocal;
         }
 
         private void traceLog(String msg) {
             if (logger.isTraceEnabled()) {
-                logger.trace("{} targetNode={} targetPhase={}/{} bucket={}", msg, targetNode, targetExecutionPhaseId, inputId, bucketIdx);
+                logger.trace("{} targetNode={} local={} targetPhase={}/{} bucket={}",
+                        msg, targetNode, isLocal, targetExecutionPhaseId, inputId, bucketIdx);
             }
         }
 
         public void forwardFailure(Throwable throwable) {
             traceLog("Forwarding failure");
-            transportDistributedResultAction.pushResult(
-                    targetNode,
-                    new DistributedResultRequest(jobId, targetExecutionPhaseId, inputId, bucketIdx, streamers, throwable),
-                    NO_OP_ACTION_LISTENER
-            );
+            push(new DistributedResultRequest(jobId, targetExecutionPhaseId, inputId, bucketIdx, nextPageIdx++,
+                    streamers, throwable), NO_OP_ACTION_LISTENER);
         }
 
         public void sendRequest(Bucket bucket, boolean isLast) {
             if (finished) {
-                requestsPending.decrementAndGet();
                 return;
             }
             traceLog("Sending result");
-            transportDistributedResultAction.pushResult(
-                    targetNode,
-                    new DistributedResultRequest(jobId, targetExecutionPhaseId, inputId, bucketIdx, streamers, bucket, isLast),
-                    this
-            );
+            if (isLocal && ramAccountingContext != null) {
+                long bytes = RamAccountingContext.roundUp(bucket.size() * localRowSize);
+                ramAccountingContext.addBytes(bytes);
+                localPageBytesInFlight.add(bytes);
+            }
+            pagesInFlight++;
+            stats.addPageSent(bucket instanceof StreamBucket ? ((StreamBucket) bucket).sizeInBytes() : 0L);
+            push(new DistributedResultRequest(jobId, targetExecutionPhaseId, inputId, bucketIdx, nextPageIdx++,
+                    streamers, bucket, isLast), this);
+        }
+
+        private void push(DistributedResultRequest request, ActionListener<DistributedResultResponse> listener) {
+            if (isLocal) {
+                transportDistributedResultAction.pushLocalResult(request, listener);
+            } else {
+                transportDistributedResultAction.pushResult(targetNode, request, listener);
+            }
         }
 
         @Override
@@ -257,38 +394,43 @@ public class DistributingDownstream implements RowReceiver {
         }
 
         private void onResponse(boolean needMore) {
-            finished = !needMore;
-            final int numPending = requestsPending.decrementAndGet();
-
-            if (logger.isTraceEnabled()) {
-                logger.trace("Received response fromNode={} phase={}/{} bucket={} requiresMore={} pendingRequests={} finished={}",
-                        targetNode, targetExecutionPhaseId, inputId, bucketIdx, needMore, numPending, hasUpstreamFinished);
-            }
-            if (numPending > 0) {
-                return;
-            }
-            if (hasUpstreamFinished) {
-                // upstreams (e.g. collector(s)) finished (after the requests have been sent)
-                // send request with isLast=true with remaining buckets to downstream nodes
-                multiBucketBuilder.build(buckets);
-                sendRequests(true); // only sends to nodes that aren't finished already
-            } else if (needMore) {
-                boolean resume = false;
-                synchronized (lock) {
-                    if (multiBucketBuilder.size() >= pageSize) {
+            boolean resume = false;
+            synchronized (lock) {
+                pagesInFlight--;
+                Long localPageBytes = localPageBytesInFlight.poll();
+                if (localPageBytes != null) {
+                    // the page has been consumed, the receiver accounts the rows it retains itself
+                    ramAccountingContext.addBytes(-localPageBytes);
+                }
+                if (!needMore && !finished) {
+                    finished = true;
+                    if (finishedDownstreams.incrementAndGet() == downstreams.length) {
+                        setNextRowResult = Result.STOP;
+                    }
+                }
+                if (logger.isTraceEnabled()) {
+                    logger.trace("Received response fromNode={} phase={}/{} bucket={} requiresMore={} pagesInFlight={} finished={}",
+                            targetNode, targetExecutionPhaseId, inputId, bucketIdx, needMore, pagesInFlight, hasUpstreamFinished);
+                }
+                if (hasUpstreamFinished) {
+                    // upstreams (e.g. collector(s)) finished while all credits were used,
+                    // send the request with isLast=true with the remaining buckets now
+                    if (failure.get() == null) {
+                        sendLastPageIfPossible(); // only sends to nodes that aren't finished already
+                    }
+                } else if (paused && hasCredits()) {
+                    if (multiBucketBuilder.size() >= pageSize.pageSize()) {
                         multiBucketBuilder.build(buckets);
                         sendRequests(false);
-                    } else {
+                    }
+                    if (hasCredits()) {
+                        paused = false;
+                        stats.addPausedNanos(System.nanoTime() - pausedAtNanos);
                         resume = true;
                     }
                 }
-                if (resume) {
-                    resume();
-                }
-            } else {
-                if (finishedDownstreams.incrementAndGet() == downstreams.length) {
-                    setNextRowResult = Result.STOP;
-                }
+            }
+            if (resume) {
                 resume();
             }
         }
@@ -0,0 +1,63 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport.distributed;
+
+import io.crate.core.collections.Bucket;
+import io.crate.core.collections.CollectionBucket;
+import io.crate.core.collections.Row;
+import io.crate.executor.transport.BucketBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BucketBuilder for buckets whose receiver is located on the same node.
+ * The rows are materialized instead of being encoded using the column streamers,
+ * so the receiver can consume them without having to decode them again.
+ */
+public class LocalBucketBuilder implements BucketBuilder {
+
+    private static final int INITIAL_PAGE_SIZE = 16;
+
+    private List<Object[]> rows = new ArrayList<>(INITIAL_PAGE_SIZE);
+
+    @Override
+    public void add(Row row) {
+        rows.add(row.materialize());
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    public Bucket build() {
+        return new CollectionBucket(rows);
+    }
+
+    @Override
+    public void reset() {
+        // the built bucket is handed over to the receiver, so the list can't be re-used
+        rows = new ArrayList<>(Math.max(rows.size(), INITIAL_PAGE_SIZE)); // next bucket is probably going to have the same size
+    }
+}
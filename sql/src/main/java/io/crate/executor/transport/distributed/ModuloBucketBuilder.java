@@ -25,6 +25,8 @@ import com.google.common.base.Throwables;
 import io.crate.Streamer;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Row;
+import io.crate.executor.transport.BucketBuilder;
+import io.crate.executor.transport.BucketCompressor;
 import io.crate.executor.transport.StreamBucket;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.StringHelper;
@@ -37,26 +39,56 @@ import java.util.List;
 /**
  * builds N buckets where N is passed in the CTOR.
  * The rows that are added via {@link #add(Row)} are assigned to the buckets by modulo calculation.
+ *
+ * If a localBucketIdx is given the rows of that bucket aren't encoded but materialized,
+ * see {@link LocalBucketBuilder}.
+ * The other buckets are compressed if a {@link BucketCompressor} is given and their string columns
+ * are dictionary encoded if dictionaryEncoding is true.
  */
 public class ModuloBucketBuilder implements MultiBucketBuilder {
 
     private final int numBuckets;
-    private final List<StreamBucket.Builder> bucketBuilders;
+    private final List<BucketBuilder> bucketBuilders;
     private final int distributedByColumnIdx;
     private volatile int size = 0;
 
     public ModuloBucketBuilder(Streamer<?>[] streamers, int numBuckets, int distributedByColumnIdx) {
+        this(streamers, numBuckets, distributedByColumnIdx, -1);
+    }
+
+    public ModuloBucketBuilder(Streamer<?>[] streamers, int numBuckets, int distributedByColumnIdx, int localBucketIdx) {
+        this(streamers, numBuckets, distributedByColumnIdx, localBucketIdx, null);
+    }
+
+    public ModuloBucketBuilder(Streamer<?>[] streamers,
+                               int numBuckets,
+                               int distributedByColumnIdx,
+                               int localBucketIdx,
+                               @Nullable BucketCompressor compressor) {
+        this(streamers, numBuckets, distributedByColumnIdx, localBucketIdx, compressor, false);
+    }
+
+    public ModuloBucketBuilder(Streamer<?>[] streamers,
+                               int numBuckets,
+                               int distributedByColumnIdx,
+                               int localBucketIdx,
+                               @Nullable BucketCompressor compressor,
+                               boolean dictionaryEncoding) {
         this.numBuckets = numBuckets;
         this.distributedByColumnIdx = distributedByColumnIdx;
         this.bucketBuilders = new ArrayList<>(numBuckets);
         for (int i = 0; i < numBuckets; i++) {
-            bucketBuilders.add(new StreamBucket.Builder(streamers));
+            if (i == localBucketIdx) {
+                bucketBuilders.add(new LocalBucketBuilder());
+            } else {
+                bucketBuilders.add(new StreamBucket.Builder(streamers, compressor, dictionaryEncoding));
+            }
         }
     }
 
     @Override
     public void add(Row row) {
-        final StreamBucket.Builder builder = bucketBuilders.get(getBucket(row));
+        final BucketBuilder builder = bucketBuilders.get(getBucket(row));
         try {
             synchronized (this) {
                 builder.add(row);
@@ -77,7 +109,7 @@ public class ModuloBucketBuilder implements MultiBucketBuilder {
         assert buckets.length == numBuckets : "length of the provided array must match numBuckets";
         for (int i = 0; i < numBuckets; i++) {
             try {
-                final StreamBucket.Builder builder = bucketBuilders.get(i);
+                final BucketBuilder builder = bucketBuilders.get(i);
                 buckets[i] = builder.build();
                 builder.reset();
             } catch (IOException e) {
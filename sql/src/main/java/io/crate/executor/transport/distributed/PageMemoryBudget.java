@@ -0,0 +1,63 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport.distributed;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The memory budget for the pages of intermediate results of a node.
+ *
+ * The budget is shared by all {@link AdaptivePageSize}s which are registered, so the pages of concurrently
+ * sent results get an equal share of it.
+ */
+public class PageMemoryBudget {
+
+    private final long bytes;
+    private final AtomicInteger numShares = new AtomicInteger(0);
+
+    public PageMemoryBudget(long bytes) {
+        this.bytes = bytes;
+    }
+
+    void register() {
+        numShares.incrementAndGet();
+    }
+
+    void unregister() {
+        numShares.decrementAndGet();
+    }
+
+    /**
+     * @return the number of bytes a single page of one of the registered results may use
+     */
+    long share() {
+        return bytes / Math.max(numShares.get(), 1);
+    }
+
+    public long bytes() {
+        return bytes;
+    }
+
+    int numShares() {
+        return numShares.get();
+    }
+}
@@ -32,6 +32,7 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
@@ -53,6 +54,7 @@ public class TransportDistributedResultAction extends AbstractComponent implemen
 
     private final Transports transports;
     private final JobContextService jobContextService;
+    private final ThreadPool threadPool;
     private final ScheduledExecutorService scheduler;
 
     @Inject
@@ -64,6 +66,7 @@ public class TransportDistributedResultAction extends AbstractComponent implemen
         super(settings);
         this.transports = transports;
         this.jobContextService = jobContextService;
+        this.threadPool = threadPool;
         scheduler = threadPool.scheduler();
 
         transportService.registerRequestHandler(DISTRIBUTED_RESULT_ACTION,
@@ -82,6 +85,27 @@ public class TransportDistributedResultAction extends AbstractComponent implemen
                 });
     }
 
+    /**
+     * Push a result to a downstream that is located on this node.
+     *
+     * The request is neither serialized nor sent via the transport layer, so the bucket of the request is
+     * consumed as is by the {@link PageBucketReceiver}.
+     * Like remote requests the request is processed and the response is handled using a separate thread pool.
+     */
+    public void pushLocalResult(final DistributedResultRequest request, final ActionListener<DistributedResultResponse> listener) {
+        final ActionListener<DistributedResultResponse> threadedListener = new ExecutorActionListener(listener);
+        try {
+            threadPool.executor(EXECUTOR_NAME).execute(new Runnable() {
+                @Override
+                public void run() {
+                    nodeOperation(request, threadedListener);
+                }
+            });
+        } catch (EsRejectedExecutionException e) {
+            listener.onFailure(e);
+        }
+    }
+
     @Override
     public void nodeOperation(DistributedResultRequest request,
                               ActionListener<DistributedResultResponse> listener) {
@@ -119,13 +143,19 @@ public class TransportDistributedResultAction extends AbstractComponent implemen
         Throwable throwable = request.throwable();
         if (throwable == null) {
             request.streamers(pageBucketReceiver.streamer());
-            pageBucketReceiver.setBucket(
-                    request.bucketIdx(),
-                    request.rows(),
-                    request.isLast(),
-                    new SendResponsePageResultListener(listener, request));
+            SendResponsePageResultListener pageResultListener = new SendResponsePageResultListener(listener, request);
+            if (request.pageIdx() < 0) {
+                pageBucketReceiver.setBucket(request.bucketIdx(), request.rows(), request.isLast(), pageResultListener);
+            } else {
+                pageBucketReceiver.setBucket(
+                        request.bucketIdx(), request.pageIdx(), request.rows(), request.isLast(), pageResultListener);
+            }
         } else {
-            pageBucketReceiver.failure(request.bucketIdx(), throwable);
+            if (request.pageIdx() < 0) {
+                pageBucketReceiver.failure(request.bucketIdx(), throwable);
+            } else {
+                pageBucketReceiver.failure(request.bucketIdx(), request.pageIdx(), throwable);
+            }
             listener.onResponse(new DistributedResultResponse(false));
         }
     }
@@ -167,6 +197,43 @@ public class TransportDistributedResultAction extends AbstractComponent implemen
         }
     }
 
+    private class ExecutorActionListener implements ActionListener<DistributedResultResponse> {
+
+        private final ActionListener<DistributedResultResponse> listener;
+
+        public ExecutorActionListener(ActionListener<DistributedResultResponse> listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onResponse(final DistributedResultResponse response) {
+            try {
+                threadPool.executor(EXECUTOR_NAME).execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onResponse(response);
+                    }
+                });
+            } catch (EsRejectedExecutionException e) {
+                listener.onFailure(e);
+            }
+        }
+
+        @Override
+        public void onFailure(final Throwable e) {
+            try {
+                threadPool.executor(EXECUTOR_NAME).execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onFailure(e);
+                    }
+                });
+            } catch (EsRejectedExecutionException rejected) {
+                listener.onFailure(e);
+            }
+        }
+    }
+
     private class NodeOperationRunnable implements Runnable {
         private final DistributedResultRequest request;
         private final ActionListener<DistributedResultResponse> listener;
@@ -24,6 +24,7 @@ package io.crate.executor.transport.executionphases;
 
 import com.google.common.base.Function;
 import com.google.common.collect.FluentIterable;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
@@ -37,6 +38,7 @@ import io.crate.executor.JobTask;
 import io.crate.executor.TaskResult;
 import io.crate.executor.transport.kill.TransportKillJobsNodeAction;
 import io.crate.jobs.*;
+import io.crate.jobs.AdmissionController.Ticket;
 import io.crate.operation.NodeOperation;
 import io.crate.operation.NodeOperationTree;
 import io.crate.operation.RowCountResultRowDownstream;
@@ -50,6 +52,7 @@ import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.indices.IndicesService;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
 
@@ -65,14 +68,17 @@ public class ExecutionPhasesTask extends JobTask {
     private ContextPreparer contextPreparer;
     private final JobContextService jobContextService;
     private final IndicesService indicesService;
+    private final AdmissionController admissionController;
 
     private boolean hasDirectResponse;
+    private boolean profile = false;
 
     public ExecutionPhasesTask(UUID jobId,
                                ClusterService clusterService,
                                ContextPreparer contextPreparer,
                                JobContextService jobContextService,
                                IndicesService indicesService,
+                               AdmissionController admissionController,
                                TransportJobAction transportJobAction,
                                TransportKillJobsNodeAction transportKillJobsNodeAction,
                                List<NodeOperationTree> nodeOperationTrees) {
@@ -81,6 +87,7 @@ public class ExecutionPhasesTask extends JobTask {
         this.contextPreparer = contextPreparer;
         this.jobContextService = jobContextService;
         this.indicesService = indicesService;
+        this.admissionController = admissionController;
         this.transportJobAction = transportJobAction;
         this.transportKillJobsNodeAction = transportKillJobsNodeAction;
         this.nodeOperationTrees = nodeOperationTrees;
@@ -95,9 +102,37 @@ public class ExecutionPhasesTask extends JobTask {
         }
     }
 
+    /**
+     * Keep the execution statistics of the job on all involved nodes. Once the job finished they can be
+     * retrieved using {@link JobContextService#collectProfile(UUID)}.
+     */
+    public void profile() {
+        profile = true;
+    }
+
     @Override
-    public void execute(ResultReceiver resultReceiver) {
+    public void execute(final ResultReceiver resultReceiver) {
         assert nodeOperationTrees.size() == 1 : "must only have 1 NodeOperationTree for non-bulk operations";
+        Futures.addCallback(admissionController.admit(WorkloadClassifier.classify(nodeOperationTrees), jobId()), new FutureCallback<Ticket>() {
+            @Override
+            public void onSuccess(@Nullable Ticket ticket) {
+                assert ticket != null : "ticket must not be null";
+                try {
+                    execute(resultReceiver, ticket);
+                } catch (Throwable throwable) {
+                    ticket.release();
+                    resultReceiver.fail(throwable);
+                }
+            }
+
+            @Override
+            public void onFailure(@Nonnull Throwable t) {
+                resultReceiver.fail(t);
+            }
+        });
+    }
+
+    private void execute(ResultReceiver resultReceiver, Ticket ticket) throws Throwable {
         NodeOperationTree nodeOperationTree = nodeOperationTrees.get(0);
         Map<String, Collection<NodeOperation>> operationByServer = NodeOperationGrouper.groupByServer(nodeOperationTree.nodeOperations());
         InitializationTracker initializationTracker = new InitializationTracker(operationByServer.size());
@@ -108,15 +143,42 @@ public class ExecutionPhasesTask extends JobTask {
             initializationTracker,
             transportKillJobsNodeAction);
         Tuple<ExecutionPhase, RowReceiver> handlerPhase = new Tuple<>(nodeOperationTree.leaf(), receiver);
-        try {
-            setupContext(operationByServer, Collections.singletonList(handlerPhase), initializationTracker);
-        } catch (Throwable throwable) {
-            resultReceiver.fail(throwable);
-        }
+        setupContext(operationByServer, Collections.singletonList(handlerPhase), initializationTracker, ticket);
     }
 
     @Override
     public List<? extends ListenableFuture<TaskResult>> executeBulk() {
+        final List<SettableFuture<TaskResult>> results = new ArrayList<>(nodeOperationTrees.size());
+        for (int i = 0; i < nodeOperationTrees.size(); i++) {
+            results.add(SettableFuture.<TaskResult>create());
+        }
+        Futures.addCallback(admissionController.admit(WorkloadClassifier.classify(nodeOperationTrees), jobId()), new FutureCallback<Ticket>() {
+            @Override
+            public void onSuccess(@Nullable Ticket ticket) {
+                assert ticket != null : "ticket must not be null";
+                try {
+                    executeBulk(results, ticket);
+                } catch (Throwable throwable) {
+                    ticket.release();
+                    setBulkFailure(results, throwable);
+                }
+            }
+
+            @Override
+            public void onFailure(@Nonnull Throwable t) {
+                setBulkFailure(results, t);
+            }
+        });
+        return results;
+    }
+
+    private static void setBulkFailure(List<SettableFuture<TaskResult>> results, Throwable throwable) {
+        for (SettableFuture<TaskResult> result : results) {
+            result.setException(throwable);
+        }
+    }
+
+    private void executeBulk(List<SettableFuture<TaskResult>> results, Ticket ticket) throws Throwable {
         FluentIterable<NodeOperation> nodeOperations = FluentIterable.from(nodeOperationTrees)
             .transformAndConcat(new Function<NodeOperationTree, Iterable<? extends NodeOperation>>() {
                 @Nullable
@@ -129,31 +191,21 @@ public class ExecutionPhasesTask extends JobTask {
         InitializationTracker initializationTracker = new InitializationTracker(operationByServer.size());
 
         List<Tuple<ExecutionPhase, RowReceiver>> handlerPhases = new ArrayList<>(nodeOperationTrees.size());
-        List<SettableFuture<TaskResult>> results = new ArrayList<>(nodeOperationTrees.size());
-        for (NodeOperationTree nodeOperationTree : nodeOperationTrees) {
-            SettableFuture<TaskResult> result = SettableFuture.create();
-            results.add(result);
+        for (int i = 0; i < nodeOperationTrees.size(); i++) {
             RowReceiver receiver = new InterceptingRowReceiver(
                 jobId(),
-                new RowCountResultRowDownstream(result),
+                new RowCountResultRowDownstream(results.get(i)),
                 initializationTracker,
                 transportKillJobsNodeAction);
-            handlerPhases.add(new Tuple<>(nodeOperationTree.leaf(), receiver));
-        }
-
-        try {
-            setupContext(operationByServer, handlerPhases, initializationTracker);
-        } catch (Throwable throwable) {
-            for (SettableFuture<TaskResult> result : results) {
-                result.setException(throwable);
-            }
+            handlerPhases.add(new Tuple<>(nodeOperationTrees.get(i).leaf(), receiver));
         }
-        return results;
+        setupContext(operationByServer, handlerPhases, initializationTracker, ticket);
     }
 
     private void setupContext(Map<String, Collection<NodeOperation>> operationByServer,
                               List<Tuple<ExecutionPhase, RowReceiver>> handlerPhases,
-                              InitializationTracker initializationTracker) throws Throwable {
+                              InitializationTracker initializationTracker,
+                              Ticket ticket) throws Throwable {
 
         String localNodeId = clusterService.localNode().id();
         Collection<NodeOperation> localNodeOperations = operationByServer.remove(localNodeId);
@@ -161,10 +213,11 @@ public class ExecutionPhasesTask extends JobTask {
             localNodeOperations = Collections.emptyList();
         }
 
-        JobExecutionContext.Builder builder = jobContextService.newBuilder(jobId(), localNodeId);
+        JobExecutionContext.Builder builder = jobContextService.newBuilder(jobId(), localNodeId, profile);
         List<ListenableFuture<Bucket>> directResponseFutures =
             contextPreparer.prepareOnHandler(localNodeOperations, builder, handlerPhases, new SharedShardContexts(indicesService));
         JobExecutionContext localJobContext = jobContextService.createContext(builder);
+        localJobContext.addListener(AdmissionController.releaseOnCompletion(ticket));
 
         List<PageBucketReceiver> pageBucketReceivers = getHandlerBucketReceivers(localJobContext, handlerPhases);
         int bucketIdx = 0;
@@ -191,7 +244,7 @@ public class ExecutionPhasesTask extends JobTask {
                                  InitializationTracker initializationTracker) {
         for (Map.Entry<String, Collection<NodeOperation>> entry : operationByServer.entrySet()) {
             String serverNodeId = entry.getKey();
-            JobRequest request = new JobRequest(jobId(), localNodeId, entry.getValue());
+            JobRequest request = new JobRequest(jobId(), localNodeId, entry.getValue(), profile);
             if (hasDirectResponse) {
                 transportJobAction.execute(serverNodeId, request,
                     new SetBucketAction(pageBucketReceivers, bucketIdx, initializationTracker));
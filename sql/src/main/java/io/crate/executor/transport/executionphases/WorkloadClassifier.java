@@ -0,0 +1,128 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.executor.transport.executionphases;
+
+import io.crate.analyze.WhereClause;
+import io.crate.jobs.AdmissionController.WorkloadClass;
+import io.crate.metadata.Routing;
+import io.crate.operation.NodeOperation;
+import io.crate.operation.NodeOperationTree;
+import io.crate.planner.node.ExecutionPhase;
+import io.crate.planner.node.ExecutionPhaseVisitor;
+import io.crate.planner.node.dql.CountPhase;
+import io.crate.planner.node.dql.FileUriCollectPhase;
+import io.crate.planner.node.dql.RoutedCollectPhase;
+import io.crate.planner.node.dql.TableFunctionCollectPhase;
+import io.crate.planner.node.dql.join.NestedLoopPhase;
+
+import java.util.List;
+
+/**
+ * Derives the {@link WorkloadClass} of a job from the shape of its {@link NodeOperationTree}s:
+ *
+ * <ul>
+ *     <li>bulk operations, COPY FROM, joins and jobs which distribute rows to more than one node are {@link WorkloadClass#HEAVY}</li>
+ *     <li>jobs which only read system tables or a single shard using a primary key or routing lookup are {@link WorkloadClass#POINT}</li>
+ *     <li>everything else is {@link WorkloadClass#DEFAULT}</li>
+ * </ul>
+ */
+class WorkloadClassifier extends ExecutionPhaseVisitor<WorkloadClassifier.Context, Void> {
+
+    private static final WorkloadClassifier INSTANCE = new WorkloadClassifier();
+
+    static class Context {
+        private boolean heavy = false;
+        private boolean point = true;
+        private int numShards = 0;
+    }
+
+    static WorkloadClass classify(List<NodeOperationTree> nodeOperationTrees) {
+        if (nodeOperationTrees.size() > 1) {
+            return WorkloadClass.HEAVY;
+        }
+        Context context = new Context();
+        for (NodeOperationTree nodeOperationTree : nodeOperationTrees) {
+            for (NodeOperation nodeOperation : nodeOperationTree.nodeOperations()) {
+                if (nodeOperation.downstreamNodes().size() > 1) {
+                    return WorkloadClass.HEAVY;
+                }
+                INSTANCE.process(nodeOperation.executionPhase(), context);
+            }
+            INSTANCE.process(nodeOperationTree.leaf(), context);
+        }
+        if (context.heavy) {
+            return WorkloadClass.HEAVY;
+        }
+        if (context.point && context.numShards <= 1) {
+            return WorkloadClass.POINT;
+        }
+        return WorkloadClass.DEFAULT;
+    }
+
+    private static void visitRouting(Routing routing, Context context) {
+        if (routing.hasLocations()) {
+            for (String nodeId : routing.nodes()) {
+                context.numShards += routing.numShards(nodeId);
+            }
+        }
+    }
+
+    @Override
+    public Void visitRoutedCollectPhase(RoutedCollectPhase phase, Context context) {
+        int numShardsBefore = context.numShards;
+        visitRouting(phase.routing(), context);
+        if (context.numShards > numShardsBefore) {
+            WhereClause whereClause = phase.whereClause();
+            context.point &= whereClause.docKeys().isPresent() || whereClause.clusteredBy().isPresent();
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitCountPhase(CountPhase phase, Context context) {
+        visitRouting(phase.routing(), context);
+        return null;
+    }
+
+    @Override
+    public Void visitTableFunctionCollect(TableFunctionCollectPhase phase, Context context) {
+        return null;
+    }
+
+    @Override
+    public Void visitFileUriCollectPhase(FileUriCollectPhase phase, Context context) {
+        context.heavy = true;
+        return null;
+    }
+
+    @Override
+    public Void visitNestedLoopPhase(NestedLoopPhase phase, Context context) {
+        context.heavy = true;
+        return null;
+    }
+
+    @Override
+    protected Void visitExecutionPhase(ExecutionPhase phase, Context context) {
+        return null;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.executor.transport.profile;
+
+import com.google.common.base.Function;
+import io.crate.jobs.PhaseProfile;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.transport.TransportResponse;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.*;
+
+public class CollectProfileResponse extends TransportResponse {
+
+    static final Function<List<CollectProfileResponse>, CollectProfileResponse> MERGE_FUNCTION =
+        new Function<List<CollectProfileResponse>, CollectProfileResponse>() {
+            @Override
+            public CollectProfileResponse apply(@Nullable List<CollectProfileResponse> input) {
+                Map<String, List<PhaseProfile>> profiles = new HashMap<>();
+                if (input != null) {
+                    for (CollectProfileResponse response : input) {
+                        profiles.putAll(response.profiles());
+                    }
+                }
+                return new CollectProfileResponse(profiles);
+            }
+        };
+
+    private Map<String, List<PhaseProfile>> profiles;
+
+    public CollectProfileResponse() {
+        profiles = Collections.emptyMap();
+    }
+
+    public CollectProfileResponse(String nodeId, List<PhaseProfile> profiles) {
+        this(Collections.singletonMap(nodeId, profiles));
+    }
+
+    private CollectProfileResponse(Map<String, List<PhaseProfile>> profiles) {
+        this.profiles = profiles;
+    }
+
+    /**
+     * @return the {@link PhaseProfile}s by node id. Nodes on which the job wasn't profiled map to an empty list.
+     */
+    public Map<String, List<PhaseProfile>> profiles() {
+        return profiles;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        int numNodes = in.readVInt();
+        profiles = new HashMap<>(numNodes);
+        for (int i = 0; i < numNodes; i++) {
+            String nodeId = in.readString();
+            int numProfiles = in.readVInt();
+            List<PhaseProfile> nodeProfiles = new ArrayList<>(numProfiles);
+            for (int j = 0; j < numProfiles; j++) {
+                nodeProfiles.add(PhaseProfile.fromStream(in));
+            }
+            profiles.put(nodeId, nodeProfiles);
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeVInt(profiles.size());
+        for (Map.Entry<String, List<PhaseProfile>> entry : profiles.entrySet()) {
+            out.writeString(entry.getKey());
+            out.writeVInt(entry.getValue().size());
+            for (PhaseProfile phaseProfile : entry.getValue()) {
+                phaseProfile.writeTo(out);
+            }
+        }
+    }
+}
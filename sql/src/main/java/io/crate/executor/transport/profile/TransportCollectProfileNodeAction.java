@@ -0,0 +1,112 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.executor.transport.profile;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import io.crate.executor.MultiActionListener;
+import io.crate.executor.transport.DefaultTransportResponseHandler;
+import io.crate.executor.transport.NodeAction;
+import io.crate.executor.transport.NodeActionRequestHandler;
+import io.crate.jobs.JobContextService;
+import io.crate.jobs.PhaseProfile;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Collects the {@link PhaseProfile}s of a profiled job from all nodes.
+ * The nodes respond once their part of the job has finished.
+ */
+@Singleton
+public class TransportCollectProfileNodeAction extends AbstractComponent
+    implements NodeAction<CollectProfileRequest, CollectProfileResponse> {
+
+    private static final String TRANSPORT_ACTION = "crate/sql/collect_profile";
+
+    private final JobContextService jobContextService;
+    private final ClusterService clusterService;
+    private final TransportService transportService;
+
+    @Inject
+    public TransportCollectProfileNodeAction(Settings settings,
+                                             JobContextService jobContextService,
+                                             ClusterService clusterService,
+                                             TransportService transportService) {
+        super(settings);
+        this.jobContextService = jobContextService;
+        this.clusterService = clusterService;
+        this.transportService = transportService;
+
+        transportService.registerRequestHandler(TRANSPORT_ACTION,
+                CollectProfileRequest.class,
+                ThreadPool.Names.GENERIC,
+                new NodeActionRequestHandler<CollectProfileRequest, CollectProfileResponse>(this) { });
+    }
+
+    public void executeOnAllNodes(CollectProfileRequest request, ActionListener<CollectProfileResponse> listener) {
+        DiscoveryNodes nodes = clusterService.state().nodes();
+        listener = new MultiActionListener<>(nodes.size(), CollectProfileResponse.MERGE_FUNCTION, listener);
+
+        DefaultTransportResponseHandler<CollectProfileResponse> transportResponseHandler =
+                new DefaultTransportResponseHandler<CollectProfileResponse>(listener) {
+            @Override
+            public CollectProfileResponse newInstance() {
+                return new CollectProfileResponse();
+            }
+        };
+
+        logger.trace("Sending {} to {}", request, nodes);
+        for (DiscoveryNode node : nodes) {
+            transportService.sendRequest(node, TRANSPORT_ACTION, request, transportResponseHandler);
+        }
+    }
+
+    @Override
+    public void nodeOperation(CollectProfileRequest request, final ActionListener<CollectProfileResponse> listener) {
+        final String localNodeId = clusterService.localNode().id();
+        Futures.addCallback(jobContextService.collectProfile(request.jobId()), new FutureCallback<List<PhaseProfile>>() {
+            @Override
+            public void onSuccess(@Nullable List<PhaseProfile> result) {
+                assert result != null : "profile must not be null";
+                listener.onResponse(new CollectProfileResponse(localNodeId, result));
+            }
+
+            @Override
+            public void onFailure(@Nonnull Throwable t) {
+                listener.onFailure(t);
+            }
+        });
+    }
+}
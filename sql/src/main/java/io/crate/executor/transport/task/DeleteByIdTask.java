@@ -0,0 +1,194 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.executor.transport.task;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.crate.action.sql.ResultReceiver;
+import io.crate.analyze.where.DocKeys;
+import io.crate.executor.JobTask;
+import io.crate.executor.RowCountResult;
+import io.crate.executor.TaskResult;
+import io.crate.executor.transport.ShardDeleteRequest;
+import io.crate.executor.transport.task.elasticsearch.ESGetTask;
+import io.crate.jobs.BulkShardProcessorContext;
+import io.crate.jobs.JobContextService;
+import io.crate.jobs.JobExecutionContext;
+import io.crate.metadata.settings.CrateSettings;
+import io.crate.planner.node.dml.ESDelete;
+import org.elasticsearch.action.admin.indices.create.TransportBulkCreateIndicesAction;
+import org.elasticsearch.action.bulk.BulkRequestExecutor;
+import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
+import org.elasticsearch.action.bulk.BulkShardProcessor;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.settings.Settings;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Deletes the documents of a bulk delete by primary key using a single {@link BulkShardProcessor},
+ * so that the deletes of all bulk argument sets are grouped into one request per shard instead of
+ * sending one delete request per argument set.
+ *
+ * The row count of each bulk argument set is the number of its documents which have been deleted,
+ * documents which don't exist (anymore) or whose version doesn't match count as 0 rows.
+ */
+public class DeleteByIdTask extends JobTask {
+
+    private final ESDelete esDelete;
+    private final ClusterService clusterService;
+    private final JobContextService jobContextService;
+    private final BulkShardProcessor<ShardDeleteRequest> bulkShardProcessor;
+    private final BulkShardProcessorContext bulkShardProcessorContext;
+    private final List<SettableFuture<TaskResult>> results;
+
+    /**
+     * the bulk index of each item added to the bulk processor, items of partitions which
+     * don't exist are never added
+     */
+    private final List<Integer> itemBulkIndices;
+
+    public DeleteByIdTask(ESDelete esDelete,
+                          ClusterService clusterService,
+                          IndexNameExpressionResolver indexNameExpressionResolver,
+                          Settings settings,
+                          BulkRequestExecutor<ShardDeleteRequest> transportShardDeleteActionDelegate,
+                          TransportBulkCreateIndicesAction transportBulkCreateIndicesAction,
+                          BulkRetryCoordinatorPool bulkRetryCoordinatorPool,
+                          JobContextService jobContextService) {
+        super(esDelete.jobId());
+        assert esDelete.numBulkResponses() > 0 : "DeleteByIdTask is only used for bulk operations";
+        this.esDelete = esDelete;
+        this.clusterService = clusterService;
+        this.jobContextService = jobContextService;
+        this.itemBulkIndices = new ArrayList<>(esDelete.docKeys().size());
+
+        ShardDeleteRequest.Builder builder = new ShardDeleteRequest.Builder(
+            CrateSettings.BULK_REQUEST_TIMEOUT.extractTimeValue(settings),
+            jobId()
+        );
+        bulkShardProcessor = new BulkShardProcessor<>(
+            clusterService,
+            transportBulkCreateIndicesAction,
+            indexNameExpressionResolver,
+            settings,
+            bulkRetryCoordinatorPool,
+            false,
+            esDelete.docKeys().size(),
+            builder,
+            transportShardDeleteActionDelegate,
+            jobId());
+        bulkShardProcessorContext = new BulkShardProcessorContext(
+            esDelete.executionPhaseId(), "bulk-delete-by-id", bulkShardProcessor);
+        bulkShardProcessorContext.operationStats().addBulkController(bulkShardProcessor.controller());
+
+        results = new ArrayList<>(esDelete.numBulkResponses());
+        for (int i = 0; i < esDelete.numBulkResponses(); i++) {
+            results.add(SettableFuture.<TaskResult>create());
+        }
+    }
+
+    @Override
+    public void execute(ResultReceiver resultReceiver) {
+        JobTask.resultToResultReceiver(executeBulk().get(0), resultReceiver);
+    }
+
+    @Override
+    public List<? extends ListenableFuture<TaskResult>> executeBulk() {
+        Futures.addCallback(bulkShardProcessor.result(), new FutureCallback<BitSet>() {
+            @Override
+            public void onSuccess(@Nullable BitSet result) {
+                if (result == null) {
+                    setAll(TaskResult.ROW_COUNT_UNKNOWN);
+                } else {
+                    long[] rowCounts = new long[results.size()];
+                    for (int i = 0; i < itemBulkIndices.size(); i++) {
+                        if (result.get(i)) {
+                            rowCounts[itemBulkIndices.get(i)]++;
+                        }
+                    }
+                    for (int i = 0; i < results.size(); i++) {
+                        results.get(i).set(new RowCountResult(rowCounts[i]));
+                    }
+                }
+                bulkShardProcessorContext.close();
+            }
+
+            @Override
+            public void onFailure(@Nonnull Throwable t) {
+                if (t instanceof InterruptedException) {
+                    for (SettableFuture<TaskResult> result : results) {
+                        result.setException(t);
+                    }
+                } else {
+                    setAll(RowCountResult.error(t));
+                }
+                bulkShardProcessorContext.close();
+            }
+        });
+
+        try {
+            JobExecutionContext.Builder contextBuilder = jobContextService.newBuilder(jobId());
+            contextBuilder.addSubContext(bulkShardProcessorContext);
+            JobExecutionContext jobExecutionContext = jobContextService.createContext(contextBuilder);
+
+            MetaData metaData = clusterService.state().metaData();
+            for (int i = 0; i < esDelete.docKeys().size(); i++) {
+                DocKeys.DocKey docKey = esDelete.docKeys().get(i);
+                String index = ESGetTask.indexName(esDelete.tableInfo(), docKey.partitionValues());
+                if (!metaData.hasConcreteIndex(index)) {
+                    // the partition doesn't exist, so there is nothing to delete
+                    continue;
+                }
+                ShardDeleteRequest.Item item = new ShardDeleteRequest.Item(docKey.id());
+                if (docKey.version().isPresent()) {
+                    item.version(docKey.version().get());
+                }
+                itemBulkIndices.add(esDelete.bulkIndices().get(i));
+                if (!bulkShardProcessorContext.add(index, item, docKey.routing())) {
+                    break;
+                }
+            }
+            jobExecutionContext.start();
+        } catch (Throwable throwable) {
+            for (SettableFuture<TaskResult> result : results) {
+                result.setException(throwable);
+            }
+        }
+        return results;
+    }
+
+    private void setAll(TaskResult taskResult) {
+        for (SettableFuture<TaskResult> result : results) {
+            result.set(taskResult);
+        }
+    }
+}
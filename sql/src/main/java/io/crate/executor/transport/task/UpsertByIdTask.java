@@ -213,6 +213,7 @@ public class UpsertByIdTask extends JobTask {
             jobId());
         bulkShardProcessorContext = new BulkShardProcessorContext(
             upsertById.executionPhaseId(), bulkShardProcessor);
+        bulkShardProcessorContext.operationStats().addBulkController(bulkShardProcessor.controller());
 
         if (upsertById.numBulkResponses() == 0) {
             final SettableFuture<TaskResult> futureResult = SettableFuture.create();
@@ -252,7 +253,7 @@ public class UpsertByIdTask extends JobTask {
                         return;
                     }
 
-                    for (int i = 0; i < result.length(); i++) {
+                    for (int i = 0; i < upsertById.bulkIndices().size(); i++) {
                         int resultIdx = upsertById.bulkIndices().get(i);
 
                         if (resultsRowCount[resultIdx] == null) {
@@ -265,7 +266,10 @@ public class UpsertByIdTask extends JobTask {
                     for (int i = 0; i < numResults; i++) {
                         SettableFuture<TaskResult> future = resultList.get(i);
                         Integer rowCount = resultsRowCount[i];
-                        if (rowCount != null && rowCount >= 0) {
+                        if (rowCount == null) {
+                            // no items for this bulk argument set, e.g. its where clause can't match
+                            future.set(TaskResult.ZERO);
+                        } else if (rowCount >= 0) {
                             future.set(new RowCountResult(rowCount));
                         } else {
                             future.set(TaskResult.FAILURE);
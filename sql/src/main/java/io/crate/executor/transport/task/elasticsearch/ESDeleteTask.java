@@ -26,6 +26,7 @@ import io.crate.Constants;
 import io.crate.analyze.where.DocKeys;
 import io.crate.exceptions.Exceptions;
 import io.crate.executor.TaskResult;
+import io.crate.jobs.AdmissionController;
 import io.crate.jobs.JobContextService;
 import io.crate.planner.node.dml.ESDelete;
 import org.elasticsearch.action.ActionListener;
@@ -41,8 +42,10 @@ public class ESDeleteTask extends EsJobContextTask {
 
     public ESDeleteTask(ESDelete esDelete,
                         TransportDeleteAction transport,
-                        JobContextService jobContextService) {
-        super(esDelete.jobId(), esDelete.executionPhaseId(), esDelete.docKeys().size(), jobContextService);
+                        JobContextService jobContextService,
+                        AdmissionController admissionController) {
+        super(esDelete.jobId(), esDelete.executionPhaseId(), esDelete.docKeys().size(), esDelete.docKeys().size(),
+                jobContextService, admissionController);
         List<DeleteRequest> requests = new ArrayList<>(esDelete.docKeys().size());
         List<ActionListener> listeners = new ArrayList<>(esDelete.docKeys().size());
         for (DocKeys.DocKey docKey : esDelete.docKeys()) {
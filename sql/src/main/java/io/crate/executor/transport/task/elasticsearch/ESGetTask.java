@@ -37,6 +37,8 @@ import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Buckets;
 import io.crate.executor.QueryResult;
 import io.crate.executor.TaskResult;
+import io.crate.executor.transport.TransportCoalescingGetAction;
+import io.crate.jobs.AdmissionController;
 import io.crate.jobs.JobContextService;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Functions;
@@ -71,10 +73,11 @@ public class ESGetTask extends EsJobContextTask {
     public ESGetTask(Functions functions,
                      ProjectorFactory projectorFactory,
                      TransportMultiGetAction multiGetAction,
-                     TransportGetAction getAction,
+                     TransportCoalescingGetAction getAction,
                      ESGet esGet,
-                     JobContextService jobContextService) {
-        super(esGet.jobId(), esGet.executionPhaseId(), 1, jobContextService);
+                     JobContextService jobContextService,
+                     AdmissionController admissionController) {
+        super(esGet.jobId(), esGet.executionPhaseId(), 1, esGet.docKeys().size(), jobContextService, admissionController);
 
         assert multiGetAction != null;
         assert getAction != null;
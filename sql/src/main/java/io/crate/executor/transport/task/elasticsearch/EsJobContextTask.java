@@ -21,11 +21,14 @@
 
 package io.crate.executor.transport.task.elasticsearch;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.crate.action.sql.ResultReceiver;
 import io.crate.executor.JobTask;
 import io.crate.executor.TaskResult;
+import io.crate.jobs.AdmissionController;
 import io.crate.jobs.ESJobContext;
 import io.crate.jobs.JobContextService;
 import io.crate.jobs.JobExecutionContext;
@@ -34,6 +37,7 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionRequest;
 import org.elasticsearch.action.support.TransportAction;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
@@ -44,18 +48,34 @@ class EsJobContextTask extends JobTask {
     protected final List<SettableFuture<TaskResult>> results;
     protected final int executionPhaseId;
     private final JobContextService jobContextService;
+    private final AdmissionController admissionController;
+    private final AdmissionController.WorkloadClass workloadClass;
     private JobExecutionContext.Builder builder;
 
+    /**
+     * @param numDocKeys the number of documents the task operates on, a single document is a point lookup
+     */
     EsJobContextTask(UUID jobId,
                      int executionPhaseId,
                      int numResults,
-                     JobContextService jobContextService) {
+                     int numDocKeys,
+                     JobContextService jobContextService,
+                     AdmissionController admissionController) {
         super(jobId);
         this.executionPhaseId = executionPhaseId;
         this.jobContextService = jobContextService;
+        this.admissionController = admissionController;
+        this.workloadClass = workloadClass(numDocKeys);
         results = new ArrayList<>(numResults);
     }
 
+    static AdmissionController.WorkloadClass workloadClass(int numDocKeys) {
+        if (numDocKeys == 1) {
+            return AdmissionController.WorkloadClass.POINT;
+        }
+        return AdmissionController.WorkloadClass.DEFAULT;
+    }
+
     void createContextBuilder(String operationName,
                               List<? extends ActionRequest> requests,
                               List<? extends ActionListener> listeners,
@@ -71,25 +91,43 @@ class EsJobContextTask extends JobTask {
     public void execute(ResultReceiver resultReceiver) {
         assert builder != null : "Context must be created first";
         SettableFuture<TaskResult> result = results.get(0);
-        try {
-            JobExecutionContext ctx = jobContextService.createContext(builder);
-            ctx.start();
-        } catch (Throwable throwable) {
-            result.setException(throwable);
-        }
+        start(results.subList(0, 1));
         JobTask.resultToResultReceiver(result, resultReceiver);
     }
 
     @Override
     public final List<? extends ListenableFuture<TaskResult>> executeBulk() {
         assert builder != null : "Builder must be created first";
-        try {
-            jobContextService.createContext(builder).start();
-        } catch (Throwable throwable) {
-            for (SettableFuture<TaskResult> result : results) {
-                result.setException(throwable);
-            }
-        }
+        start(results);
         return results;
     }
+
+    /**
+     * creates and starts the context once the job got a slot in the lane of the {@link AdmissionController}
+     * which matches the number of documents
+     */
+    private void start(final List<SettableFuture<TaskResult>> failOnError) {
+        Futures.addCallback(admissionController.admit(workloadClass, jobId()),
+            new FutureCallback<AdmissionController.Ticket>() {
+                @Override
+                public void onSuccess(@Nullable AdmissionController.Ticket ticket) {
+                    assert ticket != null : "ticket must not be null";
+                    try {
+                        JobExecutionContext ctx = jobContextService.createContext(builder);
+                        ctx.addListener(AdmissionController.releaseOnCompletion(ticket));
+                        ctx.start();
+                    } catch (Throwable throwable) {
+                        ticket.release();
+                        onFailure(throwable);
+                    }
+                }
+
+                @Override
+                public void onFailure(@Nonnull Throwable t) {
+                    for (SettableFuture<TaskResult> result : failOnError) {
+                        result.setException(t);
+                    }
+                }
+            });
+    }
 }
@@ -24,6 +24,7 @@ package io.crate.jobs;
 
 import io.crate.concurrent.CompletionListener;
 import io.crate.exceptions.JobKilledException;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import org.elasticsearch.common.logging.ESLogger;
 
 import javax.annotation.Nonnull;
@@ -34,10 +35,16 @@ public abstract class AbstractExecutionSubContext implements ExecutionSubContext
     protected final ESLogger logger;
     protected final SubExecutionContextFuture future = new SubExecutionContextFuture();
     protected final int id;
+    protected final OperationStats stats;
 
     protected AbstractExecutionSubContext(int id, ESLogger logger) {
+        this(id, logger, new OperationStats());
+    }
+
+    protected AbstractExecutionSubContext(int id, ESLogger logger, OperationStats stats) {
         this.id = id;
         this.logger = logger;
+        this.stats = stats;
     }
 
     public int id() {
@@ -65,10 +72,13 @@ public abstract class AbstractExecutionSubContext implements ExecutionSubContext
     public final void start() {
         if (!future.closed()) {
             logger.trace("starting id={} ctx={}", id, this);
+            OperationStats.Measurement measurement = stats.startMeasurement();
             try {
                 innerStart();
             } catch (Throwable t) {
                 close(t);
+            } finally {
+                measurement.stop();
             }
         }
     }
@@ -125,6 +135,11 @@ public abstract class AbstractExecutionSubContext implements ExecutionSubContext
     public void cleanup() {
     }
 
+    @Override
+    public OperationStats operationStats() {
+        return stats;
+    }
+
     @Override
     public void addListener(final CompletionListener listener) {
         future.addCallback(listener);
@@ -0,0 +1,410 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.jobs;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import io.crate.concurrent.CompletionListener;
+import io.crate.concurrent.CompletionState;
+import io.crate.exceptions.JobKilledException;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits the number of jobs which are executed concurrently by the handler node.
+ *
+ * Jobs are assigned to a {@link WorkloadClass}; each class has its own slots and its own queue,
+ * so cheap point lookups never wait behind large scans.
+ * A job which doesn't get a slot is queued until a running job of the same class finishes,
+ * or is rejected if the queue of its class is full.
+ * Queued jobs are removed from the queue if they're killed or if their future is cancelled.
+ */
+@Singleton
+public class AdmissionController extends AbstractComponent implements KillAllListener {
+
+    public static final String ENABLED_SETTING = "admission.enabled";
+    public static final String SLOTS_SETTING_SUFFIX = ".slots";
+    public static final String QUEUE_SIZE_SETTING_SUFFIX = ".queue_size";
+
+    public enum WorkloadClass {
+        /**
+         * primary key lookups, single shard queries and queries on system tables
+         */
+        POINT(4, 1000),
+        DEFAULT(2, 200),
+        /**
+         * distributed queries, joins, bulk operations and COPY FROM
+         */
+        HEAVY(0.5f, 100);
+
+        private final float slotsPerProcessor;
+        private final int defaultQueueSize;
+
+        WorkloadClass(float slotsPerProcessor, int defaultQueueSize) {
+            this.slotsPerProcessor = slotsPerProcessor;
+            this.defaultQueueSize = defaultQueueSize;
+        }
+
+        public String settingPrefix() {
+            return "admission." + name().toLowerCase(Locale.ENGLISH);
+        }
+    }
+
+    public interface Ticket {
+
+        /**
+         * frees the slot which was acquired by the job; may be called more than once
+         */
+        void release();
+    }
+
+    private final Lane[] lanes;
+    private final ClusterService clusterService;
+    private final Executor executor;
+    private BytesRef nodeId;
+
+    @Inject
+    public AdmissionController(Settings settings,
+                               ClusterService clusterService,
+                               ThreadPool threadPool,
+                               JobContextService jobContextService) {
+        this(settings, clusterService, threadPool.generic());
+        jobContextService.addListener(this);
+    }
+
+    public AdmissionController(Settings settings, ClusterService clusterService, Executor executor) {
+        super(settings);
+        this.clusterService = clusterService;
+        this.executor = executor;
+        boolean enabled = settings.getAsBoolean(ENABLED_SETTING, false);
+        int processors = EsExecutors.boundedNumberOfProcessors(settings);
+        WorkloadClass[] workloadClasses = WorkloadClass.values();
+        lanes = new Lane[workloadClasses.length];
+        for (WorkloadClass workloadClass : workloadClasses) {
+            String prefix = workloadClass.settingPrefix();
+            int slots = settings.getAsInt(prefix + SLOTS_SETTING_SUFFIX,
+                Math.max(1, (int) (processors * workloadClass.slotsPerProcessor)));
+            int queueSize = settings.getAsInt(prefix + QUEUE_SIZE_SETTING_SUFFIX, workloadClass.defaultQueueSize);
+            lanes[workloadClass.ordinal()] = new Lane(workloadClass, enabled, Math.max(1, slots), Math.max(0, queueSize));
+        }
+    }
+
+    /**
+     * acquire a slot for a job of the given workload class.
+     *
+     * @return a future which is completed with a {@link Ticket} once the job may be started.
+     *         It fails with an {@link EsRejectedExecutionException} if the queue of the workload class is full
+     *         and with a {@link JobKilledException} if the job is killed while it is queued.
+     *         The ticket must be released once the job is finished.
+     */
+    public ListenableFuture<Ticket> admit(WorkloadClass workloadClass, UUID jobId) {
+        return lanes[workloadClass.ordinal()].admit(jobId);
+    }
+
+    @Override
+    public void killAllJobs(long timestamp) {
+        for (Lane lane : lanes) {
+            lane.kill(null, timestamp);
+        }
+    }
+
+    @Override
+    public void killJob(UUID jobId) {
+        for (Lane lane : lanes) {
+            lane.kill(jobId, Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * returns a listener which releases the ticket once the {@link JobExecutionContext} is closed
+     */
+    public static CompletionListener releaseOnCompletion(final Ticket ticket) {
+        return new CompletionListener() {
+            @Override
+            public void onSuccess(@Nullable CompletionState result) {
+                ticket.release();
+            }
+
+            @Override
+            public void onFailure(@Nonnull Throwable t) {
+                ticket.release();
+            }
+        };
+    }
+
+    public Iterable<LaneStats> stats() {
+        if (nodeId == null) {
+            nodeId = new BytesRef(clusterService.localNode().id());
+        }
+        List<LaneStats> stats = new ArrayList<>(lanes.length);
+        for (Lane lane : lanes) {
+            stats.add(lane.stats(nodeId));
+        }
+        return stats;
+    }
+
+    public static class LaneStats {
+
+        private final BytesRef nodeId;
+        private final WorkloadClass workloadClass;
+        private final boolean enabled;
+        private final int slots;
+        private final int queueSize;
+        private final int active;
+        private final int queued;
+        private final long admitted;
+        private final long rejected;
+        private final long avgWaitTime;
+        private final long maxWaitTime;
+
+        LaneStats(BytesRef nodeId,
+                  WorkloadClass workloadClass,
+                  boolean enabled,
+                  int slots,
+                  int queueSize,
+                  int active,
+                  int queued,
+                  long admitted,
+                  long rejected,
+                  long avgWaitTime,
+                  long maxWaitTime) {
+            this.nodeId = nodeId;
+            this.workloadClass = workloadClass;
+            this.enabled = enabled;
+            this.slots = slots;
+            this.queueSize = queueSize;
+            this.active = active;
+            this.queued = queued;
+            this.admitted = admitted;
+            this.rejected = rejected;
+            this.avgWaitTime = avgWaitTime;
+            this.maxWaitTime = maxWaitTime;
+        }
+
+        public BytesRef nodeId() {
+            return nodeId;
+        }
+
+        public WorkloadClass workloadClass() {
+            return workloadClass;
+        }
+
+        public boolean enabled() {
+            return enabled;
+        }
+
+        public int slots() {
+            return slots;
+        }
+
+        public int queueSize() {
+            return queueSize;
+        }
+
+        public int active() {
+            return active;
+        }
+
+        public int queued() {
+            return queued;
+        }
+
+        public long admitted() {
+            return admitted;
+        }
+
+        public long rejected() {
+            return rejected;
+        }
+
+        /**
+         * average time in ms the admitted jobs spent in the queue
+         */
+        public long avgWaitTime() {
+            return avgWaitTime;
+        }
+
+        /**
+         * maximum time in ms a job spent in the queue
+         */
+        public long maxWaitTime() {
+            return maxWaitTime;
+        }
+    }
+
+    private class Lane {
+
+        private final WorkloadClass workloadClass;
+        private final boolean enabled;
+        private final int slots;
+        private final int queueSize;
+        private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+
+        private int active = 0;
+        private long admitted = 0;
+        private long rejected = 0;
+        private long numWaited = 0;
+        private long totalWaitNanos = 0;
+        private long maxWaitNanos = 0;
+
+        Lane(WorkloadClass workloadClass, boolean enabled, int slots, int queueSize) {
+            this.workloadClass = workloadClass;
+            this.enabled = enabled;
+            this.slots = slots;
+            this.queueSize = queueSize;
+        }
+
+        ListenableFuture<Ticket> admit(UUID jobId) {
+            final Waiter waiter;
+            synchronized (this) {
+                if (!enabled || active < slots) {
+                    active++;
+                    admitted++;
+                    return Futures.<Ticket>immediateFuture(new LaneTicket(this));
+                }
+                if (queue.size() >= queueSize) {
+                    rejected++;
+                    return Futures.immediateFailedFuture(new EsRejectedExecutionException(String.format(Locale.ENGLISH,
+                        "Rejected execution of job: %d %s jobs are running and %d are queued",
+                        active, workloadClass.name().toLowerCase(Locale.ENGLISH), queue.size())));
+                }
+                waiter = new Waiter(jobId);
+                queue.add(waiter);
+            }
+            waiter.future.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    if (waiter.future.isCancelled()) {
+                        remove(waiter);
+                    }
+                }
+            }, MoreExecutors.directExecutor());
+            return waiter.future;
+        }
+
+        private synchronized void remove(Waiter waiter) {
+            queue.remove(waiter);
+        }
+
+        /**
+         * fail the queued jobs with the given id, or all queued jobs which were queued before the given time
+         */
+        void kill(@Nullable UUID jobId, long queuedBefore) {
+            List<Waiter> killed = new ArrayList<>();
+            synchronized (this) {
+                Iterator<Waiter> it = queue.iterator();
+                while (it.hasNext()) {
+                    Waiter waiter = it.next();
+                    if (jobId == null ? waiter.queuedAt < queuedBefore : jobId.equals(waiter.jobId)) {
+                        it.remove();
+                        killed.add(waiter);
+                    }
+                }
+            }
+            for (Waiter waiter : killed) {
+                waiter.future.setException(new JobKilledException());
+            }
+        }
+
+        void release() {
+            final Waiter waiter;
+            synchronized (this) {
+                waiter = queue.poll();
+                if (waiter == null) {
+                    active--;
+                    return;
+                }
+                // the slot is handed over to the waiting job, active stays the same
+                long waitNanos = System.nanoTime() - waiter.queuedAt;
+                admitted++;
+                numWaited++;
+                totalWaitNanos += waitNanos;
+                maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+            }
+            // the releasing thread might be a network thread, the waiting job is started on another one
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    LaneTicket ticket = new LaneTicket(Lane.this);
+                    if (!waiter.future.set(ticket)) {
+                        // the waiter has been cancelled in the meantime, the slot goes to the next one
+                        ticket.release();
+                    }
+                }
+            });
+        }
+
+        synchronized LaneStats stats(BytesRef nodeId) {
+            long avgWaitNanos = numWaited == 0 ? 0 : totalWaitNanos / numWaited;
+            return new LaneStats(nodeId, workloadClass, enabled, slots, queueSize, active, queue.size(), admitted, rejected,
+                TimeUnit.NANOSECONDS.toMillis(avgWaitNanos), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+        }
+    }
+
+    private static class Waiter {
+        private final SettableFuture<Ticket> future = SettableFuture.create();
+        private final long queuedAt = System.nanoTime();
+        private final UUID jobId;
+
+        Waiter(UUID jobId) {
+            this.jobId = jobId;
+        }
+    }
+
+    private static class LaneTicket implements Ticket {
+
+        private final Lane lane;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        LaneTicket(Lane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                lane.release();
+            }
+        }
+    }
+}
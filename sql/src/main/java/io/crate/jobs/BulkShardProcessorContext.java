@@ -33,10 +33,16 @@ public class BulkShardProcessorContext extends AbstractExecutionSubContext {
 
     private static final ESLogger LOGGER = Loggers.getLogger(BulkShardProcessorContext.class);
 
+    private final String name;
     private final BulkShardProcessor<? extends ShardRequest> bulkShardProcessor;
 
     public BulkShardProcessorContext(int id, BulkShardProcessor<? extends ShardRequest> bulkShardProcessor) {
+        this(id, "bulk-update-by-id", bulkShardProcessor);
+    }
+
+    public BulkShardProcessorContext(int id, String name, BulkShardProcessor<? extends ShardRequest> bulkShardProcessor) {
         super(id, LOGGER);
+        this.name = name;
         this.bulkShardProcessor = bulkShardProcessor;
     }
 
@@ -65,6 +71,6 @@ public class BulkShardProcessorContext extends AbstractExecutionSubContext {
 
     @Override
     public String name() {
-        return "bulk-update-by-id";
+        return name;
     }
 }
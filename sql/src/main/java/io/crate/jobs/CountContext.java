@@ -30,6 +30,7 @@ import io.crate.core.collections.Row1;
 import io.crate.operation.count.CountOperation;
 import io.crate.operation.projectors.RepeatHandle;
 import io.crate.operation.projectors.RowReceiver;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 
@@ -54,9 +55,18 @@ public class CountContext extends AbstractExecutionSubContext {
                         RowReceiver rowReceiver,
                         Map<String, List<Integer>> indexShardMap,
                         WhereClause whereClause) {
-        super(id, LOGGER);
+        this(id, countOperation, rowReceiver, indexShardMap, whereClause, new OperationStats());
+    }
+
+    public CountContext(int id,
+                        CountOperation countOperation,
+                        RowReceiver rowReceiver,
+                        Map<String, List<Integer>> indexShardMap,
+                        WhereClause whereClause,
+                        OperationStats stats) {
+        super(id, LOGGER, stats);
         this.countOperation = countOperation;
-        this.rowReceiver = rowReceiver;
+        this.rowReceiver = stats.countRowsOut(rowReceiver);
         this.indexShardMap = indexShardMap;
         this.whereClause = whereClause;
     }
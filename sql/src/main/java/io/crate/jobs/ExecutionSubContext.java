@@ -23,6 +23,7 @@ package io.crate.jobs;
 
 import io.crate.concurrent.CompletionListenable;
 import io.crate.concurrent.CompletionListener;
+import io.crate.operation.reference.sys.operation.OperationStats;
 
 import javax.annotation.Nullable;
 
@@ -57,4 +58,9 @@ public interface ExecutionSubContext extends CompletionListenable {
      */
     void cleanup();
 
+    /**
+     * @return the cpu, allocation and row counters of this context
+     */
+    OperationStats operationStats();
+
 }
@@ -21,6 +21,11 @@
 
 package io.crate.jobs;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import io.crate.concurrent.CompletionState;
 import io.crate.exceptions.ContextMissingException;
 import io.crate.concurrent.CompletionListener;
@@ -37,6 +42,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 @Singleton
@@ -53,6 +59,14 @@ public class JobContextService extends AbstractLifecycleComponent<JobContextServ
 
     private final List<KillAllListener> killAllListeners = Collections.synchronizedList(new ArrayList<KillAllListener>());
 
+    /**
+     * profiles of profiled jobs, they are removed once they are collected.
+     * Profiles which are never collected (e.g. because the handler node left) expire.
+     */
+    private final Cache<UUID, SettableFuture<List<PhaseProfile>>> profiles = CacheBuilder.newBuilder()
+        .expireAfterWrite(1, TimeUnit.HOURS)
+        .build();
+
     @Inject
     public JobContextService(Settings settings, ClusterService clusterService, StatsTables statsTables) {
         super(settings);
@@ -110,6 +124,33 @@ public class JobContextService extends AbstractLifecycleComponent<JobContextServ
         return new JobExecutionContext.Builder(jobId, coordinatorNodeId, statsTables);
     }
 
+    /**
+     * @param profile if true the {@link PhaseProfile}s of the job can be retrieved using {@link #collectProfile(UUID)}
+     */
+    public JobExecutionContext.Builder newBuilder(UUID jobId, String coordinatorNodeId, boolean profile) {
+        if (profile) {
+            return new JobExecutionContext.Builder(
+                jobId, coordinatorNodeId, statsTables, SettableFuture.<List<PhaseProfile>>create());
+        }
+        return newBuilder(jobId, coordinatorNodeId);
+    }
+
+    /**
+     * Returns the profile of a profiled job which has been executed on this node. The returned future completes
+     * once the JobExecutionContext of the job finished. The profile can only be collected once.
+     *
+     * @return a future with the {@link PhaseProfile}s of the job, it contains an empty list if
+     *         the job wasn't profiled on this node.
+     */
+    public ListenableFuture<List<PhaseProfile>> collectProfile(UUID jobId) {
+        SettableFuture<List<PhaseProfile>> profile = profiles.getIfPresent(jobId);
+        if (profile == null) {
+            return Futures.immediateFuture(Collections.<PhaseProfile>emptyList());
+        }
+        profiles.invalidate(jobId);
+        return profile;
+    }
+
     public JobExecutionContext createContext(JobExecutionContext.Builder contextBuilder) throws Exception {
         if (contextBuilder.isEmpty()) {
             throw new IllegalArgumentException("JobExecutionContext.Builder must at least contain 1 SubExecutionContext");
@@ -124,6 +165,10 @@ public class JobContextService extends AbstractLifecycleComponent<JobContextServ
                 throw new IllegalArgumentException(
                         String.format(Locale.ENGLISH, "context for job %s already exists:%n%s", jobId, existing));
             }
+            SettableFuture<List<PhaseProfile>> profile = contextBuilder.profileFuture();
+            if (profile != null) {
+                profiles.put(jobId, profile);
+            }
         } finally {
             readLock.unlock();
         }
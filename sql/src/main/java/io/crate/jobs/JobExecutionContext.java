@@ -66,17 +66,37 @@ public class JobExecutionContext implements CompletionListenable {
     private CompletionListener listener = CompletionListener.NO_OP;
     private volatile Throwable failure;
 
+    @Nullable
+    private final SettableFuture<List<PhaseProfile>> profile;
+    private final List<PhaseProfile> phaseProfiles;
+    @Nullable
+    private final ConcurrentMap<Integer, Long> subContextStartedNanos;
+
     public static class Builder {
 
         private final UUID jobId;
         private final String coordinatorNode;
         private final StatsTables statsTables;
         private final LinkedHashMap<Integer, ExecutionSubContext> subContexts = new LinkedHashMap<>();
+        @Nullable
+        private final SettableFuture<List<PhaseProfile>> profile;
 
         Builder(UUID jobId, String coordinatorNode, StatsTables statsTables) {
+            this(jobId, coordinatorNode, statsTables, null);
+        }
+
+        /**
+         * @param profile if not null the job is profiled, the {@link PhaseProfile}s of all subContexts
+         *                are set on it once the JobExecutionContext finished
+         */
+        Builder(UUID jobId,
+                String coordinatorNode,
+                StatsTables statsTables,
+                @Nullable SettableFuture<List<PhaseProfile>> profile) {
             this.jobId = jobId;
             this.coordinatorNode = coordinatorNode;
             this.statsTables = statsTables;
+            this.profile = profile;
         }
 
         public void addAllSubContexts(Iterable<? extends ExecutionSubContext> subContexts) {
@@ -101,8 +121,17 @@ public class JobExecutionContext implements CompletionListenable {
             return jobId;
         }
 
+        public boolean profile() {
+            return profile != null;
+        }
+
+        @Nullable
+        SettableFuture<List<PhaseProfile>> profileFuture() {
+            return profile;
+        }
+
         JobExecutionContext build() throws Exception {
-            return new JobExecutionContext(jobId, coordinatorNode, statsTables, subContexts);
+            return new JobExecutionContext(jobId, coordinatorNode, statsTables, subContexts, profile);
         }
     }
 
@@ -110,8 +139,16 @@ public class JobExecutionContext implements CompletionListenable {
     private JobExecutionContext(UUID jobId,
                                 String coordinatorNodeId,
                                 StatsTables statsTables,
-                                LinkedHashMap<Integer, ExecutionSubContext> contextMap) throws Exception {
+                                LinkedHashMap<Integer, ExecutionSubContext> contextMap,
+                                @Nullable SettableFuture<List<PhaseProfile>> profile) throws Exception {
         this.coordinatorNodeId = coordinatorNodeId;
+        this.profile = profile;
+        phaseProfiles = profile == null
+            ? Collections.<PhaseProfile>emptyList()
+            : Collections.synchronizedList(new ArrayList<PhaseProfile>(contextMap.size()));
+        subContextStartedNanos = profile == null
+            ? null
+            : new ConcurrentHashMap<Integer, Long>(contextMap.size());
         orderedContextIds = Lists.newArrayList(contextMap.keySet());
         this.jobId = jobId;
         this.statsTables = statsTables;
@@ -142,7 +179,7 @@ public class JobExecutionContext implements CompletionListenable {
         for (int i = 0; i < orderedContextIds.size(); i++) {
             Integer id = orderedContextIds.get(i);
             ExecutionSubContext subContext = contextMap.get(id);
-            statsTables.operationStarted(id, jobId, subContext.name());
+            statsTables.operationStarted(id, jobId, subContext.name(), subContext.operationStats());
             try {
                 subContext.prepare();
             } catch (Exception e) {
@@ -164,6 +201,9 @@ public class JobExecutionContext implements CompletionListenable {
             if (subContext == null || closed.get()) {
                 break; // got killed before start was called
             }
+            if (profile != null) {
+                subContextStartedNanos.put(id, System.nanoTime());
+            }
             subContext.start();
         }
         if (failure != null) {
@@ -215,6 +255,9 @@ public class JobExecutionContext implements CompletionListenable {
     }
 
     private void finish() {
+        if (profile != null) {
+            profile.set(new ArrayList<>(phaseProfiles));
+        }
         if (failure != null) {
             listener.onFailure(failure);
         } else {
@@ -246,9 +289,14 @@ public class JobExecutionContext implements CompletionListenable {
             this.id = id;
         }
 
-        private RemoveSubContextPosition remove() {
+        private RemoveSubContextPosition remove(@Nullable String error) {
             ExecutionSubContext removed = subContexts.remove(id);
             assert removed != null;
+            if (profile != null) {
+                Long startedNanos = subContextStartedNanos.get(id);
+                long wallTimeNanos = startedNanos == null ? 0L : System.nanoTime() - startedNanos;
+                phaseProfiles.add(new PhaseProfile(id, removed.name(), wallTimeNanos, removed.operationStats(), error));
+            }
             if (numSubContexts.decrementAndGet() == 0) {
                 finish();
                 return RemoveSubContextPosition.LAST;
@@ -259,15 +307,17 @@ public class JobExecutionContext implements CompletionListenable {
         @Override
         public void onSuccess(@Nullable CompletionState state) {
             assert state != null;
-            statsTables.operationFinished(id, jobId, null, state.bytesUsed());
-            remove();
+            statsTables.operationFinished(id, jobId, null, state.bytesUsed(),
+                state.pageBytes(), state.pageBytesCompressed());
+            remove(null);
         }
 
         @Override
         public void onFailure(@Nonnull Throwable t) {
             failure = t;
-            statsTables.operationFinished(id, jobId, Exceptions.messageOf(t), -1);
-            if (remove() == RemoveSubContextPosition.LAST) {
+            String errorMessage = Exceptions.messageOf(t);
+            statsTables.operationFinished(id, jobId, errorMessage, -1);
+            if (remove(errorMessage) == RemoveSubContextPosition.LAST) {
                 return;
             }
             if (killSubContextsOngoing.compareAndSet(false, true)) {
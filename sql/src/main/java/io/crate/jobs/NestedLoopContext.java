@@ -26,6 +26,7 @@ import io.crate.concurrent.CompletionState;
 import io.crate.operation.join.NestedLoopOperation;
 import io.crate.operation.projectors.FlatProjectorChain;
 import io.crate.operation.projectors.ListenableRowReceiver;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import io.crate.planner.node.dql.join.NestedLoopPhase;
 import org.elasticsearch.common.logging.ESLogger;
 
@@ -49,8 +50,9 @@ public class NestedLoopContext extends AbstractExecutionSubContext implements Do
                              FlatProjectorChain flatProjectorChain,
                              NestedLoopOperation nestedLoopOperation,
                              @Nullable PageBucketReceiver leftBucketReceiver,
-                             @Nullable PageBucketReceiver rightBucketReceiver) {
-        super(nestedLoopPhase.executionPhaseId(), logger);
+                             @Nullable PageBucketReceiver rightBucketReceiver,
+                             OperationStats stats) {
+        super(nestedLoopPhase.executionPhaseId(), logger, stats);
 
         this.nestedLoopPhase = nestedLoopPhase;
         this.flatProjectorChain = flatProjectorChain;
@@ -32,5 +32,17 @@ public interface PageBucketReceiver {
 
     void failure(int bucketIdx, Throwable throwable);
 
+    /**
+     * Like {@link #setBucket(int, Bucket, boolean, PageResultListener)} but for upstreams that send further pages
+     * before they received the response for the previous ones.
+     * Buckets of an upstream are consumed in the order of pageIdx, buckets that arrive early are buffered.
+     */
+    void setBucket(int bucketIdx, int pageIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener);
+
+    /**
+     * Like {@link #failure(int, Throwable)} but ordered after the pages with a lower pageIdx.
+     */
+    void failure(int bucketIdx, int pageIdx, Throwable throwable);
+
     Streamer<?>[] streamer();
 }
@@ -21,16 +21,22 @@
 
 package io.crate.jobs;
 
+import com.carrotsearch.hppc.IntObjectHashMap;
+import com.carrotsearch.hppc.cursors.ObjectCursor;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.SettableFuture;
 import io.crate.Streamer;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.BucketPage;
+import io.crate.executor.transport.StreamBucket;
 import io.crate.operation.PageConsumeListener;
 import io.crate.operation.PageDownstream;
 import io.crate.operation.PageResultListener;
 import io.crate.operation.projectors.FlatProjectorChain;
+import io.crate.operation.projectors.RowReceiver;
+import io.crate.operation.reference.sys.operation.OperationStats;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.logging.ESLogger;
 
 import javax.annotation.Nonnull;
@@ -52,6 +58,21 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
     private final BitSet allFuturesSet;
     private final BitSet exhausted;
     private final ArrayList<PageResultListener> listeners = new ArrayList<>();
+    private long pageBytes = 0;
+    private long pageBytesCompressed = 0;
+
+    /**
+     * buckets that arrived before it was their turn, per bucketIdx and keyed by pageIdx.
+     * Their size is accounted in the {@link RamAccountingContext} until they're applied to a page.
+     */
+    private final ArrayList<IntObjectHashMap<PendingBucket>> pendingBuckets;
+    private final int[] nextPageIdx;
+
+    /**
+     * true from the moment a page is complete until it has been consumed.
+     * Buffered buckets are only applied to the next page after that.
+     */
+    private boolean pageConsuming = false;
 
     @Nullable
     private final FlatProjectorChain projectorChain;
@@ -65,7 +86,25 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
                                  RamAccountingContext ramAccountingContext,
                                  int numBuckets,
                                  @Nullable FlatProjectorChain projectorChain) {
-        super(id, logger);
+        this(logger, nodeName, id, name, pageDownstream, streamer, ramAccountingContext, numBuckets, projectorChain,
+            new OperationStats());
+    }
+
+    /**
+     * @param stats the stats of this context, the rows out are counted by the caller
+     *              using a RowReceiver from {@link OperationStats#countRowsOut(RowReceiver)}
+     */
+    public PageDownstreamContext(ESLogger logger,
+                                 String nodeName,
+                                 int id,
+                                 String name,
+                                 PageDownstream pageDownstream,
+                                 Streamer<?>[] streamer,
+                                 RamAccountingContext ramAccountingContext,
+                                 int numBuckets,
+                                 @Nullable FlatProjectorChain projectorChain,
+                                 OperationStats stats) {
+        super(id, logger, stats);
         this.nodeName = nodeName;
         this.name = name;
         this.pageDownstream = pageDownstream;
@@ -76,6 +115,11 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
         bucketFutures = new ArrayList<>(numBuckets);
         allFuturesSet = new BitSet(numBuckets);
         exhausted = new BitSet(numBuckets);
+        pendingBuckets = new ArrayList<>(numBuckets);
+        for (int i = 0; i < numBuckets; i++) {
+            pendingBuckets.add(new IntObjectHashMap<PendingBucket>());
+        }
+        nextPageIdx = new int[numBuckets];
         initBucketFutures();
     }
 
@@ -100,6 +144,15 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
 
     @Override
     public void setBucket(int bucketIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener) {
+        OperationStats.Measurement measurement = stats.startMeasurement();
+        try {
+            setBucketMeasured(bucketIdx, rows, isLast, pageResultListener);
+        } finally {
+            measurement.stop();
+        }
+    }
+
+    private void setBucketMeasured(int bucketIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener) {
         synchronized (listeners) {
             listeners.add(pageResultListener);
         }
@@ -121,14 +174,89 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
             if (isLast) {
                 exhausted.set(bucketIdx);
             }
-            bucketFutures.get(bucketIdx).set(rows);
+            stats.addRowsIn(rows.size());
+            if (rows instanceof StreamBucket) {
+                StreamBucket streamBucket = (StreamBucket) rows;
+                pageBytes += streamBucket.uncompressedSizeInBytes();
+                pageBytesCompressed += streamBucket.sizeInBytes();
+                stats.addPageReceived(streamBucket.sizeInBytes());
+            } else {
+                stats.addPageReceived(0L);
+            }
+            // the page is updated before the future is set,
+            // because setting the last future might consume the page on this thread
+            SettableFuture<Bucket> bucketFuture = bucketFutures.get(bucketIdx);
             allFuturesSet.set(bucketIdx);
-
             clearPageIfFull(bucketIdx);
+            bucketFuture.set(rows);
         }
 
     }
 
+    @Override
+    public void setBucket(int bucketIdx, int pageIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener) {
+        PageResultListener rejectedListener = null;
+        synchronized (lock) {
+            IntObjectHashMap<PendingBucket> pendingBucketsOfUpstream = pendingBuckets.get(bucketIdx);
+            PendingBucket pending = new PendingBucket(rows, isLast, pageResultListener, null);
+            pendingBucketsOfUpstream.put(pageIdx, pending);
+            applyPendingBuckets();
+            if (pendingBucketsOfUpstream.get(pageIdx) == pending) {
+                // the bucket has to wait for the previous pages and is held in memory until then
+                pending.bytes = sizeInBytes(rows);
+                try {
+                    ramAccountingContext.addBytes(pending.bytes);
+                } catch (CircuitBreakingException e) {
+                    // the bucket is replaced by the failure, which fails the page once it is its turn
+                    pendingBucketsOfUpstream.put(pageIdx, new PendingBucket(null, true, null, e));
+                    ramAccountingContext.addBytes(-pending.bytes);
+                    rejectedListener = pageResultListener;
+                }
+            }
+        }
+        if (rejectedListener != null) {
+            rejectedListener.needMore(false);
+        }
+    }
+
+    private static long sizeInBytes(Bucket rows) {
+        if (rows instanceof StreamBucket) {
+            return ((StreamBucket) rows).sizeInBytes();
+        }
+        return 0L;
+    }
+
+    @Override
+    public void failure(int bucketIdx, int pageIdx, Throwable throwable) {
+        synchronized (lock) {
+            pendingBuckets.get(bucketIdx).put(pageIdx, new PendingBucket(null, true, null, throwable));
+            applyPendingBuckets();
+        }
+    }
+
+    /**
+     * move buffered buckets into the current page as long as it isn't complete.
+     * Must be called while holding the lock.
+     */
+    private void applyPendingBuckets() {
+        for (int i = 0; i < numBuckets && !pageConsuming; i++) {
+            if (allFuturesSet.get(i)) {
+                continue;
+            }
+            PendingBucket pending = pendingBuckets.get(i).remove(nextPageIdx[i]);
+            if (pending == null) {
+                continue;
+            }
+            nextPageIdx[i]++;
+            ramAccountingContext.addBytes(-pending.bytes);
+            if (pending.throwable == null) {
+                setBucket(i, pending.rows, pending.isLast, pending.listener);
+            } else {
+                failure(i, pending.throwable);
+            }
+        }
+    }
+
     private void traceLog(String msg, int bucketIdx) {
         if (logger.isTraceEnabled()) {
             logger.trace("{} phaseId={} bucket={}", msg, id, bucketIdx);
@@ -160,15 +288,17 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
             setExhaustedUpstreams();
 
             exhausted.set(bucketIdx);
-            bucketFutures.get(bucketIdx).setException(throwable);
+            SettableFuture<Bucket> bucketFuture = bucketFutures.get(bucketIdx);
             allFuturesSet.set(bucketIdx);
             clearPageIfFull(bucketIdx);
+            bucketFuture.setException(throwable);
         }
     }
 
     private void clearPageIfFull(int bucketIdx) {
         if (allFuturesSet.cardinality() == numBuckets) {
             traceLog("page is full, clearing it", bucketIdx);
+            pageConsuming = true;
             allFuturesSet.clear();
             initBucketFutures();
         }
@@ -199,10 +329,32 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
             pageDownstream.fail(throwable);
         }
 
+        respondToPendingBuckets();
         future.bytesUsed(ramAccountingContext.totalBytes());
+        future.pageBytes(pageBytes, pageBytesCompressed);
         ramAccountingContext.close();
     }
 
+    /**
+     * buffered buckets won't be consumed anymore, tell their upstreams to stop
+     */
+    private void respondToPendingBuckets() {
+        ArrayList<PageResultListener> pendingListeners = new ArrayList<>();
+        synchronized (lock) {
+            for (IntObjectHashMap<PendingBucket> pendingBucketsOfUpstream : pendingBuckets) {
+                for (ObjectCursor<PendingBucket> cursor : pendingBucketsOfUpstream.values()) {
+                    if (cursor.value.listener != null) {
+                        pendingListeners.add(cursor.value.listener);
+                    }
+                }
+                pendingBucketsOfUpstream.clear();
+            }
+        }
+        for (PageResultListener listener : pendingListeners) {
+            listener.needMore(false);
+        }
+    }
+
     @Override
     protected void innerKill(@Nonnull Throwable t) {
         innerClose(t);
@@ -248,6 +400,29 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
         return this;
     }
 
+    private static class PendingBucket {
+
+        private final Bucket rows;
+        private final boolean isLast;
+        private final PageResultListener listener;
+        private final Throwable throwable;
+
+        /**
+         * bytes accounted for this bucket while it is buffered
+         */
+        private long bytes = 0L;
+
+        PendingBucket(@Nullable Bucket rows,
+                      boolean isLast,
+                      @Nullable PageResultListener listener,
+                      @Nullable Throwable throwable) {
+            this.rows = rows;
+            this.isLast = isLast;
+            this.listener = listener;
+            this.throwable = throwable;
+        }
+    }
+
     private class ResultListenerBridgingConsumeListener implements PageConsumeListener {
 
         @Override
@@ -269,6 +444,11 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
             }
             if (allExhausted) {
                 PageDownstreamContext.this.close();
+            } else {
+                synchronized (lock) {
+                    pageConsuming = false;
+                    applyPendingBuckets();
+                }
             }
         }
 
@@ -0,0 +1,185 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.jobs;
+
+import io.crate.operation.reference.sys.operation.OperationStats;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+
+/**
+ * The execution statistics of an {@link ExecutionSubContext} of a profiled job on a single node.
+ * They are used to annotate the plan of EXPLAIN ANALYZE.
+ */
+public class PhaseProfile implements Streamable {
+
+    private int phaseId;
+    private String name;
+    private long wallTimeNanos;
+    private long cpuTimeNanos;
+    private long rowsIn;
+    private long rowsOut;
+    private long pagesSent;
+    private long bytesSent;
+    private long pagesReceived;
+    private long bytesReceived;
+    private long pausedNanos;
+    private long[] projectionRowsOut;
+    @Nullable
+    private String error;
+
+    public PhaseProfile(int phaseId,
+                        String name,
+                        long wallTimeNanos,
+                        OperationStats stats,
+                        @Nullable String error) {
+        this.phaseId = phaseId;
+        this.name = name;
+        this.wallTimeNanos = wallTimeNanos;
+        this.cpuTimeNanos = stats.cpuTimeNanos();
+        this.rowsIn = stats.rowsIn();
+        this.rowsOut = stats.rowsOut();
+        this.pagesSent = stats.pagesSent();
+        this.bytesSent = stats.bytesSent();
+        this.pagesReceived = stats.pagesReceived();
+        this.bytesReceived = stats.bytesReceived();
+        this.pausedNanos = stats.pausedNanos();
+        this.projectionRowsOut = stats.projectionRowsOut();
+        this.error = error;
+    }
+
+    private PhaseProfile() {
+    }
+
+    public static PhaseProfile fromStream(StreamInput in) throws IOException {
+        PhaseProfile phaseProfile = new PhaseProfile();
+        phaseProfile.readFrom(in);
+        return phaseProfile;
+    }
+
+    public int phaseId() {
+        return phaseId;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the time from the start of the phase until it finished, 0 if it finished before it was started
+     */
+    public long wallTimeNanos() {
+        return wallTimeNanos;
+    }
+
+    /**
+     * @return the cpu time or -1 if the JVM doesn't support measuring it
+     */
+    public long cpuTimeNanos() {
+        return cpuTimeNanos;
+    }
+
+    public long rowsIn() {
+        return rowsIn;
+    }
+
+    public long rowsOut() {
+        return rowsOut;
+    }
+
+    public long pagesSent() {
+        return pagesSent;
+    }
+
+    public long bytesSent() {
+        return bytesSent;
+    }
+
+    public long pagesReceived() {
+        return pagesReceived;
+    }
+
+    public long bytesReceived() {
+        return bytesReceived;
+    }
+
+    public long pausedNanos() {
+        return pausedNanos;
+    }
+
+    /**
+     * @return the rows emitted by each projection of the phase, in the order of the projections.
+     * Empty if the rows of the projections haven't been counted.
+     */
+    public long[] projectionRowsOut() {
+        return projectionRowsOut;
+    }
+
+    @Nullable
+    public String error() {
+        return error;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        phaseId = in.readVInt();
+        name = in.readString();
+        wallTimeNanos = in.readVLong();
+        cpuTimeNanos = in.readLong();
+        rowsIn = in.readVLong();
+        rowsOut = in.readVLong();
+        pagesSent = in.readVLong();
+        bytesSent = in.readVLong();
+        pagesReceived = in.readVLong();
+        bytesReceived = in.readVLong();
+        pausedNanos = in.readVLong();
+        projectionRowsOut = new long[in.readVInt()];
+        for (int i = 0; i < projectionRowsOut.length; i++) {
+            projectionRowsOut[i] = in.readVLong();
+        }
+        error = in.readOptionalString();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(phaseId);
+        out.writeString(name);
+        out.writeVLong(wallTimeNanos);
+        out.writeLong(cpuTimeNanos);
+        out.writeVLong(rowsIn);
+        out.writeVLong(rowsOut);
+        out.writeVLong(pagesSent);
+        out.writeVLong(bytesSent);
+        out.writeVLong(pagesReceived);
+        out.writeVLong(bytesReceived);
+        out.writeVLong(pausedNanos);
+        out.writeVInt(projectionRowsOut.length);
+        for (long rows : projectionRowsOut) {
+            out.writeVLong(rows);
+        }
+        out.writeOptionalString(error);
+    }
+}
@@ -25,6 +25,7 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.operation.projectors.*;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import io.crate.planner.projection.Projection;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
@@ -41,6 +42,7 @@ public class ProjectorChainContext extends AbstractExecutionSubContext {
     private final String name;
     private final RowReceiver rowReceiver;
     private final FlatProjectorChain projectorChain;
+    private final RamAccountingContext ramAccountingContext;
 
     public ProjectorChainContext(int id,
                                  String name,
@@ -49,9 +51,21 @@ public class ProjectorChainContext extends AbstractExecutionSubContext {
                                  List<Projection> projections,
                                  RowReceiver rowReceiver,
                                  RamAccountingContext ramAccountingContext) {
-        super(id, LOGGER);
+        this(id, name, jobId, projectorFactory, projections, rowReceiver, ramAccountingContext, new OperationStats());
+    }
+
+    public ProjectorChainContext(int id,
+                                 String name,
+                                 UUID jobId,
+                                 ProjectorFactory projectorFactory,
+                                 List<Projection> projections,
+                                 RowReceiver rowReceiver,
+                                 RamAccountingContext ramAccountingContext,
+                                 OperationStats stats) {
+        super(id, LOGGER, stats);
         this.name = name;
-        ListenableRowReceiver listenableRowReceiver = RowReceivers.listenableRowReceiver(rowReceiver);
+        this.ramAccountingContext = ramAccountingContext;
+        ListenableRowReceiver listenableRowReceiver = RowReceivers.listenableRowReceiver(stats.countRowsOut(rowReceiver));
         Futures.addCallback(listenableRowReceiver.finishFuture(), new FutureCallback<Void>() {
             @Override
             public void onSuccess(@Nullable Void result) {
@@ -68,9 +82,10 @@ public class ProjectorChainContext extends AbstractExecutionSubContext {
                 ramAccountingContext,
                 projections,
                 listenableRowReceiver,
-                jobId
+                jobId,
+                stats
         );
-        this.rowReceiver = projectorChain.firstProjector();
+        this.rowReceiver = stats.countRowsIn(projectorChain.firstProjector());
     }
 
     @Override
@@ -83,6 +98,11 @@ public class ProjectorChainContext extends AbstractExecutionSubContext {
         projectorChain.prepare();
     }
 
+    @Override
+    public void cleanup() {
+        ramAccountingContext.close();
+    }
+
     @Override
     public String name() {
         return name;
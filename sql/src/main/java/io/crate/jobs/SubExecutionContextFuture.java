@@ -61,6 +61,10 @@ public class SubExecutionContextFuture implements ListenableFuture<CompletionSta
         state.bytesUsed(bytes);
     }
 
+    public void pageBytes(long pageBytes, long pageBytesCompressed) {
+        state.pageBytes(pageBytes, pageBytesCompressed);
+    }
+
     public boolean close(@Nullable Throwable t) {
         if (t == null) {
             return internalFuture.set(state);
@@ -24,6 +24,7 @@ package io.crate.lucene;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.spatial4j.core.context.jts.JtsSpatialContext;
 import com.spatial4j.core.shape.Rectangle;
@@ -40,8 +41,10 @@ import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.geo.GeoJSONUtils;
 import io.crate.lucene.match.MatchQueryBuilder;
 import io.crate.lucene.match.MultiMatchQueryBuilder;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.DocReferenceConverter;
 import io.crate.metadata.Functions;
+import io.crate.metadata.ReferenceInfo;
 import io.crate.metadata.doc.DocSysColumns;
 import io.crate.operation.Input;
 import io.crate.operation.collect.CollectInputSymbolVisitor;
@@ -175,6 +178,73 @@ public class LuceneQueryBuilder {
         return terms;
     }
 
+    /**
+     * Checks without building the query whether it can be answered from the index alone.
+     *
+     * The check is conservative: it only accepts AND, OR and NOT combinations of comparisons, LIKE, IN and
+     * IS NULL between a primitive user column (or _id) and a literal. Anything else, including a _score filter,
+     * may need a function filter which evaluates each document.
+     */
+    public static boolean canBeAnsweredFromIndex(Symbol query) {
+        return INDEX_QUERY_VISITOR.process(query, null);
+    }
+
+    private static final IndexQueryVisitor INDEX_QUERY_VISITOR = new IndexQueryVisitor();
+
+    private static class IndexQueryVisitor extends SymbolVisitor<Void, Boolean> {
+
+        private static final Set<String> LOGICAL_OPERATORS = ImmutableSet.of(
+            AndOperator.NAME, OrOperator.NAME, NotPredicate.NAME);
+        private static final Set<String> COLUMN_LITERAL_OPERATORS = ImmutableSet.of(
+            EqOperator.NAME, LtOperator.NAME, LteOperator.NAME, GtOperator.NAME, GteOperator.NAME,
+            LikeOperator.NAME, InOperator.NAME, AnyEqOperator.NAME);
+        private static final Set<DataType> INDEXED_TYPES = ImmutableSet.<DataType>of(
+            DataTypes.BYTE, DataTypes.SHORT, DataTypes.INTEGER, DataTypes.LONG, DataTypes.TIMESTAMP,
+            DataTypes.FLOAT, DataTypes.DOUBLE, DataTypes.IP, DataTypes.STRING);
+
+        @Override
+        public Boolean visitFunction(Function function, Void context) {
+            String name = function.info().ident().name();
+            List<Symbol> args = function.arguments();
+            if (LOGICAL_OPERATORS.contains(name)) {
+                for (Symbol arg : args) {
+                    if (!process(arg, context)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            if (COLUMN_LITERAL_OPERATORS.contains(name)) {
+                return args.size() == 2 && isIndexedColumn(args.get(0)) && args.get(1).symbolType().isValueSymbol();
+            }
+            if (IsNullPredicate.NAME.equals(name)) {
+                return args.size() == 1 && isIndexedColumn(args.get(0));
+            }
+            return false;
+        }
+
+        @Override
+        public Boolean visitLiteral(Literal symbol, Void context) {
+            return true;
+        }
+
+        @Override
+        protected Boolean visitSymbol(Symbol symbol, Void context) {
+            return false;
+        }
+
+        private static boolean isIndexedColumn(Symbol symbol) {
+            if (!(symbol instanceof Reference)) {
+                return false;
+            }
+            ReferenceInfo info = ((Reference) symbol).info();
+            ColumnIdent column = info.ident().columnIdent();
+            if (column.equals(DocSysColumns.ID)) {
+                return true;
+            }
+            return !DocSysColumns.COLUMN_IDENTS.containsKey(column) && INDEXED_TYPES.contains(info.type());
+        }
+    }
 
     public static class Context {
         Query query;
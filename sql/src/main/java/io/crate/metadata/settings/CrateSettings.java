@@ -46,7 +46,9 @@ public class CrateSettings {
 
         @Override
         public List<Setting> children() {
-            return ImmutableList.<Setting>of(STATS_ENABLED, STATS_JOBS_LOG_SIZE, STATS_OPERATIONS_LOG_SIZE);
+            return ImmutableList.<Setting>of(STATS_ENABLED, STATS_JOBS_LOG_SIZE, STATS_OPERATIONS_LOG_SIZE,
+                STATS_SAMPLING_INTERVAL, STATS_QUERY_STATS_SIZE, STATS_SLOW_QUERY_THRESHOLD, STATS_SLOW_QUERY_LOG_SIZE,
+                STATS_SLOW_QUERY_REDACT_PARAMETERS);
         }
 
         @Override
@@ -88,6 +90,71 @@ public class CrateSettings {
         }
     };
 
+    public static final IntSetting STATS_QUERY_STATS_SIZE = new IntSetting("query_stats_size", 1_000, true) {
+        @Override
+        public Integer minValue() {
+            return 0;
+        }
+
+        @Override
+        public Setting parent() {
+            return STATS;
+        }
+    };
+
+    public static final IntSetting STATS_SAMPLING_INTERVAL = new IntSetting("sampling_interval", 1, true) {
+        @Override
+        public Integer minValue() {
+            return 1;
+        }
+
+        @Override
+        public Setting parent() {
+            return STATS;
+        }
+    };
+
+    public static final TimeSetting STATS_SLOW_QUERY_THRESHOLD = new TimeSetting() {
+        @Override
+        public String name() {
+            return "slow_query_threshold";
+        }
+
+        @Override
+        public TimeValue defaultValue() {
+            return new TimeValue(0);
+        }
+
+        @Override
+        public Setting parent() {
+            return STATS;
+        }
+
+        @Override
+        public boolean isRuntime() {
+            return true;
+        }
+    };
+
+    public static final IntSetting STATS_SLOW_QUERY_LOG_SIZE = new IntSetting("slow_query_log_size", 100, true) {
+        @Override
+        public Integer minValue() {
+            return 0;
+        }
+
+        @Override
+        public Setting parent() {
+            return STATS;
+        }
+    };
+
+    public static final BoolSetting STATS_SLOW_QUERY_REDACT_PARAMETERS = new BoolSetting("slow_query_redact_parameters", false, true) {
+        @Override
+        public Setting parent() {
+            return STATS;
+        }
+    };
+
     public static final NestedSetting CLUSTER = new NestedSetting() {
         @Override
         public String name() {
@@ -1276,6 +1343,16 @@ public class CrateSettings {
                     new SettingsAppliers.IntSettingsApplier(CrateSettings.STATS_OPERATIONS_LOG_SIZE))
             .put(CrateSettings.STATS_ENABLED.settingName(),
                     new SettingsAppliers.BooleanSettingsApplier(CrateSettings.STATS_ENABLED))
+            .put(CrateSettings.STATS_QUERY_STATS_SIZE.settingName(),
+                    new SettingsAppliers.IntSettingsApplier(CrateSettings.STATS_QUERY_STATS_SIZE))
+            .put(CrateSettings.STATS_SAMPLING_INTERVAL.settingName(),
+                    new SettingsAppliers.IntSettingsApplier(CrateSettings.STATS_SAMPLING_INTERVAL))
+            .put(CrateSettings.STATS_SLOW_QUERY_THRESHOLD.settingName(),
+                    new SettingsAppliers.TimeSettingsApplier(CrateSettings.STATS_SLOW_QUERY_THRESHOLD))
+            .put(CrateSettings.STATS_SLOW_QUERY_LOG_SIZE.settingName(),
+                    new SettingsAppliers.IntSettingsApplier(CrateSettings.STATS_SLOW_QUERY_LOG_SIZE))
+            .put(CrateSettings.STATS_SLOW_QUERY_REDACT_PARAMETERS.settingName(),
+                    new SettingsAppliers.BooleanSettingsApplier(CrateSettings.STATS_SLOW_QUERY_REDACT_PARAMETERS))
             .put(CrateSettings.CLUSTER.settingName(),
                     new SettingsAppliers.ObjectSettingsApplier(CrateSettings.CLUSTER))
             .put(CrateSettings.GRACEFUL_STOP.settingName(),
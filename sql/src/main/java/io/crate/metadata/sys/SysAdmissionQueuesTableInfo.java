@@ -0,0 +1,85 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.metadata.sys;
+
+import io.crate.analyze.WhereClause;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Routing;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.table.ColumnRegistrar;
+import io.crate.metadata.table.StaticTableInfo;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+
+@Singleton
+public class SysAdmissionQueuesTableInfo extends StaticTableInfo {
+
+    public static final TableIdent IDENT = new TableIdent(SysSchemaInfo.NAME, "admission_queues");
+    private final ClusterService clusterService;
+
+    public static class Columns {
+        public final static ColumnIdent NODE_ID = new ColumnIdent("node_id");
+        public final static ColumnIdent NAME = new ColumnIdent("name");
+        public final static ColumnIdent SLOTS = new ColumnIdent("slots");
+        public final static ColumnIdent ACTIVE = new ColumnIdent("active");
+        public final static ColumnIdent QUEUE_SIZE = new ColumnIdent("queue_size");
+        public final static ColumnIdent QUEUED = new ColumnIdent("queued");
+        public final static ColumnIdent ADMITTED = new ColumnIdent("admitted");
+        public final static ColumnIdent REJECTED = new ColumnIdent("rejected");
+        public final static ColumnIdent AVG_WAIT_TIME = new ColumnIdent("avg_wait_time");
+        public final static ColumnIdent MAX_WAIT_TIME = new ColumnIdent("max_wait_time");
+    }
+
+    @Inject
+    public SysAdmissionQueuesTableInfo(ClusterService clusterService) {
+        super(IDENT, new ColumnRegistrar(IDENT, RowGranularity.DOC)
+                        .register(Columns.NODE_ID, DataTypes.STRING)
+                        .register(Columns.NAME, DataTypes.STRING)
+                        .register(Columns.SLOTS, DataTypes.INTEGER)
+                        .register(Columns.ACTIVE, DataTypes.INTEGER)
+                        .register(Columns.QUEUE_SIZE, DataTypes.INTEGER)
+                        .register(Columns.QUEUED, DataTypes.INTEGER)
+                        .register(Columns.ADMITTED, DataTypes.LONG)
+                        .register(Columns.REJECTED, DataTypes.LONG)
+                        .register(Columns.AVG_WAIT_TIME, DataTypes.LONG)
+                        .register(Columns.MAX_WAIT_TIME, DataTypes.LONG),
+                Collections.<ColumnIdent>emptyList());
+        this.clusterService = clusterService;
+    }
+
+    @Override
+    public RowGranularity rowGranularity() {
+        return RowGranularity.DOC;
+    }
+
+    @Override
+    public Routing getRouting(WhereClause whereClause, @Nullable String preference) {
+        return Routing.forTableOnAllNodes(IDENT, clusterService.state().nodes());
+    }
+}
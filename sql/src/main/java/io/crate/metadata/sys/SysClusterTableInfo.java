@@ -60,6 +60,16 @@ public class SysClusterTableInfo extends StaticTableInfo {
                                 CrateSettings.STATS_JOBS_LOG_SIZE.name()))
                         .register(ClusterSettingsExpression.NAME, DataTypes.INTEGER, ImmutableList.of(CrateSettings.STATS.name(),
                                 CrateSettings.STATS_OPERATIONS_LOG_SIZE.name()))
+                        .register(ClusterSettingsExpression.NAME, DataTypes.INTEGER, ImmutableList.of(CrateSettings.STATS.name(),
+                                CrateSettings.STATS_SAMPLING_INTERVAL.name()))
+                        .register(ClusterSettingsExpression.NAME, DataTypes.INTEGER, ImmutableList.of(CrateSettings.STATS.name(),
+                                CrateSettings.STATS_QUERY_STATS_SIZE.name()))
+                        .register(ClusterSettingsExpression.NAME, DataTypes.STRING, ImmutableList.of(CrateSettings.STATS.name(),
+                                CrateSettings.STATS_SLOW_QUERY_THRESHOLD.name()))
+                        .register(ClusterSettingsExpression.NAME, DataTypes.INTEGER, ImmutableList.of(CrateSettings.STATS.name(),
+                                CrateSettings.STATS_SLOW_QUERY_LOG_SIZE.name()))
+                        .register(ClusterSettingsExpression.NAME, DataTypes.BOOLEAN, ImmutableList.of(CrateSettings.STATS.name(),
+                                CrateSettings.STATS_SLOW_QUERY_REDACT_PARAMETERS.name()))
                         .register(ClusterSettingsExpression.NAME, DataTypes.BOOLEAN, ImmutableList.of(CrateSettings.STATS.name(),
                                 CrateSettings.STATS_ENABLED.name()))
 
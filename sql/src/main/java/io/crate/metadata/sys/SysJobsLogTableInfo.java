@@ -49,6 +49,8 @@ public class SysJobsLogTableInfo extends StaticTableInfo {
         public static final ColumnIdent STARTED = new ColumnIdent("started");
         public static final ColumnIdent ENDED = new ColumnIdent("ended");
         public static final ColumnIdent ERROR = new ColumnIdent("error");
+        public static final ColumnIdent THREAD_CPU_TIME = new ColumnIdent("thread_cpu_time");
+        public static final ColumnIdent THREAD_ALLOCATED_BYTES = new ColumnIdent("thread_allocated_bytes");
     }
 
     private final static List<ColumnIdent> primaryKeys = ImmutableList.of(Columns.ID);
@@ -60,6 +62,8 @@ public class SysJobsLogTableInfo extends StaticTableInfo {
             .register(Columns.STMT, DataTypes.STRING)
             .register(Columns.STARTED, DataTypes.TIMESTAMP)
             .register(Columns.ENDED, DataTypes.TIMESTAMP)
+            .register(Columns.THREAD_CPU_TIME, DataTypes.DOUBLE)
+            .register(Columns.THREAD_ALLOCATED_BYTES, DataTypes.LONG)
             .register(Columns.ERROR, DataTypes.STRING), primaryKeys);
         this.clusterService = clusterService;
     }
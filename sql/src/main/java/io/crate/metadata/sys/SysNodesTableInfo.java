@@ -56,6 +56,8 @@ public class SysNodesTableInfo extends StaticTableInfo {
     public static final String SYS_COL_HEAP = "heap";
     public static final String SYS_COL_VERSION = "version";
     public static final String SYS_COL_THREAD_POOLS = "thread_pools";
+    public static final String SYS_COL_LOOKUPS = "lookups";
+    public static final String SYS_COL_SHARD_BATCHES = "shard_batches";
     public static final String SYS_COL_NETWORK = "network";
     public static final String SYS_COL_NETWORK_TCP = "tcp";
     public static final String SYS_COL_OS = "os";
@@ -118,6 +120,16 @@ public class SysNodesTableInfo extends StaticTableInfo {
                         .register(SYS_COL_THREAD_POOLS, IntegerType.INSTANCE, ImmutableList.of("threads"))
                         .register(SYS_COL_THREAD_POOLS, IntegerType.INSTANCE, ImmutableList.of("queue"))
 
+                        .register(SYS_COL_LOOKUPS, DataTypes.OBJECT, null)
+                        .register(SYS_COL_LOOKUPS, DataTypes.LONG, ImmutableList.of("coalesced"))
+                        .register(SYS_COL_LOOKUPS, DataTypes.LONG, ImmutableList.of("batches"))
+                        .register(SYS_COL_LOOKUPS, DataTypes.INTEGER, ImmutableList.of("largest_batch"))
+
+                        .register(SYS_COL_SHARD_BATCHES, DataTypes.OBJECT, null)
+                        .register(SYS_COL_SHARD_BATCHES, DataTypes.LONG, ImmutableList.of("sent"))
+                        .register(SYS_COL_SHARD_BATCHES, DataTypes.LONG, ImmutableList.of("full"))
+                        .register(SYS_COL_SHARD_BATCHES, DataTypes.DOUBLE, ImmutableList.of("avg_fill_ratio"))
+
                         .register(SYS_COL_NETWORK, DataTypes.OBJECT, null)
                         .register(SYS_COL_NETWORK, DataTypes.TIMESTAMP, ImmutableList.of("probe_timestamp"))
                         .register(SYS_COL_NETWORK, DataTypes.OBJECT, ImmutableList.of("tcp"))
@@ -48,7 +48,13 @@ public class SysOperationsLogTableInfo extends StaticTableInfo {
         public static final ColumnIdent STARTED = new ColumnIdent("started");
         public static final ColumnIdent ENDED = new ColumnIdent("ended");
         public static final ColumnIdent USED_BYTES = new ColumnIdent("used_bytes");
+        public static final ColumnIdent PAGE_BYTES = new ColumnIdent("page_bytes");
+        public static final ColumnIdent PAGE_BYTES_COMPRESSED = new ColumnIdent("page_bytes_compressed");
         public static final ColumnIdent ERROR = new ColumnIdent("error");
+        public static final ColumnIdent ROWS_IN = new ColumnIdent("rows_in");
+        public static final ColumnIdent ROWS_OUT = new ColumnIdent("rows_out");
+        public static final ColumnIdent THREAD_CPU_TIME = new ColumnIdent("thread_cpu_time");
+        public static final ColumnIdent THREAD_ALLOCATED_BYTES = new ColumnIdent("thread_allocated_bytes");
     }
 
     public static final TableIdent IDENT = new TableIdent(SysSchemaInfo.NAME, "operations_log");
@@ -62,6 +68,12 @@ public class SysOperationsLogTableInfo extends StaticTableInfo {
             .register(Columns.STARTED, DataTypes.TIMESTAMP)
             .register(Columns.ENDED, DataTypes.TIMESTAMP)
             .register(Columns.USED_BYTES, DataTypes.LONG)
+            .register(Columns.PAGE_BYTES, DataTypes.LONG)
+            .register(Columns.PAGE_BYTES_COMPRESSED, DataTypes.LONG)
+            .register(Columns.ROWS_IN, DataTypes.LONG)
+            .register(Columns.ROWS_OUT, DataTypes.LONG)
+            .register(Columns.THREAD_CPU_TIME, DataTypes.DOUBLE)
+            .register(Columns.THREAD_ALLOCATED_BYTES, DataTypes.LONG)
             .register(Columns.ERROR, DataTypes.STRING), Collections.<ColumnIdent>emptyList());
         this.clusterService = clusterService;
     }
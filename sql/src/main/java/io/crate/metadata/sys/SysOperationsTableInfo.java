@@ -45,6 +45,12 @@ public class SysOperationsTableInfo extends StaticTableInfo {
         public final static ColumnIdent NAME = new ColumnIdent("name");
         public final static ColumnIdent STARTED = new ColumnIdent("started");
         public final static ColumnIdent USED_BYTES = new ColumnIdent("used_bytes");
+        public final static ColumnIdent ROWS_IN = new ColumnIdent("rows_in");
+        public final static ColumnIdent ROWS_OUT = new ColumnIdent("rows_out");
+        public final static ColumnIdent THREAD_CPU_TIME = new ColumnIdent("thread_cpu_time");
+        public final static ColumnIdent THREAD_ALLOCATED_BYTES = new ColumnIdent("thread_allocated_bytes");
+        public final static ColumnIdent BULK_SIZE = new ColumnIdent("bulk_size");
+        public final static ColumnIdent BULK_CONCURRENCY = new ColumnIdent("bulk_concurrency");
     }
 
     private final TableColumn nodesTableColumn;
@@ -57,6 +63,12 @@ public class SysOperationsTableInfo extends StaticTableInfo {
                         .register(Columns.NAME, DataTypes.STRING)
                         .register(Columns.STARTED, DataTypes.TIMESTAMP)
                         .register(Columns.USED_BYTES, DataTypes.LONG)
+                        .register(Columns.ROWS_IN, DataTypes.LONG)
+                        .register(Columns.ROWS_OUT, DataTypes.LONG)
+                        .register(Columns.THREAD_CPU_TIME, DataTypes.DOUBLE)
+                        .register(Columns.THREAD_ALLOCATED_BYTES, DataTypes.LONG)
+                        .register(Columns.BULK_SIZE, DataTypes.INTEGER)
+                        .register(Columns.BULK_CONCURRENCY, DataTypes.INTEGER)
                         .putInfoOnly(SysNodesTableInfo.SYS_COL_IDENT, SysNodesTableInfo.tableColumnInfo(IDENT)),
                 Collections.<ColumnIdent>emptyList());
         this.clusterService = clusterService;
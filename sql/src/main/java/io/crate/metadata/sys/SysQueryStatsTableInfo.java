@@ -0,0 +1,105 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.metadata.sys;
+
+import io.crate.analyze.WhereClause;
+import io.crate.metadata.*;
+import io.crate.metadata.table.ColumnRegistrar;
+import io.crate.metadata.table.StaticTableInfo;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+
+@Singleton
+public class SysQueryStatsTableInfo extends StaticTableInfo {
+
+    public static final TableIdent IDENT = new TableIdent(SysSchemaInfo.NAME, "query_stats");
+    private final ClusterService clusterService;
+
+    public static class Columns {
+        public final static ColumnIdent FINGERPRINT = new ColumnIdent("fingerprint");
+        public final static ColumnIdent CALLS = new ColumnIdent("calls");
+        public final static ColumnIdent ERRORS = new ColumnIdent("errors");
+        public final static ColumnIdent ROWS = new ColumnIdent("rows");
+        public final static ColumnIdent FIRST_EXECUTED = new ColumnIdent("first_executed");
+        public final static ColumnIdent LAST_EXECUTED = new ColumnIdent("last_executed");
+        public final static ColumnIdent TOTAL_TIME = new ColumnIdent("total_time");
+        public final static ColumnIdent MEAN_TIME = new ColumnIdent("mean_time");
+        public final static ColumnIdent MIN_TIME = new ColumnIdent("min_time");
+        public final static ColumnIdent MAX_TIME = new ColumnIdent("max_time");
+        public final static ColumnIdent P50_TIME = new ColumnIdent("p50_time");
+        public final static ColumnIdent P90_TIME = new ColumnIdent("p90_time");
+        public final static ColumnIdent P95_TIME = new ColumnIdent("p95_time");
+        public final static ColumnIdent P99_TIME = new ColumnIdent("p99_time");
+        public final static ColumnIdent P999_TIME = new ColumnIdent("p999_time");
+    }
+
+    private final TableColumn nodesTableColumn;
+
+    @Inject
+    public SysQueryStatsTableInfo(ClusterService clusterService, SysNodesTableInfo sysNodesTableInfo) {
+        super(IDENT, new ColumnRegistrar(IDENT, RowGranularity.DOC)
+                        .register(Columns.FINGERPRINT, DataTypes.STRING)
+                        .register(Columns.CALLS, DataTypes.LONG)
+                        .register(Columns.ERRORS, DataTypes.LONG)
+                        .register(Columns.ROWS, DataTypes.LONG)
+                        .register(Columns.FIRST_EXECUTED, DataTypes.TIMESTAMP)
+                        .register(Columns.LAST_EXECUTED, DataTypes.TIMESTAMP)
+                        .register(Columns.TOTAL_TIME, DataTypes.DOUBLE)
+                        .register(Columns.MEAN_TIME, DataTypes.DOUBLE)
+                        .register(Columns.MIN_TIME, DataTypes.DOUBLE)
+                        .register(Columns.MAX_TIME, DataTypes.DOUBLE)
+                        .register(Columns.P50_TIME, DataTypes.DOUBLE)
+                        .register(Columns.P90_TIME, DataTypes.DOUBLE)
+                        .register(Columns.P95_TIME, DataTypes.DOUBLE)
+                        .register(Columns.P99_TIME, DataTypes.DOUBLE)
+                        .register(Columns.P999_TIME, DataTypes.DOUBLE)
+                        .putInfoOnly(SysNodesTableInfo.SYS_COL_IDENT, SysNodesTableInfo.tableColumnInfo(IDENT)),
+                Collections.<ColumnIdent>emptyList());
+        this.clusterService = clusterService;
+        nodesTableColumn = sysNodesTableInfo.tableColumn();
+    }
+
+    @Nullable
+    @Override
+    public ReferenceInfo getReferenceInfo(ColumnIdent columnIdent) {
+        ReferenceInfo info = super.getReferenceInfo(columnIdent);
+        if (info == null) {
+            return nodesTableColumn.getReferenceInfo(this.ident(), columnIdent);
+        }
+        return info;
+    }
+
+    @Override
+    public RowGranularity rowGranularity() {
+        return RowGranularity.DOC;
+    }
+
+    @Override
+    public Routing getRouting(WhereClause whereClause, @Nullable String preference) {
+        return Routing.forTableOnAllNodes(IDENT, clusterService.state().nodes());
+    }
+}
@@ -50,6 +50,9 @@ public class SysSchemaInfo implements SchemaInfo {
                 .put(SysJobsLogTableInfo.IDENT.name(), new SysJobsLogTableInfo(clusterService))
                 .put(SysOperationsTableInfo.IDENT.name(), new SysOperationsTableInfo(clusterService, sysNodesTableInfo))
                 .put(SysOperationsLogTableInfo.IDENT.name(), new SysOperationsLogTableInfo(clusterService))
+                .put(SysQueryStatsTableInfo.IDENT.name(), new SysQueryStatsTableInfo(clusterService, sysNodesTableInfo))
+                .put(SysSlowQueriesTableInfo.IDENT.name(), new SysSlowQueriesTableInfo(clusterService, sysNodesTableInfo))
+                .put(SysAdmissionQueuesTableInfo.IDENT.name(), new SysAdmissionQueuesTableInfo(clusterService))
                 .put(SysChecksTableInfo.IDENT.name(), new SysChecksTableInfo(clusterService))
                 .put(SysNodeChecksTableInfo.IDENT.name(), new SysNodeChecksTableInfo(clusterService))
                 .put(SysRepositoriesTableInfo.IDENT.name(), new SysRepositoriesTableInfo(clusterService))
@@ -0,0 +1,101 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.metadata.sys;
+
+import io.crate.analyze.WhereClause;
+import io.crate.metadata.*;
+import io.crate.metadata.table.ColumnRegistrar;
+import io.crate.metadata.table.StaticTableInfo;
+import io.crate.types.ArrayType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+
+@Singleton
+public class SysSlowQueriesTableInfo extends StaticTableInfo {
+
+    public static final TableIdent IDENT = new TableIdent(SysSchemaInfo.NAME, "slow_queries");
+    private final ClusterService clusterService;
+
+    public static class Columns {
+        public final static ColumnIdent JOB_ID = new ColumnIdent("job_id");
+        public final static ColumnIdent STMT = new ColumnIdent("stmt");
+        public final static ColumnIdent PARAMETERS = new ColumnIdent("parameters");
+        public final static ColumnIdent PLAN = new ColumnIdent("plan");
+        public final static ColumnIdent NODES = new ColumnIdent("nodes");
+        public final static ColumnIdent SHARDS = new ColumnIdent("shards");
+        public final static ColumnIdent PHASES = new ColumnIdent("phases");
+        public final static ColumnIdent STARTED = new ColumnIdent("started");
+        public final static ColumnIdent ENDED = new ColumnIdent("ended");
+        public final static ColumnIdent DURATION = new ColumnIdent("duration");
+        public final static ColumnIdent ROWS = new ColumnIdent("rows");
+        public final static ColumnIdent ERROR = new ColumnIdent("error");
+    }
+
+    private final TableColumn nodesTableColumn;
+
+    @Inject
+    public SysSlowQueriesTableInfo(ClusterService clusterService, SysNodesTableInfo sysNodesTableInfo) {
+        super(IDENT, new ColumnRegistrar(IDENT, RowGranularity.DOC)
+                        .register(Columns.JOB_ID, DataTypes.STRING)
+                        .register(Columns.STMT, DataTypes.STRING)
+                        .register(Columns.PARAMETERS, DataTypes.STRING)
+                        .register(Columns.PLAN, DataTypes.STRING)
+                        .register(Columns.NODES, new ArrayType(DataTypes.STRING))
+                        .register(Columns.SHARDS, new ArrayType(DataTypes.STRING))
+                        .register(Columns.PHASES, DataTypes.OBJECT)
+                        .register(Columns.STARTED, DataTypes.TIMESTAMP)
+                        .register(Columns.ENDED, DataTypes.TIMESTAMP)
+                        .register(Columns.DURATION, DataTypes.DOUBLE)
+                        .register(Columns.ROWS, DataTypes.LONG)
+                        .register(Columns.ERROR, DataTypes.STRING)
+                        .putInfoOnly(SysNodesTableInfo.SYS_COL_IDENT, SysNodesTableInfo.tableColumnInfo(IDENT)),
+                Collections.<ColumnIdent>emptyList());
+        this.clusterService = clusterService;
+        nodesTableColumn = sysNodesTableInfo.tableColumn();
+    }
+
+    @Nullable
+    @Override
+    public ReferenceInfo getReferenceInfo(ColumnIdent columnIdent) {
+        ReferenceInfo info = super.getReferenceInfo(columnIdent);
+        if (info == null) {
+            return nodesTableColumn.getReferenceInfo(this.ident(), columnIdent);
+        }
+        return info;
+    }
+
+    @Override
+    public RowGranularity rowGranularity() {
+        return RowGranularity.DOC;
+    }
+
+    @Override
+    public Routing getRouting(WhereClause whereClause, @Nullable String preference) {
+        return Routing.forTableOnAllNodes(IDENT, clusterService.state().nodes());
+    }
+}
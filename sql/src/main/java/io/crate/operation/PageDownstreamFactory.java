@@ -38,6 +38,7 @@ import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.ProjectorFactory;
 import io.crate.operation.projectors.RowReceiver;
 import io.crate.operation.projectors.sorting.OrderingByPosition;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import io.crate.planner.node.dql.MergePhase;
 import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
 import org.elasticsearch.cluster.ClusterService;
@@ -48,6 +49,7 @@ import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import javax.annotation.Nullable;
 import java.util.concurrent.Executor;
 
 @Singleton
@@ -88,6 +90,19 @@ public class PageDownstreamFactory {
                                                                                    boolean requiresRepeatSupport,
                                                                                    RamAccountingContext ramAccountingContext,
                                                                                    Optional<Executor> executorOptional) {
+        return createMergeNodePageDownstream(
+            mergeNode, downstream, requiresRepeatSupport, ramAccountingContext, executorOptional, null);
+    }
+
+    /**
+     * @param stats if not null, the rows emitted by the projections of the mergeNode are counted
+     */
+    public Tuple<PageDownstream, FlatProjectorChain> createMergeNodePageDownstream(MergePhase mergeNode,
+                                                                                   RowReceiver downstream,
+                                                                                   boolean requiresRepeatSupport,
+                                                                                   RamAccountingContext ramAccountingContext,
+                                                                                   Optional<Executor> executorOptional,
+                                                                                   @Nullable OperationStats stats) {
         FlatProjectorChain projectorChain = null;
         if (!mergeNode.projections().isEmpty()) {
             projectorChain = FlatProjectorChain.withAttachedDownstream(
@@ -95,7 +110,8 @@ public class PageDownstreamFactory {
                     ramAccountingContext,
                     mergeNode.projections(),
                     downstream,
-                    mergeNode.jobId()
+                    mergeNode.jobId(),
+                    stats
             );
             downstream = projectorChain.firstProjector();
         }
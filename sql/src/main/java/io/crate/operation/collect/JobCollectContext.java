@@ -36,6 +36,7 @@ import io.crate.operation.projectors.ListenableRowReceiver;
 import io.crate.operation.projectors.RepeatHandle;
 import io.crate.operation.projectors.RowReceiver;
 import io.crate.operation.projectors.RowReceivers;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.RoutedCollectPhase;
 import org.elasticsearch.common.StopWatch;
@@ -45,9 +46,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Locale;
+import java.util.*;
 
 public class JobCollectContext extends AbstractExecutionSubContext {
 
@@ -72,13 +71,24 @@ public class JobCollectContext extends AbstractExecutionSubContext {
                              RamAccountingContext queryPhaseRamAccountingContext,
                              final RowReceiver rowReceiver,
                              SharedShardContexts sharedShardContexts) {
-        super(collectPhase.executionPhaseId(), LOGGER);
+        this(collectPhase, collectOperation, localNodeId, queryPhaseRamAccountingContext, rowReceiver,
+            sharedShardContexts, new OperationStats());
+    }
+
+    public JobCollectContext(final CollectPhase collectPhase,
+                             MapSideDataCollectOperation collectOperation,
+                             String localNodeId,
+                             RamAccountingContext queryPhaseRamAccountingContext,
+                             final RowReceiver rowReceiver,
+                             SharedShardContexts sharedShardContexts,
+                             OperationStats stats) {
+        super(collectPhase.executionPhaseId(), LOGGER, stats);
         this.collectPhase = collectPhase;
         this.collectOperation = collectOperation;
         this.queryPhaseRamAccountingContext = queryPhaseRamAccountingContext;
         this.sharedShardContexts = sharedShardContexts;
 
-        listenableRowReceiver = RowReceivers.listenableRowReceiver(rowReceiver);
+        listenableRowReceiver = RowReceivers.listenableRowReceiver(stats.countRowsOut(rowReceiver));
         Futures.addCallback(listenableRowReceiver.finishFuture(), new FutureCallback<Void>() {
             @Override
             public void onSuccess(@Nullable Void result) {
@@ -176,8 +186,34 @@ public class JobCollectContext extends AbstractExecutionSubContext {
             if (logger.isTraceEnabled()) {
                 measureCollectTime();
             }
-            collectOperation.launchCollectors(collectors, threadPoolName);
+            collectOperation.launchCollectors(measuredCollectors(), threadPoolName);
+        }
+    }
+
+    /**
+     * wraps the collectors so that the cpu time and allocations of the collect threads are accounted to this context
+     */
+    private Collection<CrateCollector> measuredCollectors() {
+        List<CrateCollector> measuredCollectors = new ArrayList<>(collectors.size());
+        for (final CrateCollector collector : collectors) {
+            measuredCollectors.add(new CrateCollector() {
+                @Override
+                public void doCollect() {
+                    OperationStats.Measurement measurement = stats.startMeasurement();
+                    try {
+                        collector.doCollect();
+                    } finally {
+                        measurement.stop();
+                    }
+                }
+
+                @Override
+                public void kill(@Nullable Throwable throwable) {
+                    collector.kill(throwable);
+                }
+            });
         }
+        return measuredCollectors;
     }
 
     private void measureCollectTime() {
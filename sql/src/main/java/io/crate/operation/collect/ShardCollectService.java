@@ -26,16 +26,19 @@ import io.crate.action.job.SharedShardContext;
 import io.crate.action.sql.query.CrateSearchContext;
 import io.crate.action.sql.query.LuceneSortGenerator;
 import io.crate.analyze.EvaluatingNormalizer;
+import io.crate.analyze.WhereClause;
 import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.Symbols;
 import io.crate.blob.v2.BlobIndices;
 import io.crate.core.collections.Row;
 import io.crate.executor.transport.TransportActionProvider;
 import io.crate.lucene.CrateDocIndexService;
+import io.crate.lucene.LuceneQueryBuilder;
 import io.crate.metadata.AbstractReferenceResolver;
 import io.crate.metadata.Functions;
 import io.crate.metadata.RowGranularity;
 import io.crate.metadata.doc.DocSysColumns;
+import io.crate.metadata.settings.CrateSettings;
 import io.crate.metadata.shard.RecoveryShardReferenceResolver;
 import io.crate.metadata.shard.ShardReferenceResolver;
 import io.crate.metadata.shard.blob.BlobShardReferenceResolver;
@@ -44,12 +47,14 @@ import io.crate.operation.Input;
 import io.crate.operation.collect.collectors.CollectorFieldsVisitor;
 import io.crate.operation.collect.collectors.CrateDocCollector;
 import io.crate.operation.collect.collectors.OrderedDocCollector;
+import io.crate.operation.collect.collectors.ShardDeleteByQueryCollector;
 import io.crate.operation.projectors.InputCondition;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.RowReceiver;
 import io.crate.operation.projectors.ShardProjectorChain;
 import io.crate.operation.reference.doc.lucene.CollectorContext;
 import io.crate.planner.node.dql.RoutedCollectPhase;
+import io.crate.planner.projection.DeleteProjection;
 import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
@@ -58,6 +63,7 @@ import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
 import org.elasticsearch.index.mapper.MapperService;
@@ -90,6 +96,8 @@ public class ShardCollectService {
     private final IndexFieldDataService indexFieldDataService;
     private final Functions functions;
     private final AbstractReferenceResolver shardResolver;
+    private final TransportActionProvider transportActionProvider;
+    private final TimeValue bulkRequestTimeout;
 
     @Inject
     public ShardCollectService(SearchContextFactory searchContextFactory,
@@ -116,6 +124,8 @@ public class ShardCollectService {
         this.blobIndices = blobIndices;
         this.mapperService = mapperService;
         this.indexFieldDataService = indexFieldDataService;
+        this.transportActionProvider = transportActionProvider;
+        this.bulkRequestTimeout = CrateSettings.BULK_REQUEST_TIMEOUT.extractTimeValue(settings);
         isBlobShard = BlobIndices.isBlobShard(this.shardId);
 
         shardResolver = isBlobShard ? blobShardReferenceResolver : referenceResolver;
@@ -191,10 +201,41 @@ public class ShardCollectService {
             RowReceiver downstream = projectorChain.newShardDownstreamProjector(projectorVisitor);
             return getBlobIndexCollector(normalizedCollectNode, downstream);
         } else {
+            CrateCollector deleteByQueryCollector = getDeleteByQueryCollector(normalizedCollectNode, projectorChain);
+            if (deleteByQueryCollector != null) {
+                return deleteByQueryCollector;
+            }
             return getLuceneIndexCollector(threadPool, normalizedCollectNode, projectorChain, jobCollectContext);
         }
     }
 
+    /**
+     * Returns a collector which deletes the matching documents on the shard itself if the collect phase
+     * only collects the documents to delete them and the query can be answered from the index.
+     *
+     * @return the collector or null if the documents must be collected and deleted by the {@link DeleteProjection}
+     */
+    @Nullable
+    private CrateCollector getDeleteByQueryCollector(RoutedCollectPhase collectPhase,
+                                                     ShardProjectorChain projectorChain) {
+        if (collectPhase.projections().size() != 1 || !(collectPhase.projections().get(0) instanceof DeleteProjection)) {
+            return null;
+        }
+        WhereClause whereClause = collectPhase.whereClause();
+        if (whereClause.hasQuery() && !LuceneQueryBuilder.canBeAnsweredFromIndex(whereClause.query())) {
+            // the query may have to evaluate each document, the matching documents are collected instead
+            return null;
+        }
+        return new ShardDeleteByQueryCollector(
+            shardId,
+            collectPhase.jobId(),
+            collectPhase.whereClause(),
+            bulkRequestTimeout,
+            transportActionProvider.transportShardDeleteByQueryAction(),
+            projectorChain.newShardDownstreamWithoutShardProjectors()
+        );
+    }
+
     private CrateCollector getBlobIndexCollector(RoutedCollectPhase collectNode, RowReceiver downstream) {
         CollectInputSymbolVisitor.Context ctx = docInputSymbolVisitor.extractImplementations(collectNode);
         Input<Boolean> condition;
@@ -22,28 +22,32 @@
 package io.crate.operation.collect;
 
 import com.google.common.base.Supplier;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.twitter.jsr166e.LongAdder;
-import io.crate.core.collections.BlockingEvictingQueue;
-import io.crate.core.collections.NoopQueue;
+import io.crate.core.collections.StripedRingBuffer;
 import io.crate.metadata.settings.CrateSettings;
 import io.crate.operation.reference.sys.job.JobContext;
 import io.crate.operation.reference.sys.job.JobContextLog;
 import io.crate.operation.reference.sys.operation.OperationContext;
 import io.crate.operation.reference.sys.operation.OperationContextLog;
+import io.crate.operation.reference.sys.operation.OperationStats;
+import io.crate.operation.reference.sys.query.QueryStats;
+import io.crate.operation.reference.sys.query.SlowQuery;
+import io.crate.operation.reference.sys.query.StatementFingerprint;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.node.settings.NodeSettingsService;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
-import java.util.Map;
-import java.util.Queue;
-import java.util.UUID;
-import java.util.concurrent.BlockingQueue;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Stats tables that are globally available on each node and contain meta data of the cluster
@@ -51,53 +55,84 @@ import java.util.concurrent.atomic.AtomicReference;
  *
  * injected via guice instead of using static so that if two nodes run
  * in the same jvm the memoryTables aren't shared between the nodes.
+ *
+ * The logs are lock-free ring buffers, see {@link StripedRingBuffer}.
+ * If a sampling interval N is configured only every N-th job and its operations are tracked.
+ * Whether a job is sampled is derived from its id so that all nodes track the operations of the same jobs.
+ *
+ * The query stats aren't sampled, they contain all statements executed on this node grouped by
+ * {@link StatementFingerprint}. The least recently used fingerprints are evicted.
+ *
+ * Statements which take longer than the slow query threshold are kept in the slow queries log and
+ * written to the <code>sql.slowlog</code> logger, independent of whether stats are enabled.
  */
 @ThreadSafe
 @Singleton
 public class StatsTables {
 
-    private final static BlockingQueue<OperationContextLog> NOOP_OPERATIONS_LOG = NoopQueue.instance();
-    private final static BlockingQueue<JobContextLog> NOOP_JOBS_LOG = NoopQueue.instance();
-
     private final Map<UUID, JobContext> jobsTable = new ConcurrentHashMap<>();
     private final Map<Tuple<Integer, UUID>, OperationContext> operationsTable = new ConcurrentHashMap<>();
-    final AtomicReference<BlockingQueue<JobContextLog>> jobsLog = new AtomicReference<>(NOOP_JOBS_LOG);
-    final AtomicReference<BlockingQueue<OperationContextLog>> operationsLog = new AtomicReference<>(NOOP_OPERATIONS_LOG);
+    volatile StripedRingBuffer<JobContextLog> jobsLog = new StripedRingBuffer<>(0);
+    volatile StripedRingBuffer<OperationContextLog> operationsLog = new StripedRingBuffer<>(0);
+    @Nullable
+    volatile LoadingCache<String, QueryStats> queryStats = null;
+    volatile StripedRingBuffer<SlowQuery> slowQueries = new StripedRingBuffer<>(0);
+    private final ESLogger slowQueryLogger;
 
     private final JobsLogIterableGetter jobsLogIterableGetter;
     private final JobsIterableGetter jobsIterableGetter;
     private final OperationsIterableGetter operationsIterableGetter;
     private final OperationsLogIterableGetter operationsLogIterableGetter;
+    private final QueryStatsIterableGetter queryStatsIterableGetter;
+    private final SlowQueriesIterableGetter slowQueriesIterableGetter;
     private final LongAdder activeRequests = new LongAdder();
 
     protected final NodeSettingsService.Listener listener = new NodeSettingListener();
     volatile int lastOperationsLogSize;
     volatile int lastJobsLogSize;
+    volatile int lastSamplingInterval;
+    volatile int lastQueryStatsSize;
+    volatile int lastSlowQueryLogSize;
+    volatile long slowQueryThresholdNanos;
+    volatile boolean redactSlowQueryParameters;
     private volatile boolean lastIsEnabled;
 
     @Inject
     public StatsTables(Settings settings, NodeSettingsService nodeSettingsService) {
         int operationsLogSize = CrateSettings.STATS_OPERATIONS_LOG_SIZE.extract(settings);
         int jobsLogSize = CrateSettings.STATS_JOBS_LOG_SIZE.extract(settings);
+        int queryStatsSize = CrateSettings.STATS_QUERY_STATS_SIZE.extract(settings);
         boolean isEnabled = CrateSettings.STATS_ENABLED.extract(settings);
 
         if (isEnabled) {
             setJobsLog(jobsLogSize);
             setOperationsLog(operationsLogSize);
+            setQueryStats(queryStatsSize);
         } else {
             setJobsLog(0);
             setOperationsLog(0);
+            setQueryStats(0);
         }
 
         lastOperationsLogSize = operationsLogSize;
         lastJobsLogSize = jobsLogSize;
+        lastQueryStatsSize = queryStatsSize;
+        lastSamplingInterval = CrateSettings.STATS_SAMPLING_INTERVAL.extract(settings);
         lastIsEnabled = isEnabled;
 
+        lastSlowQueryLogSize = CrateSettings.STATS_SLOW_QUERY_LOG_SIZE.extract(settings);
+        setSlowQueries(lastSlowQueryLogSize);
+        slowQueryThresholdNanos = CrateSettings.STATS_SLOW_QUERY_THRESHOLD.extractTimeValue(settings).nanos();
+        redactSlowQueryParameters = CrateSettings.STATS_SLOW_QUERY_REDACT_PARAMETERS.extract(settings);
+        slowQueryLogger = Loggers.getLogger("sql.slowlog", settings);
+
         nodeSettingsService.addListener(listener);
         jobsLogIterableGetter = new JobsLogIterableGetter();
         jobsIterableGetter = new JobsIterableGetter();
         operationsIterableGetter = new OperationsIterableGetter();
         operationsLogIterableGetter = new OperationsLogIterableGetter();
+        queryStatsIterableGetter = new QueryStatsIterableGetter();
+        slowQueriesIterableGetter = new SlowQueriesIterableGetter();
     }
 
     /**
@@ -108,6 +143,14 @@ public class StatsTables {
         return lastIsEnabled;
     }
 
+    /**
+     * @return true if the job with the given id and its operations are tracked
+     */
+    private boolean isSampled(UUID jobId) {
+        int samplingInterval = lastSamplingInterval;
+        return samplingInterval == 1 || (jobId.hashCode() & Integer.MAX_VALUE) % samplingInterval == 0;
+    }
+
     /**
      * Generate a unique ID for an operation based on jobId and operationId.
      */
@@ -123,7 +166,7 @@ public class StatsTables {
      */
     public void jobStarted(UUID jobId, String statement) {
         activeRequests.increment();
-        if (!isEnabled()) {
+        if (!isEnabled() || !isSampled(jobId)) {
             return;
         }
         jobsTable.put(jobId, new JobContext(jobId, statement, System.currentTimeMillis()));
@@ -132,44 +175,136 @@ public class StatsTables {
     /**
      * mark a job as finished.
      *
-     * If {@link #isEnabled()} is false this method won't do anything.
+     * The job is removed from the jobs table even if the settings changed since it was started,
+     * it's only added to the log if {@link #isEnabled()} is true.
      */
     public void jobFinished(UUID jobId, @Nullable String errorMessage) {
         activeRequests.decrement();
-        if (!isEnabled()) {
-            return;
-        }
+        // whether the job has been tracked depends on the settings at its start, not the current ones
         JobContext jobContext = jobsTable.remove(jobId);
-        if (jobContext == null) {
+        if (jobContext == null || !isEnabled()) {
             return;
         }
-        Queue<JobContextLog> jobContextLogs = jobsLog.get();
-        jobContextLogs.offer(new JobContextLog(jobContext, errorMessage));
+        jobsLog.add(new JobContextLog(jobContext, errorMessage));
     }
 
     public void operationStarted(int operationId, UUID jobId, String name) {
-        if (isEnabled()) {
+        operationStarted(operationId, jobId, name, new OperationStats());
+    }
+
+    /**
+     * @param stats the counters of the operation which are shown while it is running and kept in the log afterwards
+     */
+    public void operationStarted(int operationId, UUID jobId, String name, OperationStats stats) {
+        if (isEnabled() && isSampled(jobId)) {
             operationsTable.put(
                     uniqueOperationId(operationId, jobId),
-                    new OperationContext(operationId, jobId, name, System.currentTimeMillis()));
+                    new OperationContext(operationId, jobId, name, System.currentTimeMillis(), stats));
+            JobContext jobContext = jobsTable.get(jobId);
+            if (jobContext != null) {
+                jobContext.addOperationStats(stats);
+            }
         }
     }
 
     public void operationFinished(@Nullable Integer operationId, @Nullable UUID jobId, @Nullable String errorMessage, long usedBytes) {
-        if (operationId == null || jobId == null | !isEnabled()) {
+        operationFinished(operationId, jobId, errorMessage, usedBytes, 0, 0);
+    }
+
+    public void operationFinished(@Nullable Integer operationId,
+                                  @Nullable UUID jobId,
+                                  @Nullable String errorMessage,
+                                  long usedBytes,
+                                  long pageBytes,
+                                  long pageBytesCompressed) {
+        if (operationId == null || jobId == null) {
             return;
         }
         OperationContext operationContext = operationsTable.remove(uniqueOperationId(operationId, jobId));
-        if (operationContext == null) {
-            // this might be the case if the stats were disabled when the operation started but have
-            // been enabled before the finish
+        if (operationContext == null || !isEnabled()) {
+            // the operation isn't tracked if stats were disabled or the job wasn't sampled when it started
             return;
         }
         operationContext.usedBytes = usedBytes;
-        Queue<OperationContextLog> operationContextLogs = operationsLog.get();
-        operationContextLogs.offer(new OperationContextLog(operationContext, errorMessage));
+        operationContext.pageBytes = pageBytes;
+        operationContext.pageBytesCompressed = pageBytesCompressed;
+        operationsLog.add(new OperationContextLog(operationContext, errorMessage));
+    }
+
+
+    /**
+     * Record the execution of a statement in the query stats.
+     *
+     * @param durationNanos the time from receiving the request until the response was sent
+     * @param rows the number of returned or affected rows, negative if unknown
+     */
+    public void queryFinished(String statement, long durationNanos, long rows, boolean failed) {
+        LoadingCache<String, QueryStats> stats = queryStats;
+        if (stats == null || !isEnabled()) {
+            return;
+        }
+        stats.getUnchecked(StatementFingerprint.of(statement)).record(durationNanos / 1000, rows, failed);
+    }
+
+    /**
+     * @return true if a statement which took durationNanos has to be recorded using {@link #slowQueryFinished(SlowQuery)}
+     */
+    public boolean isSlowQuery(long durationNanos) {
+        long threshold = slowQueryThresholdNanos;
+        return threshold > 0 && durationNanos >= threshold;
+    }
+
+    /**
+     * Indicates if the parameters of slow queries must not be recorded.
+     */
+    public boolean redactSlowQueryParameters() {
+        return redactSlowQueryParameters;
+    }
+
+    public void slowQueryFinished(SlowQuery slowQuery) {
+        slowQueries.add(slowQuery);
+        slowQueryLogger.warn("{}", slowQuery.toLogMessage());
+    }
+
+    /**
+     * The timings of the operations of a job which ran on this node.
+     * The operations are only tracked if stats are enabled and the job is sampled.
+     *
+     * @return a map from the operation id to its name, duration in milliseconds and row counts
+     */
+    public Map<String, Object> operationTimings(UUID jobId) {
+        if (!isEnabled() || !isSampled(jobId)) {
+            return Collections.emptyMap();
+        }
+        Map<String, Object> timings = new TreeMap<>();
+        for (OperationContextLog log : operationsLog) {
+            if (jobId.equals(log.jobId())) {
+                timings.put(String.valueOf(log.id()), operationTiming(
+                    log.name(), log.ended() - log.started(), log.stats(), log.errorMessage()));
+            }
+        }
+        for (OperationContext context : operationsTable.values()) {
+            if (jobId.equals(context.jobId)) {
+                timings.put(String.valueOf(context.id), operationTiming(
+                    context.name, System.currentTimeMillis() - context.started, context.stats, null));
+            }
+        }
+        return timings;
     }
 
+    private static Map<String, Object> operationTiming(String name,
+                                                       long durationMillis,
+                                                       OperationStats stats,
+                                                       @Nullable String errorMessage) {
+        Map<String, Object> timing = new HashMap<>(6);
+        timing.put("name", name);
+        timing.put("duration", durationMillis);
+        timing.put("cpu_time", stats.cpuTimeNanos() / 1_000_000.0);
+        timing.put("rows_in", stats.rowsIn());
+        timing.put("rows_out", stats.rowsOut());
+        timing.put("error", errorMessage);
+        return timing;
+    }
 
     public Supplier<Iterable<?>> jobsGetter() {
         return jobsIterableGetter;
@@ -187,6 +322,14 @@ public class StatsTables {
         return operationsLogIterableGetter;
     }
 
+    public Supplier<Iterable<?>> queryStatsGetter() {
+        return queryStatsIterableGetter;
+    }
+
+    public Supplier<Iterable<?>> slowQueriesGetter() {
+        return slowQueriesIterableGetter;
+    }
+
     public long activeRequests() {
         return activeRequests.longValue();
     }
@@ -195,7 +338,7 @@ public class StatsTables {
 
         @Override
         public Iterable<?> get() {
-            return jobsLog.get();
+            return jobsLog;
         }
     }
 
@@ -219,30 +362,66 @@ public class StatsTables {
 
         @Override
         public Iterable<?> get() {
-            return operationsLog.get();
+            return operationsLog;
         }
     }
 
-    private void setOperationsLog(int size) {
-        if (size == 0) {
-            operationsLog.set(NOOP_OPERATIONS_LOG);
-        } else {
-            Queue<OperationContextLog> oldQ = operationsLog.get();
-            BlockingEvictingQueue<OperationContextLog> newQ = new BlockingEvictingQueue<>(size);
-            newQ.addAll(oldQ);
-            operationsLog.set(newQ);
+    private class QueryStatsIterableGetter implements Supplier<Iterable<?>> {
+
+        @Override
+        public Iterable<?> get() {
+            LoadingCache<String, QueryStats> stats = queryStats;
+            if (stats == null) {
+                return Collections.emptyList();
+            }
+            return stats.asMap().values();
         }
     }
 
-    private void setJobsLog(int size) {
+    private class SlowQueriesIterableGetter implements Supplier<Iterable<?>> {
+
+        @Override
+        public Iterable<?> get() {
+            return slowQueries;
+        }
+    }
+
+    private void setQueryStats(int size) {
         if (size == 0) {
-            jobsLog.set(NOOP_JOBS_LOG);
-        } else {
-            Queue<JobContextLog> oldQ = jobsLog.get();
-            BlockingEvictingQueue<JobContextLog> newQ = new BlockingEvictingQueue<>(size);
-            newQ.addAll(oldQ);
-            jobsLog.set(newQ);
+            queryStats = null;
+            return;
+        }
+        LoadingCache<String, QueryStats> newStats = CacheBuilder.newBuilder()
+            .maximumSize(size)
+            .build(new CacheLoader<String, QueryStats>() {
+                @Override
+                public QueryStats load(String fingerprint) throws Exception {
+                    return new QueryStats(fingerprint);
+                }
+            });
+        LoadingCache<String, QueryStats> oldStats = queryStats;
+        if (oldStats != null) {
+            newStats.putAll(oldStats.asMap());
         }
+        queryStats = newStats;
+    }
+
+    private void setOperationsLog(int size) {
+        StripedRingBuffer<OperationContextLog> newLog = new StripedRingBuffer<>(size);
+        newLog.addAll(operationsLog);
+        operationsLog = newLog;
+    }
+
+    private void setSlowQueries(int size) {
+        StripedRingBuffer<SlowQuery> newLog = new StripedRingBuffer<>(size);
+        newLog.addAll(slowQueries);
+        slowQueries = newLog;
+    }
+
+    private void setJobsLog(int size) {
+        StripedRingBuffer<JobContextLog> newLog = new StripedRingBuffer<>(size);
+        newLog.addAll(jobsLog);
+        jobsLog = newLog;
     }
 
     private class NodeSettingListener implements NodeSettingsService.Listener {
@@ -251,6 +430,14 @@ public class StatsTables {
         public void onRefreshSettings(Settings settings) {
             boolean wasEnabled = lastIsEnabled;
             boolean becomesEnabled = CrateSettings.STATS_ENABLED.extract(settings);
+            lastSamplingInterval = CrateSettings.STATS_SAMPLING_INTERVAL.extract(settings);
+            slowQueryThresholdNanos = CrateSettings.STATS_SLOW_QUERY_THRESHOLD.extractTimeValue(settings).nanos();
+            redactSlowQueryParameters = CrateSettings.STATS_SLOW_QUERY_REDACT_PARAMETERS.extract(settings);
+            int slowQueryLogSize = CrateSettings.STATS_SLOW_QUERY_LOG_SIZE.extract(settings);
+            if (slowQueryLogSize != lastSlowQueryLogSize) {
+                lastSlowQueryLogSize = slowQueryLogSize;
+                setSlowQueries(slowQueryLogSize);
+            }
 
             if (wasEnabled && becomesEnabled) {
                 int opSize = CrateSettings.STATS_OPERATIONS_LOG_SIZE.extract(settings);
@@ -265,13 +452,21 @@ public class StatsTables {
                     setJobsLog(jobSize);
                 }
 
+                int queryStatsSize = CrateSettings.STATS_QUERY_STATS_SIZE.extract(settings);
+                if (queryStatsSize != lastQueryStatsSize) {
+                    lastQueryStatsSize = queryStatsSize;
+                    setQueryStats(queryStatsSize);
+                }
+
             } else if (wasEnabled) { // !becomesEnabled
                 setOperationsLog(0);
                 setJobsLog(0);
+                setQueryStats(0);
                 lastIsEnabled = false;
 
                 lastOperationsLogSize = CrateSettings.STATS_OPERATIONS_LOG_SIZE.extract(settings);
                 lastJobsLogSize = CrateSettings.STATS_JOBS_LOG_SIZE.extract(settings);
+                lastQueryStatsSize = CrateSettings.STATS_QUERY_STATS_SIZE.extract(settings);
             } else if (becomesEnabled) { // !wasEnabled
                 lastIsEnabled = true;
 
@@ -283,6 +478,10 @@ public class StatsTables {
                 int jobSize = CrateSettings.STATS_JOBS_LOG_SIZE.extract(settings);
                 lastJobsLogSize = jobSize;
                 setJobsLog(jobSize);
+
+                int queryStatsSize = CrateSettings.STATS_QUERY_STATS_SIZE.extract(settings);
+                lastQueryStatsSize = queryStatsSize;
+                setQueryStats(queryStatsSize);
             }
         }
     }
@@ -0,0 +1,124 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.collect.collectors;
+
+import io.crate.analyze.WhereClause;
+import io.crate.core.collections.Row1;
+import io.crate.executor.transport.ShardDeleteByQueryRequest;
+import io.crate.executor.transport.ShardResponse;
+import io.crate.executor.transport.TransportShardDeleteByQueryAction;
+import io.crate.operation.collect.CrateCollector;
+import io.crate.operation.projectors.RepeatHandle;
+import io.crate.operation.projectors.RowReceiver;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+
+import javax.annotation.Nullable;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deletes the documents of a shard which match a where clause with {@link ShardDeleteByQueryRequest}s
+ * instead of collecting their ids and deleting them one by one.
+ *
+ * The documents are deleted in batches of {@link #BATCH_SIZE} documents. Once done, the number of deleted
+ * documents is emitted as single row, like the {@link io.crate.operation.projectors.DeleteProjector} does.
+ */
+public class ShardDeleteByQueryCollector implements CrateCollector {
+
+    static final int BATCH_SIZE = 10_000;
+
+    private final ShardId shardId;
+    private final UUID jobId;
+    private final WhereClause whereClause;
+    private final TimeValue timeout;
+    private final TransportShardDeleteByQueryAction transportShardDeleteByQueryAction;
+    private final RowReceiver rowReceiver;
+    private final AtomicBoolean killed = new AtomicBoolean(false);
+
+    private long rowCount = 0;
+
+    public ShardDeleteByQueryCollector(ShardId shardId,
+                                       UUID jobId,
+                                       WhereClause whereClause,
+                                       TimeValue timeout,
+                                       TransportShardDeleteByQueryAction transportShardDeleteByQueryAction,
+                                       RowReceiver rowReceiver) {
+        this.shardId = shardId;
+        this.jobId = jobId;
+        this.whereClause = whereClause;
+        this.timeout = timeout;
+        this.transportShardDeleteByQueryAction = transportShardDeleteByQueryAction;
+        this.rowReceiver = rowReceiver;
+    }
+
+    @Override
+    public void doCollect() {
+        deleteBatch(false);
+    }
+
+    private void deleteBatch(boolean refresh) {
+        ShardDeleteByQueryRequest request = new ShardDeleteByQueryRequest(shardId, jobId, whereClause, BATCH_SIZE, refresh);
+        request.timeout(timeout);
+        transportShardDeleteByQueryAction.execute(request, new ActionListener<ShardResponse>() {
+            @Override
+            public void onResponse(ShardResponse response) {
+                if (killed.get()) {
+                    return;
+                }
+                if (response.failure() != null) {
+                    rowReceiver.fail(response.failure());
+                    return;
+                }
+                int numProcessed = response.itemIndices().size();
+                for (ShardResponse.Failure failure : response.failures()) {
+                    if (failure == null) {
+                        rowCount++;
+                    }
+                }
+                if (numProcessed >= BATCH_SIZE) {
+                    // there may be more matching documents, the deleted ones are only invisible after a refresh
+                    deleteBatch(true);
+                } else {
+                    rowReceiver.setNextRow(new Row1(rowCount));
+                    rowReceiver.finish(RepeatHandle.UNSUPPORTED);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                if (!killed.get()) {
+                    rowReceiver.fail(e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void kill(@Nullable Throwable throwable) {
+        // the running shard operation is killed by the shard action itself, which listens for killed jobs
+        killed.set(true);
+        rowReceiver.kill(throwable);
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import io.crate.analyze.symbol.Reference;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.operation.reference.file.LineContext;
+import io.crate.types.*;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Tokenizes CSV lines directly on their bytes and converts the fields to the types of the target columns.
+ *
+ * Unquoted fields are passed on as slices of the line, only quoted fields containing escaped quotes are copied.
+ * An unquoted empty field is null, a quoted empty field is an empty string.
+ * Quoted fields can't contain line breaks, as the files are read line by line.
+ */
+class CSVLineParser {
+
+    private final byte delimiter;
+    private final byte quote;
+    private final boolean header;
+    private final Map<String, DataType> columnTypes;
+
+    private String[] columnNames;
+    private DataType[] types;
+    private final List<BytesRef> fields = new ArrayList<>();
+    private final BitSet quoted = new BitSet();
+
+    CSVLineParser(CSVOptions options) {
+        this.delimiter = options.delimiter();
+        this.quote = options.quote();
+        this.header = options.header();
+        List<Symbol> columns = options.columns();
+        this.columnTypes = new HashMap<>(columns.size());
+        this.columnNames = new String[columns.size()];
+        this.types = new DataType[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            Reference reference = (Reference) columns.get(i);
+            String name = reference.ident().columnIdent().name();
+            columnTypes.put(name, reference.valueType());
+            columnNames[i] = name;
+            types[i] = reference.valueType();
+        }
+    }
+
+    /**
+     * @return true if the first line of each file is a header which must be passed to {@link #parseHeader(byte[])}
+     */
+    boolean hasHeader() {
+        return header;
+    }
+
+    /**
+     * Uses the fields of the header line as column names of the following lines.
+     */
+    void parseHeader(byte[] line) {
+        tokenize(line);
+        String[] names = new String[fields.size()];
+        DataType[] headerTypes = new DataType[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            names[i] = fields.get(i).utf8ToString();
+            if (names[i].isEmpty()) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "The CSV header contains an empty column name at position %d", i + 1));
+            }
+            // columns which aren't part of the table are added dynamically as strings
+            headerTypes[i] = columnTypes.get(names[i]);
+        }
+        columnNames = names;
+        types = headerTypes;
+    }
+
+    /**
+     * Parses the line and sets the typed values on the line context.
+     *
+     * @throws IllegalArgumentException if the line isn't valid CSV or a value can't be converted to its column type
+     */
+    void parse(byte[] line, LineContext lineContext) {
+        tokenize(line);
+        if (fields.size() > columnNames.length) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "The CSV line has %d values but there are only %d columns", fields.size(), columnNames.length));
+        }
+        Object[] values = new Object[fields.size()];
+        for (int i = 0; i < values.length; i++) {
+            BytesRef field = fields.get(i);
+            if (field.length == 0 && !quoted.get(i)) {
+                continue;
+            }
+            values[i] = convert(field, columnNames[i], types[i]);
+        }
+        lineContext.values(columnNames, values);
+    }
+
+    private void tokenize(byte[] line) {
+        fields.clear();
+        quoted.clear();
+        int pos = 0;
+        while (true) {
+            if (pos < line.length && line[pos] == quote) {
+                quoted.set(fields.size());
+                pos = readQuotedField(line, pos + 1);
+            } else {
+                int start = pos;
+                while (pos < line.length && line[pos] != delimiter) {
+                    pos++;
+                }
+                fields.add(new BytesRef(line, start, pos - start));
+            }
+            if (pos >= line.length) {
+                return;
+            }
+            // skip the delimiter, a delimiter at the end of the line is followed by an empty field
+            pos++;
+        }
+    }
+
+    /**
+     * @param start position after the opening quote
+     * @return position after the closing quote
+     */
+    private int readQuotedField(byte[] line, int start) {
+        int pos = start;
+        byte[] unescaped = null;
+        int unescapedLength = 0;
+        while (true) {
+            if (pos >= line.length) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "The quoted CSV value starting at position %d isn't terminated", start));
+            }
+            if (line[pos] == quote) {
+                if (pos + 1 < line.length && line[pos + 1] == quote) {
+                    // an escaped quote, the field has to be copied to drop the escape character
+                    if (unescaped == null) {
+                        unescaped = new byte[line.length - start];
+                        System.arraycopy(line, start, unescaped, 0, pos - start);
+                        unescapedLength = pos - start;
+                    }
+                    unescaped[unescapedLength++] = quote;
+                    pos += 2;
+                    continue;
+                }
+                break;
+            }
+            if (unescaped != null) {
+                unescaped[unescapedLength++] = line[pos];
+            }
+            pos++;
+        }
+        if (unescaped == null) {
+            fields.add(new BytesRef(line, start, pos - start));
+        } else {
+            fields.add(new BytesRef(unescaped, 0, unescapedLength));
+        }
+        pos++;
+        if (pos < line.length && line[pos] != delimiter) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "The quoted CSV value ending at position %d must be followed by a delimiter", pos));
+        }
+        return pos;
+    }
+
+    private static Object convert(BytesRef field, String columnName, @Nullable DataType type) {
+        if (type == null) {
+            return field;
+        }
+        try {
+            switch (type.id()) {
+                case StringType.ID:
+                    return field;
+                case LongType.ID:
+                case IntegerType.ID:
+                case ShortType.ID:
+                case ByteType.ID:
+                    // parses the bytes without creating a string
+                    return type.value(LongType.INSTANCE.value(field));
+                case ObjectType.ID:
+                    return parseJson(field, Map.class);
+                case ArrayType.ID:
+                case SetType.ID:
+                    return parseJson(field, List.class);
+                case GeoPointType.ID:
+                case GeoShapeType.ID:
+                    if (field.length > 0 && (field.bytes[field.offset] == '[' || field.bytes[field.offset] == '{')) {
+                        return parseJson(field, Object.class);
+                    }
+                    // WKT
+                    return type.value(field);
+                default:
+                    return type.value(field);
+            }
+        } catch (IllegalArgumentException | ClassCastException e) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "Cannot convert value '%s' of column '%s' to type %s", field.utf8ToString(), columnName, type), e);
+        }
+    }
+
+    /**
+     * Objects, arrays and GeoJSON are expected as JSON and are passed on as parsed, like values of the JSON format
+     */
+    private static Object parseJson(BytesRef field, Class<?> expected) {
+        try (XContentParser parser = JsonXContent.jsonXContent.createParser(field.bytes, field.offset, field.length)) {
+            XContentParser.Token token = parser.nextToken();
+            Object value;
+            if (token == XContentParser.Token.START_OBJECT) {
+                value = parser.mapOrdered();
+            } else if (token == XContentParser.Token.START_ARRAY) {
+                value = parser.listOrderedMap();
+            } else {
+                value = null;
+            }
+            if (!expected.isInstance(value)) {
+                throw new IllegalArgumentException("Invalid JSON value");
+            }
+            return value;
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+}
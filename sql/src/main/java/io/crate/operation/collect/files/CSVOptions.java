@@ -0,0 +1,122 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import com.google.common.base.MoreObjects;
+import io.crate.analyze.symbol.Symbol;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.settings.Settings;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Options of the CSV format of COPY FROM
+ */
+public class CSVOptions {
+
+    public static final String FORMAT = "format";
+    public static final String DELIMITER = "delimiter";
+    public static final String QUOTE = "quote";
+    public static final String HEADER = "header";
+
+    public static final char DEFAULT_DELIMITER = ',';
+    public static final char DEFAULT_QUOTE = '"';
+    public static final boolean DEFAULT_HEADER = true;
+
+    private final byte delimiter;
+    private final byte quote;
+    private final boolean header;
+    private final List<Symbol> columns;
+
+    /**
+     * @param columns the top level columns of the target table in table order.
+     *                Their types are used to convert the values,
+     *                their order is used to assign the values if the file has no header.
+     */
+    public CSVOptions(byte delimiter, byte quote, boolean header, List<Symbol> columns) {
+        this.delimiter = delimiter;
+        this.quote = quote;
+        this.header = header;
+        this.columns = columns;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the settings of the COPY FROM statement contain invalid CSV options
+     */
+    public static CSVOptions fromSettings(Settings settings, List<Symbol> columns) {
+        byte delimiter = toByte(DELIMITER, settings.get(DELIMITER, String.valueOf(DEFAULT_DELIMITER)));
+        byte quote = toByte(QUOTE, settings.get(QUOTE, String.valueOf(DEFAULT_QUOTE)));
+        if (delimiter == quote) {
+            throw new IllegalArgumentException("The delimiter and the quote of the CSV format must differ");
+        }
+        return new CSVOptions(delimiter, quote, settings.getAsBoolean(HEADER, DEFAULT_HEADER), columns);
+    }
+
+    private static byte toByte(String name, String value) {
+        if (value.length() != 1 || value.charAt(0) > 127 || value.charAt(0) == '\n' || value.charAt(0) == '\r') {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "The %s of the CSV format must be a single ASCII character other than a line break, got '%s'",
+                name, value));
+        }
+        return (byte) value.charAt(0);
+    }
+
+    public byte delimiter() {
+        return delimiter;
+    }
+
+    public byte quote() {
+        return quote;
+    }
+
+    public boolean header() {
+        return header;
+    }
+
+    public List<Symbol> columns() {
+        return columns;
+    }
+
+    public static CSVOptions fromStream(StreamInput in) throws IOException {
+        return new CSVOptions(in.readByte(), in.readByte(), in.readBoolean(), Symbol.listFromStream(in));
+    }
+
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeByte(delimiter);
+        out.writeByte(quote);
+        out.writeBoolean(header);
+        Symbol.toStream(columns, out);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("delimiter", (char) delimiter)
+            .add("quote", (char) quote)
+            .add("header", header)
+            .add("columns", columns)
+            .toString();
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.collect.files;
+
+import io.crate.Streamer;
+import io.crate.operation.projectors.writer.ColumnarWriter;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.StreamInput;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the typed rows of a file written by {@link ColumnarWriter}.
+ */
+class ColumnarReader implements Closeable {
+
+    private final StreamInput in;
+    private final String[] columnNames;
+    private final Streamer[] streamers;
+    private final StreamInput[] chunks;
+    private final Object[] mins;
+    private final Object[] maxs;
+    private final Object[] values;
+    private final Inflater inflater = new Inflater();
+    private int rowsLeft = 0;
+
+    ColumnarReader(InputStream inputStream) throws IOException {
+        in = new InputStreamStreamInput(inputStream);
+        byte[] magic = new byte[ColumnarWriter.MAGIC.length];
+        in.readBytes(magic, 0, magic.length);
+        if (!Arrays.equals(magic, ColumnarWriter.MAGIC)) {
+            throw new IOException("The file isn't in the columnar format");
+        }
+        int version = in.readVInt();
+        if (version != ColumnarWriter.VERSION) {
+            throw new IOException(String.format(Locale.ENGLISH,
+                "Columnar format version %d isn't supported", version));
+        }
+        int numColumns = in.readVInt();
+        columnNames = new String[numColumns];
+        streamers = new Streamer[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            columnNames[i] = in.readString();
+            DataType type = DataTypes.fromStream(in);
+            streamers[i] = type.streamer();
+        }
+        chunks = new StreamInput[numColumns];
+        mins = new Object[numColumns];
+        maxs = new Object[numColumns];
+        values = new Object[numColumns];
+    }
+
+    String[] columnNames() {
+        return columnNames;
+    }
+
+    /**
+     * Reads the next row into {@link #values()}.
+     *
+     * @return false if there are no more rows
+     */
+    boolean next() throws IOException {
+        if (rowsLeft == 0) {
+            rowsLeft = in.readVInt();
+            if (rowsLeft == 0) {
+                return false;
+            }
+            for (int i = 0; i < chunks.length; i++) {
+                readChunk(i);
+            }
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = toSourceValue(streamers[i].readValueFrom(chunks[i]));
+        }
+        rowsLeft--;
+        return true;
+    }
+
+    /**
+     * @return the values of the current row, the array is reused for the next row
+     */
+    Object[] values() {
+        return values;
+    }
+
+    /**
+     * @return the min value of a column in the chunk of the current row
+     *         or null if the chunk has no stats
+     */
+    @Nullable
+    Object min(int column) {
+        return mins[column];
+    }
+
+    /**
+     * @return the max value of a column in the chunk of the current row
+     *         or null if the chunk has no stats
+     */
+    @Nullable
+    Object max(int column) {
+        return maxs[column];
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    private void readChunk(int column) throws IOException {
+        byte codec = in.readByte();
+        if (in.readBoolean()) {
+            mins[column] = streamers[column].readValueFrom(in);
+            maxs[column] = streamers[column].readValueFrom(in);
+        } else {
+            mins[column] = null;
+            maxs[column] = null;
+        }
+        int uncompressedLength = in.readVInt();
+        int length = in.readVInt();
+        byte[] bytes = new byte[length];
+        in.readBytes(bytes, 0, length);
+        if (codec == ColumnarWriter.CODEC_DEFLATE) {
+            bytes = inflate(bytes, uncompressedLength);
+        } else if (codec != ColumnarWriter.CODEC_NONE) {
+            throw new IOException(String.format(Locale.ENGLISH, "Unknown codec %d of columnar chunk", codec));
+        }
+        chunks[column] = new BytesArray(bytes).streamInput();
+    }
+
+    private byte[] inflate(byte[] compressed, int uncompressedLength) throws IOException {
+        byte[] bytes = new byte[uncompressedLength];
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            int length = 0;
+            while (length < uncompressedLength && !inflater.finished()) {
+                int inflated = inflater.inflate(bytes, length, uncompressedLength - length);
+                if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != uncompressedLength) {
+                throw new IOException("The columnar chunk is truncated");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("The columnar chunk is corrupted", e);
+        }
+        return bytes;
+    }
+
+    /**
+     * strings nested in arrays are converted, as they would otherwise be written as binary into the JSON source
+     */
+    private static Object toSourceValue(Object value) {
+        if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            for (int i = 0; i < array.length; i++) {
+                Object element = array[i];
+                if (element instanceof BytesRef) {
+                    array[i] = ((BytesRef) element).utf8ToString();
+                } else {
+                    array[i] = toSourceValue(element);
+                }
+            }
+        }
+        return value;
+    }
+}
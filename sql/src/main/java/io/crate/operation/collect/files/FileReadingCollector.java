@@ -26,6 +26,8 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import io.crate.core.collections.ArrayRow;
+import io.crate.core.collections.Row;
 import io.crate.operation.Input;
 import io.crate.operation.InputRow;
 import io.crate.operation.collect.CrateCollector;
@@ -35,18 +37,12 @@ import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 
 import javax.annotation.Nullable;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.*;
 import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
@@ -59,10 +55,18 @@ public class FileReadingCollector implements CrateCollector {
     private final Boolean shared;
     private final int numReaders;
     private final int readerNumber;
+    private final int numLocalReaders;
+    private final int localReaderNumber;
+    private final long splitSize;
     private final InputRow row;
+    @Nullable
+    private final ArrayRow materializedRow;
     private final RowReceiver downstream;
     private final boolean compressed;
     private final List<LineCollectorExpression<?>> collectorExpressions;
+    @Nullable
+    private final CSVLineParser csvParser;
+    private final boolean columnar;
 
     private static final Pattern HAS_GLOBS_PATTERN = Pattern.compile("(.*)[^\\\\]\\*.*");
     private static final Predicate<URI> MATCH_ALL_PREDICATE = new Predicate<URI>() {
@@ -74,7 +78,9 @@ public class FileReadingCollector implements CrateCollector {
     private final List<UriWithGlob> fileUris;
 
     public enum FileFormat {
-        JSON
+        JSON,
+        CSV,
+        COLUMNAR
     }
 
     public FileReadingCollector(Collection<String> fileUris,
@@ -82,11 +88,15 @@ public class FileReadingCollector implements CrateCollector {
                                 List<LineCollectorExpression<?>> collectorExpressions,
                                 RowReceiver downstream,
                                 FileFormat format,
+                                @Nullable CSVOptions csvOptions,
                                 String compression,
                                 Map<String, FileInputFactory> fileInputFactories,
                                 Boolean shared,
                                 int numReaders,
-                                int readerNumber) {
+                                int readerNumber,
+                                int numLocalReaders,
+                                int localReaderNumber,
+                                long splitSize) {
         this.fileUris = getUrisWithGlob(fileUris);
         this.downstream = downstream;
         this.compressed = compression != null && compression.equalsIgnoreCase("gzip");
@@ -96,6 +106,18 @@ public class FileReadingCollector implements CrateCollector {
         this.shared = shared;
         this.numReaders = numReaders;
         this.readerNumber = readerNumber;
+        this.numLocalReaders = numLocalReaders;
+        this.localReaderNumber = localReaderNumber;
+        this.splitSize = splitSize;
+        // the readers of a node share the downstream, so rows are evaluated here to parse the lines in parallel
+        this.materializedRow = numLocalReaders > 1 ? new ArrayRow() : null;
+        if (format == FileFormat.CSV) {
+            assert csvOptions != null : "csvOptions must be set for the CSV format";
+            this.csvParser = new CSVLineParser(csvOptions);
+        } else {
+            this.csvParser = null;
+        }
+        this.columnar = format == FileFormat.COLUMNAR;
     }
 
     private static class UriWithGlob {
@@ -170,14 +192,40 @@ public class FileReadingCollector implements CrateCollector {
                 return;
             }
 
-            Predicate<URI> uriPredicate = generateUriPredicate(fileInput, fileUri.globPredicate);
-            List<URI> uris;
+            boolean sharedStorage = MoreObjects.firstNonNull(shared, fileInput.sharedStorageDefault());
+            // with shared storage the files are distributed across the readers of all nodes,
+            // otherwise each node reads all of its files
+            int readers = sharedStorage ? numReaders * numLocalReaders : numLocalReaders;
+            int reader = sharedStorage ? readerNumber * numLocalReaders + localReaderNumber : localReaderNumber;
             try {
-                uris = getUris(fileInput, fileUri.uri, fileUri.preGlobUri, uriPredicate);
-                for (URI uri : uris) {
-                    if (!readLines(fileInput, collectorContext, uri, 0, 0)) {
-                        // break out nested loop and finish normally
-                        break fileUriLoop;
+                if (isSplittable(fileInput)) {
+                    RangedFileInput rangedFileInput = (RangedFileInput) fileInput;
+                    Predicate<URI> uriPredicate = MoreObjects.firstNonNull(fileUri.globPredicate, MATCH_ALL_PREDICATE);
+                    List<URI> uris = getUris(fileInput, fileUri.uri, fileUri.preGlobUri, uriPredicate);
+                    for (URI uri : uris) {
+                        long length = rangedFileInput.length(uri);
+                        boolean proceed;
+                        if (length > splitSize) {
+                            proceed = readRanges(rangedFileInput, collectorContext, uri, length, readers, reader);
+                        } else {
+                            proceed = !isAssigned(uri, 0, readers, reader)
+                                      || readLines(fileInput, collectorContext, uri, 0, hasHeader(), 0);
+                        }
+                        if (!proceed) {
+                            break fileUriLoop;
+                        }
+                    }
+                } else {
+                    Predicate<URI> uriPredicate = generateUriPredicate(readers, reader, fileUri.globPredicate);
+                    List<URI> uris = getUris(fileInput, fileUri.uri, fileUri.preGlobUri, uriPredicate);
+                    for (URI uri : uris) {
+                        boolean proceed = columnar
+                            ? readRows(fileInput, collectorContext, uri, 0L, 0)
+                            : readLines(fileInput, collectorContext, uri, 0, hasHeader(), 0);
+                        if (!proceed) {
+                            // break out nested loop and finish normally
+                            break fileUriLoop;
+                        }
                     }
                 }
             } catch (Throwable e) {
@@ -197,6 +245,7 @@ public class FileReadingCollector implements CrateCollector {
                            CollectorContext collectorContext,
                            URI uri,
                            long startLine,
+                           boolean headerPending,
                            int retry) throws IOException {
         InputStream inputStream = fileInput.getStream(uri);
         if (inputStream == null) {
@@ -214,24 +263,21 @@ public class FileReadingCollector implements CrateCollector {
                 if (line.length() == 0) { // skip empty lines
                     continue;
                 }
-                collectorContext.lineContext().rawSource(line.getBytes(StandardCharsets.UTF_8));
-                RowReceiver.Result result = downstream.setNextRow(row);
-                switch (result) {
-                    case CONTINUE:
-                        continue;
-                    case PAUSE:
-                        throw new UnsupportedOperationException("FileReadingCollector doesn't support pause");
-                    case STOP:
-                        return false;
+                if (headerPending) {
+                    csvParser.parseHeader(line.getBytes(StandardCharsets.UTF_8));
+                    headerPending = false;
+                    continue;
+                }
+                if (!emitLine(collectorContext, line.getBytes(StandardCharsets.UTF_8))) {
+                    return false;
                 }
-                throw new AssertionError("Unrecognized setNextRow result: " + result);
             }
         } catch (SocketTimeoutException e) {
             if (retry > MAX_SOCKET_TIMEOUT_RETRIES) {
                 LOGGER.info("Timeout during COPY FROM '{}' after {} retries", e, uri.toString(), retry);
                 throw e;
             } else {
-                return readLines(fileInput, collectorContext, uri, linesRead + 1, retry + 1);
+                return readLines(fileInput, collectorContext, uri, linesRead + 1, headerPending, retry + 1);
             }
         } catch (Exception e) {
             // it's nice to know which exact file/uri threw an error
@@ -242,6 +288,187 @@ public class FileReadingCollector implements CrateCollector {
         return true;
     }
 
+    /**
+     * Reads the typed rows of a file in the columnar format, no text is parsed.
+     */
+    private boolean readRows(FileInput fileInput,
+                             CollectorContext collectorContext,
+                             URI uri,
+                             long skipRows,
+                             int retry) throws IOException {
+        InputStream inputStream = fileInput.getStream(uri);
+        if (inputStream == null) {
+            return true;
+        }
+        if (compressed) {
+            inputStream = new GZIPInputStream(inputStream);
+        }
+
+        long rowsRead = 0L;
+        try (ColumnarReader reader = new ColumnarReader(new BufferedInputStream(inputStream))) {
+            while (reader.next()) {
+                rowsRead++;
+                if (rowsRead <= skipRows) {
+                    continue;
+                }
+                collectorContext.lineContext().values(reader.columnNames(), reader.values());
+                if (!emitRow()) {
+                    return false;
+                }
+            }
+        } catch (SocketTimeoutException e) {
+            if (retry > MAX_SOCKET_TIMEOUT_RETRIES) {
+                LOGGER.info("Timeout during COPY FROM '{}' after {} retries", e, uri.toString(), retry);
+                throw e;
+            } else {
+                return readRows(fileInput, collectorContext, uri, rowsRead, retry + 1);
+            }
+        } catch (Exception e) {
+            LOGGER.info("Error during COPY FROM '{}'", e, uri.toString());
+            throw Throwables.propagate(e);
+        }
+        return true;
+    }
+
+    private boolean hasHeader() {
+        return csvParser != null && csvParser.hasHeader();
+    }
+
+    private boolean isSplittable(FileInput fileInput) {
+        return splitSize > 0 && !compressed && !columnar && fileInput instanceof RangedFileInput;
+    }
+
+    /**
+     * Splits the file into ranges of {@link #splitSize} bytes and reads the ranges which are assigned to this reader.
+     * The ranges of a file are assigned round robin, starting at a reader derived from the uri,
+     * so that the first ranges of multiple files don't all end up at the same reader.
+     */
+    private boolean readRanges(RangedFileInput fileInput,
+                               CollectorContext collectorContext,
+                               URI uri,
+                               long length,
+                               int readers,
+                               int reader) throws IOException {
+        long numRanges = (length + splitSize - 1) / splitSize;
+        for (long range = 0; range < numRanges; range++) {
+            if (isAssigned(uri, range, readers, reader)) {
+                long start = range * splitSize;
+                long end = Math.min(start + splitSize, length);
+                if (!readRange(fileInput, collectorContext, uri, start, end, 0)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the lines which start within the byte range [start, end).
+     * A line which crosses the end of the range is read completely, the partial line at the start of the range is
+     * skipped as it is read by the reader of the previous range.
+     */
+    private boolean readRange(RangedFileInput fileInput,
+                              CollectorContext collectorContext,
+                              URI uri,
+                              long start,
+                              long end,
+                              int retry) throws IOException {
+        // start one byte early, if that byte is a line break the range starts with a complete line
+        InputStream inputStream = fileInput.getStream(uri, start == 0 ? 0 : start - 1);
+        if (inputStream == null) {
+            return true;
+        }
+        long position = start;
+        boolean headerPending = hasHeader() && start == 0;
+        try (LineReader reader = new LineReader(inputStream)) {
+            if (start > 0) {
+                if (hasHeader()) {
+                    readHeader(fileInput, uri);
+                }
+                position = start - 1 + reader.skipLine();
+            }
+            byte[] line;
+            while (position < end && (line = reader.readLine()) != null) {
+                position += reader.lastLineBytes();
+                if (line.length == 0) { // skip empty lines
+                    continue;
+                }
+                if (headerPending) {
+                    csvParser.parseHeader(line);
+                    headerPending = false;
+                    continue;
+                }
+                if (!emitLine(collectorContext, line)) {
+                    return false;
+                }
+            }
+        } catch (SocketTimeoutException e) {
+            if (retry > MAX_SOCKET_TIMEOUT_RETRIES) {
+                LOGGER.info("Timeout during COPY FROM '{}' after {} retries", e, uri.toString(), retry);
+                throw e;
+            } else {
+                // position is always the start of the line that is read next
+                return readRange(fileInput, collectorContext, uri, position, end, retry + 1);
+            }
+        } catch (Exception e) {
+            LOGGER.info("Error during COPY FROM '{}' [{}-{}]", e, uri.toString(), start, end);
+            throw Throwables.propagate(e);
+        }
+        return true;
+    }
+
+    /**
+     * Reads the header of a file for a range which doesn't start at the beginning of the file
+     */
+    private void readHeader(RangedFileInput fileInput, URI uri) throws IOException {
+        InputStream inputStream = fileInput.getStream(uri, 0);
+        if (inputStream == null) {
+            return;
+        }
+        try (LineReader reader = new LineReader(inputStream)) {
+            byte[] line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length > 0) {
+                    csvParser.parseHeader(line);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return false if the downstream doesn't want any more rows
+     */
+    private boolean emitLine(CollectorContext collectorContext, byte[] line) {
+        if (csvParser == null) {
+            collectorContext.lineContext().rawSource(line);
+        } else {
+            csvParser.parse(line, collectorContext.lineContext());
+        }
+        return emitRow();
+    }
+
+    /**
+     * @return false if the downstream doesn't want any more rows
+     */
+    private boolean emitRow() {
+        Row nextRow = row;
+        if (materializedRow != null) {
+            materializedRow.cells(row.materialize());
+            nextRow = materializedRow;
+        }
+        RowReceiver.Result result = downstream.setNextRow(nextRow);
+        switch (result) {
+            case CONTINUE:
+                return true;
+            case PAUSE:
+                throw new UnsupportedOperationException("FileReadingCollector doesn't support pause");
+            case STOP:
+                return false;
+        }
+        throw new AssertionError("Unrecognized setNextRow result: " + result);
+    }
+
     private BufferedReader createReader(InputStream inputStream) throws IOException {
         BufferedReader reader;
         if (compressed) {
@@ -265,18 +492,23 @@ public class FileReadingCollector implements CrateCollector {
         return uris;
     }
 
-    private Predicate<URI> generateUriPredicate(FileInput fileInput, @Nullable Predicate<URI> globPredicate) {
+    private static boolean isAssigned(URI uri, long range, int readers, int reader) {
+        int hash = uri.hashCode();
+        if (hash == Integer.MIN_VALUE) {
+            hash = 0; // Math.abs(Integer.MIN_VALUE) == Integer.MIN_VALUE
+        }
+        return (Math.abs(hash) + range) % readers == reader;
+    }
+
+    private static Predicate<URI> generateUriPredicate(final int readers,
+                                                       final int reader,
+                                                       @Nullable Predicate<URI> globPredicate) {
         Predicate<URI> moduloPredicate;
-        boolean sharedStorage = MoreObjects.firstNonNull(shared, fileInput.sharedStorageDefault());
-        if (sharedStorage) {
+        if (readers > 1) {
             moduloPredicate = new Predicate<URI>() {
                 @Override
                 public boolean apply(URI input) {
-                    int hash = input.hashCode();
-                    if (hash == Integer.MIN_VALUE) {
-                        hash = 0; // Math.abs(Integer.MIN_VALUE) == Integer.MIN_VALUE
-                    }
-                    return Math.abs(hash) % numReaders == readerNumber;
+                    return isAssigned(input, 0, readers, reader);
                 }
             };
         } else {
@@ -301,4 +533,110 @@ public class FileReadingCollector implements CrateCollector {
             return input != null && globPattern.matcher(input.toString()).matches();
         }
     }
+
+    /**
+     * Reads lines as raw bytes and keeps track of the number of bytes consumed per line,
+     * which is required to find the end of a byte range.
+     */
+    private static class LineReader implements Closeable {
+
+        private final InputStream in;
+        private final byte[] buffer = new byte[64 * 1024];
+        private int bufferPos = 0;
+        private int bufferLimit = 0;
+        private byte[] line = new byte[1024];
+        private int lastLineBytes = 0;
+
+        LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * @return the number of bytes up to and including the next line break
+         */
+        long skipLine() throws IOException {
+            long skipped = 0;
+            while (fill()) {
+                for (int i = bufferPos; i < bufferLimit; i++) {
+                    if (buffer[i] == '\n') {
+                        skipped += i + 1 - bufferPos;
+                        bufferPos = i + 1;
+                        return skipped;
+                    }
+                }
+                skipped += bufferLimit - bufferPos;
+                bufferPos = bufferLimit;
+            }
+            return skipped;
+        }
+
+        /**
+         * @return the next line without the line break or null if the end of the stream is reached
+         */
+        @Nullable
+        byte[] readLine() throws IOException {
+            int lineLength = 0;
+            lastLineBytes = 0;
+            while (fill()) {
+                int lineEnd = bufferLimit;
+                boolean foundLineBreak = false;
+                for (int i = bufferPos; i < bufferLimit; i++) {
+                    if (buffer[i] == '\n') {
+                        lineEnd = i;
+                        foundLineBreak = true;
+                        break;
+                    }
+                }
+                int length = lineEnd - bufferPos;
+                if (lineLength + length > line.length) {
+                    line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+                }
+                System.arraycopy(buffer, bufferPos, line, lineLength, length);
+                lineLength += length;
+                lastLineBytes += length;
+                bufferPos = lineEnd;
+                if (foundLineBreak) {
+                    bufferPos++;
+                    lastLineBytes++;
+                    return toLine(lineLength);
+                }
+            }
+            if (lastLineBytes == 0) {
+                return null;
+            }
+            return toLine(lineLength);
+        }
+
+        private byte[] toLine(int lineLength) {
+            if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                lineLength--;
+            }
+            return Arrays.copyOf(line, lineLength);
+        }
+
+        /**
+         * @return the number of bytes the last line took in the stream, including the line break
+         */
+        int lastLineBytes() {
+            return lastLineBytes;
+        }
+
+        private boolean fill() throws IOException {
+            if (bufferPos < bufferLimit) {
+                return true;
+            }
+            int read = in.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                return false;
+            }
+            bufferPos = 0;
+            bufferLimit = read;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
 }
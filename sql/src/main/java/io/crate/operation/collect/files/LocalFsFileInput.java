@@ -31,7 +31,7 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
 
-public class LocalFsFileInput implements FileInput {
+public class LocalFsFileInput implements RangedFileInput {
 
     @Override
     public List<URI> listUris(final URI fileUri, final Predicate<URI> uriPredicate) throws IOException {
@@ -81,6 +81,32 @@ public class LocalFsFileInput implements FileInput {
         }
     }
 
+    @Override
+    public long length(URI uri) throws IOException {
+        File file = new File(uri);
+        if (!file.isFile()) {
+            return -1L;
+        }
+        return file.length();
+    }
+
+    @Override
+    public InputStream getStream(URI uri, long position) throws IOException {
+        FileInputStream inputStream;
+        try {
+            inputStream = new FileInputStream(new File(uri));
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+        try {
+            inputStream.getChannel().position(position);
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
+        return inputStream;
+    }
+
     @Override
     public boolean sharedStorageDefault() {
         return false;
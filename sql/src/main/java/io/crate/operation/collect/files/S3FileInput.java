@@ -22,25 +22,29 @@
 package io.crate.operation.collect.files;
 
 import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.model.ObjectListing;
-import com.amazonaws.services.s3.model.S3Object;
-import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.model.*;
 import com.google.common.base.Predicate;
 import io.crate.external.S3ClientHelper;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-public class S3FileInput implements FileInput {
+public class S3FileInput implements RangedFileInput {
 
     private AmazonS3 client; // to prevent early GC during getObjectContent() in getStream()
     private static final ESLogger logger = Loggers.getLogger(S3FileInput.class);
 
+    // sizes of the listed keys, so that splitting them doesn't require a request per key
+    private final Map<URI, Long> lengths = new HashMap<>();
+
     final S3ClientHelper clientBuilder;
 
     public S3FileInput() {
@@ -77,6 +81,7 @@ public class S3FileInput implements FileInput {
                 URI keyUri = uri.resolve("/" + key);
                 if (uriPredicate.apply(keyUri)) {
                     uris.add(keyUri);
+                    lengths.put(keyUri, summary.getSize());
                     if (logger.isDebugEnabled()) {
                         logger.debug("{}", keyUri);
                     }
@@ -98,8 +103,58 @@ public class S3FileInput implements FileInput {
         return null;
     }
 
+    @Override
+    public long length(URI uri) throws IOException {
+        Long length = lengths.get(uri);
+        if (length != null) {
+            return length;
+        }
+        if (client == null) {
+            client = clientBuilder.client(uri);
+        }
+        ObjectMetadata metadata = client.getObjectMetadata(uri.getHost(), uri.getPath().substring(1));
+        if (metadata == null) {
+            return -1L;
+        }
+        length = metadata.getContentLength();
+        lengths.put(uri, length);
+        return length;
+    }
+
+    @Override
+    public InputStream getStream(URI uri, long position) throws IOException {
+        long length = length(uri);
+        if (position == 0 || length < 0) {
+            return getStream(uri);
+        }
+        GetObjectRequest request = new GetObjectRequest(uri.getHost(), uri.getPath().substring(1))
+            .withRange(position, length - 1);
+        S3Object object = client.getObject(request);
+        if (object != null) {
+            return new AbortingInputStream(object.getObjectContent());
+        }
+        return null;
+    }
+
     @Override
     public boolean sharedStorageDefault() {
         return true;
     }
+
+    /**
+     * A ranged read usually stops before the end of the object.
+     * Closing a {@link S3ObjectInputStream} would read the rest of the object in order to re-use the connection,
+     * so the request is aborted instead.
+     */
+    private static class AbortingInputStream extends FilterInputStream {
+
+        AbortingInputStream(S3ObjectInputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() throws IOException {
+            ((S3ObjectInputStream) in).abort();
+        }
+    }
 }
@@ -31,6 +31,8 @@ import io.crate.operation.collect.JobCollectContext;
 import io.crate.operation.collect.files.FileCollectInputSymbolVisitor;
 import io.crate.operation.collect.files.FileInputFactory;
 import io.crate.operation.collect.files.FileReadingCollector;
+import io.crate.operation.RowDownstream;
+import io.crate.operation.projectors.RowMergers;
 import io.crate.operation.projectors.RowReceiver;
 import io.crate.operation.reference.file.FileLineReferenceResolver;
 import io.crate.planner.node.dql.CollectPhase;
@@ -40,27 +42,50 @@ import io.crate.types.DataTypes;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 
 import java.util.*;
 
 @Singleton
 public class FileCollectSource implements CollectSource {
 
+    /**
+     * number of collectors which read the files in parallel on each node
+     */
+    public static final String READERS_PER_NODE_SETTING = "copy_from.readers_per_node";
+
+    /**
+     * uncompressed files which support ranged reads and are larger than this size are split into ranges of this size,
+     * which are distributed across the readers. 0 disables the splitting.
+     */
+    public static final String SPLIT_SIZE_SETTING = "copy_from.split_size";
+    public static final ByteSizeValue DEFAULT_SPLIT_SIZE = new ByteSizeValue(64, ByteSizeUnit.MB);
+
     private final ClusterService clusterService;
     private final FileCollectInputSymbolVisitor fileInputSymbolVisitor;
     private final Map<String, FileInputFactory> fileInputFactoryMap;
+    private final int readersPerNode;
+    private final long splitSize;
 
     @Inject
-    public FileCollectSource(Functions functions, ClusterService clusterService, Map<String, FileInputFactory> fileInputFactoryMap) {
+    public FileCollectSource(Settings settings,
+                             Functions functions,
+                             ClusterService clusterService,
+                             Map<String, FileInputFactory> fileInputFactoryMap) {
         this.fileInputFactoryMap = fileInputFactoryMap;
         fileInputSymbolVisitor = new FileCollectInputSymbolVisitor(functions, FileLineReferenceResolver.INSTANCE);
         this.clusterService = clusterService;
+        this.readersPerNode = Math.max(1, settings.getAsInt(READERS_PER_NODE_SETTING,
+            Math.min(4, EsExecutors.boundedNumberOfProcessors(settings))));
+        this.splitSize = settings.getAsBytesSize(SPLIT_SIZE_SETTING, DEFAULT_SPLIT_SIZE).bytes();
     }
 
     @Override
     public Collection<CrateCollector> getCollectors(CollectPhase collectPhase, RowReceiver downstream, JobCollectContext jobCollectContext) {
         FileUriCollectPhase fileUriCollectPhase = (FileUriCollectPhase) collectPhase;
-        FileCollectInputSymbolVisitor.Context context = fileInputSymbolVisitor.extractImplementations(collectPhase.toCollect());
 
         String[] readers = fileUriCollectPhase.executionNodes().toArray(
                 new String[fileUriCollectPhase.executionNodes().size()]);
@@ -68,18 +93,35 @@ public class FileCollectSource implements CollectSource {
 
         List<String> fileUris;
         fileUris = targetUriToStringList(fileUriCollectPhase.targetUri());
-        return ImmutableList.<CrateCollector>of(new FileReadingCollector(
-                fileUris,
-                context.topLevelInputs(),
-                context.expressions(),
-                downstream,
-                fileUriCollectPhase.fileFormat(),
-                fileUriCollectPhase.compression(),
-                fileInputFactoryMap,
-                fileUriCollectPhase.sharedStorage(),
-                readers.length,
-                Arrays.binarySearch(readers, clusterService.state().nodes().localNodeId())
-        ));
+        int readerNumber = Arrays.binarySearch(readers, clusterService.state().nodes().localNodeId());
+
+        RowDownstream rowDownstream = null;
+        if (readersPerNode > 1) {
+            rowDownstream = RowMergers.passThroughRowMerger(downstream);
+        }
+        ImmutableList.Builder<CrateCollector> collectors = ImmutableList.builder();
+        for (int localReaderNumber = 0; localReaderNumber < readersPerNode; localReaderNumber++) {
+            // each collector needs its own expressions as they are bound to the line of the collector
+            FileCollectInputSymbolVisitor.Context context =
+                fileInputSymbolVisitor.extractImplementations(collectPhase.toCollect());
+            collectors.add(new FileReadingCollector(
+                    fileUris,
+                    context.topLevelInputs(),
+                    context.expressions(),
+                    rowDownstream == null ? downstream : rowDownstream.newRowReceiver(),
+                    fileUriCollectPhase.fileFormat(),
+                    fileUriCollectPhase.csvOptions(),
+                    fileUriCollectPhase.compression(),
+                    fileInputFactoryMap,
+                    fileUriCollectPhase.sharedStorage(),
+                    readers.length,
+                    readerNumber,
+                    readersPerNode,
+                    localReaderNumber,
+                    splitSize
+            ));
+        }
+        return collectors.build();
     }
 
     private static List<String> targetUriToStringList(Symbol targetUri) {
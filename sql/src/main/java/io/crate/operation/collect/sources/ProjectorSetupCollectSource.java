@@ -51,7 +51,8 @@ public class ProjectorSetupCollectSource implements CollectSource {
                 jobCollectContext.queryPhaseRamAccountingContext(),
                 collectPhase.projections(),
                 downstream,
-                collectPhase.jobId()
+                collectPhase.jobId(),
+                jobCollectContext.operationStats()
         );
         projectorChain.prepare();
         return sourceDelegate.getCollectors(collectPhase, projectorChain.firstProjector(), jobCollectContext);
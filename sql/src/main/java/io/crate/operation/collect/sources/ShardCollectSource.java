@@ -142,7 +142,8 @@ public class ShardCollectSource implements CollectSource {
                         jobCollectContext.queryPhaseRamAccountingContext(),
                         normalizedPhase.projections(),
                         downstream,
-                        collectPhase.jobId()
+                        collectPhase.jobId(),
+                        jobCollectContext.operationStats()
                 );
             } else {
                 flatProjectorChain = FlatProjectorChain.withReceivers(ImmutableList.of(downstream));
@@ -165,7 +166,8 @@ public class ShardCollectSource implements CollectSource {
                 normalizedPhase.projections(),
                 downstream,
                 projectorFactory,
-                jobCollectContext.queryPhaseRamAccountingContext());
+                jobCollectContext.queryPhaseRamAccountingContext(),
+                jobCollectContext.operationStats());
 
         Map<String, Map<String, List<Integer>>> locations = normalizedPhase.routing().locations();
         final List<CrateCollector> shardCollectors = new ArrayList<>(maxNumShards);
@@ -29,6 +29,7 @@ import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.core.collections.Buckets;
 import io.crate.core.collections.Row;
+import io.crate.jobs.AdmissionController;
 import io.crate.metadata.Functions;
 import io.crate.metadata.RowCollectExpression;
 import io.crate.metadata.information.*;
@@ -66,6 +67,7 @@ public class SystemCollectSource implements CollectSource {
 
     @Inject
     public SystemCollectSource(DiscoveryService discoveryService,
+                               final AdmissionController admissionController,
                                Functions functions,
                                StatsTables statsTables,
                                InformationSchemaIterables informationSchemaIterables,
@@ -86,6 +88,14 @@ public class SystemCollectSource implements CollectSource {
             .put(SysJobsLogTableInfo.IDENT.fqn(), statsTables.jobsLogGetter())
             .put(SysOperationsTableInfo.IDENT.fqn(), statsTables.operationsGetter())
             .put(SysOperationsLogTableInfo.IDENT.fqn(), statsTables.operationsLogGetter())
+            .put(SysQueryStatsTableInfo.IDENT.fqn(), statsTables.queryStatsGetter())
+            .put(SysSlowQueriesTableInfo.IDENT.fqn(), statsTables.slowQueriesGetter())
+            .put(SysAdmissionQueuesTableInfo.IDENT.fqn(), new Supplier<Iterable<?>>() {
+                @Override
+                public Iterable<?> get() {
+                    return admissionController.stats();
+                }
+            })
             .put(SysChecksTableInfo.IDENT.fqn(), new SysChecker(sysChecks))
             .put(SysNodeChecksTableInfo.IDENT.fqn(), new SysChecker(sysNodeChecks))
             .put(SysRepositoriesTableInfo.IDENT.fqn(), sysRepositories)
@@ -28,13 +28,17 @@ import com.carrotsearch.hppc.cursors.IntObjectCursor;
 import io.crate.Streamer;
 import io.crate.analyze.symbol.Reference;
 import io.crate.analyze.symbol.Symbols;
+import io.crate.executor.transport.BucketCompressor;
 import io.crate.executor.transport.StreamBucket;
 import io.crate.metadata.TableIdent;
 import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.operation.reference.doc.lucene.LuceneReferenceResolver;
+import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.IndexService;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -43,6 +47,14 @@ import java.util.Map;
 @Singleton
 public class NodeFetchOperation {
 
+    @Nullable
+    private final BucketCompressor compressor;
+
+    @Inject
+    public NodeFetchOperation(Settings settings) {
+        compressor = BucketCompressor.fromSettings(settings);
+    }
+
     private static class TableFetchInfo {
 
         private final Streamer<?>[] streamers;
@@ -84,8 +96,13 @@ public class NodeFetchOperation {
         return result;
     }
 
-    public IntObjectMap<StreamBucket> doFetch(
-            FetchContext fetchContext, IntObjectMap<? extends IntContainer> toFetch) throws Exception {
+    /**
+     * @param compress if true the fetched buckets are compressed if page compression is enabled,
+     *                 this should only be done if the buckets are sent to another node
+     */
+    public IntObjectMap<StreamBucket> doFetch(FetchContext fetchContext,
+                                              IntObjectMap<? extends IntContainer> toFetch,
+                                              boolean compress) throws Exception {
 
         IntObjectHashMap<StreamBucket> fetched = new IntObjectHashMap<>(toFetch.size());
         HashMap<TableIdent, TableFetchInfo> tableFetchInfos = getTableFetchInfos(fetchContext);
@@ -94,7 +111,7 @@ public class NodeFetchOperation {
             TableIdent ident = fetchContext.tableIdent(toFetchCursor.key);
             TableFetchInfo tfi = tableFetchInfos.get(ident);
             assert tfi != null;
-            StreamBucket.Builder builder = new StreamBucket.Builder(tfi.streamers());
+            StreamBucket.Builder builder = new StreamBucket.Builder(tfi.streamers(), compress ? compressor : null);
             tfi.createCollector(toFetchCursor.key).collect(toFetchCursor.value, builder);
             fetched.put(toFetchCursor.key, builder.build());
         }
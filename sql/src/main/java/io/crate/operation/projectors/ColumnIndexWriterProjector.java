@@ -37,6 +37,7 @@ import io.crate.operation.Input;
 import io.crate.operation.InputRow;
 import io.crate.operation.collect.CollectExpression;
 import io.crate.operation.collect.RowShardResolver;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
 import org.elasticsearch.action.bulk.BulkShardProcessor;
 import org.elasticsearch.cluster.ClusterService;
@@ -79,7 +80,8 @@ public class ColumnIndexWriterProjector extends AbstractProjector {
                                          @Nullable Map<Reference, Symbol> updateAssignments,
                                          @Nullable Integer bulkActions,
                                          boolean autoCreateIndices,
-                                         UUID jobId) {
+                                         UUID jobId,
+                                         @Nullable OperationStats stats) {
         this.indexNameResolver = indexNameResolver;
         this.collectExpressions = collectExpressions;
         rowShardResolver = new RowShardResolver(functions, primaryKeyIdents, primaryKeySymbols, clusteredByColumn, routingSymbol);
@@ -115,6 +117,9 @@ public class ColumnIndexWriterProjector extends AbstractProjector {
                 transportActionProvider.transportShardUpsertActionDelegate(),
                 jobId
         );
+        if (stats != null) {
+            stats.addBulkController(bulkShardProcessor.controller());
+        }
     }
 
     @Override
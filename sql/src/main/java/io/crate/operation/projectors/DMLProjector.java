@@ -27,6 +27,7 @@ import io.crate.core.collections.Row;
 import io.crate.executor.transport.ShardRequest;
 import io.crate.executor.transport.TransportActionProvider;
 import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
 import org.elasticsearch.action.bulk.BulkShardProcessor;
@@ -35,6 +36,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.mapper.Uid;
 import org.elasticsearch.index.shard.ShardId;
 
+import javax.annotation.Nullable;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -51,6 +53,8 @@ abstract class DMLProjector<Request extends ShardRequest> extends AbstractProjec
     protected final TransportActionProvider transportActionProvider;
     protected final BulkRetryCoordinatorPool bulkRetryCoordinatorPool;
     protected final UUID jobId;
+    @Nullable
+    private final OperationStats stats;
 
     private BulkShardProcessor<Request> bulkShardProcessor;
 
@@ -60,7 +64,8 @@ abstract class DMLProjector<Request extends ShardRequest> extends AbstractProjec
                         TransportActionProvider transportActionProvider,
                         BulkRetryCoordinatorPool bulkRetryCoordinatorPool,
                         CollectExpression<Row, ?> collectUidExpression,
-                        UUID jobId) {
+                        UUID jobId,
+                        @Nullable OperationStats stats) {
         this.clusterService = clusterService;
         this.settings = settings;
         this.transportActionProvider = transportActionProvider;
@@ -68,16 +73,27 @@ abstract class DMLProjector<Request extends ShardRequest> extends AbstractProjec
         this.shardId = shardId;
         this.collectUidExpression = collectUidExpression;
         this.jobId = jobId;
+        this.stats = stats;
     }
 
     protected abstract BulkShardProcessor<Request> createBulkShardProcessor(int bulkSize);
 
     protected abstract ShardRequest.Item createItem(String id);
 
+    /**
+     * @return the (estimated) size in bytes of the item created for the current row
+     */
+    protected int itemSizeInBytes() {
+        return 0;
+    }
+
     @Override
     public void prepare() {
         super.prepare();
         bulkShardProcessor = createBulkShardProcessor(DEFAULT_BULK_SIZE);
+        if (stats != null) {
+            stats.addBulkController(bulkShardProcessor.controller());
+        }
         Futures.addCallback(bulkShardProcessor.result(), new BulkProcessorFutureCallback(failed, downstream));
     }
 
@@ -87,7 +103,7 @@ abstract class DMLProjector<Request extends ShardRequest> extends AbstractProjec
         collectUidExpression.setNextRow(row);
         Uid uid = Uid.createUid(((BytesRef)collectUidExpression.value()).utf8ToString());
         // routing is already resolved
-        bulkShardProcessor.addForExistingShard(shardId, createItem(uid.id()), null);
+        bulkShardProcessor.addForExistingShard(shardId, createItem(uid.id()), null, itemSizeInBytes());
         return Result.CONTINUE;
     }
 
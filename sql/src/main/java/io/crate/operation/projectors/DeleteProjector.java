@@ -28,6 +28,7 @@ import io.crate.executor.transport.ShardRequest;
 import io.crate.executor.transport.TransportActionProvider;
 import io.crate.metadata.settings.CrateSettings;
 import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
 import org.elasticsearch.action.bulk.BulkShardProcessor;
 import org.elasticsearch.cluster.ClusterService;
@@ -35,6 +36,7 @@ import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.shard.ShardId;
 
+import javax.annotation.Nullable;
 import java.util.UUID;
 
 public class DeleteProjector extends DMLProjector<ShardDeleteRequest> {
@@ -48,9 +50,10 @@ public class DeleteProjector extends DMLProjector<ShardDeleteRequest> {
                            TransportActionProvider transportActionProvider,
                            BulkRetryCoordinatorPool bulkRetryCoordinatorPool,
                            CollectExpression<Row, ?> collectUidExpression,
-                           UUID jobId) {
+                           UUID jobId,
+                           @Nullable OperationStats stats) {
         super(clusterService, settings, shardId, transportActionProvider, bulkRetryCoordinatorPool,
-                collectUidExpression, jobId);
+                collectUidExpression, jobId, stats);
         this.indexNameExpressionResolver = indexNameExpressionResolver;
     }
 
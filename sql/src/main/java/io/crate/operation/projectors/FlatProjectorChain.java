@@ -24,8 +24,10 @@ package io.crate.operation.projectors;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import io.crate.breaker.RamAccountingContext;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import io.crate.planner.projection.Projection;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -70,24 +72,41 @@ public class FlatProjectorChain {
                                                             Collection<? extends Projection> projections,
                                                             RowReceiver downstream,
                                                             UUID jobId) {
+        return withAttachedDownstream(projectorFactory, ramAccountingContext, projections, downstream, jobId, null);
+    }
+
+    /**
+     * @param stats the stats of the operation the projectors are part of; if not null, the rows emitted by
+     *              each projection are counted, see {@link OperationStats#countProjectionRowsOut(RowReceiver)}
+     */
+    public static FlatProjectorChain withAttachedDownstream(final ProjectorFactory projectorFactory,
+                                                            final RamAccountingContext ramAccountingContext,
+                                                            Collection<? extends Projection> projections,
+                                                            RowReceiver downstream,
+                                                            UUID jobId,
+                                                            @Nullable OperationStats stats) {
         List<RowReceiver> rowReceivers = new ArrayList<>();
         Projector previousProjector = null;
         for (Projection projection : projections) {
-            Projector projector = projectorFactory.create(projection, ramAccountingContext, jobId);
+            Projector projector = projectorFactory.create(projection, ramAccountingContext, jobId, stats);
             rowReceivers.add(projector);
             if (previousProjector != null) {
-                previousProjector.downstream(projector);
+                previousProjector.downstream(countRowsOut(stats, projector));
             }
             previousProjector = projector;
         }
         if (previousProjector != null) {
             rowReceivers.add(downstream);
-            previousProjector.downstream(downstream);
+            previousProjector.downstream(countRowsOut(stats, downstream));
         }
         return new FlatProjectorChain(rowReceivers);
     }
 
 
+    private static RowReceiver countRowsOut(@Nullable OperationStats stats, RowReceiver rowReceiver) {
+        return stats == null ? rowReceiver : stats.countProjectionRowsOut(rowReceiver);
+    }
+
     /**
      * Create a task from a list of rowReceivers (which are already chained).
      */
@@ -35,6 +35,7 @@ import io.crate.metadata.settings.CrateSettings;
 import io.crate.operation.Input;
 import io.crate.operation.collect.CollectExpression;
 import io.crate.operation.collect.RowShardResolver;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
 import org.elasticsearch.action.bulk.BulkShardProcessor;
@@ -46,6 +47,8 @@ import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
@@ -59,6 +62,18 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 public class IndexWriterProjector extends AbstractProjector {
 
+    /**
+     * Size of the shard requests after which they are sent
+     */
+    public static final String SHARD_BATCH_SIZE_SETTING = "copy_from.shard_batch_size";
+    public static final ByteSizeValue DEFAULT_SHARD_BATCH_SIZE = new ByteSizeValue(4, ByteSizeUnit.MB);
+
+    /**
+     * Size of all buffered shard requests of a projector after which the largest requests are sent
+     */
+    public static final String BUFFER_SIZE_SETTING = "copy_from.buffer_size";
+    public static final ByteSizeValue DEFAULT_BUFFER_SIZE = new ByteSizeValue(32, ByteSizeUnit.MB);
+
     private final Input<BytesRef> sourceInput;
     private final RowShardResolver rowShardResolver;
     private final Supplier<String> indexNameResolver;
@@ -81,11 +96,14 @@ public class IndexWriterProjector extends AbstractProjector {
                                 Input<?> sourceInput,
                                 Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
                                 @Nullable Integer bulkActions,
+                                long shardBatchBytes,
+                                long bufferBytes,
                                 @Nullable String[] includes,
                                 @Nullable String[] excludes,
                                 boolean autoCreateIndices,
                                 boolean overwriteDuplicates,
-                                UUID jobId) {
+                                UUID jobId,
+                                @Nullable OperationStats stats) {
         this.indexNameResolver = indexNameResolver;
         this.collectExpressions = collectExpressions;
         if (includes == null && excludes == null) {
@@ -114,10 +132,15 @@ public class IndexWriterProjector extends AbstractProjector {
                 bulkRetryCoordinatorPool,
                 autoCreateIndices,
                 MoreObjects.firstNonNull(bulkActions, 100),
+                shardBatchBytes,
+                Math.max(shardBatchBytes, bufferBytes),
                 builder,
                 transportActionProvider.transportShardUpsertActionDelegate(),
                 jobId
         );
+        if (stats != null) {
+            stats.addBulkController(bulkShardProcessor.controller());
+        }
     }
 
     @Override
@@ -132,9 +155,11 @@ public class IndexWriterProjector extends AbstractProjector {
             collectExpression.setNextRow(row);
         }
         rowShardResolver.setNextRow(row);
+        BytesRef source = sourceInput.value();
         ShardUpsertRequest.Item item = new ShardUpsertRequest.Item(
-                rowShardResolver.id(), null, new Object[] { sourceInput.value() }, null);
-        if (bulkShardProcessor.add(indexNameResolver.get(), item, rowShardResolver.routing())) {
+                rowShardResolver.id(), null, new Object[] { source }, null);
+        int sizeInBytes = source == null ? 0 : source.length;
+        if (bulkShardProcessor.add(indexNameResolver.get(), item, rowShardResolver.routing(), sizeInBytes)) {
             return Result.CONTINUE;
         }
         return Result.STOP;
@@ -21,10 +21,16 @@
 
 package io.crate.operation.projectors;
 
+import com.google.common.base.Predicates;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.executor.transport.BucketCompressor;
+import io.crate.executor.transport.StreamBucket;
 import io.crate.executor.transport.distributed.*;
 import io.crate.operation.NodeOperation;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.node.ExecutionPhases;
 import io.crate.planner.node.StreamerVisitor;
@@ -36,6 +42,7 @@ import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Settings;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.UUID;
@@ -46,6 +53,9 @@ public class InternalRowDownstreamFactory extends AbstractComponent implements R
     private final ClusterService clusterService;
     private final TransportDistributedResultAction transportDistributedResultAction;
     private final ESLogger distributingDownstreamLogger;
+    private final PageMemoryBudget pageMemoryBudget;
+    private final int pageCredits;
+    private final boolean dictionaryEncoding;
 
     @Inject
     public InternalRowDownstreamFactory(Settings settings,
@@ -55,12 +65,18 @@ public class InternalRowDownstreamFactory extends AbstractComponent implements R
         this.clusterService = clusterService;
         this.transportDistributedResultAction = transportDistributedResultAction;
         distributingDownstreamLogger = Loggers.getLogger(DistributingDownstream.class, settings);
+        pageMemoryBudget = new PageMemoryBudget(AdaptivePageSize.memoryBudget(settings));
+        pageCredits = Math.max(1,
+                settings.getAsInt(DistributingDownstream.PAGE_CREDITS_SETTING, DistributingDownstream.DEFAULT_PAGE_CREDITS));
+        dictionaryEncoding = StreamBucket.dictionaryEncoding(settings);
     }
 
     public RowReceiver createDownstream(NodeOperation nodeOperation,
                                         DistributionInfo distributionInfo,
                                         UUID jobId,
-                                        int pageSize) {
+                                        int pageSize,
+                                        OperationStats stats,
+                                        @Nullable RamAccountingContext ramAccountingContext) {
         Streamer<?>[] streamers = StreamerVisitor.streamerFromOutputs(nodeOperation.executionPhase());
         assert !ExecutionPhases.hasDirectResponseDownstream(nodeOperation.downstreamNodes())
                 : "trying to build a DistributingDownstream but nodeOperation has a directResponse downstream";
@@ -69,20 +85,30 @@ public class InternalRowDownstreamFactory extends AbstractComponent implements R
         // TODO: set bucketIdx properly
         ArrayList<String> server = Lists.newArrayList(nodeOperation.executionPhase().executionNodes());
         Collections.sort(server);
-        int bucketIdx = Math.max(server.indexOf(clusterService.localNode().id()), 0);
+        String localNodeId = clusterService.localNode().id();
+        int bucketIdx = Math.max(server.indexOf(localNodeId), 0);
+
+        // buckets for a downstream on this node are passed on directly without encoding them
+        int localDownstreamIdx = Iterables.indexOf(nodeOperation.downstreamNodes(), Predicates.equalTo(localNodeId));
+
+        // one compressor per downstream, so that the skipping of poorly compressing pages only depends on this result
+        BucketCompressor compressor = BucketCompressor.fromSettings(settings);
 
         MultiBucketBuilder multiBucketBuilder;
         switch (distributionInfo.distributionType()) {
             case MODULO:
                 if (nodeOperation.downstreamNodes().size() == 1) {
-                    multiBucketBuilder = new BroadcastingBucketBuilder(streamers, nodeOperation.downstreamNodes().size());
+                    multiBucketBuilder = new BroadcastingBucketBuilder(streamers,
+                            nodeOperation.downstreamNodes().size(), localDownstreamIdx, compressor, dictionaryEncoding);
                 } else {
                     multiBucketBuilder = new ModuloBucketBuilder(streamers,
-                            nodeOperation.downstreamNodes().size(), distributionInfo.distributeByColumn());
+                            nodeOperation.downstreamNodes().size(), distributionInfo.distributeByColumn(), localDownstreamIdx,
+                            compressor, dictionaryEncoding);
                 }
                 break;
             case BROADCAST:
-                multiBucketBuilder = new BroadcastingBucketBuilder(streamers, nodeOperation.downstreamNodes().size());
+                multiBucketBuilder = new BroadcastingBucketBuilder(streamers,
+                        nodeOperation.downstreamNodes().size(), localDownstreamIdx, compressor, dictionaryEncoding);
                 break;
             default:
                 throw new UnsupportedOperationException("Can't handle distributionInfo: " + distributionInfo);
@@ -98,7 +124,11 @@ public class InternalRowDownstreamFactory extends AbstractComponent implements R
                 nodeOperation.downstreamNodes(),
                 transportDistributedResultAction,
                 streamers,
-                pageSize
+                new AdaptivePageSize(pageSize, streamers, pageMemoryBudget),
+                pageCredits,
+                localDownstreamIdx,
+                stats,
+                ramAccountingContext
         );
     }
 }
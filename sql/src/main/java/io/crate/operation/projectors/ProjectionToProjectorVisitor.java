@@ -40,8 +40,11 @@ import io.crate.operation.projectors.fetch.FetchProjectorContext;
 import io.crate.operation.projectors.fetch.TransportFetchOperation;
 import io.crate.operation.projectors.sorting.OrderingByPosition;
 import io.crate.operation.reference.sys.RowContextReferenceResolver;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import io.crate.planner.projection.*;
+import io.crate.types.DataType;
 import io.crate.types.StringType;
+import org.elasticsearch.action.bulk.AdaptiveBulkController;
 import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
@@ -195,13 +198,16 @@ public class ProjectionToProjectorVisitor
             }
         }
         Map<ColumnIdent, Object> overwrites = symbolMapToObject(projection.overwrites(), symbolContext);
+        List<DataType> inputTypes = Symbols.extractTypes(projection.inputs());
 
         projection = projection.normalize(normalizer);
         String uri = ValueSymbolVisitor.STRING.process(projection.uri());
         assert uri != null : "URI must not be null";
 
         StringBuilder sb = new StringBuilder(uri);
-        Symbol resolvedFileName = normalizer.normalize(WriterProjection.DIRECTORY_TO_FILENAME);
+        Symbol resolvedFileName = normalizer.normalize(
+            projection.outputFormat() == WriterProjection.OutputFormat.COLUMNAR ?
+                WriterProjection.DIRECTORY_TO_COLUMNAR_FILENAME : WriterProjection.DIRECTORY_TO_FILENAME);
         assert resolvedFileName instanceof Literal;
         assert resolvedFileName.valueType() == StringType.INSTANCE;
         String fileName = ValueSymbolVisitor.STRING.process(resolvedFileName);
@@ -219,6 +225,7 @@ public class ProjectionToProjectorVisitor
                 uri,
                 projection.compressionType(),
                 inputs,
+                inputTypes,
                 symbolContext.collectExpressions(),
                 overwrites,
                 projection.outputNames(),
@@ -253,7 +260,7 @@ public class ProjectionToProjectorVisitor
                 clusterService,
                 functions,
                 indexNameExpressionResolver,
-                clusterService.state().metaData().settings(),
+                writerSettings(),
                 transportActionProvider,
                 indexNameResolver,
                 bulkRetryCoordinatorPool,
@@ -265,11 +272,16 @@ public class ProjectionToProjectorVisitor
                 sourceInput,
                 symbolContext.collectExpressions(),
                 projection.bulkActions(),
+                settings.getAsBytesSize(IndexWriterProjector.SHARD_BATCH_SIZE_SETTING,
+                    IndexWriterProjector.DEFAULT_SHARD_BATCH_SIZE).bytes(),
+                settings.getAsBytesSize(IndexWriterProjector.BUFFER_SIZE_SETTING,
+                    IndexWriterProjector.DEFAULT_BUFFER_SIZE).bytes(),
                 projection.includes(),
                 projection.excludes(),
                 projection.autoCreateIndices(),
                 projection.overwriteDuplicates(),
-                context.jobId
+                context.jobId,
+                context.stats
         );
     }
 
@@ -288,7 +300,7 @@ public class ProjectionToProjectorVisitor
                 clusterService,
                 functions,
                 indexNameExpressionResolver,
-                clusterService.state().metaData().settings(),
+                writerSettings(),
                 IndexNameResolver.create(projection.tableIdent(), projection.partitionIdent(), partitionedByInputs),
                 transportActionProvider,
                 bulkRetryCoordinatorPool,
@@ -302,7 +314,8 @@ public class ProjectionToProjectorVisitor
                 projection.onDuplicateKeyAssignments(),
                 projection.bulkActions(),
                 projection.autoCreateIndices(),
-                context.jobId
+                context.jobId,
+                context.stats
         );
     }
 
@@ -335,7 +348,10 @@ public class ProjectionToProjectorVisitor
                 projection.assignmentsColumns(),
                 projection.assignments(),
                 projection.requiredVersion(),
-                context.jobId);
+                resolveCollectExpression(projection.versionSymbol()),
+                resolveCollectExpression(projection.sourceSymbol()),
+                context.jobId,
+                context.stats);
     }
 
     @Override
@@ -350,7 +366,21 @@ public class ProjectionToProjectorVisitor
                 transportActionProvider,
                 bulkRetryCoordinatorPool,
                 resolveUidCollectExpression(projection),
-                context.jobId);
+                context.jobId,
+                context.stats);
+    }
+
+    /**
+     * The cluster settings together with the node settings of the {@link AdaptiveBulkController}
+     */
+    private Settings writerSettings() {
+        Settings.Builder builder = Settings.builder().put(clusterService.state().metaData().settings());
+        for (Map.Entry<String, String> entry : settings.getAsMap().entrySet()) {
+            if (entry.getKey().startsWith(AdaptiveBulkController.SETTINGS_PREFIX)) {
+                builder.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return builder.build();
     }
 
     private void checkShardLevel(String errorMessage) {
@@ -360,8 +390,16 @@ public class ProjectionToProjectorVisitor
     }
 
     private CollectExpression<Row, ?> resolveUidCollectExpression(DMLProjection projection) {
+        return resolveCollectExpression(projection.uidSymbol());
+    }
+
+    @Nullable
+    private CollectExpression<Row, ?> resolveCollectExpression(@Nullable Symbol symbol) {
+        if (symbol == null) {
+            return null;
+        }
         ImplementationSymbolVisitor.Context ctx = new ImplementationSymbolVisitor.Context();
-        symbolVisitor.process(projection.uidSymbol(), ctx);
+        symbolVisitor.process(symbol, ctx);
         assert ctx.collectExpressions().size() == 1;
 
         return ctx.collectExpressions().iterator().next();
@@ -416,8 +454,11 @@ public class ProjectionToProjectorVisitor
     }
 
     @Override
-    public Projector create(Projection projection, RamAccountingContext ramAccountingContext, UUID jobId) {
-        return process(projection, new Context(ramAccountingContext, jobId));
+    public Projector create(Projection projection,
+                            RamAccountingContext ramAccountingContext,
+                            UUID jobId,
+                            @Nullable OperationStats stats) {
+        return process(projection, new Context(ramAccountingContext, jobId, stats));
     }
 
     @Override
@@ -429,10 +470,13 @@ public class ProjectionToProjectorVisitor
 
         private final RamAccountingContext ramAccountingContext;
         private final UUID jobId;
+        @Nullable
+        private final OperationStats stats;
 
-        public Context(RamAccountingContext ramAccountingContext, UUID jobId) {
+        public Context(RamAccountingContext ramAccountingContext, UUID jobId, @Nullable OperationStats stats) {
             this.ramAccountingContext = ramAccountingContext;
             this.jobId = jobId;
+            this.stats = stats;
         }
     }
 }
@@ -22,11 +22,19 @@
 package io.crate.operation.projectors;
 
 import io.crate.breaker.RamAccountingContext;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import io.crate.planner.projection.Projection;
 
+import javax.annotation.Nullable;
 import java.util.UUID;
 
 public interface ProjectorFactory {
 
-    Projector create(Projection projection, RamAccountingContext ramAccountingContext, UUID jobId);
+    /**
+     * @param stats the stats of the operation the projector is part of, if any
+     */
+    Projector create(Projection projection,
+                     RamAccountingContext ramAccountingContext,
+                     UUID jobId,
+                     @Nullable OperationStats stats);
 }
@@ -21,14 +21,26 @@
 
 package io.crate.operation.projectors;
 
+import io.crate.breaker.RamAccountingContext;
 import io.crate.operation.NodeOperation;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import io.crate.planner.distribution.DistributionInfo;
 import org.elasticsearch.common.inject.ImplementedBy;
 
+import javax.annotation.Nullable;
 import java.util.UUID;
 
 @ImplementedBy(InternalRowDownstreamFactory.class)
 public interface RowDownstreamFactory {
 
-    RowReceiver createDownstream(NodeOperation nodeOperation, DistributionInfo distributionInfo, UUID jobId, int pageSize);
+    /**
+     * @param stats                the stats of the operation which feeds the downstream, the sent pages are accounted to it
+     * @param ramAccountingContext the pages which are passed on to a downstream on the same node are accounted to it
+     */
+    RowReceiver createDownstream(NodeOperation nodeOperation,
+                                 DistributionInfo distributionInfo,
+                                 UUID jobId,
+                                 int pageSize,
+                                 OperationStats stats,
+                                 @Nullable RamAccountingContext ramAccountingContext);
 }
@@ -26,10 +26,12 @@ import com.google.common.collect.Lists;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.metadata.RowGranularity;
 import io.crate.operation.RowDownstream;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import io.crate.planner.projection.Projection;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -71,6 +73,8 @@ public class ShardProjectorChain {
 
     private final UUID jobId;
     private final RamAccountingContext ramAccountingContext;
+    @Nullable
+    private final OperationStats stats;
     protected final List<Projector> shardProjectors;
     protected final List<Projector> nodeProjectors;
     private final RowReceiver finalDownstream;
@@ -86,14 +90,16 @@ public class ShardProjectorChain {
                                                        List<? extends Projection> projections,
                                                        RowReceiver finalDownstream,
                                                        ProjectorFactory projectorFactory,
-                                                       RamAccountingContext ramAccountingContext) {
+                                                       RamAccountingContext ramAccountingContext,
+                                                       @Nullable OperationStats stats) {
         return new ShardProjectorChain(
                 jobId,
                 projections,
                 maxNumShards,
                 finalDownstream,
                 projectorFactory,
-                ramAccountingContext
+                ramAccountingContext,
+                stats
         );
     }
 
@@ -103,9 +109,11 @@ public class ShardProjectorChain {
                                 int maxNumShards,
                                 RowReceiver finalDownstream,
                                 ProjectorFactory projectorFactory,
-                                RamAccountingContext ramAccountingContext) {
+                                RamAccountingContext ramAccountingContext,
+                                @Nullable OperationStats stats) {
         this.jobId = jobId;
         this.ramAccountingContext = ramAccountingContext;
+        this.stats = stats;
         this.projections = projections;
         nodeProjectors = new ArrayList<>();
 
@@ -122,7 +130,7 @@ public class ShardProjectorChain {
         Projector previousUpstream = null;
         // create the node level projectors
         for (int i = shardProjectionsIndex + 1; i < projections.size(); i++) {
-            Projector projector = projectorFactory.create(projections.get(i), ramAccountingContext, jobId);
+            Projector projector = projectorFactory.create(projections.get(i), ramAccountingContext, jobId, stats);
             nodeProjectors.add(projector);
             if (previousUpstream != null) {
                 previousUpstream.downstream(projector);
@@ -176,7 +184,7 @@ public class ShardProjectorChain {
         RowReceiver previousProjector = rowDownstream.newRowReceiver();
         Projector projector = null;
         for (int i = shardProjectionsIndex; i >= 0; i--) {
-            projector = projectorFactory.create(projections.get(i), ramAccountingContext, jobId);
+            projector = projectorFactory.create(projections.get(i), ramAccountingContext, jobId, stats);
             projector.downstream(previousProjector);
 
             shardProjectors.add(projector);
@@ -186,6 +194,14 @@ public class ShardProjectorChain {
         return projector;
     }
 
+    /**
+     * Returns a new downstream for a shard which skips the shard projectors.
+     * Used if the shard applies the shard projection itself and only emits its result.
+     */
+    public RowReceiver newShardDownstreamWithoutShardProjectors() {
+        return rowDownstream.newRowReceiver();
+    }
+
     public void prepare() {
         this.finalDownstream.prepare();
         for (Projector projector : Lists.reverse(nodeProjectors)) {
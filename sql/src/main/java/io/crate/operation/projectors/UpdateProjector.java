@@ -28,11 +28,16 @@ import io.crate.executor.transport.ShardUpsertRequest;
 import io.crate.executor.transport.TransportActionProvider;
 import io.crate.metadata.settings.CrateSettings;
 import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.reference.sys.operation.OperationStats;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
 import org.elasticsearch.action.bulk.BulkShardProcessor;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.index.shard.ShardId;
 
 import javax.annotation.Nullable;
@@ -40,11 +45,20 @@ import java.util.UUID;
 
 public class UpdateProjector extends DMLProjector<ShardUpsertRequest> {
 
+    /**
+     * Size of the collected sources in a shard request after which the request is sent
+     */
+    static final ByteSizeValue SHARD_BATCH_SIZE = new ByteSizeValue(4, ByteSizeUnit.MB);
+
     private final IndexNameExpressionResolver indexNameExpressionResolver;
     private final String[] assignmentsColumns;
     private final Symbol[] assignments;
     @Nullable
     private final Long requiredVersion;
+    @Nullable
+    private final CollectExpression<Row, ?> collectVersionExpression;
+    @Nullable
+    private final CollectExpression<Row, ?> collectSourceExpression;
 
     public UpdateProjector(ClusterService clusterService,
                            IndexNameExpressionResolver indexNameExpressionResolver,
@@ -56,13 +70,18 @@ public class UpdateProjector extends DMLProjector<ShardUpsertRequest> {
                            String[] assignmentsColumns,
                            Symbol[] assignments,
                            @Nullable Long requiredVersion,
-                           UUID jobId) {
+                           @Nullable CollectExpression<Row, ?> collectVersionExpression,
+                           @Nullable CollectExpression<Row, ?> collectSourceExpression,
+                           UUID jobId,
+                           @Nullable OperationStats stats) {
         super(clusterService, settings, shardId, transportActionProvider, bulkRetryCoordinatorPool,
-                collectUidExpression, jobId);
+                collectUidExpression, jobId, stats);
         this.indexNameExpressionResolver = indexNameExpressionResolver;
         this.assignmentsColumns = assignmentsColumns;
         this.assignments = assignments;
         this.requiredVersion = requiredVersion;
+        this.collectVersionExpression = collectVersionExpression;
+        this.collectSourceExpression = collectSourceExpression;
     }
 
     @Override
@@ -83,14 +102,39 @@ public class UpdateProjector extends DMLProjector<ShardUpsertRequest> {
                 bulkRetryCoordinatorPool,
                 false,
                 DEFAULT_BULK_SIZE,
+                SHARD_BATCH_SIZE.bytes(),
+                SHARD_BATCH_SIZE.bytes(),
                 builder,
                 transportActionProvider.transportShardUpsertActionDelegate(),
                 jobId
         );
     }
 
+    @Override
+    public Result setNextRow(Row row) {
+        if (collectSourceExpression != null) {
+            collectVersionExpression.setNextRow(row);
+            collectSourceExpression.setNextRow(row);
+        }
+        return super.setNextRow(row);
+    }
+
     @Override
     protected ShardRequest.Item createItem(String id) {
-        return new ShardUpsertRequest.Item(id, assignments, null, requiredVersion);
+        ShardUpsertRequest.Item item = new ShardUpsertRequest.Item(id, assignments, null, requiredVersion);
+        if (collectSourceExpression != null) {
+            item.currentSource(
+                new BytesArray((BytesRef) collectSourceExpression.value()), (Long) collectVersionExpression.value());
+        }
+        return item;
+    }
+
+    @Override
+    protected int itemSizeInBytes() {
+        if (collectSourceExpression == null) {
+            return 0;
+        }
+        BytesRef source = (BytesRef) collectSourceExpression.value();
+        return source == null ? 0 : source.length;
     }
 }
@@ -29,10 +29,12 @@ import io.crate.exceptions.ValidationException;
 import io.crate.metadata.ColumnIdent;
 import io.crate.operation.Input;
 import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.projectors.writer.ColumnarWriter;
 import io.crate.operation.projectors.writer.Output;
 import io.crate.operation.projectors.writer.OutputFile;
 import io.crate.operation.projectors.writer.OutputS3;
 import io.crate.planner.projection.WriterProjection;
+import io.crate.types.DataType;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
@@ -54,6 +56,8 @@ public class WriterProjector extends AbstractProjector {
     private final URI uri;
     private final Set<CollectExpression<Row, ?>> collectExpressions;
     private final List<Input<?>> inputs;
+    @Nullable
+    private final List<DataType> inputTypes;
     private final Map<String, Object> overwrites;
     @Nullable
     private final List<String> outputNames;
@@ -71,17 +75,20 @@ public class WriterProjector extends AbstractProjector {
      *               That raw source is then written to the output
      *               <p/>
      *               If inputs is not null the inputs are consumed to write a JSON array to the output.
+     * @param inputTypes the types of the inputs, required for the {@link WriterProjection.OutputFormat#COLUMNAR} format
      */
     public WriterProjector(ExecutorService executorService,
                            String uri,
                            @Nullable WriterProjection.CompressionType compressionType,
                            @Nullable List<Input<?>> inputs,
+                           @Nullable List<DataType> inputTypes,
                            Set<CollectExpression<Row, ?>> collectExpressions,
                            Map<ColumnIdent, Object> overwrites,
                            @Nullable List<String> outputNames,
                            WriterProjection.OutputFormat outputFormat) {
         this.collectExpressions = collectExpressions;
         this.inputs = inputs;
+        this.inputTypes = inputTypes;
         this.overwrites = toNestedStringObjectMap(overwrites);
         this.outputNames = outputNames;
         this.outputFormat = outputFormat;
@@ -141,7 +148,12 @@ public class WriterProjector extends AbstractProjector {
     public void prepare() {
         counter.set(0);
         try {
-            if (!overwrites.isEmpty()) {
+            if (outputFormat.equals(WriterProjection.OutputFormat.COLUMNAR)) {
+                assert inputs != null && inputTypes != null && outputNames != null
+                    : "the columnar format requires inputs, their types and names";
+                rowWriter = new ColumnarRowWriter(
+                    output.acquireOutputStream(), collectExpressions, inputs, inputTypes, outputNames);
+            } else if (!overwrites.isEmpty()) {
                 rowWriter = new DocWriter(
                         output.acquireOutputStream(), collectExpressions, overwrites);
             } else if (outputFormat.equals(WriterProjection.OutputFormat.JSON_ARRAY)) {
@@ -330,4 +342,43 @@ public class WriterProjector extends AbstractProjector {
             }
         }
     }
+
+    static class ColumnarRowWriter implements RowWriter {
+
+        private final Set<CollectExpression<Row, ?>> collectExpressions;
+        private final List<Input<?>> inputs;
+        private final ColumnarWriter writer;
+        private final Object[] values;
+
+        ColumnarRowWriter(OutputStream outputStream,
+                          Set<CollectExpression<Row, ?>> collectExpressions,
+                          List<Input<?>> inputs,
+                          List<DataType> inputTypes,
+                          List<String> outputNames) throws IOException {
+            this.collectExpressions = collectExpressions;
+            this.inputs = inputs;
+            this.writer = new ColumnarWriter(outputStream, outputNames, inputTypes);
+            this.values = new Object[inputs.size()];
+        }
+
+        @Override
+        public void write(Row row) {
+            for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
+                collectExpression.setNextRow(row);
+            }
+            for (int i = 0; i < inputs.size(); i++) {
+                values[i] = inputs.get(i).value();
+            }
+            try {
+                writer.write(values);
+            } catch (IOException e) {
+                throw new UnhandledServerException("Failed to write row to output", e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
 }
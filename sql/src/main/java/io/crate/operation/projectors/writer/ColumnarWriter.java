@@ -0,0 +1,199 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.projectors.writer;
+
+import io.crate.Streamer;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Writes rows in a columnar binary format which can be read without any text parsing.
+ *
+ * Rows are buffered and written in row groups. A row group contains one chunk per column
+ * with the values of the column encoded by the streamer of its type.
+ * A chunk is deflate compressed if this makes it smaller and, for primitive types,
+ * carries the min and max value of the chunk.
+ *
+ * <pre>
+ * file:      magic, version, number of columns, (name, type) per column, row group*, 0
+ * row group: number of rows, chunk per column
+ * chunk:     codec, has stats, [min, max], uncompressed length, length, values
+ * </pre>
+ */
+public class ColumnarWriter implements Closeable {
+
+    public static final byte[] MAGIC = new byte[]{'C', 'R', 'C', 'F'};
+    public static final int VERSION = 1;
+    public static final byte CODEC_NONE = 0;
+    public static final byte CODEC_DEFLATE = 1;
+
+    public static final int MAX_ROWS_PER_GROUP = 8192;
+    static final int MAX_BYTES_PER_GROUP = 4 * 1024 * 1024;
+
+    private final StreamOutput out;
+    private final DataType[] types;
+    private final Streamer[] streamers;
+    private final boolean[] withStats;
+    private final BytesStreamOutput[] chunks;
+    private final Object[] mins;
+    private final Object[] maxs;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private byte[] compressed = new byte[0];
+    private int rows = 0;
+
+    public ColumnarWriter(OutputStream outputStream, List<String> columnNames, List<DataType> columnTypes) throws IOException {
+        assert columnNames.size() == columnTypes.size() : "there must be a type for each column";
+        this.out = new OutputStreamStreamOutput(outputStream);
+        int numColumns = columnTypes.size();
+        types = new DataType[numColumns];
+        streamers = new Streamer[numColumns];
+        withStats = new boolean[numColumns];
+        chunks = new BytesStreamOutput[numColumns];
+        mins = new Object[numColumns];
+        maxs = new Object[numColumns];
+
+        out.writeBytes(MAGIC);
+        out.writeVInt(VERSION);
+        out.writeVInt(numColumns);
+        for (int i = 0; i < numColumns; i++) {
+            DataType type = columnTypes.get(i);
+            types[i] = type;
+            streamers[i] = type.streamer();
+            withStats[i] = DataTypes.isPrimitive(type);
+            chunks[i] = new BytesStreamOutput();
+            out.writeString(columnNames.get(i));
+            DataTypes.toStream(type, out);
+        }
+    }
+
+    /**
+     * @param values the values of a row, one per column
+     */
+    @SuppressWarnings("unchecked")
+    public void write(Object[] values) throws IOException {
+        long bytes = 0;
+        for (int i = 0; i < values.length; i++) {
+            Object value = types[i].value(values[i]);
+            streamers[i].writeValueTo(chunks[i], value);
+            bytes += chunks[i].size();
+            if (value != null && withStats[i]) {
+                if (mins[i] == null || types[i].compareValueTo(value, mins[i]) < 0) {
+                    mins[i] = copy(value);
+                }
+                if (maxs[i] == null || types[i].compareValueTo(value, maxs[i]) > 0) {
+                    maxs[i] = copy(value);
+                }
+            }
+        }
+        rows++;
+        if (rows >= MAX_ROWS_PER_GROUP || bytes >= MAX_BYTES_PER_GROUP) {
+            flushRowGroup();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushRowGroup();
+            out.writeVInt(0);
+            out.close();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        out.writeVInt(rows);
+        for (int i = 0; i < chunks.length; i++) {
+            writeChunk(i);
+        }
+        rows = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeChunk(int column) throws IOException {
+        BytesRef values = chunks[column].bytes().toBytesRef();
+        int compressedLength = deflate(values);
+
+        out.writeByte(compressedLength < 0 ? CODEC_NONE : CODEC_DEFLATE);
+        boolean hasStats = mins[column] != null;
+        out.writeBoolean(hasStats);
+        if (hasStats) {
+            streamers[column].writeValueTo(out, mins[column]);
+            streamers[column].writeValueTo(out, maxs[column]);
+        }
+        out.writeVInt(values.length);
+        if (compressedLength < 0) {
+            out.writeVInt(values.length);
+            out.writeBytes(values.bytes, values.offset, values.length);
+        } else {
+            out.writeVInt(compressedLength);
+            out.writeBytes(compressed, 0, compressedLength);
+        }
+
+        chunks[column].reset();
+        mins[column] = null;
+        maxs[column] = null;
+    }
+
+    /**
+     * @return the length of the compressed values or -1 if compressing doesn't make them smaller
+     */
+    private int deflate(BytesRef values) {
+        if (compressed.length < values.length) {
+            compressed = new byte[values.length];
+        }
+        deflater.reset();
+        deflater.setInput(values.bytes, values.offset, values.length);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished() && length < values.length) {
+            length += deflater.deflate(compressed, length, values.length - length);
+        }
+        if (!deflater.finished() || length >= values.length) {
+            return -1;
+        }
+        return length;
+    }
+
+    private static Object copy(Object value) {
+        if (value instanceof BytesRef) {
+            // bytesRefs of collected values may be reused for the next row
+            return BytesRef.deepCopyOf((BytesRef) value);
+        }
+        return value;
+    }
+}
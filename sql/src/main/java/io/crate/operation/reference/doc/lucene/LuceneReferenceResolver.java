@@ -63,6 +63,8 @@ public class LuceneReferenceResolver implements ReferenceResolver<LuceneCollecto
             return new DocIdCollectorExpression();
         } else if (ScoreCollectorExpression.COLUMN_NAME.equals(refInfo.ident().columnIdent().name())) {
             return new ScoreCollectorExpression();
+        } else if (VersionCollectorExpression.COLUMN_NAME.equals(refInfo.ident().columnIdent().name())) {
+            return new VersionCollectorExpression();
         }
 
         String colName = refInfo.ident().columnIdent().fqn();
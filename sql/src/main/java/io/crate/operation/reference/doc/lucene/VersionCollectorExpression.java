@@ -0,0 +1,65 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.reference.doc.lucene;
+
+import io.crate.metadata.doc.DocSysColumns;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.index.mapper.internal.VersionFieldMapper;
+
+import java.io.IOException;
+
+/**
+ * Reads the version of a document from the numeric doc values of the <code>_version</code> field,
+ * the same values the engine uses to resolve versions, without looking up the document by its id.
+ */
+public class VersionCollectorExpression extends LuceneCollectorExpression<Long> {
+
+    public static final String COLUMN_NAME = DocSysColumns.VERSION.name();
+
+    private NumericDocValues versions;
+    private Long value;
+
+    @Override
+    public void setNextReader(LeafReaderContext context) {
+        try {
+            versions = context.reader().getNumericDocValues(VersionFieldMapper.NAME);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load versions", e);
+        }
+    }
+
+    @Override
+    public void setNextDocId(int doc) {
+        if (versions == null) {
+            value = Versions.NOT_FOUND;
+        } else {
+            value = versions.get(doc);
+        }
+    }
+
+    @Override
+    public Long value() {
+        return value;
+    }
+}
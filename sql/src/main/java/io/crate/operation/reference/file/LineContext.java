@@ -21,22 +21,40 @@
 
 package io.crate.operation.reference.file;
 
+import com.google.common.base.Throwables;
 import io.crate.metadata.ColumnIdent;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentHelper;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.Map;
 
+/**
+ * The line which is currently collected.
+ *
+ * A line is either a raw JSON source, which is parsed on demand,
+ * or a list of already typed top level column values, e.g. of a CSV line,
+ * from which a JSON source is only built if the raw source is requested.
+ */
 public class LineContext {
 
     private byte[] rawSource;
     private Map<String, Object> parsedSource;
 
+    private String[] columnNames;
+    private Object[] values;
+
     @Nullable
     public BytesRef sourceAsBytesRef() {
+        if (rawSource == null && values != null) {
+            rawSource = valuesToSource();
+        }
         if (rawSource != null) {
             return new BytesRef(rawSource);
         }
@@ -44,6 +62,9 @@ public class LineContext {
     }
 
     public Map<String, Object> sourceAsMap() {
+        if (parsedSource == null && values != null) {
+            parsedSource = valuesToMap();
+        }
         if (parsedSource == null) {
             try {
                 parsedSource = XContentHelper.convertToMap(new BytesArray(rawSource), false).v2();
@@ -55,7 +76,13 @@ public class LineContext {
     }
 
     public Object get(ColumnIdent columnIdent) {
+        if (values != null && columnIdent.path().isEmpty()) {
+            return value(columnIdent.name());
+        }
         // TODO: change interface in order to not compute the path for every row
+        if (parsedSource == null && values != null) {
+            parsedSource = valuesToMap();
+        }
         if (parsedSource == null) {
             // TODO: optimize if collectorContext has prefetchColumns
 
@@ -85,5 +112,65 @@ public class LineContext {
     public void rawSource(byte[] bytes) {
         this.rawSource = bytes;
         this.parsedSource = null;
+        this.columnNames = null;
+        this.values = null;
+    }
+
+    /**
+     * @param columnNames names of the top level columns
+     * @param values values of the columns, a value may be null if the column has no value in this line
+     */
+    public void values(String[] columnNames, Object[] values) {
+        assert columnNames.length >= values.length : "there must be a column name for each value";
+        this.rawSource = null;
+        this.parsedSource = null;
+        this.columnNames = columnNames;
+        this.values = values;
+    }
+
+    @Nullable
+    private Object value(String columnName) {
+        for (int i = 0; i < values.length; i++) {
+            if (columnNames[i].equals(columnName)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    private byte[] valuesToSource() {
+        try {
+            XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                if (value instanceof BytesRef) {
+                    // a plain field(String, BytesRef) would write the value as binary
+                    builder.utf8Field(columnNames[i], (BytesRef) value);
+                } else {
+                    builder.field(columnNames[i], value);
+                }
+            }
+            return builder.endObject().bytes().toBytes();
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    private Map<String, Object> valuesToMap() {
+        Map<String, Object> map = new LinkedHashMap<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof BytesRef) {
+                value = ((BytesRef) value).utf8ToString();
+            }
+            map.put(columnNames[i], value);
+        }
+        return map;
     }
 }
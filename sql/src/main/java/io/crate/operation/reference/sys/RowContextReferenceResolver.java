@@ -24,6 +24,7 @@ package io.crate.operation.reference.sys;
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import io.crate.jobs.AdmissionController.LaneStats;
 import io.crate.metadata.*;
 import io.crate.metadata.expressions.RowCollectExpressionFactory;
 import io.crate.metadata.expressions.WriteableRowContextExpression;
@@ -37,6 +38,8 @@ import io.crate.operation.reference.sys.job.JobContext;
 import io.crate.operation.reference.sys.job.JobContextLog;
 import io.crate.operation.reference.sys.operation.OperationContext;
 import io.crate.operation.reference.sys.operation.OperationContextLog;
+import io.crate.operation.reference.sys.query.QueryStats;
+import io.crate.operation.reference.sys.query.SlowQuery;
 import io.crate.operation.reference.sys.repositories.SysRepository;
 import io.crate.operation.reference.sys.shard.unassigned.UnassignedShardsExpressionFactories;
 import io.crate.operation.reference.sys.snapshot.SysSnapshot;
@@ -46,6 +49,8 @@ import org.elasticsearch.common.lucene.BytesRefs;
 
 import javax.annotation.Nullable;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @Singleton
@@ -62,7 +67,10 @@ public class RowContextReferenceResolver implements ReferenceResolver<RowCollect
         tableFactories.put(SysJobsTableInfo.IDENT, getSysJobsExpressions());
         tableFactories.put(SysJobsLogTableInfo.IDENT, getSysJobsLogExpressions());
         tableFactories.put(SysOperationsTableInfo.IDENT, getSysOperationExpressions());
+        tableFactories.put(SysQueryStatsTableInfo.IDENT, getSysQueryStatsExpressions());
+        tableFactories.put(SysSlowQueriesTableInfo.IDENT, getSysSlowQueriesExpressions());
         tableFactories.put(SysOperationsLogTableInfo.IDENT, getSysOperationLogExpressions());
+        tableFactories.put(SysAdmissionQueuesTableInfo.IDENT, getSysAdmissionQueuesExpressions());
         tableFactories.put(SysChecksTableInfo.IDENT, getSysChecksExpressions());
         tableFactories.put(SysNodeChecksTableInfo.IDENT, getSysNodeChecksExpressions());
         tableFactories.put(SysRepositoriesTableInfo.IDENT, getSysRepositoriesExpressions());
@@ -78,6 +86,127 @@ public class RowContextReferenceResolver implements ReferenceResolver<RowCollect
         tableFactories.put(SysShardsTableInfo.IDENT, UnassignedShardsExpressionFactories.getSysShardsTableInfoFactories());
     }
 
+    private Map<ColumnIdent, RowCollectExpressionFactory> getSysAdmissionQueuesExpressions() {
+        return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory>builder()
+                .put(SysAdmissionQueuesTableInfo.Columns.NODE_ID, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<LaneStats, BytesRef>() {
+                            @Override
+                            public BytesRef value() {
+                                return row.nodeId();
+                            }
+                        };
+                    }
+                })
+                .put(SysAdmissionQueuesTableInfo.Columns.NAME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<LaneStats, BytesRef>() {
+                            @Override
+                            public BytesRef value() {
+                                return new BytesRef(row.workloadClass().name().toLowerCase(Locale.ENGLISH));
+                            }
+                        };
+                    }
+                })
+                .put(SysAdmissionQueuesTableInfo.Columns.SLOTS, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<LaneStats, Integer>() {
+                            @Override
+                            public Integer value() {
+                                if (!row.enabled()) {
+                                    return null;
+                                }
+                                return row.slots();
+                            }
+                        };
+                    }
+                })
+                .put(SysAdmissionQueuesTableInfo.Columns.ACTIVE, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<LaneStats, Integer>() {
+                            @Override
+                            public Integer value() {
+                                return row.active();
+                            }
+                        };
+                    }
+                })
+                .put(SysAdmissionQueuesTableInfo.Columns.QUEUE_SIZE, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<LaneStats, Integer>() {
+                            @Override
+                            public Integer value() {
+                                if (!row.enabled()) {
+                                    return null;
+                                }
+                                return row.queueSize();
+                            }
+                        };
+                    }
+                })
+                .put(SysAdmissionQueuesTableInfo.Columns.QUEUED, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<LaneStats, Integer>() {
+                            @Override
+                            public Integer value() {
+                                return row.queued();
+                            }
+                        };
+                    }
+                })
+                .put(SysAdmissionQueuesTableInfo.Columns.ADMITTED, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<LaneStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.admitted();
+                            }
+                        };
+                    }
+                })
+                .put(SysAdmissionQueuesTableInfo.Columns.REJECTED, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<LaneStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.rejected();
+                            }
+                        };
+                    }
+                })
+                .put(SysAdmissionQueuesTableInfo.Columns.AVG_WAIT_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<LaneStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.avgWaitTime();
+                            }
+                        };
+                    }
+                })
+                .put(SysAdmissionQueuesTableInfo.Columns.MAX_WAIT_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<LaneStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.maxWaitTime();
+                            }
+                        };
+                    }
+                })
+                .build();
+    }
+
     private Map<ColumnIdent, RowCollectExpressionFactory> getSysOperationLogExpressions() {
         return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory>builder()
                 .put(SysOperationsLogTableInfo.Columns.ID, new RowCollectExpressionFactory() {
@@ -139,6 +268,36 @@ public class RowContextReferenceResolver implements ReferenceResolver<RowCollect
                         };
                     }
                 })
+                .put(SysOperationsLogTableInfo.Columns.PAGE_BYTES, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<OperationContextLog, Long>() {
+                            @Override
+                            public Long value() {
+                                long pageBytes = row.pageBytes();
+                                if (pageBytes == 0) {
+                                    return null;
+                                }
+                                return pageBytes;
+                            }
+                        };
+                    }
+                })
+                .put(SysOperationsLogTableInfo.Columns.PAGE_BYTES_COMPRESSED, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<OperationContextLog, Long>() {
+                            @Override
+                            public Long value() {
+                                long pageBytesCompressed = row.pageBytesCompressed();
+                                if (pageBytesCompressed == 0) {
+                                    return null;
+                                }
+                                return pageBytesCompressed;
+                            }
+                        };
+                    }
+                })
                 .put(SysOperationsLogTableInfo.Columns.ERROR, new RowCollectExpressionFactory() {
                     @Override
                     public RowCollectExpression create() {
@@ -161,6 +320,50 @@ public class RowContextReferenceResolver implements ReferenceResolver<RowCollect
                         };
                     }
                 })
+                .put(SysOperationsLogTableInfo.Columns.ROWS_IN, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<OperationContextLog, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.stats().rowsIn();
+                            }
+                        };
+                    }
+                })
+                .put(SysOperationsLogTableInfo.Columns.ROWS_OUT, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<OperationContextLog, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.stats().rowsOut();
+                            }
+                        };
+                    }
+                })
+                .put(SysOperationsLogTableInfo.Columns.THREAD_CPU_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<OperationContextLog, Double>() {
+                            @Override
+                            public Double value() {
+                                return nanosToMillis(row.stats().cpuTimeNanos());
+                            }
+                        };
+                    }
+                })
+                .put(SysOperationsLogTableInfo.Columns.THREAD_ALLOCATED_BYTES, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<OperationContextLog, Long>() {
+                            @Override
+                            public Long value() {
+                                return positiveOrNull(row.stats().allocatedBytes());
+                            }
+                        };
+                    }
+                })
                 .build();
     }
 
@@ -224,9 +427,404 @@ public class RowContextReferenceResolver implements ReferenceResolver<RowCollect
                         };
                     }
                 })
+                .put(SysOperationsTableInfo.Columns.ROWS_IN, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<OperationContext, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.stats.rowsIn();
+                            }
+                        };
+                    }
+                })
+                .put(SysOperationsTableInfo.Columns.ROWS_OUT, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<OperationContext, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.stats.rowsOut();
+                            }
+                        };
+                    }
+                })
+                .put(SysOperationsTableInfo.Columns.THREAD_CPU_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<OperationContext, Double>() {
+                            @Override
+                            public Double value() {
+                                return nanosToMillis(row.stats.cpuTimeNanos());
+                            }
+                        };
+                    }
+                })
+                .put(SysOperationsTableInfo.Columns.THREAD_ALLOCATED_BYTES, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<OperationContext, Long>() {
+                            @Override
+                            public Long value() {
+                                return positiveOrNull(row.stats.allocatedBytes());
+                            }
+                        };
+                    }
+                })
+                .put(SysOperationsTableInfo.Columns.BULK_SIZE, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<OperationContext, Integer>() {
+                            @Override
+                            public Integer value() {
+                                int bulkSize = row.stats.bulkSize();
+                                return bulkSize < 0 ? null : bulkSize;
+                            }
+                        };
+                    }
+                })
+                .put(SysOperationsTableInfo.Columns.BULK_CONCURRENCY, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<OperationContext, Integer>() {
+                            @Override
+                            public Integer value() {
+                                int concurrency = row.stats.bulkConcurrency();
+                                return concurrency < 0 ? null : concurrency;
+                            }
+                        };
+                    }
+                })
                 .build();
     }
 
+    private Map<ColumnIdent, RowCollectExpressionFactory> getSysQueryStatsExpressions() {
+        return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory>builder()
+                .put(SysQueryStatsTableInfo.Columns.FINGERPRINT, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<QueryStats, BytesRef>() {
+                            @Override
+                            public BytesRef value() {
+                                return new BytesRef(row.fingerprint());
+                            }
+                        };
+                    }
+                })
+                .put(SysQueryStatsTableInfo.Columns.CALLS, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<QueryStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.calls();
+                            }
+                        };
+                    }
+                })
+                .put(SysQueryStatsTableInfo.Columns.ERRORS, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<QueryStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.errors();
+                            }
+                        };
+                    }
+                })
+                .put(SysQueryStatsTableInfo.Columns.ROWS, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<QueryStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.rows();
+                            }
+                        };
+                    }
+                })
+                .put(SysQueryStatsTableInfo.Columns.FIRST_EXECUTED, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<QueryStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.firstExecuted();
+                            }
+                        };
+                    }
+                })
+                .put(SysQueryStatsTableInfo.Columns.LAST_EXECUTED, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<QueryStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.lastExecuted();
+                            }
+                        };
+                    }
+                })
+                .put(SysQueryStatsTableInfo.Columns.TOTAL_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<QueryStats, Double>() {
+                            @Override
+                            public Double value() {
+                                return row.totalTime();
+                            }
+                        };
+                    }
+                })
+                .put(SysQueryStatsTableInfo.Columns.MEAN_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<QueryStats, Double>() {
+                            @Override
+                            public Double value() {
+                                return row.meanTime();
+                            }
+                        };
+                    }
+                })
+                .put(SysQueryStatsTableInfo.Columns.MIN_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<QueryStats, Double>() {
+                            @Override
+                            public Double value() {
+                                return row.minTime();
+                            }
+                        };
+                    }
+                })
+                .put(SysQueryStatsTableInfo.Columns.MAX_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<QueryStats, Double>() {
+                            @Override
+                            public Double value() {
+                                return row.maxTime();
+                            }
+                        };
+                    }
+                })
+                .put(SysQueryStatsTableInfo.Columns.P50_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<QueryStats, Double>() {
+                            @Override
+                            public Double value() {
+                                return row.percentileTime(50.0);
+                            }
+                        };
+                    }
+                })
+                .put(SysQueryStatsTableInfo.Columns.P90_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<QueryStats, Double>() {
+                            @Override
+                            public Double value() {
+                                return row.percentileTime(90.0);
+                            }
+                        };
+                    }
+                })
+                .put(SysQueryStatsTableInfo.Columns.P95_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<QueryStats, Double>() {
+                            @Override
+                            public Double value() {
+                                return row.percentileTime(95.0);
+                            }
+                        };
+                    }
+                })
+                .put(SysQueryStatsTableInfo.Columns.P99_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<QueryStats, Double>() {
+                            @Override
+                            public Double value() {
+                                return row.percentileTime(99.0);
+                            }
+                        };
+                    }
+                })
+                .put(SysQueryStatsTableInfo.Columns.P999_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<QueryStats, Double>() {
+                            @Override
+                            public Double value() {
+                                return row.percentileTime(99.9);
+                            }
+                        };
+                    }
+                })
+                .build();
+    }
+
+    private Map<ColumnIdent, RowCollectExpressionFactory> getSysSlowQueriesExpressions() {
+        return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory>builder()
+                .put(SysSlowQueriesTableInfo.Columns.JOB_ID, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<SlowQuery, BytesRef>() {
+                            @Override
+                            public BytesRef value() {
+                                return new BytesRef(row.jobId().toString());
+                            }
+                        };
+                    }
+                })
+                .put(SysSlowQueriesTableInfo.Columns.STMT, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<SlowQuery, BytesRef>() {
+                            @Override
+                            public BytesRef value() {
+                                return new BytesRef(row.stmt());
+                            }
+                        };
+                    }
+                })
+                .put(SysSlowQueriesTableInfo.Columns.PARAMETERS, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<SlowQuery, BytesRef>() {
+                            @Override
+                            public BytesRef value() {
+                                String value = row.parameters();
+                                if (value == null) {
+                                    return null;
+                                }
+                                return new BytesRef(value);
+                            }
+                        };
+                    }
+                })
+                .put(SysSlowQueriesTableInfo.Columns.PLAN, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<SlowQuery, BytesRef>() {
+                            @Override
+                            public BytesRef value() {
+                                String value = row.plan();
+                                if (value == null) {
+                                    return null;
+                                }
+                                return new BytesRef(value);
+                            }
+                        };
+                    }
+                })
+                .put(SysSlowQueriesTableInfo.Columns.NODES, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<SlowQuery, BytesRef[]>() {
+                            @Override
+                            public BytesRef[] value() {
+                                return toBytesRefs(row.nodes());
+                            }
+                        };
+                    }
+                })
+                .put(SysSlowQueriesTableInfo.Columns.SHARDS, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<SlowQuery, BytesRef[]>() {
+                            @Override
+                            public BytesRef[] value() {
+                                return toBytesRefs(row.shards());
+                            }
+                        };
+                    }
+                })
+                .put(SysSlowQueriesTableInfo.Columns.PHASES, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<SlowQuery, Map<String, Object>>() {
+                            @Override
+                            public Map<String, Object> value() {
+                                return row.phases();
+                            }
+                        };
+                    }
+                })
+                .put(SysSlowQueriesTableInfo.Columns.STARTED, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<SlowQuery, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.started();
+                            }
+                        };
+                    }
+                })
+                .put(SysSlowQueriesTableInfo.Columns.ENDED, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<SlowQuery, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.ended();
+                            }
+                        };
+                    }
+                })
+                .put(SysSlowQueriesTableInfo.Columns.DURATION, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<SlowQuery, Double>() {
+                            @Override
+                            public Double value() {
+                                return row.duration();
+                            }
+                        };
+                    }
+                })
+                .put(SysSlowQueriesTableInfo.Columns.ROWS, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<SlowQuery, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.rows();
+                            }
+                        };
+                    }
+                })
+                .put(SysSlowQueriesTableInfo.Columns.ERROR, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<SlowQuery, BytesRef>() {
+                            @Override
+                            public BytesRef value() {
+                                String value = row.error();
+                                if (value == null) {
+                                    return null;
+                                }
+                                return new BytesRef(value);
+                            }
+                        };
+                    }
+                })
+                .build();
+    }
+
+    private static BytesRef[] toBytesRefs(List<String> values) {
+        BytesRef[] refs = new BytesRef[values.size()];
+        for (int i = 0; i < refs.length; i++) {
+            refs[i] = new BytesRef(values.get(i));
+        }
+        return refs;
+    }
+
     private ImmutableMap<ColumnIdent, RowCollectExpressionFactory> getSysJobsLogExpressions() {
         return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory>builder()
                 .put(SysJobsLogTableInfo.Columns.ID, new RowCollectExpressionFactory() {
@@ -288,6 +886,28 @@ public class RowContextReferenceResolver implements ReferenceResolver<RowCollect
                         };
                     }
                 })
+                .put(SysJobsLogTableInfo.Columns.THREAD_CPU_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<JobContextLog, Double>() {
+                            @Override
+                            public Double value() {
+                                return nanosToMillis(row.cpuTimeNanos());
+                            }
+                        };
+                    }
+                })
+                .put(SysJobsLogTableInfo.Columns.THREAD_ALLOCATED_BYTES, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<JobContextLog, Long>() {
+                            @Override
+                            public Long value() {
+                                return positiveOrNull(row.allocatedBytes());
+                            }
+                        };
+                    }
+                })
                 .build();
     }
 
@@ -625,4 +1245,23 @@ public class RowContextReferenceResolver implements ReferenceResolver<RowCollect
         }
         return (RowCollectExpression<?, ?>) referenceImplementation;
     }
+
+    /**
+     * thread cpu time is exposed in milliseconds; zero or negative values mean it wasn't measured
+     */
+    @Nullable
+    private static Double nanosToMillis(long nanos) {
+        if (nanos <= 0) {
+            return null;
+        }
+        return nanos / 1_000_000.0;
+    }
+
+    @Nullable
+    private static Long positiveOrNull(long value) {
+        if (value <= 0) {
+            return null;
+        }
+        return value;
+    }
 }
@@ -21,7 +21,11 @@
 
 package io.crate.operation.reference.sys.job;
 
+import io.crate.operation.reference.sys.operation.OperationStats;
+
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class JobContext {
 
@@ -29,9 +33,34 @@ public class JobContext {
     public final String stmt;
     public final long started;
 
+    /**
+     * stats of the operations of this job which are executed on the handler node
+     */
+    private final Queue<OperationStats> operationStats = new ConcurrentLinkedQueue<>();
+
     public JobContext(UUID id, String stmt, long started) {
         this.id = id;
         this.stmt = stmt;
         this.started = started;
     }
+
+    public void addOperationStats(OperationStats stats) {
+        operationStats.add(stats);
+    }
+
+    long cpuTimeNanos() {
+        long sum = 0L;
+        for (OperationStats stats : operationStats) {
+            sum += Math.max(0L, stats.cpuTimeNanos());
+        }
+        return sum;
+    }
+
+    long allocatedBytes() {
+        long sum = 0L;
+        for (OperationStats stats : operationStats) {
+            sum += Math.max(0L, stats.allocatedBytes());
+        }
+        return sum;
+    }
 }
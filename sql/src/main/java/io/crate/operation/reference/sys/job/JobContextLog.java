@@ -55,6 +55,14 @@ public class JobContextLog {
         return ended;
     }
 
+    public long cpuTimeNanos() {
+        return jobContext.cpuTimeNanos();
+    }
+
+    public long allocatedBytes() {
+        return jobContext.allocatedBytes();
+    }
+
     @Nullable
     public String errorMessage() {
         return errorMessage;
@@ -0,0 +1,57 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.reference.sys.node;
+
+import io.crate.executor.transport.TransportCoalescingGetAction;
+import io.crate.operation.reference.sys.SysNodeObjectReference;
+
+public class NodeLookupsExpression extends SysNodeObjectReference {
+
+    public static final String COALESCED = "coalesced";
+    public static final String BATCHES = "batches";
+    public static final String LARGEST_BATCH = "largest_batch";
+
+    public NodeLookupsExpression(TransportCoalescingGetAction coalescingGetAction) {
+        addChildImplementations(coalescingGetAction);
+    }
+
+    private void addChildImplementations(final TransportCoalescingGetAction coalescingGetAction) {
+        childImplementations.put(COALESCED, new SysNodeExpression<Long>() {
+            @Override
+            public Long value() {
+                return coalescingGetAction.lookups();
+            }
+        });
+        childImplementations.put(BATCHES, new SysNodeExpression<Long>() {
+            @Override
+            public Long value() {
+                return coalescingGetAction.batches();
+            }
+        });
+        childImplementations.put(LARGEST_BATCH, new SysNodeExpression<Integer>() {
+            @Override
+            public Integer value() {
+                return coalescingGetAction.largestBatch();
+            }
+        });
+    }
+}
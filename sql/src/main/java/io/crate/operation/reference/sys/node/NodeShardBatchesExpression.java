@@ -0,0 +1,57 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.reference.sys.node;
+
+import io.crate.operation.reference.sys.SysNodeObjectReference;
+import org.elasticsearch.action.bulk.ShardBatchStats;
+
+public class NodeShardBatchesExpression extends SysNodeObjectReference {
+
+    public static final String SENT = "sent";
+    public static final String FULL = "full";
+    public static final String AVG_FILL_RATIO = "avg_fill_ratio";
+
+    public NodeShardBatchesExpression(ShardBatchStats shardBatchStats) {
+        addChildImplementations(shardBatchStats);
+    }
+
+    private void addChildImplementations(final ShardBatchStats shardBatchStats) {
+        childImplementations.put(SENT, new SysNodeExpression<Long>() {
+            @Override
+            public Long value() {
+                return shardBatchStats.batches();
+            }
+        });
+        childImplementations.put(FULL, new SysNodeExpression<Long>() {
+            @Override
+            public Long value() {
+                return shardBatchStats.fullBatches();
+            }
+        });
+        childImplementations.put(AVG_FILL_RATIO, new SysNodeExpression<Double>() {
+            @Override
+            public Double value() {
+                return shardBatchStats.avgFillRatio();
+            }
+        });
+    }
+}
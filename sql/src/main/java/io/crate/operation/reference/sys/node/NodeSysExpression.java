@@ -21,11 +21,13 @@
 
 package io.crate.operation.reference.sys.node;
 
+import io.crate.executor.transport.TransportCoalescingGetAction;
 import io.crate.metadata.ReferenceImplementation;
 import io.crate.metadata.sys.SysNodesTableInfo;
 import io.crate.monitor.ExtendedNodeInfo;
 import io.crate.operation.reference.NestedObjectExpression;
 import io.crate.operation.reference.sys.node.fs.NodeFsExpression;
+import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.discovery.Discovery;
@@ -51,7 +53,9 @@ public class NodeSysExpression extends NestedObjectExpression {
                              JvmService jvmService,
                              Discovery discovery,
                              ThreadPool threadPool,
-                             ExtendedNodeInfo extendedNodeInfo) {
+                             ExtendedNodeInfo extendedNodeInfo,
+                             TransportCoalescingGetAction coalescingGetAction,
+                             BulkRetryCoordinatorPool bulkRetryCoordinatorPool) {
         this.nodeService = nodeService;
         this.osService = osService;
         this.jvmService = jvmService;
@@ -72,6 +76,10 @@ public class NodeSysExpression extends NestedObjectExpression {
                 new NodeThreadPoolsExpression(threadPool));
         childImplementations.put(SysNodesTableInfo.SYS_COL_OS_INFO,
                 new NodeOsInfoExpression(osService.info()));
+        childImplementations.put(SysNodesTableInfo.SYS_COL_LOOKUPS,
+                new NodeLookupsExpression(coalescingGetAction));
+        childImplementations.put(SysNodesTableInfo.SYS_COL_SHARD_BATCHES,
+                new NodeShardBatchesExpression(bulkRetryCoordinatorPool.shardBatchStats()));
     }
 
     @Override
@@ -30,12 +30,20 @@ public class OperationContext {
     public final String name;
     public final long started;
     public long usedBytes;
+    public long pageBytes;
+    public long pageBytesCompressed;
+    public final OperationStats stats;
 
     public OperationContext(int id, UUID jobId, String name, long started) {
+        this(id, jobId, name, started, new OperationStats());
+    }
+
+    public OperationContext(int id, UUID jobId, String name, long started, OperationStats stats) {
         this.id = id;
         this.jobId = jobId;
         this.name = name;
         this.started = started;
+        this.stats = stats;
     }
 
     @Override
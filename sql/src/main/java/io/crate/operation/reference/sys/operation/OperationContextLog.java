@@ -61,6 +61,18 @@ public class OperationContextLog {
         return  operationContext.usedBytes;
     }
 
+    public long pageBytes() {
+        return operationContext.pageBytes;
+    }
+
+    public long pageBytesCompressed() {
+        return operationContext.pageBytesCompressed;
+    }
+
+    public OperationStats stats() {
+        return operationContext.stats;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,366 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.reference.sys.operation;
+
+import com.twitter.jsr166e.LongAdder;
+import io.crate.core.collections.Row;
+import io.crate.operation.projectors.ForwardingRowReceiver;
+import io.crate.operation.projectors.RepeatHandle;
+import io.crate.operation.projectors.ResumeHandle;
+import io.crate.operation.projectors.RowReceiver;
+import org.elasticsearch.action.bulk.AdaptiveBulkController;
+
+import javax.annotation.Nonnull;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Counters of a single operation (an ExecutionSubContext) which are shown in sys.operations and sys.operations_log.
+ *
+ * The thread cpu time and the allocated bytes are measured using the {@link ThreadMXBean} around the
+ * code which is executed on behalf of the operation, see {@link #startMeasurement()}.
+ * Measurements on the same thread may be nested, the inner measurement is then not accounted to the outer one.
+ * Besides the start of the operation and the collectors or received pages, this covers the work which is resumed
+ * or repeated by a downstream (see {@link #countRowsOut(RowReceiver)}) and the tasks run by executors
+ * wrapped with {@link #measured(Executor)}. Not measured is the work of the downstream itself, e.g. the serialization
+ * of sent pages by the transport threads.
+ *
+ * Operations of a profiled job (EXPLAIN ANALYZE) additionally count the rows emitted by each of their projections,
+ * see {@link #countProjectionRowsOut(RowReceiver)}.
+ *
+ * Operations which write rows using bulk requests register the {@link AdaptiveBulkController}s of their writers,
+ * so that the current bulk size and concurrency can be shown while the operation is running.
+ */
+public class OperationStats {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean SUN_THREAD_MX_BEAN;
+    private static final boolean CPU_TIME_SUPPORTED;
+    private static final boolean ALLOCATED_BYTES_SUPPORTED;
+    private static final ThreadLocal<Measurement> CURRENT = new ThreadLocal<>();
+
+    static {
+        CPU_TIME_SUPPORTED = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_MX_BEAN.isThreadCpuTimeEnabled();
+        if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean) {
+            SUN_THREAD_MX_BEAN = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+            ALLOCATED_BYTES_SUPPORTED = SUN_THREAD_MX_BEAN.isThreadAllocatedMemorySupported()
+                                        && SUN_THREAD_MX_BEAN.isThreadAllocatedMemoryEnabled();
+        } else {
+            SUN_THREAD_MX_BEAN = null;
+            ALLOCATED_BYTES_SUPPORTED = false;
+        }
+    }
+
+    private final LongAdder cpuTimeNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder rowsIn = new LongAdder();
+    private final LongAdder rowsOut = new LongAdder();
+    private final LongAdder pagesSent = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder pagesReceived = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder pausedNanos = new LongAdder();
+    private final List<LongAdder> projectionRowsOut = new CopyOnWriteArrayList<>();
+    private final List<AdaptiveBulkController> bulkControllers = new CopyOnWriteArrayList<>();
+    private final boolean profiled;
+
+    public OperationStats() {
+        this(false);
+    }
+
+    public OperationStats(boolean profiled) {
+        this.profiled = profiled;
+    }
+
+    public boolean isProfiled() {
+        return profiled;
+    }
+
+    /**
+     * Starts to measure the cpu time and allocations of the current thread.
+     * {@link Measurement#stop()} must be called on the same thread.
+     */
+    public Measurement startMeasurement() {
+        Measurement measurement = new Measurement(this, CURRENT.get());
+        CURRENT.set(measurement);
+        return measurement;
+    }
+
+    public void addRowsIn(long rows) {
+        rowsIn.add(rows);
+    }
+
+    public void addRowsOut(long rows) {
+        rowsOut.add(rows);
+    }
+
+    public void addPageSent(long bytes) {
+        pagesSent.increment();
+        bytesSent.add(bytes);
+    }
+
+    public void addPageReceived(long bytes) {
+        pagesReceived.increment();
+        bytesReceived.add(bytes);
+    }
+
+    public void addPausedNanos(long nanos) {
+        pausedNanos.add(nanos);
+    }
+
+    public void addBulkController(AdaptiveBulkController bulkController) {
+        if (bulkController.isEnabled()) {
+            bulkControllers.add(bulkController);
+        }
+    }
+
+    /**
+     * @return a RowReceiver which counts the rows passed to the given rowReceiver as rows in
+     */
+    public RowReceiver countRowsIn(RowReceiver rowReceiver) {
+        return new ForwardingRowReceiver(rowReceiver) {
+            @Override
+            public Result setNextRow(Row row) {
+                rowsIn.increment();
+                return super.setNextRow(row);
+            }
+        };
+    }
+
+    /**
+     * @return a RowReceiver which counts the rows passed to the given rowReceiver as rows out.
+     *         If the rowReceiver resumes or repeats the operation, e.g. on a thread which received a response,
+     *         the work of the operation is measured.
+     */
+    public RowReceiver countRowsOut(RowReceiver rowReceiver) {
+        return new ForwardingRowReceiver(rowReceiver) {
+            @Override
+            public Result setNextRow(Row row) {
+                rowsOut.increment();
+                return super.setNextRow(row);
+            }
+
+            @Override
+            public void pauseProcessed(final ResumeHandle resumeable) {
+                super.pauseProcessed(new ResumeHandle() {
+                    @Override
+                    public void resume(boolean async) {
+                        Measurement measurement = startMeasurement();
+                        try {
+                            resumeable.resume(async);
+                        } finally {
+                            measurement.stop();
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void finish(final RepeatHandle repeatHandle) {
+                if (repeatHandle == RepeatHandle.UNSUPPORTED) {
+                    super.finish(repeatHandle);
+                    return;
+                }
+                super.finish(new RepeatHandle() {
+                    @Override
+                    public void repeat() {
+                        Measurement measurement = startMeasurement();
+                        try {
+                            repeatHandle.repeat();
+                        } finally {
+                            measurement.stop();
+                        }
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * @return an executor which measures the tasks it runs on behalf of this operation
+     */
+    public Executor measured(final Executor executor) {
+        return new Executor() {
+            @Override
+            public void execute(@Nonnull final Runnable command) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        Measurement measurement = startMeasurement();
+                        try {
+                            command.run();
+                        } finally {
+                            measurement.stop();
+                        }
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * Counts the rows a projection passes to its downstream. Must be called in the order of the projections.
+     *
+     * @param rowReceiver the downstream of the projection
+     * @return a RowReceiver which counts the rows passed to the given rowReceiver,
+     *         or the given rowReceiver itself if this operation isn't profiled
+     */
+    public RowReceiver countProjectionRowsOut(RowReceiver rowReceiver) {
+        if (!profiled) {
+            return rowReceiver;
+        }
+        final LongAdder counter = new LongAdder();
+        projectionRowsOut.add(counter);
+        return new ForwardingRowReceiver(rowReceiver) {
+            @Override
+            public Result setNextRow(Row row) {
+                counter.increment();
+                return super.setNextRow(row);
+            }
+        };
+    }
+
+    /**
+     * @return the cpu time in nanoseconds or -1 if the JVM doesn't support measuring it
+     */
+    public long cpuTimeNanos() {
+        return CPU_TIME_SUPPORTED ? cpuTimeNanos.sum() : -1L;
+    }
+
+    /**
+     * @return the allocated bytes or -1 if the JVM doesn't support measuring them
+     */
+    public long allocatedBytes() {
+        return ALLOCATED_BYTES_SUPPORTED ? allocatedBytes.sum() : -1L;
+    }
+
+    public long rowsIn() {
+        return rowsIn.sum();
+    }
+
+    public long rowsOut() {
+        return rowsOut.sum();
+    }
+
+    public long pagesSent() {
+        return pagesSent.sum();
+    }
+
+    public long bytesSent() {
+        return bytesSent.sum();
+    }
+
+    public long pagesReceived() {
+        return pagesReceived.sum();
+    }
+
+    public long bytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    /**
+     * @return the time in nanoseconds the operation was paused because its downstreams couldn't receive more pages
+     */
+    public long pausedNanos() {
+        return pausedNanos.sum();
+    }
+
+    /**
+     * @return the number of rows emitted by each projection, empty if this operation isn't profiled
+     */
+    public long[] projectionRowsOut() {
+        long[] rows = new long[projectionRowsOut.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = projectionRowsOut.get(i).sum();
+        }
+        return rows;
+    }
+
+    /**
+     * @return the average number of items per shard request of the bulk writers of this operation
+     *         or -1 if the operation doesn't write using adaptive bulk requests
+     */
+    public int bulkSize() {
+        long sum = 0;
+        int count = 0;
+        for (AdaptiveBulkController bulkController : bulkControllers) {
+            sum += bulkController.bulkSize();
+            count++;
+        }
+        return count == 0 ? -1 : (int) (sum / count);
+    }
+
+    /**
+     * @return the average number of requests per shard the bulk writers of this operation may have in flight
+     *         or -1 if the operation doesn't write using adaptive bulk requests
+     */
+    public int bulkConcurrency() {
+        long sum = 0;
+        int count = 0;
+        for (AdaptiveBulkController bulkController : bulkControllers) {
+            sum += bulkController.concurrency();
+            count++;
+        }
+        return count == 0 ? -1 : (int) (sum / count);
+    }
+
+    private static long currentThreadCpuTime() {
+        return CPU_TIME_SUPPORTED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0L;
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        return ALLOCATED_BYTES_SUPPORTED ? SUN_THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0L;
+    }
+
+    public static class Measurement {
+
+        private final OperationStats stats;
+        private final Measurement parent;
+        private final long cpuTimeStart;
+        private final long allocatedBytesStart;
+        private long nestedCpuTime = 0L;
+        private long nestedAllocatedBytes = 0L;
+
+        private Measurement(OperationStats stats, Measurement parent) {
+            this.stats = stats;
+            this.parent = parent;
+            cpuTimeStart = currentThreadCpuTime();
+            allocatedBytesStart = currentThreadAllocatedBytes();
+        }
+
+        public void stop() {
+            long cpuTime = currentThreadCpuTime() - cpuTimeStart;
+            long allocatedBytes = currentThreadAllocatedBytes() - allocatedBytesStart;
+            stats.cpuTimeNanos.add(cpuTime - nestedCpuTime);
+            stats.allocatedBytes.add(allocatedBytes - nestedAllocatedBytes);
+            if (parent != null) {
+                parent.nestedCpuTime += cpuTime;
+                parent.nestedAllocatedBytes += allocatedBytes;
+            }
+            CURRENT.set(parent);
+        }
+    }
+}
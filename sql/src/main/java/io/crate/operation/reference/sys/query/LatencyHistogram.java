@@ -0,0 +1,103 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.reference.sys.query;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Histogram of the latencies in microseconds of the last intervals, backed by a HdrHistogram {@link Recorder}.
+ *
+ * Recording is wait-free. The owner calls {@link #rotate()} at the end of every interval, which drops the values of
+ * the oldest interval. Reads are synchronized and merge the histograms of all intervals. Values are tracked with
+ * 2 significant digits, so a percentile is reported with a relative error of at most 1%. The memory is bound by the
+ * number of intervals, each histogram auto-resizes and only grows with the highest recorded value.
+ */
+public class LatencyHistogram {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram[] intervals;
+    private final Histogram window = new Histogram(SIGNIFICANT_DIGITS);
+    private int current = 0;
+    private Histogram recorded;
+
+    /**
+     * @param intervals number of intervals whose values are kept, including the current one
+     */
+    public LatencyHistogram(int intervals) {
+        assert intervals > 0 : "at least one interval is required";
+        this.intervals = new Histogram[intervals];
+        for (int i = 0; i < intervals; i++) {
+            this.intervals[i] = new Histogram(SIGNIFICANT_DIGITS);
+        }
+    }
+
+    public void record(long micros) {
+        recorder.recordValue(Math.max(0L, micros));
+    }
+
+    /**
+     * Starts a new interval, the values of the oldest interval are dropped.
+     */
+    public synchronized void rotate() {
+        drainRecorder();
+        current = (current + 1) % intervals.length;
+        intervals[current].reset();
+    }
+
+    public synchronized long count() {
+        return window().getTotalCount();
+    }
+
+    public synchronized long min() {
+        return window().getMinValue();
+    }
+
+    public synchronized long max() {
+        return window().getMaxValue();
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the highest value which is equivalent to the value at the given percentile, 0 if nothing was recorded
+     */
+    public synchronized long valueAtPercentile(double percentile) {
+        return window().getValueAtPercentile(Math.min(percentile, 100.0));
+    }
+
+    private Histogram window() {
+        drainRecorder();
+        window.reset();
+        for (Histogram interval : intervals) {
+            window.add(interval);
+        }
+        return window;
+    }
+
+    private void drainRecorder() {
+        recorded = recorder.getIntervalHistogram(recorded);
+        intervals[current].add(recorded);
+    }
+}
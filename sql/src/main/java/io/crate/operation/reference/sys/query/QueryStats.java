@@ -0,0 +1,187 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.reference.sys.query;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.twitter.jsr166e.LongAdder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of all statements which share the same {@link StatementFingerprint}.
+ * Shown in sys.query_stats.
+ *
+ * Calls, errors, rows and latencies cover the last hour. They are kept in {@link #INTERVALS} intervals of
+ * {@link #INTERVAL_NANOS}; once an interval has ended the values of the oldest one are dropped.
+ */
+public class QueryStats {
+
+    static final long INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(5);
+    static final int INTERVALS = 12;
+
+    private final String fingerprint;
+    private final Ticker ticker;
+    private final LatencyHistogram latencies = new LatencyHistogram(INTERVALS);
+    private final IntervalCounter errors = new IntervalCounter();
+    private final IntervalCounter rows = new IntervalCounter();
+    private final IntervalCounter totalTimeMicros = new IntervalCounter();
+    private final long firstExecuted;
+    private volatile long lastExecuted;
+    private volatile long intervalEnd;
+
+    public QueryStats(String fingerprint) {
+        this(fingerprint, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    QueryStats(String fingerprint, Ticker ticker) {
+        this.fingerprint = fingerprint;
+        this.ticker = ticker;
+        this.firstExecuted = System.currentTimeMillis();
+        this.lastExecuted = firstExecuted;
+        this.intervalEnd = ticker.read() + INTERVAL_NANOS;
+    }
+
+    /**
+     * @param rows number of returned or affected rows, negative if unknown
+     */
+    public void record(long durationMicros, long rows, boolean failed) {
+        rotateIfNeeded();
+        latencies.record(durationMicros);
+        totalTimeMicros.add(durationMicros);
+        if (failed) {
+            errors.add(1L);
+        } else if (rows > 0) {
+            this.rows.add(rows);
+        }
+        lastExecuted = System.currentTimeMillis();
+    }
+
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    public long calls() {
+        rotateIfNeeded();
+        return latencies.count();
+    }
+
+    public synchronized long errors() {
+        rotateIfNeeded();
+        return errors.sum();
+    }
+
+    public synchronized long rows() {
+        rotateIfNeeded();
+        return rows.sum();
+    }
+
+    public long firstExecuted() {
+        return firstExecuted;
+    }
+
+    public long lastExecuted() {
+        return lastExecuted;
+    }
+
+    /**
+     * all times in milliseconds
+     */
+    public synchronized double totalTime() {
+        rotateIfNeeded();
+        return totalTimeMicros.sum() / 1000.0;
+    }
+
+    public synchronized double meanTime() {
+        long calls = calls();
+        if (calls == 0) {
+            return 0.0;
+        }
+        return totalTimeMicros.sum() / 1000.0 / calls;
+    }
+
+    public double minTime() {
+        rotateIfNeeded();
+        return latencies.min() / 1000.0;
+    }
+
+    public double maxTime() {
+        rotateIfNeeded();
+        return latencies.max() / 1000.0;
+    }
+
+    public double percentileTime(double percentile) {
+        rotateIfNeeded();
+        return latencies.valueAtPercentile(percentile) / 1000.0;
+    }
+
+    private void rotateIfNeeded() {
+        if (ticker.read() >= intervalEnd) {
+            rotate();
+        }
+    }
+
+    private synchronized void rotate() {
+        long now = ticker.read();
+        if (now < intervalEnd) {
+            return;
+        }
+        long endedIntervals = (now - intervalEnd) / INTERVAL_NANOS + 1;
+        for (int i = 0; i < Math.min(endedIntervals, INTERVALS); i++) {
+            latencies.rotate();
+            errors.rotate();
+            rows.rotate();
+            totalTimeMicros.rotate();
+        }
+        intervalEnd += endedIntervals * INTERVAL_NANOS;
+    }
+
+    /**
+     * Sum of the values added in the last {@link #INTERVALS} intervals.
+     * {@link #rotate()} and {@link #sum()} must be called while holding the lock of the {@link QueryStats}.
+     */
+    private static class IntervalCounter {
+
+        private final LongAdder current = new LongAdder();
+        private final long[] ended = new long[INTERVALS - 1];
+        private int oldest = 0;
+
+        void add(long value) {
+            current.add(value);
+        }
+
+        void rotate() {
+            ended[oldest] = current.sumThenReset();
+            oldest = (oldest + 1) % ended.length;
+        }
+
+        long sum() {
+            long sum = current.sum();
+            for (long value : ended) {
+                sum += value;
+            }
+            return sum;
+        }
+    }
+}
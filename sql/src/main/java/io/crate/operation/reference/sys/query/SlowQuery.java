@@ -0,0 +1,248 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.reference.sys.query;
+
+import io.crate.action.sql.BulkArgs;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * A statement which took longer than the configured slow query threshold.
+ * Shown in sys.slow_queries and written to the slow query log file.
+ */
+public class SlowQuery {
+
+    static final int MAX_PARAMETERS_LENGTH = 1024;
+    static final String REDACTED = "?";
+
+    private final UUID jobId;
+    private final String stmt;
+    @Nullable
+    private final String parameters;
+    @Nullable
+    private final String plan;
+    private final List<String> nodes;
+    private final List<String> shards;
+    private final Map<String, Object> phases;
+    private final long started;
+    private final long ended;
+    private final double duration;
+    private final long rows;
+    @Nullable
+    private final String error;
+
+    /**
+     * @param durationNanos the time from receiving the request until the response was sent
+     * @param rows the number of returned or affected rows, negative if unknown
+     */
+    public SlowQuery(UUID jobId,
+                     String stmt,
+                     @Nullable String parameters,
+                     @Nullable String plan,
+                     List<String> nodes,
+                     List<String> shards,
+                     Map<String, Object> phases,
+                     long durationNanos,
+                     long rows,
+                     @Nullable String error) {
+        this.jobId = jobId;
+        this.stmt = stmt;
+        this.parameters = parameters;
+        this.plan = plan;
+        this.nodes = nodes;
+        this.shards = shards;
+        this.phases = phases;
+        this.ended = System.currentTimeMillis();
+        this.started = ended - durationNanos / 1_000_000;
+        this.duration = durationNanos / 1_000_000.0;
+        this.rows = rows;
+        this.error = error;
+    }
+
+    public UUID jobId() {
+        return jobId;
+    }
+
+    public String stmt() {
+        return stmt;
+    }
+
+    @Nullable
+    public String parameters() {
+        return parameters;
+    }
+
+    @Nullable
+    public String plan() {
+        return plan;
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    public List<String> shards() {
+        return shards;
+    }
+
+    public Map<String, Object> phases() {
+        return phases;
+    }
+
+    public long started() {
+        return started;
+    }
+
+    public long ended() {
+        return ended;
+    }
+
+    /**
+     * @return the duration in milliseconds
+     */
+    public double duration() {
+        return duration;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    @Nullable
+    public String error() {
+        return error;
+    }
+
+    /**
+     * Renders the parameters of a request, bulk args are rendered as nested lists.
+     * If redact is set every value is replaced by {@value #REDACTED} so that only the shape of
+     * the parameters is visible.
+     *
+     * @return the rendered parameters truncated to {@value #MAX_PARAMETERS_LENGTH} characters
+     *         or null if there are none
+     */
+    @Nullable
+    public static String renderParameters(Object[] args, Object[][] bulkArgs, boolean redact) {
+        return renderParameters(args, BulkArgs.of(bulkArgs), redact);
+    }
+
+    /**
+     * Like {@link #renderParameters(Object[], Object[][], boolean)}, the bulk args are rendered one argument set
+     * after another until the rendered parameters are truncated.
+     */
+    @Nullable
+    public static String renderParameters(Object[] args, BulkArgs bulkArgs, boolean redact) {
+        if (bulkArgs.size() > 0) {
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < bulkArgs.size() && sb.length() <= MAX_PARAMETERS_LENGTH; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                Object[] values = bulkArgs.get(i);
+                sb.append(Arrays.deepToString(redact ? redact(values) : values));
+            }
+            return truncate(sb.append(']').toString());
+        }
+        if (args.length == 0) {
+            return null;
+        }
+        return truncate(Arrays.deepToString(redact ? redact(args) : args));
+    }
+
+    private static String truncate(String rendered) {
+        if (rendered.length() > MAX_PARAMETERS_LENGTH) {
+            return rendered.substring(0, MAX_PARAMETERS_LENGTH) + "...";
+        }
+        return rendered;
+    }
+
+    private static Object[] redact(Object[] values) {
+        Object[] redacted = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] instanceof Object[]) {
+                redacted[i] = redact((Object[]) values[i]);
+            } else {
+                redacted[i] = REDACTED;
+            }
+        }
+        return redacted;
+    }
+
+    /**
+     * Collects the execution nodes and the routed shards of all phases of a plan printed by
+     * {@link io.crate.planner.PlanPrinter}. Shards are formatted as <code>[index][shardId]</code>.
+     */
+    public static void collectNodesAndShards(Map<String, ?> planMap, Set<String> nodes, Set<String> shards) {
+        for (Map.Entry<String, ?> entry : planMap.entrySet()) {
+            Object value = entry.getValue();
+            if (entry.getKey().equals("executionNodes") && value instanceof Collection) {
+                for (Object node : (Collection<?>) value) {
+                    nodes.add(String.valueOf(node));
+                }
+            } else if (entry.getKey().equals("routing") && value instanceof Map) {
+                collectRouting((Map<?, ?>) value, nodes, shards);
+            } else if (value instanceof Map) {
+                //noinspection unchecked
+                collectNodesAndShards((Map<String, ?>) value, nodes, shards);
+            }
+        }
+    }
+
+    private static void collectRouting(Map<?, ?> locations, Set<String> nodes, Set<String> shards) {
+        for (Map.Entry<?, ?> nodeEntry : locations.entrySet()) {
+            nodes.add(String.valueOf(nodeEntry.getKey()));
+            if (!(nodeEntry.getValue() instanceof Map)) {
+                continue;
+            }
+            for (Map.Entry<?, ?> indexEntry : ((Map<?, ?>) nodeEntry.getValue()).entrySet()) {
+                if (!(indexEntry.getValue() instanceof Collection)) {
+                    continue;
+                }
+                for (Object shardId : (Collection<?>) indexEntry.getValue()) {
+                    shards.add("[" + indexEntry.getKey() + "][" + shardId + "]");
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a single line which is written to the slow query log file
+     */
+    public String toLogMessage() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("took[").append(duration).append("ms], ")
+            .append("job[").append(jobId).append("], ")
+            .append("rows[").append(rows).append("], ");
+        if (error != null) {
+            sb.append("error[").append(error).append("], ");
+        }
+        sb.append("nodes").append(nodes).append(", ")
+            .append("shards").append(shards).append(", ")
+            .append("phases[").append(phases).append("], ")
+            .append("stmt[").append(stmt).append("], ")
+            .append("parameters[").append(parameters == null ? "" : parameters).append("], ")
+            .append("plan[").append(plan == null ? "" : plan).append("]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.reference.sys.query;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+
+/**
+ * Normalizes SQL statements so that statements which only differ in literal values, parameter
+ * placeholders, whitespace or the case of keywords and unquoted identifiers share the same fingerprint.
+ *
+ * <pre>
+ *     SELECT name FROM t WHERE id IN (1, 2,3) AND x = 'foo'
+ * </pre>
+ * becomes
+ * <pre>
+ *     select name from t where id in (?) and x = ?
+ * </pre>
+ *
+ * Only the lists of an IN predicate or a VALUES row are collapsed, so that they result in the same
+ * fingerprint regardless of their length. Other lists, e.g. function arguments, keep one
+ * placeholder per literal.
+ *
+ * The normalization is purely lexical, the statement doesn't have to be valid.
+ */
+public final class StatementFingerprint {
+
+    private StatementFingerprint() {}
+
+    public static String of(String stmt) {
+        StringBuilder sb = new StringBuilder(stmt.length());
+        int length = stmt.length();
+        int i = 0;
+        // one entry per open parenthesis, true if it opens an IN list or a VALUES row
+        Deque<Boolean> collapsibleLists = new ArrayDeque<>();
+        while (i < length) {
+            char c = stmt.charAt(i);
+            if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(stmt.charAt(i))) {
+                    i++;
+                }
+                if (sb.length() > 0 && i < length) {
+                    sb.append(' ');
+                }
+            } else if (c == '\'') {
+                i = skipQuoted(stmt, i, '\'');
+                appendPlaceholder(sb, collapsibleLists);
+            } else if (c == '"') {
+                int end = skipQuoted(stmt, i, '"');
+                sb.append(stmt, i, end);
+                i = end;
+            } else if (c == '?' || c == '$' && i + 1 < length && Character.isDigit(stmt.charAt(i + 1))) {
+                i++;
+                while (i < length && Character.isDigit(stmt.charAt(i))) {
+                    i++;
+                }
+                appendPlaceholder(sb, collapsibleLists);
+            } else if (Character.isDigit(c) || c == '.' && i + 1 < length && Character.isDigit(stmt.charAt(i + 1))) {
+                i = skipNumber(stmt, i);
+                appendPlaceholder(sb, collapsibleLists);
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < length && (Character.isLetterOrDigit(stmt.charAt(i)) || stmt.charAt(i) == '_')) {
+                    i++;
+                }
+                sb.append(stmt.substring(start, i).toLowerCase(Locale.ENGLISH));
+            } else if (c == '(') {
+                collapsibleLists.push(endsWithKeyword(sb, "in") || endsWithKeyword(sb, "values"));
+                sb.append(c);
+                i++;
+            } else if (c == ')') {
+                collapsibleLists.poll();
+                sb.append(c);
+                i++;
+            } else if (c == ';' && isTrailing(stmt, i + 1)) {
+                i = length;
+            } else {
+                sb.append(c);
+                i++;
+            }
+        }
+        int end = sb.length();
+        while (end > 0 && sb.charAt(end - 1) == ' ') {
+            end--;
+        }
+        sb.setLength(end);
+        return sb.toString();
+    }
+
+    /**
+     * appends a placeholder; inside an IN list or a VALUES row a list of placeholders like "?, ?, ?"
+     * is collapsed into a single one.
+     */
+    private static void appendPlaceholder(StringBuilder sb, Deque<Boolean> collapsibleLists) {
+        Boolean collapsible = collapsibleLists.peek();
+        if (collapsible == null || !collapsible) {
+            sb.append('?');
+            return;
+        }
+        int pos = sb.length();
+        while (pos > 0 && sb.charAt(pos - 1) == ' ') {
+            pos--;
+        }
+        if (pos > 0 && sb.charAt(pos - 1) == ',') {
+            pos--;
+            while (pos > 0 && sb.charAt(pos - 1) == ' ') {
+                pos--;
+            }
+            if (pos > 0 && sb.charAt(pos - 1) == '?') {
+                sb.setLength(pos);
+                return;
+            }
+        }
+        sb.append('?');
+    }
+
+    private static boolean endsWithKeyword(StringBuilder sb, String keyword) {
+        int end = sb.length();
+        while (end > 0 && sb.charAt(end - 1) == ' ') {
+            end--;
+        }
+        int start = end - keyword.length();
+        if (start < 0 || !sb.substring(start, end).equals(keyword)) {
+            return false;
+        }
+        if (start == 0) {
+            return true;
+        }
+        char before = sb.charAt(start - 1);
+        return !Character.isLetterOrDigit(before) && before != '_' && before != '"';
+    }
+
+    private static int skipQuoted(String stmt, int start, char quote) {
+        int i = start + 1;
+        int length = stmt.length();
+        while (i < length) {
+            if (stmt.charAt(i) == quote) {
+                if (i + 1 < length && stmt.charAt(i + 1) == quote) {
+                    // escaped quote
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    private static int skipNumber(String stmt, int start) {
+        int i = start;
+        int length = stmt.length();
+        while (i < length) {
+            char c = stmt.charAt(i);
+            if (Character.isDigit(c) || c == '.') {
+                i++;
+            } else if ((c == 'e' || c == 'E') && i + 1 < length
+                       && (Character.isDigit(stmt.charAt(i + 1)) || stmt.charAt(i + 1) == '-' || stmt.charAt(i + 1) == '+')) {
+                i += 2;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isTrailing(String stmt, int from) {
+        for (int i = from; i < stmt.length(); i++) {
+            if (!Character.isWhitespace(stmt.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -131,7 +131,8 @@ public class PlanPrinter {
 
         @Override
         public ImmutableMap.Builder<String, Object> visitCountPhase(CountPhase phase, Void context) {
-            return upstreamPhase(phase, visitExecutionPhase(phase, context));
+            return upstreamPhase(phase, visitExecutionPhase(phase, context))
+                    .put("routing", phase.routing().locations());
         }
 
         @Override
@@ -216,6 +217,24 @@ public class PlanPrinter {
             return b;
         }
 
+        @Override
+        public ImmutableMap.Builder<String, Object> visitDistributedGroupBy(DistributedGroupBy plan, Void context) {
+            ImmutableMap.Builder<String, Object> b = visitPlan(plan, context)
+                    .put("collectPhase", phaseMap(plan.collectNode()))
+                    .put("reducerMergePhase", phaseMap(plan.reducerMergeNode()));
+            if (plan.localMergeNode() != null) {
+                b.put("localMerge", phaseMap(plan.localMergeNode()));
+            }
+            return b;
+        }
+
+        @Override
+        public ImmutableMap.Builder<String, Object> visitCountPlan(CountPlan plan, Void context) {
+            return visitPlan(plan, context)
+                    .put("countPhase", phaseMap(plan.countNode()))
+                    .put("localMerge", phaseMap(plan.mergeNode()));
+        }
+
         @Override
         public ImmutableMap.Builder<String, Object> visitInsertByQuery(InsertFromSubQuery node, Void context) {
             ImmutableMap.Builder<String, Object> builder = visitPlan(node, context);
@@ -29,6 +29,7 @@ import io.crate.analyze.relations.*;
 import io.crate.analyze.symbol.*;
 import io.crate.analyze.where.DocKeys;
 import io.crate.metadata.*;
+import io.crate.metadata.doc.DocSysColumns;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.planner.Plan;
 import io.crate.planner.Planner;
@@ -91,8 +92,8 @@ public class UpdateConsumer implements Consumer {
 
             List<Plan> childNodes = new ArrayList<>(statement.nestedStatements().size());
             UpsertById upsertById = null;
-            int bulkIdx = 0;
-            for (UpdateAnalyzedStatement.NestedAnalyzedStatement nestedAnalysis : statement.nestedStatements()) {
+            for (int bulkIdx = 0; bulkIdx < statement.nestedStatements().size(); bulkIdx++) {
+                UpdateAnalyzedStatement.NestedAnalyzedStatement nestedAnalysis = statement.nestedStatements().get(bulkIdx);
                 WhereClause whereClause = nestedAnalysis.whereClause();
                 if (whereClause.noMatch()){
                     continue;
@@ -114,7 +115,7 @@ public class UpdateConsumer implements Consumer {
                             null
                         );
                     }
-                    upsertById(nestedAnalysis, tableInfo, whereClause, upsertById, bulkIdx++);
+                    upsertById(nestedAnalysis, tableInfo, whereClause, upsertById, bulkIdx);
                 } else {
                     Plan plan = upsertByQuery(nestedAnalysis, plannerContext, tableInfo, whereClause);
                     if (plan != null) {
@@ -223,11 +224,15 @@ public class UpdateConsumer implements Consumer {
                 version = ValueSymbolVisitor.LONG.process(versionSymbol);
             }
 
+            // the version and the source are read along with the `_uid`, so the assignments can be applied
+            // to the collected documents without fetching them again by id
             UpdateProjection updateProjection = new UpdateProjection(
                 new InputColumn(0, DataTypes.STRING),
                 assignments.v1(),
                 assignments.v2(),
-                version);
+                version,
+                new InputColumn(1, DataTypes.LONG),
+                new InputColumn(2, DataTypes.STRING));
 
             Routing routing = plannerContext.allocateRouting(tableInfo, whereClause, Preference.PRIMARY.type());
             RoutedCollectPhase collectPhase = new RoutedCollectPhase(
@@ -236,7 +241,10 @@ public class UpdateConsumer implements Consumer {
                 "collect",
                 routing,
                 tableInfo.rowGranularity(),
-                ImmutableList.<Symbol>of(uidReference),
+                ImmutableList.<Symbol>of(
+                    uidReference,
+                    new Reference(DocSysColumns.forTable(tableInfo.ident(), DocSysColumns.VERSION)),
+                    new Reference(DocSysColumns.forTable(tableInfo.ident(), DocSysColumns.RAW))),
                 ImmutableList.<Projection>of(updateProjection),
                 whereClause,
                 DistributionInfo.DEFAULT_BROADCAST
@@ -26,6 +26,7 @@ import io.crate.metadata.doc.DocTableInfo;
 import io.crate.planner.Plan;
 import io.crate.planner.PlanVisitor;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
@@ -35,15 +36,34 @@ public class ESDelete implements Plan {
     private final int executionPhaseId;
     private final DocTableInfo tableInfo;
     private final List<DocKeys.DocKey> docKeys;
+    private final List<Integer> bulkIndices;
+    private final int numBulkResponses;
 
     public ESDelete(UUID jobId,
                     int executionPhaseId,
                     DocTableInfo tableInfo,
                     List<DocKeys.DocKey> docKeys) {
+        this(jobId, executionPhaseId, tableInfo, docKeys, Collections.<Integer>emptyList(), 0);
+    }
+
+    /**
+     * @param bulkIndices      the index of the bulk argument set each doc key belongs to
+     * @param numBulkResponses the number of bulk argument sets, 0 if this isn't a bulk operation
+     */
+    public ESDelete(UUID jobId,
+                    int executionPhaseId,
+                    DocTableInfo tableInfo,
+                    List<DocKeys.DocKey> docKeys,
+                    List<Integer> bulkIndices,
+                    int numBulkResponses) {
+        assert numBulkResponses == 0 || bulkIndices.size() == docKeys.size()
+            : "there must be a bulk index for each doc key";
         this.jobId = jobId;
         this.executionPhaseId = executionPhaseId;
         this.tableInfo = tableInfo;
         this.docKeys = docKeys;
+        this.bulkIndices = bulkIndices;
+        this.numBulkResponses = numBulkResponses;
     }
 
     public int executionPhaseId() {
@@ -58,6 +78,14 @@ public class ESDelete implements Plan {
         return docKeys;
     }
 
+    public List<Integer> bulkIndices() {
+        return bulkIndices;
+    }
+
+    public int numBulkResponses() {
+        return numBulkResponses;
+    }
+
     @Override
     public <C, R> R accept(PlanVisitor<C, R> visitor, C context) {
         return visitor.visitESDelete(this, context);
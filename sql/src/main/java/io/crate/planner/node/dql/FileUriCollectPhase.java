@@ -24,6 +24,7 @@ package io.crate.planner.node.dql;
 import com.google.common.base.MoreObjects;
 import io.crate.analyze.EvaluatingNormalizer;
 import io.crate.analyze.symbol.Symbol;
+import io.crate.operation.collect.files.CSVOptions;
 import io.crate.operation.collect.files.FileReadingCollector;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.node.ExecutionPhaseVisitor;
@@ -52,6 +53,9 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
     private List<Symbol> toCollect;
     private String compression;
     private Boolean sharedStorage;
+    private FileReadingCollector.FileFormat fileFormat;
+    @Nullable
+    private CSVOptions csvOptions;
     private DistributionInfo distributionInfo = DistributionInfo.DEFAULT_BROADCAST;
 
     private FileUriCollectPhase() {
@@ -66,13 +70,17 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
                                List<Symbol> toCollect,
                                List<Projection> projections,
                                String compression,
-                               Boolean sharedStorage) {
+                               Boolean sharedStorage,
+                               FileReadingCollector.FileFormat fileFormat,
+                               @Nullable CSVOptions csvOptions) {
         super(jobId, phaseId, name, projections);
         this.executionNodes = executionNodes;
         this.targetUri = targetUri;
         this.toCollect = toCollect;
         this.compression = compression;
         this.sharedStorage = sharedStorage;
+        this.fileFormat = fileFormat;
+        this.csvOptions = csvOptions;
         outputTypes = extractOutputTypes(toCollect, projections);
     }
 
@@ -95,7 +103,12 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
     }
 
     public FileReadingCollector.FileFormat fileFormat() {
-        return FileReadingCollector.FileFormat.JSON;
+        return fileFormat;
+    }
+
+    @Nullable
+    public CSVOptions csvOptions() {
+        return csvOptions;
     }
 
     @Override
@@ -119,7 +132,9 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
                 normalizedToCollect,
                 projections(),
                 compression(),
-                sharedStorage());
+                sharedStorage(),
+                fileFormat,
+                csvOptions);
     }
 
     @Nullable
@@ -141,6 +156,10 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
         }
         this.executionNodes = nodes;
         toCollect = Symbol.listFromStream(in);
+        fileFormat = FileReadingCollector.FileFormat.values()[in.readVInt()];
+        if (in.readBoolean()) {
+            csvOptions = CSVOptions.fromStream(in);
+        }
     }
 
     @Override
@@ -154,6 +173,11 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
             out.writeString(node);
         }
         Symbol.toStream(toCollect, out);
+        out.writeVInt(fileFormat.ordinal());
+        out.writeBoolean(csvOptions != null);
+        if (csvOptions != null) {
+            csvOptions.writeTo(out);
+        }
     }
 
     @Override
@@ -165,6 +189,8 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
                 .add("outputTypes", outputTypes)
                 .add("compression", compression)
                 .add("sharedStorageDefault", sharedStorage)
+                .add("fileFormat", fileFormat)
+                .add("csvOptions", csvOptions)
                 .toString();
     }
 
@@ -30,9 +30,15 @@ import java.util.UUID;
 public class ExplainPlan implements Plan {
 
     private final Plan subPlan;
+    private final boolean analyze;
 
     public ExplainPlan(Plan subPlan) {
+        this(subPlan, false);
+    }
+
+    public ExplainPlan(Plan subPlan, boolean analyze) {
         this.subPlan = subPlan;
+        this.analyze = analyze;
     }
 
     @Override
@@ -48,4 +54,11 @@ public class ExplainPlan implements Plan {
     public Plan subPlan() {
         return subPlan;
     }
+
+    /**
+     * @return true if the subPlan has to be executed to annotate it with its execution statistics
+     */
+    public boolean analyze() {
+        return analyze;
+    }
 }
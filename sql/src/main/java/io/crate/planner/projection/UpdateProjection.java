@@ -44,14 +44,35 @@ public class UpdateProjection extends DMLProjection {
     @Nullable
     private Long requiredVersion;
 
+    /**
+     * Version and source of the collected documents, the assignments are then applied to them
+     * instead of fetching each document again before updating it
+     */
+    @Nullable
+    private Symbol versionSymbol;
+    @Nullable
+    private Symbol sourceSymbol;
+
     public UpdateProjection(Symbol uidSymbol,
                             String[] assignmentsColumns,
                             Symbol[] assignments,
                             @Nullable Long requiredVersion) {
+        this(uidSymbol, assignmentsColumns, assignments, requiredVersion, null, null);
+    }
+
+    public UpdateProjection(Symbol uidSymbol,
+                            String[] assignmentsColumns,
+                            Symbol[] assignments,
+                            @Nullable Long requiredVersion,
+                            @Nullable Symbol versionSymbol,
+                            @Nullable Symbol sourceSymbol) {
         super(uidSymbol);
+        assert (versionSymbol == null) == (sourceSymbol == null) : "version and source must be collected together";
         this.assignmentsColumns = assignmentsColumns;
         this.assignments = assignments;
         this.requiredVersion = requiredVersion;
+        this.versionSymbol = versionSymbol;
+        this.sourceSymbol = sourceSymbol;
     }
 
     public UpdateProjection() {
@@ -70,6 +91,16 @@ public class UpdateProjection extends DMLProjection {
         return requiredVersion;
     }
 
+    @Nullable
+    public Symbol versionSymbol() {
+        return versionSymbol;
+    }
+
+    @Nullable
+    public Symbol sourceSymbol() {
+        return sourceSymbol;
+    }
+
     @Override
     public ProjectionType projectionType() {
         return ProjectionType.UPDATE;
@@ -92,6 +123,10 @@ public class UpdateProjection extends DMLProjection {
         if (requiredVersion != null ? !requiredVersion.equals(that.requiredVersion) : that.requiredVersion != null)
             return false;
         if (!uidSymbol.equals(that.uidSymbol)) return false;
+        if (versionSymbol != null ? !versionSymbol.equals(that.versionSymbol) : that.versionSymbol != null)
+            return false;
+        if (sourceSymbol != null ? !sourceSymbol.equals(that.sourceSymbol) : that.sourceSymbol != null)
+            return false;
 
         return true;
     }
@@ -103,6 +138,8 @@ public class UpdateProjection extends DMLProjection {
         result = 31 * result + Arrays.hashCode(assignmentsColumns);
         result = 31 * result + (requiredVersion != null ? requiredVersion.hashCode() : 0);
         result = 31 * result + uidSymbol.hashCode();
+        result = 31 * result + (versionSymbol != null ? versionSymbol.hashCode() : 0);
+        result = 31 * result + (sourceSymbol != null ? sourceSymbol.hashCode() : 0);
         return result;
     }
 
@@ -123,6 +160,10 @@ public class UpdateProjection extends DMLProjection {
         if (requiredVersion == 0) {
             requiredVersion = null;
         }
+        if (in.readBoolean()) {
+            versionSymbol = Symbol.fromStream(in);
+            sourceSymbol = Symbol.fromStream(in);
+        }
     }
 
     @Override
@@ -141,5 +182,12 @@ public class UpdateProjection extends DMLProjection {
         } else {
             out.writeVLong(requiredVersion);
         }
+        if (versionSymbol == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            Symbol.toStream(versionSymbol, out);
+            Symbol.toStream(sourceSymbol, out);
+        }
     }
 }
@@ -49,12 +49,8 @@ public class WriterProjection extends Projection {
     private final static Reference PARTITION_IDENT_REF = new Reference(new ReferenceInfo(SysShardsTableInfo.ReferenceIdents.PARTITION_IDENT, RowGranularity.SHARD, StringType.INSTANCE));
 
 
-    public static final Symbol DIRECTORY_TO_FILENAME = new Function(new FunctionInfo(
-            new FunctionIdent(FormatFunction.NAME, Arrays.<DataType>asList(StringType.INSTANCE,
-                    StringType.INSTANCE, StringType.INSTANCE, StringType.INSTANCE)),
-            StringType.INSTANCE),
-            Arrays.<Symbol>asList(Literal.newLiteral("%s_%s_%s.json"), TABLE_NAME_REF, SHARD_ID_REF, PARTITION_IDENT_REF)
-    );
+    public static final Symbol DIRECTORY_TO_FILENAME = directoryToFileName("%s_%s_%s.json");
+    public static final Symbol DIRECTORY_TO_COLUMNAR_FILENAME = directoryToFileName("%s_%s_%s.col");
 
     private Symbol uri;
     private boolean isDirectoryUri;
@@ -73,7 +69,8 @@ public class WriterProjection extends Projection {
 
     public enum OutputFormat {
         JSON_OBJECT,
-        JSON_ARRAY
+        JSON_ARRAY,
+        COLUMNAR
     }
 
     private CompressionType compressionType;
@@ -99,6 +96,15 @@ public class WriterProjection extends Projection {
         this.compressionType = compressionType;
     }
 
+    private static Symbol directoryToFileName(String format) {
+        return new Function(new FunctionInfo(
+                new FunctionIdent(FormatFunction.NAME, Arrays.<DataType>asList(StringType.INSTANCE,
+                        StringType.INSTANCE, StringType.INSTANCE, StringType.INSTANCE)),
+                StringType.INSTANCE),
+                Arrays.<Symbol>asList(Literal.newLiteral(format), TABLE_NAME_REF, SHARD_ID_REF, PARTITION_IDENT_REF)
+        );
+    }
+
     public static final ProjectionFactory<WriterProjection> FACTORY = new ProjectionFactory<WriterProjection>() {
         @Override
         public WriterProjection newInstance() {
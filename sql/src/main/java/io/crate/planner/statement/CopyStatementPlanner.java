@@ -38,6 +38,8 @@ import io.crate.metadata.PartitionName;
 import io.crate.metadata.ReferenceInfo;
 import io.crate.metadata.doc.DocSysColumns;
 import io.crate.metadata.doc.DocTableInfo;
+import io.crate.operation.collect.files.CSVOptions;
+import io.crate.operation.collect.files.FileReadingCollector;
 import io.crate.planner.Plan;
 import io.crate.planner.Planner;
 import io.crate.planner.consumer.ConsumerContext;
@@ -166,6 +168,17 @@ public class CopyStatementPlanner {
             }
         }
 
+        FileReadingCollector.FileFormat fileFormat = FileReadingCollector.FileFormat.valueOf(
+            analysis.settings().get(CSVOptions.FORMAT, "json").toUpperCase(Locale.ENGLISH));
+        CSVOptions csvOptions = null;
+        if (fileFormat == FileReadingCollector.FileFormat.CSV) {
+            List<Symbol> columns = new ArrayList<>(table.columns().size());
+            for (ReferenceInfo column : table.columns()) {
+                columns.add(new Reference(column));
+            }
+            csvOptions = CSVOptions.fromSettings(analysis.settings(), columns);
+        }
+
         DiscoveryNodes allNodes = clusterService.state().nodes();
         FileUriCollectPhase collectPhase = new FileUriCollectPhase(
             context.jobId(),
@@ -176,7 +189,9 @@ public class CopyStatementPlanner {
             toCollect,
             projections,
             analysis.settings().get("compression", null),
-            analysis.settings().getAsBoolean("shared", null)
+            analysis.settings().getAsBoolean("shared", null),
+            fileFormat,
+            csvOptions
         );
 
         return new CollectAndMerge(collectPhase, MergePhase.localMerge(
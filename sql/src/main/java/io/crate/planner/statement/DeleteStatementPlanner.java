@@ -64,18 +64,27 @@ public class DeleteStatementPlanner {
         DocTableRelation tableRelation = analyzedStatement.analyzedRelation();
         List<WhereClause> whereClauses = new ArrayList<>(analyzedStatement.whereClauses().size());
         List<DocKeys.DocKey> docKeys = new ArrayList<>(analyzedStatement.whereClauses().size());
-        for (WhereClause whereClause : analyzedStatement.whereClauses()) {
+        List<Integer> bulkIndices = new ArrayList<>(analyzedStatement.whereClauses().size());
+        for (int i = 0; i < analyzedStatement.whereClauses().size(); i++) {
+            WhereClause whereClause = analyzedStatement.whereClauses().get(i);
             if (whereClause.noMatch()) {
                 continue;
             }
             if (whereClause.docKeys().isPresent() && whereClause.docKeys().get().size() == 1) {
                 docKeys.add(whereClause.docKeys().get().getOnlyKey());
-            } else if (!whereClause.noMatch()) {
+                bulkIndices.add(i);
+            } else {
                 whereClauses.add(whereClause);
             }
         }
         if (!docKeys.isEmpty()) {
-            return new ESDelete(context.jobId(), context.nextExecutionPhaseId(), tableRelation.tableInfo(), docKeys);
+            int numBulkResponses = analyzedStatement.whereClauses().size();
+            if (numBulkResponses == 1) {
+                // disable bulk logic for 1 bulk item
+                numBulkResponses = 0;
+            }
+            return new ESDelete(context.jobId(), context.nextExecutionPhaseId(), tableRelation.tableInfo(),
+                docKeys, bulkIndices, numBulkResponses);
         } else if (!whereClauses.isEmpty()) {
             return deleteByQuery(tableRelation.tableInfo(), whereClauses, context);
         }
@@ -70,14 +70,14 @@ public class RestSQLAction extends BaseRestHandler {
         }
 
         Object[] args = context.args();
-        Object[][] bulkArgs = context.bulkArgs();
-        if(args != null && args.length > 0 && bulkArgs != null && bulkArgs.length > 0){
+        BulkArgs bulkArgs = context.bulkArgs();
+        if(args != null && args.length > 0 && bulkArgs != null && bulkArgs.size() > 0){
             channel.sendResponse(new CrateThrowableRestResponse(channel,
                     new SQLActionException("request body contains args and bulk_args. It's forbidden to provide both",
                             4000, RestStatus.BAD_REQUEST)));
             return;
         }
-        if (bulkArgs != null && bulkArgs.length > 0) {
+        if (bulkArgs != null && bulkArgs.size() > 0) {
             executeBulkRequest(context, request, channel, client);
         } else {
             executeSimpleRequest(context, request, channel, client);
@@ -0,0 +1,173 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+
+/**
+ * Tunes the number of items per shard request and the number of concurrent requests per shard
+ * of a {@link BulkShardProcessor} using additive increase / multiplicative decrease.
+ *
+ * Once as many requests as are allowed to be in flight per shard were answered within the target latency,
+ * the bulk size grows by a fixed step and one more request per shard may be in flight.
+ * A rejected request or a response that took longer than the target latency halves both.
+ * Only requests that were sent after the last decrease can cause another decrease, so that the responses
+ * of the requests that were already in flight during a congestion don't shrink the limits again.
+ *
+ * The configured bulk size is the initial bulk size, it may shrink to a sixteenth and grow to four times of it.
+ */
+public class AdaptiveBulkController {
+
+    public static final String SETTINGS_PREFIX = "bulk.adaptive.";
+    public static final String ENABLED_SETTING = SETTINGS_PREFIX + "enabled";
+    public static final String TARGET_LATENCY_SETTING = SETTINGS_PREFIX + "target_latency";
+    public static final String MAX_CONCURRENCY_SETTING = SETTINGS_PREFIX + "max_concurrency";
+
+    public static final boolean DEFAULT_ENABLED = true;
+    public static final TimeValue DEFAULT_TARGET_LATENCY = TimeValue.timeValueSeconds(1);
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+    static final int MIN_BULK_SIZE_DIVISOR = 16;
+    static final int MAX_BULK_SIZE_FACTOR = 4;
+    static final int INCREASE_STEPS = 8;
+
+    private final boolean enabled;
+    private final int minBulkSize;
+    private final int maxBulkSize;
+    private final int increaseStep;
+    private final int maxConcurrency;
+    private final long targetLatencyNanos;
+
+    private int bulkSize;
+    private int concurrency;
+    private int onTargetResponses = 0;
+    private long lastDecreaseNanos = Long.MIN_VALUE;
+    private long rejections = 0;
+
+    public static AdaptiveBulkController fromSettings(Settings settings, int bulkSize) {
+        if (!settings.getAsBoolean(ENABLED_SETTING, DEFAULT_ENABLED)) {
+            return fixed(bulkSize);
+        }
+        return new AdaptiveBulkController(
+            bulkSize,
+            settings.getAsInt(MAX_CONCURRENCY_SETTING, DEFAULT_MAX_CONCURRENCY),
+            settings.getAsTime(TARGET_LATENCY_SETTING, DEFAULT_TARGET_LATENCY).nanos());
+    }
+
+    /**
+     * @return a controller which keeps the given bulk size and doesn't limit the requests in flight
+     */
+    public static AdaptiveBulkController fixed(int bulkSize) {
+        return new AdaptiveBulkController(false, bulkSize, Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    public AdaptiveBulkController(int bulkSize, int maxConcurrency, long targetLatencyNanos) {
+        this(true, bulkSize, maxConcurrency, targetLatencyNanos);
+    }
+
+    private AdaptiveBulkController(boolean enabled, int bulkSize, int maxConcurrency, long targetLatencyNanos) {
+        this.enabled = enabled;
+        this.bulkSize = Math.max(1, bulkSize);
+        this.minBulkSize = Math.max(1, this.bulkSize / MIN_BULK_SIZE_DIVISOR);
+        this.maxBulkSize = enabled ? this.bulkSize * MAX_BULK_SIZE_FACTOR : this.bulkSize;
+        this.increaseStep = Math.max(1, this.bulkSize / INCREASE_STEPS);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.concurrency = enabled ? 1 : this.maxConcurrency;
+        this.targetLatencyNanos = targetLatencyNanos;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the number of items after which the request of a shard is sent
+     */
+    public synchronized int bulkSize() {
+        return bulkSize;
+    }
+
+    /**
+     * @return the number of requests that may be in flight per shard
+     */
+    public synchronized int concurrency() {
+        return concurrency;
+    }
+
+    /**
+     * @return the number of requests that were rejected by the shards
+     */
+    public synchronized long rejections() {
+        return rejections;
+    }
+
+    /**
+     * @param sentNanos the {@link System#nanoTime()} at which the request was sent
+     * @param receivedNanos the {@link System#nanoTime()} at which the response was received
+     */
+    public synchronized void onResponse(long sentNanos, long receivedNanos) {
+        if (!enabled) {
+            return;
+        }
+        if (receivedNanos - sentNanos > targetLatencyNanos) {
+            decrease(sentNanos, receivedNanos);
+            return;
+        }
+        onTargetResponses++;
+        if (onTargetResponses >= concurrency) {
+            onTargetResponses = 0;
+            bulkSize = Math.min(maxBulkSize, bulkSize + increaseStep);
+            concurrency = Math.min(maxConcurrency, concurrency + 1);
+        }
+    }
+
+    /**
+     * @param sentNanos the {@link System#nanoTime()} at which the rejected request was sent
+     * @param rejectedNanos the {@link System#nanoTime()} at which the rejection was received
+     */
+    public synchronized void onRejected(long sentNanos, long rejectedNanos) {
+        rejections++;
+        if (enabled) {
+            decrease(sentNanos, rejectedNanos);
+        }
+    }
+
+    private void decrease(long sentNanos, long nowNanos) {
+        onTargetResponses = 0;
+        if (sentNanos < lastDecreaseNanos) {
+            return;
+        }
+        lastDecreaseNanos = nowNanos;
+        bulkSize = Math.max(minBulkSize, bulkSize / 2);
+        concurrency = Math.max(1, concurrency / 2);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "AdaptiveBulkController{bulkSize=" + bulkSize +
+               ", concurrency=" + concurrency +
+               ", rejections=" + rejections +
+               ", targetLatency=" + TimeValue.timeValueNanos(targetLatencyNanos) + '}';
+    }
+}
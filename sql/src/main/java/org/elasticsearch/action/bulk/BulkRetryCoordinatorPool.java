@@ -51,6 +51,7 @@ public class BulkRetryCoordinatorPool extends AbstractLifecycleComponent<BulkRet
     private final Map<ShardId, BulkRetryCoordinator> coordinatorsByShardId;
     private final ClusterService clusterService;
     private final ThreadPool threadPool;
+    private final ShardBatchStats shardBatchStats = new ShardBatchStats();
 
     @Inject
     public BulkRetryCoordinatorPool(Settings settings,
@@ -97,6 +98,10 @@ public class BulkRetryCoordinatorPool extends AbstractLifecycleComponent<BulkRet
         }
     }
 
+    public ShardBatchStats shardBatchStats() {
+        return shardBatchStats;
+    }
+
     @Override
     protected void doStart() throws ElasticsearchException {
         clusterService.addLast(this);
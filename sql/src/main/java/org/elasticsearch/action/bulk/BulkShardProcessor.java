@@ -53,6 +53,7 @@ import javax.annotation.Nullable;
 import java.util.*;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -61,21 +62,37 @@ import java.util.concurrent.atomic.AtomicReference;
  *
  * If the Bulk threadPool Queue is full retries are made and
  * the {@link #add} method will start to block.
+ *
+ * By default the requests of all shards are sent once {@code bulkSize} items have been added.
+ * If a shard batch size in bytes is given, the items are buffered per shard instead and the request of a shard
+ * is sent once it contains {@code bulkSize} items or reaches the shard batch size. If all buffered items exceed
+ * the buffer size, the largest requests are sent until the buffer is half empty.
+ *
+ * The bulk size and the number of requests that may be in flight per shard are tuned by an
+ * {@link AdaptiveBulkController} from the latency of the responses and the rejections. Requests of a shard which
+ * exceed its concurrency are queued and sent once a request of the shard finished. If too many requests of a shard
+ * are queued the {@link #add} method blocks as well.
  */
 public class BulkShardProcessor<Request extends ShardRequest> {
 
     public static final int MAX_CREATE_INDICES_BULK_SIZE = 100;
+    static final int MAX_QUEUED_REQUESTS_PER_SHARD = 2;
 
     private final boolean autoCreateIndices;
     private final Predicate<String> shouldAutocreateIndexPredicate;
 
     private final int bulkSize;
+    private final long shardBatchBytes;
+    private final long bufferBytes;
     private final UUID jobId;
     private final int createIndicesBulkSize;
 
-    private final Map<ShardId, Request> requestsByShard = new HashMap<>();
+    private final Map<ShardId, ShardBatch<Request>> batchesByShard = new HashMap<>();
+    private final Map<ShardId, ShardRequests<Request>> requestsByShard = new HashMap<>();
+    private final AdaptiveBulkController controller;
     private final AtomicInteger globalCounter = new AtomicInteger(0);
     private final AtomicInteger requestItemCounter = new AtomicInteger(0);
+    private final AtomicLong bufferedBytes = new AtomicLong(0);
     private final AtomicInteger pending = new AtomicInteger(0);
     private final Semaphore executeLock = new Semaphore(1);
 
@@ -110,13 +127,37 @@ public class BulkShardProcessor<Request extends ShardRequest> {
                               BulkRequestBuilder<Request> requestBuilder,
                               BulkRequestExecutor<Request> requestExecutor,
                               UUID jobId) {
+        this(clusterService, transportBulkCreateIndicesAction, indexNameExpressionResolver, settings,
+            bulkRetryCoordinatorPool, autoCreateIndices, bulkSize, 0, 0, requestBuilder, requestExecutor, jobId);
+    }
+
+    /**
+     * @param shardBatchBytes size in bytes after which the request of a shard is sent, 0 to send the requests of
+     *                        all shards once {@code bulkSize} items have been added
+     * @param bufferBytes size in bytes of all buffered items after which the largest requests are sent,
+     *                    only used if {@code shardBatchBytes} is set
+     */
+    public BulkShardProcessor(ClusterService clusterService,
+                              TransportBulkCreateIndicesAction transportBulkCreateIndicesAction,
+                              IndexNameExpressionResolver indexNameExpressionResolver,
+                              final Settings settings,
+                              BulkRetryCoordinatorPool bulkRetryCoordinatorPool,
+                              final boolean autoCreateIndices,
+                              int bulkSize,
+                              long shardBatchBytes,
+                              long bufferBytes,
+                              BulkRequestBuilder<Request> requestBuilder,
+                              BulkRequestExecutor<Request> requestExecutor,
+                              UUID jobId) {
         this.bulkRetryCoordinatorPool = bulkRetryCoordinatorPool;
         this.clusterService = clusterService;
         this.autoCreateIndices = autoCreateIndices;
         this.bulkSize = bulkSize;
+        this.shardBatchBytes = shardBatchBytes;
+        this.bufferBytes = bufferBytes;
         this.jobId = jobId;
         this.createIndicesBulkSize = Math.min(bulkSize, MAX_CREATE_INDICES_BULK_SIZE);
-
+        this.controller = AdaptiveBulkController.fromSettings(settings, bulkSize);
 
         if (autoCreateIndices) {
             final AutoCreateIndex autoCreateIndex = new AutoCreateIndex(settings, indexNameExpressionResolver);
@@ -140,6 +181,13 @@ public class BulkShardProcessor<Request extends ShardRequest> {
     }
 
     public boolean add(String indexName, Request.Item item, @Nullable String routing) {
+        return add(indexName, item, routing, 0);
+    }
+
+    /**
+     * @param sizeInBytes the (estimated) size of the item, used to limit the size of the shard requests
+     */
+    public boolean add(String indexName, Request.Item item, @Nullable String routing, int sizeInBytes) {
         assert item != null : "request item must not be null";
         if (indicesDeleted.contains(indexName)) {
             trace("index already deleted, will ignore item");
@@ -155,7 +203,7 @@ public class BulkShardProcessor<Request extends ShardRequest> {
 
         ShardId shardId = shardId(indexName, item.id(), routing);
         if (shardId == null) {
-            addRequestForNewIndex(indexName, item, routing);
+            addRequestForNewIndex(indexName, item, routing, sizeInBytes);
         } else {
             try {
                 // will only block if retries/writer are active
@@ -166,13 +214,23 @@ public class BulkShardProcessor<Request extends ShardRequest> {
                 setFailure(e);
                 return false;
             }
-            partitionRequestByShard(shardId, item, routing);
+            if (!awaitQueuedRequests(shardId)) {
+                return false;
+            }
+            partitionRequestByShard(shardId, item, routing, sizeInBytes);
         }
         executeIfNeeded();
         return true;
     }
 
     public boolean addForExistingShard(ShardId shardId, Request.Item item, @Nullable String routing) {
+        return addForExistingShard(shardId, item, routing, 0);
+    }
+
+    /**
+     * @param sizeInBytes the (estimated) size of the item, used to limit the size of the shard requests
+     */
+    public boolean addForExistingShard(ShardId shardId, Request.Item item, @Nullable String routing, int sizeInBytes) {
         assert item != null : "item must not be null";
         pending.incrementAndGet();
         Throwable throwable = failure.get();
@@ -190,11 +248,42 @@ public class BulkShardProcessor<Request extends ShardRequest> {
             setFailure(e);
             return false;
         }
-        partitionRequestByShard(shardId, item, routing);
+        if (!awaitQueuedRequests(shardId)) {
+            return false;
+        }
+        partitionRequestByShard(shardId, item, routing, sizeInBytes);
         executeIfNeeded();
         return true;
     }
 
+    /**
+     * Blocks while too many requests of the shard are queued because the shard already has as many requests in flight
+     * as the controller allows.
+     *
+     * @return false if the processor failed meanwhile
+     */
+    private boolean awaitQueuedRequests(ShardId shardId) {
+        synchronized (requestsByShard) {
+            try {
+                ShardRequests<Request> shardRequests = requestsByShard.get(shardId);
+                while (failure.get() == null
+                       && shardRequests != null
+                       && shardRequests.queued.size() >= MAX_QUEUED_REQUESTS_PER_SHARD) {
+                    requestsByShard.wait();
+                    shardRequests = requestsByShard.get(shardId);
+                }
+            } catch (InterruptedException e) {
+                Thread.interrupted();
+            }
+        }
+        Throwable throwable = failure.get();
+        if (throwable != null) {
+            result.setException(throwable);
+            return false;
+        }
+        return true;
+    }
+
     @Nullable
     private ShardId shardId(String indexName, String id, @Nullable String routing) {
         ShardId shardId = null;
@@ -214,30 +303,42 @@ public class BulkShardProcessor<Request extends ShardRequest> {
         return shardId;
     }
 
-    private void addRequestForNewIndex(String indexName, Request.Item item, @Nullable String routing) {
+    private void addRequestForNewIndex(String indexName, Request.Item item, @Nullable String routing, int sizeInBytes) {
         synchronized (requestsForNewIndices) {
             List<PendingRequest> pendingRequestList = requestsForNewIndices.get(indexName);
             if (pendingRequestList == null) {
                 pendingRequestList = new ArrayList<>();
                 requestsForNewIndices.put(indexName, pendingRequestList);
             }
-            pendingRequestList.add(new PendingRequest(indexName, item, routing));
+            pendingRequestList.add(new PendingRequest(indexName, item, routing, sizeInBytes));
             pendingNewIndexRequests.incrementAndGet();
         }
     }
 
-    private void partitionRequestByShard(ShardId shardId, Request.Item item, @Nullable String routing) {
+    private void partitionRequestByShard(ShardId shardId, Request.Item item, @Nullable String routing, int sizeInBytes) {
         try {
             executeLock.acquire();
-            Request request = requestsByShard.get(shardId);
-            if (request == null) {
-                request = requestBuilder.newRequest(shardId, routing);
-                requestsByShard.put(shardId, request);
+            ShardBatch<Request> batch = batchesByShard.get(shardId);
+            if (batch == null) {
+                batch = new ShardBatch<>(requestBuilder.newRequest(shardId, routing));
+                batchesByShard.put(shardId, batch);
             }
             requestItemCounter.getAndIncrement();
-            request.add(globalCounter.getAndIncrement(), item);
+            bufferedBytes.addAndGet(sizeInBytes);
+            batch.request.add(globalCounter.getAndIncrement(), item);
+            batch.bytes += sizeInBytes;
+            if (shardBatchBytes > 0
+                && (batch.request.itemIndices().size() >= controller.bulkSize() || batch.bytes >= shardBatchBytes)
+                && failure.get() == null) {
+                // the request of this shard is full, no need to wait for the other shards
+                batchesByShard.remove(shardId);
+                removeFromBuffer(batch);
+                execute(shardId, batch);
+            }
         } catch (InterruptedException e) {
             Thread.interrupted();
+        } catch (Throwable e) {
+            setFailure(e);
         } finally {
             executeLock.release();
         }
@@ -246,24 +347,12 @@ public class BulkShardProcessor<Request extends ShardRequest> {
     private void executeRequests() {
         try {
             executeLock.acquire();
-            for (Iterator<Map.Entry<ShardId, Request>> it = requestsByShard.entrySet().iterator(); it.hasNext(); ) {
+            for (Iterator<Map.Entry<ShardId, ShardBatch<Request>>> it = batchesByShard.entrySet().iterator(); it.hasNext(); ) {
                 if (failure.get() != null) {
                     return;
                 }
-                Map.Entry<ShardId, Request> entry = it.next();
-                final Request request = entry.getValue();
-                final ShardId shardId = entry.getKey();
-                requestExecutor.execute(request, new ActionListener<ShardResponse>() {
-                    @Override
-                    public void onResponse(ShardResponse response) {
-                        processResponse(response);
-                    }
-
-                    @Override
-                    public void onFailure(Throwable e) {
-                        processFailure(e, shardId, request, com.google.common.base.Optional.<BulkRetryCoordinator>absent());
-                    }
-                });
+                Map.Entry<ShardId, ShardBatch<Request>> entry = it.next();
+                execute(entry.getKey(), entry.getValue());
                 it.remove();
             }
         } catch (InterruptedException e) {
@@ -272,10 +361,126 @@ public class BulkShardProcessor<Request extends ShardRequest> {
             setFailure(e);
         } finally {
             requestItemCounter.set(0);
+            bufferedBytes.set(0);
+            executeLock.release();
+        }
+    }
+
+    /**
+     * Sends the largest requests until at most half of the buffer is used
+     */
+    private void executeLargestRequests() {
+        try {
+            executeLock.acquire();
+            List<Map.Entry<ShardId, ShardBatch<Request>>> entries = new ArrayList<>(batchesByShard.entrySet());
+            Collections.sort(entries, new Comparator<Map.Entry<ShardId, ShardBatch<Request>>>() {
+                @Override
+                public int compare(Map.Entry<ShardId, ShardBatch<Request>> o1, Map.Entry<ShardId, ShardBatch<Request>> o2) {
+                    return Long.compare(o2.getValue().bytes, o1.getValue().bytes);
+                }
+            });
+            for (Map.Entry<ShardId, ShardBatch<Request>> entry : entries) {
+                if (failure.get() != null || bufferedBytes.get() <= bufferBytes / 2) {
+                    return;
+                }
+                batchesByShard.remove(entry.getKey());
+                removeFromBuffer(entry.getValue());
+                execute(entry.getKey(), entry.getValue());
+            }
+        } catch (InterruptedException e) {
+            Thread.interrupted();
+        } catch (Throwable e) {
+            setFailure(e);
+        } finally {
             executeLock.release();
         }
     }
 
+    private void removeFromBuffer(ShardBatch<Request> batch) {
+        requestItemCounter.addAndGet(-batch.request.itemIndices().size());
+        bufferedBytes.addAndGet(-batch.bytes);
+    }
+
+    /**
+     * Sends the request of the shard or queues it if the shard has as many requests in flight as allowed
+     */
+    private void execute(ShardId shardId, ShardBatch<Request> batch) {
+        synchronized (requestsByShard) {
+            ShardRequests<Request> shardRequests = requestsByShard.get(shardId);
+            if (shardRequests == null) {
+                shardRequests = new ShardRequests<>();
+                requestsByShard.put(shardId, shardRequests);
+            }
+            if (shardRequests.inFlight >= controller.concurrency()) {
+                trace("shard %s has %d requests in flight, queue request", shardId, shardRequests.inFlight);
+                shardRequests.queued.add(batch);
+                return;
+            }
+            shardRequests.inFlight++;
+        }
+        send(shardId, batch);
+    }
+
+    private void send(final ShardId shardId, ShardBatch<Request> batch) {
+        bulkRetryCoordinatorPool.shardBatchStats().record(fillRatio(batch));
+        final Request request = batch.request;
+        final long sentNanos = System.nanoTime();
+        requestExecutor.execute(request, new ActionListener<ShardResponse>() {
+            @Override
+            public void onResponse(ShardResponse response) {
+                controller.onResponse(sentNanos, System.nanoTime());
+                processResponse(response);
+                requestDone(shardId);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                processFailure(e, shardId, request, sentNanos, com.google.common.base.Optional.<BulkRetryCoordinator>absent());
+            }
+        });
+    }
+
+    /**
+     * Called once a request of the shard finished, including its retries. Sends the queued requests of the shard
+     * which fit into its concurrency.
+     */
+    private void requestDone(ShardId shardId) {
+        List<ShardBatch<Request>> next = new ArrayList<>();
+        synchronized (requestsByShard) {
+            ShardRequests<Request> shardRequests = requestsByShard.get(shardId);
+            if (shardRequests == null) {
+                return;
+            }
+            shardRequests.inFlight--;
+            if (failure.get() != null) {
+                shardRequests.queued.clear();
+            }
+            while (!shardRequests.queued.isEmpty() && shardRequests.inFlight < controller.concurrency()) {
+                next.add(shardRequests.queued.poll());
+                shardRequests.inFlight++;
+            }
+            if (shardRequests.inFlight == 0) {
+                requestsByShard.remove(shardId);
+            }
+            requestsByShard.notifyAll();
+        }
+        for (ShardBatch<Request> batch : next) {
+            send(shardId, batch);
+        }
+    }
+
+    public AdaptiveBulkController controller() {
+        return controller;
+    }
+
+    private double fillRatio(ShardBatch<Request> batch) {
+        double fillRatio = batch.request.itemIndices().size() / (double) controller.bulkSize();
+        if (shardBatchBytes > 0) {
+            fillRatio = Math.max(fillRatio, batch.bytes / (double) shardBatchBytes);
+        }
+        return fillRatio;
+    }
+
     private void createPendingIndices() {
         final List<PendingRequest> pendings = new ArrayList<>();
         final Set<String> indices;
@@ -320,7 +525,8 @@ public class BulkShardProcessor<Request extends ShardRequest> {
                             setResultIfDone(1);
                             continue;
                         }
-                        partitionRequestByShard(shardId, pendingRequest.item, pendingRequest.routing);
+                        partitionRequestByShard(shardId, pendingRequest.item, pendingRequest.routing,
+                            pendingRequest.sizeInBytes);
                     }
                     trace("added %d pending requests, lets see if we can execute them", pendings.size());
                     executeRequestsIfNeeded();
@@ -369,11 +575,19 @@ public class BulkShardProcessor<Request extends ShardRequest> {
     public void kill(@Nullable Throwable throwable) {
         failure.compareAndSet(null, throwable);
         result.setException(new InterruptedException(JobKilledException.MESSAGE));
+        wakeUpAddingThreads();
     }
 
     private void setFailure(Throwable e) {
         failure.compareAndSet(null, e);
         result.setException(e);
+        wakeUpAddingThreads();
+    }
+
+    private void wakeUpAddingThreads() {
+        synchronized (requestsByShard) {
+            requestsByShard.notifyAll();
+        }
     }
 
     private void setResult() {
@@ -401,7 +615,17 @@ public class BulkShardProcessor<Request extends ShardRequest> {
     }
 
     private void executeRequestsIfNeeded() {
-        if ((closed || requestItemCounter.get() >= bulkSize) && failure.get() == null) {
+        if (failure.get() != null) {
+            return;
+        }
+        if (closed) {
+            executeRequests();
+        } else if (shardBatchBytes > 0) {
+            // full shard requests are sent as soon as they are full
+            if (bufferedBytes.get() >= bufferBytes) {
+                executeLargestRequests();
+            }
+        } else if (requestItemCounter.get() >= controller.bulkSize()) {
             executeRequests();
         }
     }
@@ -427,7 +651,11 @@ public class BulkShardProcessor<Request extends ShardRequest> {
         trace("response executed.");
     }
 
-    private void processFailure(Throwable e, final ShardId shardId, final Request request, com.google.common.base.Optional<BulkRetryCoordinator> retryCoordinator) {
+    private void processFailure(Throwable e,
+                                final ShardId shardId,
+                                final Request request,
+                                final long sentNanos,
+                                com.google.common.base.Optional<BulkRetryCoordinator> retryCoordinator) {
         trace("execute failure");
         e = Exceptions.unwrap(e);
 
@@ -447,6 +675,7 @@ public class BulkShardProcessor<Request extends ShardRequest> {
                 // release failed retry
                 retryCoordinator.get().releaseWriteLock();
             }
+            requestDone(shardId);
             return;
         }
 
@@ -458,20 +687,25 @@ public class BulkShardProcessor<Request extends ShardRequest> {
                 coordinator = bulkRetryCoordinatorPool.coordinator(shardId);
             } catch (Throwable coordinatorException) {
                 setFailure(coordinatorException);
+                requestDone(shardId);
                 return;
             }
         }
         if (e instanceof EsRejectedExecutionException) {
             trace("rejected execution: [%s] - retrying", e.getMessage());
+            if (!retryCoordinator.isPresent()) {
+                controller.onRejected(sentNanos, System.nanoTime());
+            }
             coordinator.retry(request, requestExecutor, new ActionListener<ShardResponse>() {
                 @Override
                 public void onResponse(ShardResponse response) {
                     processResponse(response);
+                    requestDone(shardId);
                 }
 
                 @Override
                 public void onFailure(Throwable e) {
-                    processFailure(e, shardId, request, com.google.common.base.Optional.of(coordinator));
+                    processFailure(e, shardId, request, sentNanos, com.google.common.base.Optional.of(coordinator));
                 }
             });
         } else {
@@ -485,6 +719,7 @@ public class BulkShardProcessor<Request extends ShardRequest> {
                 }
             }
             setFailure(e);
+            requestDone(shardId);
         }
     }
 
@@ -501,15 +736,31 @@ public class BulkShardProcessor<Request extends ShardRequest> {
         private final ShardRequest.Item item;
         @Nullable
         private final String routing;
+        private final int sizeInBytes;
 
 
-        PendingRequest(String indexName, ShardRequest.Item item, @Nullable String routing) {
+        PendingRequest(String indexName, ShardRequest.Item item, @Nullable String routing, int sizeInBytes) {
             this.indexName = indexName;
             this.item = item;
             this.routing = routing;
+            this.sizeInBytes = sizeInBytes;
         }
     }
 
+    private static class ShardBatch<Request extends ShardRequest> {
+        private final Request request;
+        private long bytes = 0;
+
+        ShardBatch(Request request) {
+            this.request = request;
+        }
+    }
+
+    private static class ShardRequests<Request extends ShardRequest> {
+        private final Queue<ShardBatch<Request>> queued = new ArrayDeque<>();
+        private int inFlight = 0;
+    }
+
     public interface BulkRequestBuilder<Request extends ShardRequest> {
         Request newRequest(ShardId shardId, String routing);
     }
@@ -0,0 +1,74 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import com.twitter.jsr166e.LongAdder;
+
+/**
+ * Node wide statistics about the shard requests sent by {@link BulkShardProcessor}s.
+ *
+ * The fill ratio of a shard request is the share of its bulk size or of its size in bytes that it used,
+ * whichever is larger. Requests which are sent because the processor is closed or its buffer is full
+ * are usually only partially filled.
+ */
+public class ShardBatchStats {
+
+    private static final int FILL_RATIO_SCALE = 1000;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder fullBatches = new LongAdder();
+    private final LongAdder fillRatioSum = new LongAdder();
+
+    void record(double fillRatio) {
+        fillRatio = Math.min(1.0, fillRatio);
+        batches.increment();
+        if (fillRatio >= 1.0) {
+            fullBatches.increment();
+        }
+        fillRatioSum.add(Math.round(fillRatio * FILL_RATIO_SCALE));
+    }
+
+    /**
+     * @return the number of shard requests that have been sent
+     */
+    public long batches() {
+        return batches.sum();
+    }
+
+    /**
+     * @return the number of shard requests that have been sent with their full bulk size or size in bytes
+     */
+    public long fullBatches() {
+        return fullBatches.sum();
+    }
+
+    /**
+     * @return the average fill ratio of the shard requests between 0 and 1
+     */
+    public double avgFillRatio() {
+        long numBatches = batches.sum();
+        if (numBatches == 0) {
+            return 0.0;
+        }
+        return fillRatioSum.sum() / (double) FILL_RATIO_SCALE / numBatches;
+    }
+}
@@ -21,7 +21,10 @@
 
 package io.crate.action.sql;
 
+import io.crate.action.sql.parser.SQLXContentSourceContext;
+import io.crate.action.sql.parser.SQLXContentSourceParser;
 import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.hamcrest.Matchers;
@@ -49,6 +52,25 @@ public class SQLBaseRequestTest extends CrateUnitTest {
         assertArrayEquals(request.bulkArgs(), serialized.bulkArgs());
     }
 
+    @Test
+    public void testBulkArgsParsedFromSourceSerialization() throws Exception {
+        SQLXContentSourceContext context = new SQLXContentSourceContext();
+        new SQLXContentSourceParser(context).parseSource(new BytesArray(
+            "{\"stmt\": \"select * from sys.cluster\", \"bulk_args\": [[\"dummy\", \"args\"], [\"more\", \"args\"]]}"));
+        SQLBulkRequest request = new SQLBulkRequest(context.stmt(), context.bulkArgs());
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        request.writeTo(out);
+        StreamInput in = StreamInput.wrap(out.bytes());
+        SQLBulkRequest serialized = new SQLBulkRequest();
+        serialized.readFrom(in);
+
+        assertArrayEquals(new Object[][] {
+                new Object[] { "dummy", "args" },
+                new Object[] { "more", "args" }
+        }, serialized.bulkArgs());
+    }
+
     @Test
     public void testEmptyBulkArgsSerialization() throws Exception {
         SQLBulkRequest request = new SQLBulkRequest("select * from sys.cluster");
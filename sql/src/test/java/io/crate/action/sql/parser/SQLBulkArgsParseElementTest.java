@@ -22,12 +22,16 @@
 package io.crate.action.sql.parser;
 
 
+import io.crate.action.sql.BulkArgs;
 import io.crate.test.integration.CrateUnitTest;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.junit.Test;
 
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
 public class SQLBulkArgsParseElementTest extends CrateUnitTest {
 
     private Object[][] parse(String bulk_args) throws Exception {
@@ -40,7 +44,7 @@ public class SQLBulkArgsParseElementTest extends CrateUnitTest {
         parser.nextToken();
         SQLBulkArgsParseElement bulkArgsParseElement = new SQLBulkArgsParseElement();
         bulkArgsParseElement.parse(parser, context);
-        return context.bulkArgs();
+        return context.bulkArgs().toArray();
 
     }
 
@@ -68,4 +72,40 @@ public class SQLBulkArgsParseElementTest extends CrateUnitTest {
             assertEquals("Parse Failure [Field [null] has an invalid value]", e.getMessage());
         }
     }
+
+    private BulkArgs parseSource(String bulk_args) throws Exception {
+        SQLXContentSourceContext context = new SQLXContentSourceContext();
+        SQLXContentSourceParser parser = new SQLXContentSourceParser(context);
+        parser.parseSource(new BytesArray(
+            "{\"bulk_args\": " + bulk_args + ", \"stmt\": \"insert into t (id, name) values (?, ?)\"}"));
+        return context.bulkArgs();
+    }
+
+    @Test
+    public void testBulkArgsOfSourceAreParsedLazily() throws Exception {
+        BulkArgs bulkArgs = parseSource("[[1, \"Arthur\"], [2, {\"name\": \"Ford\"}], [3, [\"Trillian\"]]]");
+        assertThat(bulkArgs, instanceOf(XContentBulkArgs.class));
+        assertThat(bulkArgs.size(), is(3));
+        bulkArgs.validate();
+
+        assertArrayEquals(new Object[]{1, "Arthur"}, bulkArgs.get(0));
+        assertArrayEquals(new Object[]{3, new Object[]{"Trillian"}}, bulkArgs.get(2));
+        // going back parses the argument sets again
+        assertThat(bulkArgs.get(1)[0], is((Object) 2));
+        assertThat(bulkArgs.toArray().length, is(3));
+    }
+
+    @Test
+    public void testMixedNumberOfArgsOfSourceAreDetectedWithoutParsing() throws Exception {
+        BulkArgs bulkArgs = parseSource("[[1, \"Arthur\"], [2]]");
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("mixed number of arguments inside bulk arguments");
+        bulkArgs.validate();
+    }
+
+    @Test
+    public void testInvalidBulkArgsOfSource() throws Exception {
+        expectedException.expectMessage("Failed to parse source");
+        parseSource("[[\"hello\"], null]");
+    }
 }
@@ -23,6 +23,7 @@ package io.crate.analyze;
 
 import io.crate.analyze.relations.QueriedDocTable;
 import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
 import io.crate.exceptions.PartitionUnknownException;
 import io.crate.exceptions.SchemaUnknownException;
 import io.crate.exceptions.TableUnknownException;
@@ -92,6 +93,28 @@ public class CopyAnalyzerTest extends BaseAnalyzerTest {
         assertThat(analysis.uri(), isLiteral("/some/distant/file.ext"));
     }
 
+    @Test
+    public void testCopyFromWithCSVFormat() throws Exception {
+        CopyFromAnalyzedStatement analysis = analyze(
+            "copy users from '/some/distant/file.csv' with (format='csv', delimiter=';', header=false)");
+        assertThat(analysis.settings().get("format"), is("csv"));
+        assertThat(analysis.settings().get("delimiter"), is(";"));
+    }
+
+    @Test
+    public void testCopyFromWithInvalidFormat() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid format 'xml' for COPY FROM, supported formats are json, csv and columnar");
+        analyze("copy users from '/some/distant/file.xml' with (format='xml')");
+    }
+
+    @Test
+    public void testCopyFromCSVWithInvalidDelimiter() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The delimiter of the CSV format must be a single ASCII character other than a line break, got ';;'");
+        analyze("copy users from '/some/distant/file.csv' with (format='csv', delimiter=';;')");
+    }
+
     @Test
     public void testCopyFromExistingPartitionedTable() throws Exception {
         CopyFromAnalyzedStatement analysis = analyze("copy parted from '/some/distant/file.ext'");
@@ -278,6 +301,23 @@ public class CopyAnalyzerTest extends BaseAnalyzerTest {
         assertThat(analysis.outputNames(), contains("id", "name"));
     }
 
+    @Test
+    public void testCopyToWithColumnarFormatOutputsAllColumns() throws Exception {
+        CopyToAnalyzedStatement analysis = analyze("copy users to directory '/blah' with (format='columnar')");
+        assertThat(analysis.outputFormat(), is(WriterProjection.OutputFormat.COLUMNAR));
+        assertThat(analysis.columnsDefined(), is(false));
+        assertThat(analysis.outputNames(), hasItems("id", "name", "details"));
+        List<Symbol> outputs = analysis.subQueryRelation().querySpec().outputs();
+        assertThat(outputs.size(), is(analysis.outputNames().size()));
+        assertThat(outputs.get(analysis.outputNames().indexOf("name")), isReference("_doc['name']"));
+    }
+
+    @Test
+    public void testCopyFromWithColumnarFormat() throws Exception {
+        CopyFromAnalyzedStatement analysis = analyze("copy users from '/some/distant/file.col' with (format='columnar')");
+        assertThat(analysis.settings().get("format"), is("columnar"));
+    }
+
     @Test
     public void testCopyToFileWithUnsupportedOutputFormatParam() throws Exception {
         expectedException.expect(UnsupportedFeatureException.class);
@@ -39,6 +39,7 @@ import java.util.List;
 
 import static io.crate.testing.TestingHelpers.isField;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -78,6 +79,21 @@ public class ExplainAnalyzerTest extends BaseAnalyzerTest {
         assertThat(stmt.statement(), instanceOf(SelectAnalyzedStatement.class));
     }
 
+    @Test
+    public void testExplainAnalyze() throws Exception {
+        ExplainAnalyzedStatement stmt = analyze("explain analyze select id from sys.cluster");
+        assertThat(stmt.analyze(), is(true));
+        assertThat(stmt.statement(), instanceOf(SelectAnalyzedStatement.class));
+        assertThat(stmt.fields(), Matchers.contains(isField("EXPLAIN ANALYZE SELECT \"id\"\nFROM \"sys\".\"cluster\"\n")));
+    }
+
+    @Test
+    public void testExplainAnalyzeCopyFromUnsupported() throws Exception {
+        expectedException.expect(UnsupportedFeatureException.class);
+        expectedException.expectMessage("EXPLAIN ANALYZE is only supported for SELECT statements");
+        analyze("explain analyze copy users from '/tmp/*'");
+    }
+
     @Test
     public void testExplainCopyFrom() throws Exception {
         ExplainAnalyzedStatement stmt = analyze("explain copy users from '/tmp/*' WITH (shared=True)");
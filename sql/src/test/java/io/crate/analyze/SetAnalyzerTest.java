@@ -249,7 +249,9 @@ public class SetAnalyzerTest extends BaseAnalyzerTest {
         assertThat(analysis.settingsToRemove(), contains("stats.enabled"));
 
         analysis = analyze("RESET GLOBAL stats");
-        assertThat(analysis.settingsToRemove(), containsInAnyOrder("stats.enabled", "stats.jobs_log_size", "stats.operations_log_size"));
+        assertThat(analysis.settingsToRemove(), containsInAnyOrder("stats.enabled", "stats.jobs_log_size", "stats.operations_log_size",
+                "stats.sampling_interval", "stats.query_stats_size", "stats.slow_query_threshold", "stats.slow_query_log_size",
+                "stats.slow_query_redact_parameters"));
     }
 
     @Test
@@ -0,0 +1,134 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.executor.task;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.crate.jobs.PhaseProfile;
+import io.crate.operation.projectors.RowReceiver;
+import io.crate.operation.reference.sys.operation.OperationStats;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.CollectingRowReceiver;
+import io.crate.testing.RowSender;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.hamcrest.Matchers.*;
+
+public class ExplainTaskTest extends CrateUnitTest {
+
+    private static PhaseProfile profile(int phaseId, long rowsOut, long... projectionRowsOut) {
+        OperationStats stats = new OperationStats(true);
+        stats.addRowsIn(rowsOut * 2);
+        stats.addRowsOut(rowsOut);
+        stats.addPageSent(100L);
+        stats.addPageReceived(200L);
+        stats.addPausedNanos(3_000_000L);
+        for (long rows : projectionRowsOut) {
+            CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+            RowReceiver counting = stats.countProjectionRowsOut(rowReceiver);
+            RowSender.generateRowsInRangeAndEmit(0, (int) rows, counting);
+        }
+        return new PhaseProfile(phaseId, "phase " + phaseId, 5_000_000L, stats, null);
+    }
+
+    @Test
+    public void testPhasesAndProjectionsAreAnnotatedPerNode() throws Exception {
+        Map<String, Object> collectPhase = ImmutableMap.<String, Object>of(
+            "phaseType", "COLLECT",
+            "id", 1,
+            "projections", ImmutableList.of(
+                ImmutableMap.<String, Object>of("type", "TOPN"),
+                ImmutableMap.<String, Object>of("type", "GROUP")));
+        Map<String, Object> planMap = ImmutableMap.<String, Object>of(
+            "planType", "CollectAndMerge",
+            "collectPhase", collectPhase);
+
+        Map<Integer, Map<String, PhaseProfile>> profilesByPhase = new HashMap<>();
+        Map<String, PhaseProfile> nodeProfiles = new HashMap<>();
+        nodeProfiles.put("n1", profile(1, 10L, 10L, 4L));
+        nodeProfiles.put("n2", profile(1, 20L, 20L, 5L));
+        profilesByPhase.put(1, nodeProfiles);
+        profilesByPhase.put(2, Collections.singletonMap("n1", profile(2, 1L)));
+
+        Map<String, Object> annotated = ExplainTask.annotate(planMap, profilesByPhase);
+        assertThat((String) annotated.get("planType"), is("CollectAndMerge"));
+
+        Map<String, Object> annotatedPhase = (Map<String, Object>) annotated.get("collectPhase");
+        Map<String, Map<String, Object>> profile = (Map<String, Map<String, Object>>) annotatedPhase.get("profile");
+        assertThat(profile.keySet(), contains("n1", "n2"));
+        Map<String, Object> n1 = profile.get("n1");
+        assertThat((Long) n1.get("rowsIn"), is(20L));
+        assertThat((Long) n1.get("rowsOut"), is(10L));
+        assertThat((Long) n1.get("pagesSent"), is(1L));
+        assertThat((Long) n1.get("bytesSent"), is(100L));
+        assertThat((Long) n1.get("pagesReceived"), is(1L));
+        assertThat((Long) n1.get("bytesReceived"), is(200L));
+        assertThat((Double) n1.get("pausedTime"), is(3.0d));
+        assertThat((Double) n1.get("wallTime"), is(5.0d));
+        assertThat(n1.containsKey("error"), is(false));
+
+        List<Map<String, Object>> projections = (List<Map<String, Object>>) annotatedPhase.get("projections");
+        assertThat(projections.size(), is(2));
+        assertThat((String) projections.get(1).get("type"), is("GROUP"));
+        Map<String, Map<String, Object>> projectionProfile =
+            (Map<String, Map<String, Object>>) projections.get(1).get("profile");
+        assertThat((Long) projectionProfile.get("n1").get("rowsOut"), is(4L));
+        assertThat((Long) projectionProfile.get("n2").get("rowsOut"), is(5L));
+    }
+
+    @Test
+    public void testPhaseWithoutProfileIsNotAnnotated() throws Exception {
+        Map<String, Object> planMap = ImmutableMap.<String, Object>of(
+            "planType", "CollectAndMerge",
+            "localMerge", ImmutableMap.<String, Object>of("phaseType", "MERGE", "id", 3));
+
+        Map<String, Object> annotated = ExplainTask.annotate(
+            planMap, Collections.<Integer, Map<String, PhaseProfile>>emptyMap());
+        assertThat(annotated, is(planMap));
+    }
+
+    @Test
+    public void testPhaseProfileStreaming() throws Exception {
+        PhaseProfile phaseProfile = profile(1, 10L, 10L, 4L);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        phaseProfile.writeTo(out);
+        StreamInput in = StreamInput.wrap(out.bytes());
+        PhaseProfile streamed = PhaseProfile.fromStream(in);
+
+        assertThat(streamed.phaseId(), is(1));
+        assertThat(streamed.name(), is("phase 1"));
+        assertThat(streamed.wallTimeNanos(), is(5_000_000L));
+        assertThat(streamed.rowsIn(), is(20L));
+        assertThat(streamed.rowsOut(), is(10L));
+        assertThat(streamed.bytesSent(), is(100L));
+        assertThat(streamed.bytesReceived(), is(200L));
+        assertThat(streamed.pausedNanos(), is(3_000_000L));
+        assertThat(streamed.projectionRowsOut(), is(new long[] { 10L, 4L }));
+        assertThat(streamed.error(), nullValue());
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.executor.transport;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+public class RequestCoalescerTest extends CrateUnitTest {
+
+    private static final long WINDOW_MICROS = 200L;
+
+    private ScheduledExecutorService scheduler;
+    private List<Runnable> executorTasks;
+    private Executor executor;
+    private List<List<String>> sentBatches;
+    private List<List<ActionListener<String>>> sentListeners;
+
+    @Before
+    public void prepare() throws Exception {
+        scheduler = mock(ScheduledExecutorService.class);
+        executorTasks = new ArrayList<>();
+        executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                executorTasks.add(command);
+            }
+        };
+        sentBatches = new ArrayList<>();
+        sentListeners = new ArrayList<>();
+    }
+
+    private RequestCoalescer<Integer, String, String> createCoalescer(int maxBatchSize) {
+        return new RequestCoalescer<>(scheduler, executor, WINDOW_MICROS, maxBatchSize,
+            new RequestCoalescer.BatchSender<String, String>() {
+                @Override
+                public void send(List<String> requests, List<ActionListener<String>> listeners) {
+                    sentBatches.add(new ArrayList<>(requests));
+                    sentListeners.add(new ArrayList<>(listeners));
+                }
+            });
+    }
+
+    private List<Runnable> capturedFlushes(int times) {
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(times)).schedule(captor.capture(), eq(WINDOW_MICROS), eq(TimeUnit.MICROSECONDS));
+        return captor.getAllValues();
+    }
+
+    private void runExecutorTasks() {
+        for (Runnable task : executorTasks) {
+            task.run();
+        }
+        executorTasks.clear();
+    }
+
+    @Test
+    public void testRequestsWithinWindowAreSentAsOneBatch() throws Exception {
+        RequestCoalescer<Integer, String, String> coalescer = createCoalescer(10);
+        coalescer.add(0, "a", PlainActionFuture.<String>newFuture());
+        coalescer.add(0, "b", PlainActionFuture.<String>newFuture());
+        assertThat(sentBatches.size(), is(0));
+
+        capturedFlushes(1).get(0).run();
+        // the flush must not send on the scheduler thread
+        assertThat(sentBatches.size(), is(0));
+        runExecutorTasks();
+
+        assertThat(sentBatches.size(), is(1));
+        assertThat(sentBatches.get(0), contains("a", "b"));
+        assertThat(sentListeners.get(0).size(), is(2));
+        assertThat(coalescer.requests(), is(2L));
+        assertThat(coalescer.batches(), is(1L));
+        assertThat(coalescer.largestBatch(), is(2));
+    }
+
+    @Test
+    public void testRequestsWithDifferentKeysAreNotBatchedTogether() throws Exception {
+        RequestCoalescer<Integer, String, String> coalescer = createCoalescer(10);
+        coalescer.add(0, "a", PlainActionFuture.<String>newFuture());
+        coalescer.add(1, "b", PlainActionFuture.<String>newFuture());
+        for (Runnable flush : capturedFlushes(2)) {
+            flush.run();
+        }
+        runExecutorTasks();
+
+        assertThat(sentBatches.size(), is(2));
+        assertThat(sentBatches.get(0), is(Collections.singletonList("a")));
+        assertThat(sentBatches.get(1), is(Collections.singletonList("b")));
+        assertThat(coalescer.largestBatch(), is(1));
+    }
+
+    @Test
+    public void testFullBatchIsSentWithoutWaitingForTheWindow() throws Exception {
+        RequestCoalescer<Integer, String, String> coalescer = createCoalescer(2);
+        coalescer.add(0, "a", PlainActionFuture.<String>newFuture());
+        coalescer.add(0, "b", PlainActionFuture.<String>newFuture());
+        assertThat(sentBatches.size(), is(1));
+
+        // the scheduled flush must not send the batch a second time
+        capturedFlushes(1).get(0).run();
+        runExecutorTasks();
+        assertThat(sentBatches.size(), is(1));
+        assertThat(coalescer.batches(), is(1L));
+
+        // the next request starts a new batch
+        coalescer.add(0, "c", PlainActionFuture.<String>newFuture());
+        capturedFlushes(2).get(1).run();
+        runExecutorTasks();
+        assertThat(sentBatches.size(), is(2));
+        assertThat(sentBatches.get(1), is(Collections.singletonList("c")));
+    }
+
+    @Test
+    public void testRejectedFlushFailsTheListeners() throws Exception {
+        executor = mock(Executor.class);
+        doThrow(new RejectedExecutionException("shutting down")).when(executor).execute(any(Runnable.class));
+        RequestCoalescer<Integer, String, String> coalescer = createCoalescer(10);
+        PlainActionFuture<String> future = PlainActionFuture.newFuture();
+        coalescer.add(0, "a", future);
+        capturedFlushes(1).get(0).run();
+
+        assertThat(sentBatches.size(), is(0));
+        expectedException.expect(ExecutionException.class);
+        expectedException.expectMessage("shutting down");
+        future.get();
+    }
+}
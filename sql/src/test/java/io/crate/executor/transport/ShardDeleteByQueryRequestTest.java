@@ -0,0 +1,73 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.executor.transport;
+
+import io.crate.analyze.WhereClause;
+import io.crate.analyze.symbol.Literal;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class ShardDeleteByQueryRequestTest extends CrateUnitTest {
+
+    @Test
+    public void testStreaming() throws Exception {
+        ShardId shardId = new ShardId("test", 1);
+        UUID jobId = UUID.randomUUID();
+        WhereClause whereClause = new WhereClause(Literal.newLiteral(true));
+        ShardDeleteByQueryRequest request = new ShardDeleteByQueryRequest(shardId, jobId, whereClause, 100, true);
+
+        // added by the primary
+        request.add(0, new ShardDeleteRequest.Item("99"));
+        request.add(1, new ShardDeleteRequest.Item("42"));
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        request.writeTo(out);
+
+        StreamInput in = StreamInput.wrap(out.bytes());
+        ShardDeleteByQueryRequest request2 = new ShardDeleteByQueryRequest();
+        request2.readFrom(in);
+
+        assertThat(request, equalTo(request2));
+        assertThat(request2.batchSize(), is(100));
+        assertThat(request2.refresh(), is(true));
+    }
+
+    @Test
+    public void testClearItems() throws Exception {
+        ShardDeleteByQueryRequest request = new ShardDeleteByQueryRequest(
+            new ShardId("test", 1), UUID.randomUUID(), WhereClause.MATCH_ALL, 100, false);
+        request.add(0, new ShardDeleteRequest.Item("99"));
+
+        request.clearItems();
+        assertThat(request.items().size(), is(0));
+        assertThat(request.itemIndices().size(), is(0));
+    }
+}
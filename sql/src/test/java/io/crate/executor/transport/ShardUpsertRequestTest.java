@@ -31,6 +31,7 @@ import io.crate.metadata.TableIdent;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.index.shard.ShardId;
@@ -39,6 +40,7 @@ import org.junit.Test;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
 
 public class ShardUpsertRequestTest extends CrateUnitTest {
 
@@ -62,6 +64,7 @@ public class ShardUpsertRequestTest extends CrateUnitTest {
                 "42",
                 jobId);
         request.validateConstraints(false);
+        request.autoGeneratedIds(true);
 
         request.add(123, new ShardUpsertRequest.Item(
                 "99",
@@ -84,4 +87,33 @@ public class ShardUpsertRequestTest extends CrateUnitTest {
         assertThat(request, equalTo(request2));
     }
 
+    @Test
+    public void testStreamingItemWithCurrentSource() throws Exception {
+        ShardUpsertRequest request = new ShardUpsertRequest(
+                new ShardId("test", 1),
+                new String[]{"name"},
+                null,
+                null,
+                UUID.randomUUID());
+        ShardUpsertRequest.Item item = new ShardUpsertRequest.Item(
+                "42",
+                new Symbol[]{Literal.newLiteral("Deep Thought")},
+                null,
+                null);
+        item.currentSource(new BytesArray("{\"name\":\"Arthur\"}"), 3L);
+        request.add(0, item);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        request.writeTo(out);
+
+        StreamInput in = StreamInput.wrap(out.bytes());
+        ShardUpsertRequest request2 = new ShardUpsertRequest();
+        request2.readFrom(in);
+
+        assertThat(request, equalTo(request2));
+        ShardUpsertRequest.Item item2 = request2.items().get(0);
+        assertThat(item2.currentSource().toUtf8(), is("{\"name\":\"Arthur\"}"));
+        assertThat(item2.currentVersion(), is(3L));
+        assertThat(item2.retryOnConflict(), is(true));
+    }
 }
@@ -0,0 +1,235 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport;
+
+import io.crate.Streamer;
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowN;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class StreamBucketTest extends CrateUnitTest {
+
+    private static final Streamer<?>[] STREAMERS = new Streamer[]{DataTypes.INTEGER.streamer(), DataTypes.STRING.streamer()};
+
+    private static StreamBucket buildBucket(BucketCompressor compressor, int numRows) throws Exception {
+        StreamBucket.Builder builder = new StreamBucket.Builder(STREAMERS, compressor);
+        for (int i = 0; i < numRows; i++) {
+            builder.add(new RowN(new Object[]{i, new BytesRef("foo")}));
+        }
+        return builder.build();
+    }
+
+    private static StreamBucket stream(StreamBucket bucket) throws Exception {
+        return stream(bucket, STREAMERS);
+    }
+
+    private static StreamBucket stream(StreamBucket bucket, Streamer<?>[] streamers) throws Exception {
+        BytesStreamOutput out = new BytesStreamOutput();
+        bucket.writeTo(out);
+        StreamInput in = StreamInput.wrap(out.bytes());
+        StreamBucket streamed = new StreamBucket(streamers);
+        streamed.readFrom(in);
+        return streamed;
+    }
+
+    private static void assertRows(StreamBucket bucket, int numRows) {
+        assertThat(bucket.size(), is(numRows));
+        Iterator<Row> it = bucket.iterator();
+        for (int i = 0; i < numRows; i++) {
+            Row row = it.next();
+            assertThat((Integer) row.get(0), is(i));
+            assertThat((BytesRef) row.get(1), is(new BytesRef("foo")));
+        }
+        assertThat(it.hasNext(), is(false));
+    }
+
+    @Test
+    public void testCompressedStreaming() throws Exception {
+        StreamBucket bucket = buildBucket(new BucketCompressor(0, 0.8), 1000);
+        assertThat(bucket.isCompressed(), is(true));
+        assertThat(bucket.sizeInBytes(), lessThan(bucket.uncompressedSizeInBytes()));
+
+        StreamBucket streamed = stream(bucket);
+        assertThat(streamed.isCompressed(), is(true));
+        assertThat(streamed.sizeInBytes(), is(bucket.sizeInBytes()));
+        assertThat(streamed.uncompressedSizeInBytes(), is(bucket.uncompressedSizeInBytes()));
+        assertRows(streamed, 1000);
+        // iterating a second time must work on the already decompressed bytes
+        assertRows(streamed, 1000);
+    }
+
+    @Test
+    public void testCompressedBucketIsStreamedUncompressedToOlderNodes() throws Exception {
+        StreamBucket bucket = buildBucket(new BucketCompressor(0, 0.8), 1000);
+        assertThat(bucket.isCompressed(), is(true));
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(Version.V_2_3_0);
+        bucket.writeTo(out);
+        StreamInput in = StreamInput.wrap(out.bytes());
+        in.setVersion(Version.V_2_3_0);
+        StreamBucket streamed = new StreamBucket(STREAMERS);
+        streamed.readFrom(in);
+
+        assertThat(streamed.isCompressed(), is(false));
+        assertThat(streamed.sizeInBytes(), is(bucket.uncompressedSizeInBytes()));
+        assertRows(streamed, 1000);
+        // the bucket itself stays compressed for newer nodes
+        assertThat(bucket.isCompressed(), is(true));
+    }
+
+    @Test
+    public void testSmallBucketIsNotCompressed() throws Exception {
+        StreamBucket bucket = buildBucket(new BucketCompressor(64 * 1024, 0.8), 10);
+        assertThat(bucket.isCompressed(), is(false));
+        assertThat(bucket.sizeInBytes(), is(bucket.uncompressedSizeInBytes()));
+        assertRows(stream(bucket), 10);
+    }
+
+    @Test
+    public void testPagesAreSkippedAfterPoorCompression() throws Exception {
+        // a ratio of 0 can never be reached
+        BucketCompressor compressor = new BucketCompressor(0, 0.0);
+        assertThat(buildBucket(compressor, 1000).isCompressed(), is(true));
+        for (int i = 0; i < BucketCompressor.PAGES_TO_SKIP; i++) {
+            assertThat(buildBucket(compressor, 1000).isCompressed(), is(false));
+        }
+        assertThat(buildBucket(compressor, 1000).isCompressed(), is(true));
+    }
+
+    @Test
+    public void testBuilderWriteToStreamCanBeRead() throws Exception {
+        StreamBucket.Builder builder = new StreamBucket.Builder(STREAMERS);
+        builder.add(new RowN(new Object[]{0, new BytesRef("foo")}));
+        BytesStreamOutput out = new BytesStreamOutput();
+        builder.writeToStream(out);
+
+        StreamBucket streamed = new StreamBucket(STREAMERS);
+        streamed.readFrom(StreamInput.wrap(out.bytes()));
+        assertRows(streamed, 1);
+    }
+
+    @Test
+    public void testRepeatedStringsAreDecodedAsSharedInstances() throws Exception {
+        Streamer<?>[] streamers = new Streamer[]{DataTypes.STRING.streamer()};
+        StreamBucket.Builder builder = new StreamBucket.Builder(streamers, null, true);
+        BytesRef value = new BytesRef("some.host.name");
+        for (int i = 0; i < 1000; i++) {
+            builder.add(new RowN(new Object[]{i % 10 == 0 ? null : value}));
+        }
+        StreamBucket bucket = builder.build();
+        assertThat(bucket.isDictionaryEncoded(), is(true));
+        // one literal, the other values are encoded in a single byte
+        assertThat(bucket.uncompressedSizeInBytes(), lessThan(1100));
+
+        bucket = stream(bucket, streamers);
+        assertThat(bucket.isDictionaryEncoded(), is(true));
+        BytesRef first = null;
+        int i = 0;
+        for (Row row : bucket) {
+            BytesRef decoded = (BytesRef) row.get(0);
+            if (i % 10 == 0) {
+                assertNull(decoded);
+            } else {
+                assertThat(decoded, is(value));
+                if (first == null) {
+                    first = decoded;
+                }
+                assertSame(first, decoded);
+            }
+            i++;
+        }
+        assertThat(i, is(1000));
+    }
+
+    @Test
+    public void testDictionaryIsDisabledForUniqueStrings() throws Exception {
+        Streamer<?>[] streamers = new Streamer[]{DataTypes.STRING.streamer()};
+        StreamBucket.Builder builder = new StreamBucket.Builder(streamers, null, true);
+        for (int i = 0; i < 1000; i++) {
+            builder.add(new RowN(new Object[]{new BytesRef(Integer.toString(i))}));
+        }
+        StreamBucket bucket = stream(builder.build(), streamers);
+        int i = 0;
+        for (Row row : bucket) {
+            assertThat((BytesRef) row.get(0), is(new BytesRef(Integer.toString(i))));
+            i++;
+        }
+        assertThat(i, is(1000));
+    }
+
+    @Test
+    public void testEncoderStopsAddingValuesIfRepetitionIsLow() throws Exception {
+        StringDictionaryCodec.Encoder encoder = new StringDictionaryCodec.Encoder();
+        BytesStreamOutput out = new BytesStreamOutput();
+        for (int i = 0; i < StringDictionaryCodec.WINDOW; i++) {
+            encoder.write(out, new BytesRef(Integer.toString(i)));
+        }
+        assertThat(encoder.enabled(), is(false));
+
+        // the repetition rate is measured again for the next bucket
+        encoder.reset();
+        assertThat(encoder.enabled(), is(true));
+    }
+
+    @Test
+    public void testStringsAreNotDictionaryEncodedByDefault() throws Exception {
+        StreamBucket bucket = buildBucket(null, 10);
+        assertThat(bucket.isDictionaryEncoded(), is(false));
+        StreamBucket streamed = stream(bucket);
+        assertThat(streamed.isDictionaryEncoded(), is(false));
+        assertRows(streamed, 10);
+    }
+
+    @Test
+    public void testDictionaryEncodedBucketIsStreamedPlainToOlderNodes() throws Exception {
+        StreamBucket.Builder builder = new StreamBucket.Builder(STREAMERS, new BucketCompressor(0, 0.8), true);
+        for (int i = 0; i < 1000; i++) {
+            builder.add(new RowN(new Object[]{i, new BytesRef("foo")}));
+        }
+        StreamBucket bucket = builder.build();
+        assertThat(bucket.isDictionaryEncoded(), is(true));
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(Version.V_2_3_0);
+        bucket.writeTo(out);
+        StreamInput in = StreamInput.wrap(out.bytes());
+        in.setVersion(Version.V_2_3_0);
+        StreamBucket streamed = new StreamBucket(STREAMERS);
+        streamed.readFrom(in);
+
+        assertThat(streamed.isDictionaryEncoded(), is(false));
+        assertThat(streamed.isCompressed(), is(false));
+        assertRows(streamed, 1000);
+    }
+}
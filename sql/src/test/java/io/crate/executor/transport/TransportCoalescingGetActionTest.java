@@ -0,0 +1,189 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.get.*;
+import org.elasticsearch.action.support.ActionFilter;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.tasks.TaskManager;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TransportCoalescingGetActionTest extends CrateUnitTest {
+
+    /**
+     * batches of two lookups are sent right away, the windowing itself is covered by {@link RequestCoalescerTest}
+     */
+    private static final Settings BATCHES_OF_TWO = Settings.builder()
+        .put(TransportCoalescingGetAction.MAX_BATCH_SIZE_SETTING, 2).build();
+
+    private ThreadPool threadPool;
+    private RecordingRequestExecutor<GetRequest, GetResponse> getExecutor;
+    private RecordingRequestExecutor<MultiGetRequest, MultiGetResponse> multiGetExecutor;
+
+    @Before
+    public void prepare() throws Exception {
+        threadPool = mock(ThreadPool.class);
+        when(threadPool.scheduler()).thenReturn(mock(ScheduledExecutorService.class));
+        when(threadPool.generic()).thenReturn(mock(ExecutorService.class));
+        getExecutor = new RecordingRequestExecutor<>();
+        multiGetExecutor = new RecordingRequestExecutor<>();
+    }
+
+    private TransportCoalescingGetAction createAction(Settings settings) {
+        return new TransportCoalescingGetAction(
+            settings,
+            threadPool,
+            new ActionFilters(Collections.<ActionFilter>emptySet()),
+            mock(IndexNameExpressionResolver.class),
+            new TaskManager(Settings.EMPTY),
+            getExecutor,
+            multiGetExecutor
+        );
+    }
+
+    private static GetRequest getRequest(String id) {
+        GetRequest request = new GetRequest("users", "default", id);
+        request.realtime(true);
+        return request;
+    }
+
+    private static GetResponse getResponse(String id) {
+        return new GetResponse(new GetResult("users", "default", id, 1L, true, null, null));
+    }
+
+    @Test
+    public void testLookupsAreSentAsOneMultiGet() throws Exception {
+        TransportCoalescingGetAction action = createAction(BATCHES_OF_TWO);
+        PlainActionFuture<GetResponse> first = PlainActionFuture.newFuture();
+        PlainActionFuture<GetResponse> second = PlainActionFuture.newFuture();
+        action.execute(getRequest("1"), first);
+        action.execute(getRequest("2"), second);
+
+        assertThat(getExecutor.requests.size(), is(0));
+        assertThat(multiGetExecutor.requests.size(), is(1));
+        MultiGetRequest multiGetRequest = multiGetExecutor.requests.get(0);
+        assertThat(multiGetRequest.getItems().size(), is(2));
+        assertThat(multiGetRequest.getItems().get(0).id(), is("1"));
+        assertThat(multiGetRequest.getItems().get(1).id(), is("2"));
+
+        multiGetExecutor.listeners.get(0).onResponse(new MultiGetResponse(new MultiGetItemResponse[]{
+            new MultiGetItemResponse(getResponse("1"), null),
+            new MultiGetItemResponse(getResponse("2"), null)
+        }));
+        assertThat(first.get().getId(), is("1"));
+        assertThat(second.get().getId(), is("2"));
+
+        assertThat(action.lookups(), is(2L));
+        assertThat(action.batches(), is(1L));
+        assertThat(action.largestBatch(), is(2));
+    }
+
+    @Test
+    public void testSingleLookupInBatchUsesGet() throws Exception {
+        TransportCoalescingGetAction action = createAction(Settings.EMPTY);
+        action.sendBatch(Collections.singletonList(getRequest("1")),
+            Collections.<ActionListener<GetResponse>>singletonList(PlainActionFuture.<GetResponse>newFuture()));
+
+        assertThat(getExecutor.requests.size(), is(1));
+        assertThat(multiGetExecutor.requests.size(), is(0));
+    }
+
+    @Test
+    public void testItemFailureIsPropagatedToItsListenerOnly() throws Exception {
+        TransportCoalescingGetAction action = createAction(BATCHES_OF_TWO);
+        PlainActionFuture<GetResponse> first = PlainActionFuture.newFuture();
+        PlainActionFuture<GetResponse> second = PlainActionFuture.newFuture();
+        action.execute(getRequest("1"), first);
+        action.execute(getRequest("2"), second);
+
+        multiGetExecutor.listeners.get(0).onResponse(new MultiGetResponse(new MultiGetItemResponse[]{
+            new MultiGetItemResponse(getResponse("1"), null),
+            new MultiGetItemResponse(null,
+                new MultiGetResponse.Failure("users", "default", "2", new IllegalStateException("shard failed")))
+        }));
+        assertThat(first.get().getId(), is("1"));
+        expectedException.expect(ExecutionException.class);
+        expectedException.expectMessage("shard failed");
+        second.get();
+    }
+
+    @Test
+    public void testRequestFailureFailsAllLookups() throws Exception {
+        TransportCoalescingGetAction action = createAction(BATCHES_OF_TWO);
+        PlainActionFuture<GetResponse> first = PlainActionFuture.newFuture();
+        PlainActionFuture<GetResponse> second = PlainActionFuture.newFuture();
+        action.execute(getRequest("1"), first);
+        action.execute(getRequest("2"), second);
+
+        multiGetExecutor.listeners.get(0).onFailure(new IllegalStateException("node disconnected"));
+        for (PlainActionFuture<GetResponse> future : new PlainActionFuture[]{first, second}) {
+            try {
+                future.get();
+                fail("lookup should have failed");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+            }
+        }
+    }
+
+    @Test
+    public void testDisabledCoalescingUsesGet() throws Exception {
+        TransportCoalescingGetAction action = createAction(Settings.builder()
+            .put(BATCHES_OF_TWO)
+            .put(TransportCoalescingGetAction.ENABLED_SETTING, false).build());
+        action.execute(getRequest("1"), PlainActionFuture.<GetResponse>newFuture());
+        action.execute(getRequest("2"), PlainActionFuture.<GetResponse>newFuture());
+
+        assertThat(getExecutor.requests.size(), is(2));
+        assertThat(multiGetExecutor.requests.size(), is(0));
+        assertThat(action.lookups(), is(0L));
+    }
+
+    @Test
+    public void testLookupWithVersionIsNotCoalesced() throws Exception {
+        TransportCoalescingGetAction action = createAction(Settings.EMPTY);
+        GetRequest request = getRequest("1");
+        request.version(3L);
+        action.execute(request, PlainActionFuture.<GetResponse>newFuture());
+
+        assertThat(getExecutor.requests.size(), is(1));
+        assertThat(action.lookups(), is(0L));
+    }
+}
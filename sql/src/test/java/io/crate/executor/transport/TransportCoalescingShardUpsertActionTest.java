@@ -0,0 +1,262 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.executor.transport;
+
+import io.crate.analyze.symbol.Reference;
+import io.crate.exceptions.JobKilledException;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.elasticsearch.action.support.ActionFilter;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.tasks.TaskManager;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static io.crate.testing.TestingHelpers.createReference;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TransportCoalescingShardUpsertActionTest extends CrateUnitTest {
+
+    private static final Reference[] INSERT_COLUMNS = new Reference[]{createReference("id", DataTypes.INTEGER)};
+
+    /**
+     * batches of two rows are sent right away, the windowing itself is covered by {@link RequestCoalescerTest}
+     */
+    private static final Settings BATCHES_OF_TWO = Settings.builder()
+        .put(TransportCoalescingShardUpsertAction.MAX_BATCH_SIZE_SETTING, 2).build();
+
+    private ThreadPool threadPool;
+    private RecordingRequestExecutor<ShardUpsertRequest, ShardResponse> executor;
+
+    @Before
+    public void prepare() throws Exception {
+        threadPool = mock(ThreadPool.class);
+        when(threadPool.scheduler()).thenReturn(mock(ScheduledExecutorService.class));
+        when(threadPool.generic()).thenReturn(mock(ExecutorService.class));
+        executor = new RecordingRequestExecutor<>();
+    }
+
+    private TransportCoalescingShardUpsertAction createAction(Settings settings) {
+        return new TransportCoalescingShardUpsertAction(
+            settings,
+            threadPool,
+            new ActionFilters(Collections.<ActionFilter>emptySet()),
+            mock(IndexNameExpressionResolver.class),
+            new TaskManager(Settings.EMPTY),
+            executor
+        );
+    }
+
+    private static ShardUpsertRequest upsertRequest(int shard, String... ids) {
+        ShardUpsertRequest request = new ShardUpsertRequest(
+            new ShardId("users", shard), null, INSERT_COLUMNS, null, UUID.randomUUID());
+        request.continueOnError(false);
+        for (int i = 0; i < ids.length; i++) {
+            request.add(i, new ShardUpsertRequest.Item(ids[i], null, new Object[]{Integer.valueOf(ids[i])}, null));
+        }
+        return request;
+    }
+
+    @Test
+    public void testUpsertsAreSentAsOneRequest() throws Exception {
+        TransportCoalescingShardUpsertAction action = createAction(BATCHES_OF_TWO);
+        PlainActionFuture<ShardResponse> first = PlainActionFuture.newFuture();
+        PlainActionFuture<ShardResponse> second = PlainActionFuture.newFuture();
+        action.execute(upsertRequest(0, "1"), first);
+        action.execute(upsertRequest(0, "2"), second);
+
+        assertThat(executor.requests.size(), is(1));
+        ShardUpsertRequest request = executor.requests.get(0);
+        assertThat(request.continueOnError(), is(true));
+        assertThat(request.items().size(), is(2));
+        assertThat(request.items().get(0).id(), is("1"));
+        assertThat(request.items().get(1).id(), is("2"));
+
+        ShardResponse response = new ShardResponse();
+        response.add(0);
+        response.add(1);
+        executor.listeners.get(0).onResponse(response);
+
+        for (PlainActionFuture<ShardResponse> future : new PlainActionFuture[]{first, second}) {
+            ShardResponse rowResponse = future.get();
+            assertThat(rowResponse.itemIndices().size(), is(1));
+            assertThat(rowResponse.itemIndices().get(0), is(0));
+            assertThat(rowResponse.failures().get(0), nullValue());
+        }
+        assertThat(action.rows(), is(2L));
+        assertThat(action.batches(), is(1L));
+        assertThat(action.largestBatch(), is(2));
+    }
+
+    @Test
+    public void testUpsertsForDifferentShardsAreNotMerged() throws Exception {
+        TransportCoalescingShardUpsertAction action = createAction(BATCHES_OF_TWO);
+        action.execute(upsertRequest(0, "1"), PlainActionFuture.<ShardResponse>newFuture());
+        action.execute(upsertRequest(1, "2"), PlainActionFuture.<ShardResponse>newFuture());
+
+        // neither batch is full
+        assertThat(executor.requests.size(), is(0));
+        assertThat(action.batches(), is(0L));
+    }
+
+    @Test
+    public void testFailedRowIsExecutedAloneToReportItsFailure() throws Exception {
+        TransportCoalescingShardUpsertAction action = createAction(BATCHES_OF_TWO);
+        PlainActionFuture<ShardResponse> first = PlainActionFuture.newFuture();
+        PlainActionFuture<ShardResponse> second = PlainActionFuture.newFuture();
+        ShardUpsertRequest secondRequest = upsertRequest(0, "2");
+        action.execute(upsertRequest(0, "1"), first);
+        action.execute(secondRequest, second);
+
+        ShardResponse response = new ShardResponse();
+        response.add(0);
+        response.add(1, new ShardResponse.Failure("2", "DocumentAlreadyExistsException", false));
+        executor.listeners.get(0).onResponse(response);
+
+        assertThat(first.get().failures().get(0), nullValue());
+        assertThat(second.isDone(), is(false));
+        assertThat(executor.requests.size(), is(2));
+        assertThat(executor.requests.get(1), sameInstance(secondRequest));
+
+        executor.listeners.get(1).onFailure(new IllegalStateException("duplicate key"));
+        expectedException.expect(ExecutionException.class);
+        expectedException.expectMessage("duplicate key");
+        second.get();
+    }
+
+    @Test
+    public void testRequestFailureFailsAllUpserts() throws Exception {
+        TransportCoalescingShardUpsertAction action = createAction(BATCHES_OF_TWO);
+        PlainActionFuture<ShardResponse> first = PlainActionFuture.newFuture();
+        PlainActionFuture<ShardResponse> second = PlainActionFuture.newFuture();
+        action.execute(upsertRequest(0, "1"), first);
+        action.execute(upsertRequest(0, "2"), second);
+
+        executor.listeners.get(0).onFailure(new IllegalStateException("primary not active"));
+        for (PlainActionFuture<ShardResponse> future : new PlainActionFuture[]{first, second}) {
+            try {
+                future.get();
+                fail("upsert should have failed");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+            }
+        }
+    }
+
+    @Test
+    public void testKillingOneJobOfAMixedBatchDoesNotAffectTheOtherJobs() throws Exception {
+        TransportCoalescingShardUpsertAction action = createAction(BATCHES_OF_TWO);
+        ShardUpsertRequest killedRequest = upsertRequest(0, "1");
+        ShardUpsertRequest otherRequest = upsertRequest(0, "2");
+        PlainActionFuture<ShardResponse> killed = PlainActionFuture.newFuture();
+        PlainActionFuture<ShardResponse> other = PlainActionFuture.newFuture();
+        action.execute(killedRequest, killed);
+        action.execute(otherRequest, other);
+
+        ShardUpsertRequest merged = executor.requests.get(0);
+        // a KILL of one of the jobs on the shard must not abort the merged request
+        assertThat(merged.jobId(), not(anyOf(is(killedRequest.jobId()), is(otherRequest.jobId()))));
+
+        action.killJob(killedRequest.jobId());
+        assertThat(other.isDone(), is(false));
+        try {
+            killed.get();
+            fail("upsert of the killed job should have failed");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(JobKilledException.class));
+        }
+
+        ShardResponse response = new ShardResponse();
+        response.add(0);
+        response.add(1);
+        executor.listeners.get(0).onResponse(response);
+        assertThat(other.get().failures().get(0), nullValue());
+    }
+
+    @Test
+    public void testRowOfKilledJobIsLeftOutOfThePendingBatch() throws Exception {
+        TransportCoalescingShardUpsertAction action = createAction(Settings.builder()
+            .put(TransportCoalescingShardUpsertAction.MAX_BATCH_SIZE_SETTING, 3).build());
+        ShardUpsertRequest killedRequest = upsertRequest(0, "1");
+        PlainActionFuture<ShardResponse> killed = PlainActionFuture.newFuture();
+        action.execute(killedRequest, killed);
+        action.execute(upsertRequest(0, "2"), PlainActionFuture.<ShardResponse>newFuture());
+        action.killJob(killedRequest.jobId());
+        assertThat(killed.isDone(), is(true));
+
+        action.execute(upsertRequest(0, "3"), PlainActionFuture.<ShardResponse>newFuture());
+        assertThat(executor.requests.size(), is(1));
+        ShardUpsertRequest merged = executor.requests.get(0);
+        assertThat(merged.items().size(), is(2));
+        assertThat(merged.items().get(0).id(), is("2"));
+        assertThat(merged.items().get(1).id(), is("3"));
+    }
+
+    @Test
+    public void testKillAllFailsAllPendingRows() throws Exception {
+        TransportCoalescingShardUpsertAction action = createAction(Settings.EMPTY);
+        PlainActionFuture<ShardResponse> first = PlainActionFuture.newFuture();
+        PlainActionFuture<ShardResponse> second = PlainActionFuture.newFuture();
+        action.execute(upsertRequest(0, "1"), first);
+        action.execute(upsertRequest(1, "2"), second);
+
+        action.killAllJobs(System.nanoTime());
+        assertThat(first.isDone(), is(true));
+        assertThat(second.isDone(), is(true));
+    }
+
+    @Test
+    public void testMultiRowRequestIsNotCoalesced() throws Exception {
+        TransportCoalescingShardUpsertAction action = createAction(Settings.EMPTY);
+        action.execute(upsertRequest(0, "1", "2"), PlainActionFuture.<ShardResponse>newFuture());
+
+        assertThat(executor.requests.size(), is(1));
+        assertThat(action.rows(), is(0L));
+    }
+
+    @Test
+    public void testDisabledCoalescingExecutesRequestsDirectly() throws Exception {
+        TransportCoalescingShardUpsertAction action = createAction(Settings.builder()
+            .put(BATCHES_OF_TWO)
+            .put(TransportCoalescingShardUpsertAction.ENABLED_SETTING, false).build());
+        action.execute(upsertRequest(0, "1"), PlainActionFuture.<ShardResponse>newFuture());
+        action.execute(upsertRequest(0, "2"), PlainActionFuture.<ShardResponse>newFuture());
+
+        assertThat(executor.requests.size(), is(2));
+        assertThat(executor.requests.get(0).items().size(), is(1));
+        assertThat(action.rows(), is(0L));
+    }
+}
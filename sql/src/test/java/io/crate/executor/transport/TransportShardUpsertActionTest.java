@@ -182,6 +182,28 @@ public class TransportShardUpsertActionTest extends CrateUnitTest {
         assertThat(response.failures().get(0).message(), is("DocumentAlreadyExistsException[[default][1]: document already exists]"));
     }
 
+    @Test
+    public void testRequestIsMarkedAppendOnlyForTablesWithoutPrimaryKey() throws Exception {
+        ShardId shardId = new ShardId(TABLE_IDENT.indexName(), 0);
+        final ShardUpsertRequest request = new ShardUpsertRequest(
+                shardId, null, new Reference[]{ID_REF}, null, UUID.randomUUID());
+        request.add(1, new ShardUpsertRequest.Item("1", null, new Object[]{1}, null));
+
+        transportShardUpsertAction.processRequestItems(shardId, request, new AtomicBoolean(false));
+
+        assertThat(request.autoGeneratedIds(), is(true));
+    }
+
+    @Test
+    public void testTablesWithPrimaryKeyHaveNoAutoGeneratedIds() throws Exception {
+        DocTableInfo tableInfo = new TestingTableInfo.Builder(TABLE_IDENT, new Routing(Collections.EMPTY_MAP))
+                .add("id", DataTypes.SHORT, null)
+                .addPrimaryKey("id")
+                .build();
+        assertThat(TransportShardUpsertAction.hasAutoGeneratedIds(tableInfo), is(false));
+        assertThat(TransportShardUpsertAction.hasAutoGeneratedIds(generatedColumnTableInfo), is(true));
+    }
+
     @Test
     public void testProcessGeneratedColumns() throws Exception {
         Map<String, Object> updatedColumns = MapBuilder.<String, Object>newMapBuilder()
@@ -0,0 +1,125 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport.distributed;
+
+import io.crate.Streamer;
+import io.crate.core.collections.Bucket;
+import io.crate.core.collections.RowN;
+import io.crate.executor.transport.StreamBucket;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.ArrayType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.*;
+
+public class AdaptivePageSizeTest extends CrateUnitTest {
+
+    @Test
+    public void testEstimateRowSize() throws Exception {
+        assertThat(AdaptivePageSize.estimateRowSize(
+                new Streamer[]{DataTypes.INTEGER.streamer(), DataTypes.LONG.streamer()}), is(32L));
+        assertThat(AdaptivePageSize.estimateRowSize(new Streamer[]{DataTypes.STRING.streamer()}), is(96L));
+        assertThat(AdaptivePageSize.estimateRowSize(new Streamer[]{DataTypes.OBJECT.streamer()}),
+                is(AdaptivePageSize.VARIABLE_WIDTH_ESTIMATE));
+        assertThat(AdaptivePageSize.estimateRowSize(new Streamer[]{new ArrayType(DataTypes.STRING).streamer()}),
+                is(AdaptivePageSize.VARIABLE_WIDTH_ESTIMATE));
+    }
+
+    @Test
+    public void testPageSizeIsLimitedByMemoryBudget() throws Exception {
+        assertThat(new AdaptivePageSize(500_000, 1000, new PageMemoryBudget(1_000_000)).pageSize(), is(1000));
+        assertThat(new AdaptivePageSize(500, 1000, new PageMemoryBudget(1_000_000)).pageSize(), is(500));
+    }
+
+    @Test
+    public void testPageSizeHasMinimum() throws Exception {
+        assertThat(new AdaptivePageSize(500_000, 1_000_000, new PageMemoryBudget(1000)).pageSize(),
+                is(AdaptivePageSize.MIN_PAGE_SIZE));
+        assertThat(new AdaptivePageSize(5, 1_000_000, new PageMemoryBudget(1000)).pageSize(), is(5));
+    }
+
+    @Test
+    public void testFixedPageSizeIsNotAdjusted() throws Exception {
+        AdaptivePageSize pageSize = AdaptivePageSize.fixed(100);
+        pageSize.observe(10, 100_000_000);
+        assertThat(pageSize.pageSize(), is(100));
+    }
+
+    @Test
+    public void testPageSizeAdjustsToObservedRowSize() throws Exception {
+        AdaptivePageSize pageSize = new AdaptivePageSize(500_000, 100, new PageMemoryBudget(1_000_000));
+        assertThat(pageSize.pageSize(), is(10_000));
+
+        // rows are larger than estimated
+        pageSize.observe(100, 100 * 1900);
+        assertThat(pageSize.pageSize(), is(1000));
+
+        // and smaller again
+        for (int i = 0; i < 20; i++) {
+            pageSize.observe(100, 100 * 10);
+        }
+        assertThat(pageSize.pageSize(), greaterThan(90_000));
+    }
+
+    @Test
+    public void testMemoryBudgetIsSharedByConcurrentResults() throws Exception {
+        PageMemoryBudget budget = new PageMemoryBudget(1_000_000);
+        AdaptivePageSize first = new AdaptivePageSize(500_000, 100, budget);
+        assertThat(first.pageSize(), is(10_000));
+
+        AdaptivePageSize second = new AdaptivePageSize(500_000, 100, budget);
+        assertThat(second.pageSize(), is(5_000));
+        // the page size of the first result is adjusted with the next page
+        first.observe(0, 0);
+        assertThat(first.pageSize(), is(5_000));
+
+        second.close();
+        second.close();
+        assertThat(budget.numShares(), is(1));
+        first.observe(0, 0);
+        assertThat(first.pageSize(), is(10_000));
+
+        first.close();
+        assertThat(budget.numShares(), is(0));
+    }
+
+    @Test
+    public void testObserveCountsSharedBucketOnce() throws Exception {
+        Streamer<?>[] streamers = new Streamer[]{DataTypes.STRING.streamer()};
+        StreamBucket.Builder builder = new StreamBucket.Builder(streamers);
+        for (int i = 0; i < 10; i++) {
+            byte[] bytes = new byte[999];
+            Arrays.fill(bytes, (byte) i);
+            builder.add(new RowN(new Object[]{new BytesRef(bytes)}));
+        }
+        StreamBucket bucket = builder.build();
+
+        AdaptivePageSize pageSize = new AdaptivePageSize(500_000, 1000, new PageMemoryBudget(1_000_000));
+        pageSize.observe(new Bucket[]{bucket, bucket, bucket});
+        // each row is 999 bytes + length prefix, a triple count would reduce the page size to ~333
+        assertThat(pageSize.pageSize(), allOf(greaterThan(990), lessThanOrEqualTo(1000)));
+    }
+}
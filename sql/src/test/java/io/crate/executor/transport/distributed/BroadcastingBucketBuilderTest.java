@@ -24,10 +24,13 @@ package io.crate.executor.transport.distributed;
 import io.crate.Streamer;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Row1;
+import io.crate.executor.transport.StreamBucket;
 import io.crate.types.DataTypes;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
 
 public class BroadcastingBucketBuilderTest {
@@ -44,4 +47,18 @@ public class BroadcastingBucketBuilderTest {
         assertThat(rows, Matchers.sameInstance(buckets[1]));
         assertThat(rows, Matchers.sameInstance(buckets[2]));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLocalBucketIsBuiltSeparately() throws Exception {
+        final BroadcastingBucketBuilder builder = new BroadcastingBucketBuilder(new Streamer[]{DataTypes.INTEGER.streamer()}, 3, 1);
+        builder.add(new Row1(10));
+
+        Bucket[] buckets = new Bucket[3];
+        builder.build(buckets);
+
+        assertThat(buckets[0], Matchers.sameInstance(buckets[2]));
+        assertThat(buckets[0], instanceOf(StreamBucket.class));
+        assertThat(buckets[1], not(instanceOf(StreamBucket.class)));
+        assertThat(buckets[1].size(), Matchers.is(1));
+    }
+}
@@ -24,12 +24,14 @@ package io.crate.executor.transport.distributed;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.*;
 import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Row;
 import io.crate.core.collections.Row1;
 import io.crate.executor.transport.Transports;
 import io.crate.jobs.JobContextService;
 import io.crate.jobs.PageDownstreamContext;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.RowSender;
 import io.crate.types.DataTypes;
@@ -51,7 +53,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.core.Is.is;
-import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.*;
 
 public class DistributingDownstreamTest extends CrateUnitTest {
 
@@ -141,6 +143,118 @@ public class DistributingDownstreamTest extends CrateUnitTest {
         assertThat(task1.numResumes(), Matchers.greaterThan(0));
     }
 
+    @Test
+    public void testPagesAreSentWhileCreditsAreLeft() throws Exception {
+        Streamer[] streamers = new Streamer[] {DataTypes.INTEGER.streamer() };
+
+        final List<DistributedResultRequest> requests = new ArrayList<>();
+        final List<ActionListener<DistributedResultResponse>> listeners = new ArrayList<>();
+        TransportDistributedResultAction transportDistributedResultAction = new TransportDistributedResultAction(
+                mock(Transports.class),
+                mock(JobContextService.class),
+                mock(ThreadPool.class),
+                mock(TransportService.class),
+                Settings.EMPTY) {
+
+            @Override
+            public void pushResult(String node, DistributedResultRequest request, ActionListener<DistributedResultResponse> listener) {
+                requests.add(request);
+                listeners.add(listener);
+            }
+        };
+
+        DistributingDownstream dd = new DistributingDownstream(
+                Loggers.getLogger(DistributingDownstream.class),
+                UUID.randomUUID(),
+                new BroadcastingBucketBuilder(streamers, 1),
+                1,
+                (byte) 0,
+                0,
+                ImmutableList.of("n1"),
+                transportDistributedResultAction,
+                streamers,
+                AdaptivePageSize.fixed(2),
+                3,
+                -1
+        );
+        dd.prepare();
+
+        RowSender rowSender = new RowSender(RowSender.rowRange(0, 10), dd, MoreExecutors.directExecutor());
+        rowSender.run();
+
+        // 3 pages are sent without a response, the 4th page is full and pauses the upstream
+        assertThat(requests.size(), is(3));
+        assertThat(rowSender.numPauses(), is(1));
+
+        // a credit is returned, the full page is sent but there are no credits left to resume
+        listeners.get(0).onResponse(new DistributedResultResponse(true));
+        assertThat(requests.size(), is(4));
+        assertThat(rowSender.numResumes(), is(0));
+
+        // the upstream is resumed and sends another page, the last page has to wait for a credit
+        listeners.get(1).onResponse(new DistributedResultResponse(true));
+        assertThat(rowSender.numResumes(), is(1));
+        assertThat(requests.size(), is(5));
+
+        listeners.get(2).onResponse(new DistributedResultResponse(true));
+        assertThat(requests.size(), is(6));
+        assertThat(requests.get(5).isLast(), is(true));
+        for (int i = 0; i < requests.size(); i++) {
+            assertThat(requests.get(i).pageIdx(), is(i));
+        }
+    }
+
+    @Test
+    public void testPagesForLocalDownstreamAreAccountedUntilConsumed() throws Exception {
+        Streamer[] streamers = new Streamer[] {DataTypes.INTEGER.streamer() };
+
+        final List<ActionListener<DistributedResultResponse>> listeners = new ArrayList<>();
+        TransportDistributedResultAction transportDistributedResultAction = new TransportDistributedResultAction(
+                mock(Transports.class),
+                mock(JobContextService.class),
+                mock(ThreadPool.class),
+                mock(TransportService.class),
+                Settings.EMPTY) {
+
+            @Override
+            public void pushLocalResult(DistributedResultRequest request, ActionListener<DistributedResultResponse> listener) {
+                listeners.add(listener);
+            }
+        };
+
+        RamAccountingContext ramAccountingContext = mock(RamAccountingContext.class);
+        DistributingDownstream dd = new DistributingDownstream(
+                Loggers.getLogger(DistributingDownstream.class),
+                UUID.randomUUID(),
+                new BroadcastingBucketBuilder(streamers, 1, 0),
+                1,
+                (byte) 0,
+                0,
+                ImmutableList.of("n1"),
+                transportDistributedResultAction,
+                streamers,
+                AdaptivePageSize.fixed(2),
+                3,
+                0,
+                new OperationStats(),
+                ramAccountingContext
+        );
+        dd.prepare();
+
+        RowSender rowSender = new RowSender(RowSender.rowRange(0, 4), dd, MoreExecutors.directExecutor());
+        rowSender.run();
+
+        long pageBytes = RamAccountingContext.roundUp(2 * AdaptivePageSize.estimateRowSize(streamers));
+        assertThat(listeners.size(), is(3));
+        verify(ramAccountingContext, times(2)).addBytes(pageBytes);
+        verify(ramAccountingContext, never()).addBytes(-pageBytes);
+
+        for (ActionListener<DistributedResultResponse> listener : listeners) {
+            listener.onResponse(new DistributedResultResponse(true));
+        }
+        verify(ramAccountingContext, times(2)).addBytes(-pageBytes);
+    }
+
     @Test
     public void testTwoDownstreamsOneFinishedOneNeedsMoreDoesNotGetStuck() throws Exception {
         Streamer[] streamers = new Streamer[] {DataTypes.INTEGER.streamer() };
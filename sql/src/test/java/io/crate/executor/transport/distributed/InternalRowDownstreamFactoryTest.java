@@ -32,6 +32,7 @@ import io.crate.operation.NodeOperation;
 import io.crate.operation.Paging;
 import io.crate.operation.projectors.InternalRowDownstreamFactory;
 import io.crate.operation.projectors.RowReceiver;
+import io.crate.operation.reference.sys.operation.OperationStats;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.node.dql.MergePhase;
 import io.crate.planner.node.dql.RoutedCollectPhase;
@@ -85,7 +86,8 @@ public class InternalRowDownstreamFactoryTest extends CrateUnitTest {
                 DistributionInfo.DEFAULT_BROADCAST);
         mergePhase.executionNodes(downstreamExecutionNodes);
         NodeOperation nodeOperation = NodeOperation.withDownstream(collectPhase, mergePhase, (byte) 0, "nodeName");
-        return rowDownstreamFactory.createDownstream(nodeOperation, collectPhase.distributionInfo(), jobId, Paging.PAGE_SIZE);
+        return rowDownstreamFactory.createDownstream(
+            nodeOperation, collectPhase.distributionInfo(), jobId, Paging.PAGE_SIZE, new OperationStats(), null);
     }
 
     @Test
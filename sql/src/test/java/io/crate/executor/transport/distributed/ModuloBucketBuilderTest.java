@@ -24,11 +24,14 @@ package io.crate.executor.transport.distributed;
 import io.crate.Streamer;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Row1;
+import io.crate.executor.transport.StreamBucket;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.TestingHelpers;
 import io.crate.types.DataTypes;
 import org.junit.Test;
 
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.core.Is.is;
 
 public class ModuloBucketBuilderTest extends CrateUnitTest {
@@ -53,4 +56,24 @@ public class ModuloBucketBuilderTest extends CrateUnitTest {
         assertThat(rowsD2.size(), is(2));
         assertThat(TestingHelpers.printedTable(rowsD2), is("1\n3\n"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLocalBucketIsNotEncoded() throws Exception {
+        final ModuloBucketBuilder builder = new ModuloBucketBuilder(new Streamer[]{DataTypes.INTEGER.streamer()}, 2, 0, 1);
+
+        builder.add(new Row1(1));
+        builder.add(new Row1(2));
+        builder.add(new Row1(3));
+
+        Bucket[] buckets = new Bucket[2];
+        builder.build(buckets);
+
+        assertThat(buckets[0], instanceOf(StreamBucket.class));
+        assertThat(buckets[1], not(instanceOf(StreamBucket.class)));
+        assertThat(TestingHelpers.printedTable(buckets[1]), is("1\n3\n"));
+
+        builder.add(new Row1(5));
+        builder.build(buckets);
+        assertThat(TestingHelpers.printedTable(buckets[1]), is("5\n"));
+    }
+}
@@ -22,9 +22,11 @@
 package io.crate.executor.transport.task.elasticsearch;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 import io.crate.executor.JobTask;
 import io.crate.executor.TaskResult;
+import io.crate.jobs.AdmissionController;
 import io.crate.jobs.ESJobContext;
 import io.crate.jobs.ExecutionSubContext;
 import io.crate.jobs.JobContextService;
@@ -54,9 +56,11 @@ public class ESJobContextTaskTest extends CrateUnitTest {
 
     private final JobContextService jobContextService = new JobContextService(
         Settings.EMPTY, new NoopClusterService(), mock(StatsTables.class));
+    private final AdmissionController admissionController = new AdmissionController(
+        Settings.EMPTY, new NoopClusterService(), MoreExecutors.directExecutor());
 
     private EsJobContextTask createTask(UUID jobId) {
-        EsJobContextTask task = new EsJobContextTask(jobId, 1, 1, jobContextService);
+        EsJobContextTask task = new EsJobContextTask(jobId, 1, 1, 1, jobContextService, admissionController);
         task.createContextBuilder("test",
             ImmutableList.of(new DummyRequest()),
             ImmutableList.of(new DummyListener()),
@@ -99,6 +103,12 @@ public class ESJobContextTaskTest extends CrateUnitTest {
         assertNull(jobExecutionContext.getSubContextOrNull(1));
     }
 
+    @Test
+    public void testWorkloadClassDependsOnNumberOfDocKeys() throws Exception {
+        assertThat(EsJobContextTask.workloadClass(1), is(AdmissionController.WorkloadClass.POINT));
+        assertThat(EsJobContextTask.workloadClass(5), is(AdmissionController.WorkloadClass.DEFAULT));
+    }
+
     static class DummyRequest extends ActionRequest<DummyRequest> {
         @Override
         public ActionRequestValidationException validate() {
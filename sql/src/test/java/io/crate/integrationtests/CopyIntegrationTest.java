@@ -26,6 +26,7 @@ import com.google.common.base.Joiner;
 import io.crate.action.sql.SQLActionException;
 import io.crate.action.sql.SQLResponse;
 import io.crate.testing.TestingHelpers;
+import org.elasticsearch.common.collect.MapBuilder;
 import org.elasticsearch.test.ESIntegTestCase;
 import org.junit.Rule;
 import org.junit.Test;
@@ -41,6 +42,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
@@ -96,6 +98,56 @@ public class CopyIntegrationTest extends SQLHttpIntegrationTest {
         assertThat(response.rowCount(), is(1L));
     }
 
+    @Test
+    public void testCopyFromCSVFile() throws Exception {
+        execute("create table t (id int primary key, name string, details object) " +
+                "clustered into 2 shards with (number_of_replicas = 0)");
+        File file = folder.newFile("data.csv");
+        List<String> lines = Arrays.asList(
+            "name;id;details",
+            "Arthur;1;\"{\"\"age\"\": 38}\"",
+            "\"Trillian; Tricia\";2;");
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+
+        execute("copy t from ? with (format='csv', delimiter=';')", new Object[] { file.getAbsolutePath() });
+        assertThat(response.rowCount(), is(2L));
+        refresh();
+
+        execute("select id, name, details['age'] from t order by id");
+        assertThat(TestingHelpers.printedTable(response.rows()), is(
+            "1| Arthur| 38\n" +
+            "2| Trillian; Tricia| NULL\n"));
+    }
+
+    @Test
+    public void testCopyToAndFromColumnarFormat() throws Exception {
+        execute("create table t (id int primary key, name string, tags array(string), details object) " +
+                "clustered into 2 shards with (number_of_replicas = 0)");
+        execute("insert into t (id, name, tags, details) values (?, ?, ?, ?)", new Object[][]{
+            new Object[]{1, "Arthur", new String[]{"a", "b"}, MapBuilder.newMapBuilder().put("age", 38).map()},
+            new Object[]{2, null, null, null}
+        });
+        execute("refresh table t");
+
+        String uri = Paths.get(folder.getRoot().toURI()).toUri().toString();
+        execute("copy t to directory ? with (format='columnar')", new Object[]{uri});
+        assertThat(response.rowCount(), is(2L));
+        for (String file : folder.getRoot().list()) {
+            assertThat(file, endsWith(".col"));
+        }
+
+        execute("create table t2 (id int primary key, name string, tags array(string), details object) " +
+                "with (number_of_replicas = 0)");
+        execute("copy t2 from ? with (format='columnar')", new Object[]{uri + "*"});
+        assertThat(response.rowCount(), is(2L));
+        refresh();
+
+        execute("select id, name, tags, details['age'] from t2 order by id");
+        assertThat(TestingHelpers.printedTable(response.rows()), is(
+            "1| Arthur| [a, b]| 38\n" +
+            "2| NULL| NULL| NULL\n"));
+    }
+
     @Test
     public void testCopyFromWithOverwriteDuplicates() throws Exception {
         execute("create table t (id int primary key) with (number_of_replicas = 0)");
@@ -59,6 +59,28 @@ public class DeleteIntegrationTest extends SQLTransportIntegrationTest {
         assertEquals(2, response.rowCount());
     }
 
+    @Test
+    public void testDeleteByQueryWithAndWithoutGenericFunctionFilter() throws Exception {
+        execute("create table test (id integer, x integer) clustered into 2 shards with (number_of_replicas=1)");
+        ensureGreen();
+        execute("insert into test (id, x) values (1, 1), (2, 20), (3, 3), (4, 40), (5, 50), (6, 6)");
+        refresh();
+
+        // deleted on the shards
+        execute("delete from test where x > 10");
+        assertThat(response.rowCount(), is(3L));
+        refresh();
+        execute("select count(*) from test");
+        assertThat((Long) response.rows()[0][0], is(3L));
+
+        // the query uses a function filter, the matching documents are collected and deleted
+        execute("delete from test where x = id");
+        assertThat(response.rowCount(), is(3L));
+        refresh();
+        execute("select count(*) from test");
+        assertThat((Long) response.rows()[0][0], is(0L));
+    }
+
     @Test
     public void testDeleteWhereIsNull() throws Exception {
         execute("create table test (id integer, name string) with (number_of_replicas=0)");
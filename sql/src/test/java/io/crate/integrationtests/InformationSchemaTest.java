@@ -64,7 +64,7 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
     @Test
     public void testDefaultTables() throws Exception {
         execute("select * from information_schema.tables order by schema_name, table_name");
-        assertEquals(17L, response.rowCount());
+        assertEquals(20L, response.rowCount());
 
         assertThat(TestingHelpers.printedTable(response.rows()), is(
                 "NULL| NULL| strict| 0| 1| NULL| information_schema| NULL| columns\n" +
@@ -73,6 +73,7 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
                 "NULL| NULL| strict| 0| 1| NULL| information_schema| NULL| table_constraints\n" +
                 "NULL| NULL| strict| 0| 1| NULL| information_schema| NULL| table_partitions\n" +
                 "NULL| NULL| strict| 0| 1| NULL| information_schema| NULL| tables\n" +
+                "NULL| NULL| strict| 0| 1| NULL| sys| NULL| admission_queues\n" +
                 "NULL| NULL| strict| 0| 1| NULL| sys| NULL| checks\n" +
                 "NULL| NULL| strict| 0| 1| NULL| sys| NULL| cluster\n" +
                 "NULL| NULL| strict| 0| 1| NULL| sys| NULL| jobs\n" +
@@ -81,8 +82,10 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
                 "NULL| NULL| strict| 0| 1| NULL| sys| NULL| nodes\n" +
                 "NULL| NULL| strict| 0| 1| NULL| sys| NULL| operations\n" +
                 "NULL| NULL| strict| 0| 1| NULL| sys| NULL| operations_log\n" +
+                "NULL| NULL| strict| 0| 1| NULL| sys| NULL| query_stats\n" +
                 "NULL| NULL| strict| 0| 1| NULL| sys| NULL| repositories\n" +
                 "NULL| NULL| strict| 0| 1| NULL| sys| NULL| shards\n" +
+                "NULL| NULL| strict| 0| 1| NULL| sys| NULL| slow_queries\n" +
                 "NULL| NULL| strict| 0| 1| NULL| sys| NULL| snapshots\n"));
     }
 
@@ -119,14 +122,14 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
         serviceSetup();
 
         execute("select * from information_schema.tables");
-        assertEquals(20L, response.rowCount());
+        assertEquals(23L, response.rowCount());
 
         client().execute(SQLAction.INSTANCE,
             new SQLRequest("create table t4 (col1 integer, col2 string) with (number_of_replicas=0)")).actionGet();
         ensureGreen("t4");
 
         execute("select * from information_schema.tables");
-        assertEquals(21L, response.rowCount());
+        assertEquals(24L, response.rowCount());
     }
 
     @Test
@@ -437,7 +440,7 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
     @Test
     public void testDefaultColumns() throws Exception {
         execute("select * from information_schema.columns order by schema_name, table_name");
-        assertEquals(338L, response.rowCount());
+        assertEquals(402L, response.rowCount());
     }
 
     @Test
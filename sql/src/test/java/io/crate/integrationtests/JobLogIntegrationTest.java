@@ -41,7 +41,8 @@ public class JobLogIntegrationTest extends SQLTransportIntegrationTest {
     @After
     public void resetSettings() throws Exception {
         // reset stats settings in case of some tests changed it and failed without resetting.
-        sqlExecutor.exec("reset global stats.enabled, stats.jobs_log_size, stats.operations_log_size");
+        sqlExecutor.exec("reset global stats.enabled, stats.jobs_log_size, stats.operations_log_size, " +
+                         "stats.slow_query_threshold, stats.slow_query_redact_parameters");
     }
 
     @Test
@@ -110,4 +111,26 @@ public class JobLogIntegrationTest extends SQLTransportIntegrationTest {
             "select * from sys.jobs_log where stmt like 'insert into%' or stmt like 'delete%'");
         assertThat(response.rowCount(), is(2L));
     }
+
+    @Test
+    public void testSlowQueries() throws Exception {
+        sqlExecutor.exec("create table slow (id int primary key, name string) with (number_of_replicas=0)");
+        sqlExecutor.ensureYellowOrGreen();
+        sqlExecutor.exec("insert into slow (id, name) values (1, 'foo')");
+        sqlExecutor.exec("refresh table slow");
+
+        sqlExecutor.exec("set global transient stats.slow_query_threshold = '1ms', stats.slow_query_redact_parameters = true");
+        for (int i = 0; i < 10; i++) {
+            sqlExecutor.exec("select name, count(*) from slow where name = ? group by name", new Object[]{"foo"});
+        }
+        sqlExecutor.exec("reset global stats.slow_query_threshold");
+
+        SQLResponse response = sqlExecutor.exec("select parameters, nodes, shards, plan from sys.slow_queries where stmt = ?",
+            new Object[]{"select name, count(*) from slow where name = ? group by name"});
+        assertThat(response.rowCount(), Matchers.greaterThan(0L));
+        assertThat((String) response.rows()[0][0], is("[?]"));
+        assertThat(((Object[]) response.rows()[0][1]).length, Matchers.greaterThan(0));
+        assertThat(((Object[]) response.rows()[0][2]).length, Matchers.greaterThan(0));
+        assertThat((String) response.rows()[0][3], Matchers.containsString("\"planType\""));
+    }
 }
@@ -424,8 +424,8 @@ public abstract class SQLTransportIntegrationTest extends ESIntegTestCase {
         parser.parseSource(new BytesArray(source));
 
         SQLBaseResponse sqlResponse;
-        Object[][] bulkArgs = context.bulkArgs();
-        if (bulkArgs != null && bulkArgs.length > 0) {
+        BulkArgs bulkArgs = context.bulkArgs();
+        if (bulkArgs != null && bulkArgs.size() > 0) {
             SQLBulkRequestBuilder requestBuilder = new SQLBulkRequestBuilder(client(), SQLBulkAction.INSTANCE);
             requestBuilder.bulkArgs(context.bulkArgs());
             requestBuilder.stmt(context.stmt());
@@ -57,4 +57,20 @@ public class SysClusterTest extends SQLTransportIntegrationTest {
         assertThat(response.rowCount(), is(1L));
         assertThat((String) ((Map<String, Object>) response.rows()[0][0]).get("planType"), is("CollectAndMerge"));
     }
+
+    @Test
+    public void testExplainAnalyzeSysCluster() throws Exception {
+        execute("explain analyze select * from sys.cluster");
+        assertThat(response.rowCount(), is(1L));
+        Map<String, Object> plan = (Map<String, Object>) response.rows()[0][0];
+        assertThat((String) plan.get("planType"), is("CollectAndMerge"));
+        assertThat(((Number) plan.get("rows")).longValue(), is(1L));
+        assertThat(plan.containsKey("executionTime"), is(true));
+
+        Map<String, Object> collectPhase = (Map<String, Object>) plan.get("collectPhase");
+        Map<String, Object> profile = (Map<String, Object>) collectPhase.get("profile");
+        assertThat(profile.size(), is(1));
+        Map<String, Object> nodeProfile = (Map<String, Object>) profile.values().iterator().next();
+        assertThat(((Number) nodeProfile.get("rowsOut")).longValue(), is(1L));
+    }
 }
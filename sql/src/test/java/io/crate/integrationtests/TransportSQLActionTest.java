@@ -1292,6 +1292,30 @@ public class TransportSQLActionTest extends SQLTransportIntegrationTest {
 
     }
 
+    @Test
+    public void testBulkDeleteByIdReturnsRowCountPerBulkArg() throws Exception {
+        execute("create table test (id integer primary key, name string) with (number_of_replicas = 0)");
+        ensureYellow();
+        execute("insert into test (id, name) values (1, 'Earth'), (2, 'Saturn'), (3, 'Moon')");
+        refresh();
+
+        SQLBulkResponse bulkResp = execute("delete from test where id = ?", new Object[][]{
+                new Object[]{1},
+                new Object[]{null},  // can't match
+                new Object[]{99},    // doesn't exist
+                new Object[]{3},
+        });
+        assertThat(bulkResp.results().length, is(4));
+        assertThat(bulkResp.results()[0].rowCount(), is(1L));
+        assertThat(bulkResp.results()[1].rowCount(), is(0L));
+        assertThat(bulkResp.results()[2].rowCount(), is(0L));
+        assertThat(bulkResp.results()[3].rowCount(), is(1L));
+        refresh();
+
+        execute("select id from test");
+        assertThat(TestingHelpers.printedTable(response.rows()), is("2\n"));
+    }
+
     @Test
     public void testSelectFormatFunction() throws Exception {
         this.setup.setUpLocations();
@@ -832,4 +832,27 @@ public class UpdateIntegrationTest extends SQLTransportIntegrationTest {
         execute("select a from computed");
         assertThat((Integer) response.rows()[0][0], is(3));
     }
+
+    @Test
+    public void testUpdateByQueryAppliesAssignmentsToCollectedSource() throws Exception {
+        execute("create table test (id int primary key, c int, o object as (s string), d as c * 2) " +
+                "clustered into 2 shards with (number_of_replicas=1)");
+        ensureYellow();
+        Object[][] bulkArgs = new Object[100][];
+        for (int i = 0; i < bulkArgs.length; i++) {
+            bulkArgs[i] = new Object[]{i, i % 2, "a"};
+        }
+        execute("insert into test (id, c, o) values (?, ?, {s=?})", bulkArgs);
+        refresh();
+
+        execute("update test set c = c + 10 where c = 1");
+        assertThat(response.rowCount(), is(50L));
+        refresh();
+
+        // the assignments were applied to the whole source, untouched columns are kept
+        execute("select count(*), min(c), max(d), min(_version) from test where c > 1 and o['s'] = 'a'");
+        assertThat(TestingHelpers.printedTable(response.rows()), is("50| 11| 22| 2\n"));
+        execute("select count(*), max(c), max(_version) from test where c < 10");
+        assertThat(TestingHelpers.printedTable(response.rows()), is("50| 0| 1\n"));
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.jobs;
+
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.crate.exceptions.JobKilledException;
+import io.crate.jobs.AdmissionController.LaneStats;
+import io.crate.jobs.AdmissionController.Ticket;
+import io.crate.jobs.AdmissionController.WorkloadClass;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.test.cluster.NoopClusterService;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class AdmissionControllerTest extends CrateUnitTest {
+
+    private static AdmissionController newController(boolean enabled) {
+        return new AdmissionController(Settings.builder()
+            .put(AdmissionController.ENABLED_SETTING, enabled)
+            .put("admission.heavy.slots", 1)
+            .put("admission.heavy.queue_size", 1)
+            .put("admission.point.slots", 1)
+            .build(), new NoopClusterService(), MoreExecutors.directExecutor());
+    }
+
+    private static LaneStats stats(AdmissionController controller, WorkloadClass workloadClass) {
+        return Iterables.get(controller.stats(), workloadClass.ordinal());
+    }
+
+    @Test
+    public void testJobIsQueuedUntilSlotIsReleased() throws Exception {
+        AdmissionController controller = newController(true);
+        ListenableFuture<Ticket> first = controller.admit(WorkloadClass.HEAVY, UUID.randomUUID());
+        ListenableFuture<Ticket> second = controller.admit(WorkloadClass.HEAVY, UUID.randomUUID());
+
+        assertThat(first.isDone(), is(true));
+        assertThat(second.isDone(), is(false));
+        assertThat(stats(controller, WorkloadClass.HEAVY).queued(), is(1));
+
+        first.get().release();
+        // releasing twice must not free another slot
+        first.get().release();
+
+        assertThat(second.isDone(), is(true));
+        LaneStats stats = stats(controller, WorkloadClass.HEAVY);
+        assertThat(stats.active(), is(1));
+        assertThat(stats.queued(), is(0));
+        assertThat(stats.admitted(), is(2L));
+
+        second.get().release();
+        assertThat(stats(controller, WorkloadClass.HEAVY).active(), is(0));
+    }
+
+    @Test
+    public void testJobIsRejectedIfQueueIsFull() throws Exception {
+        AdmissionController controller = newController(true);
+        controller.admit(WorkloadClass.HEAVY, UUID.randomUUID());
+        controller.admit(WorkloadClass.HEAVY, UUID.randomUUID());
+        ListenableFuture<Ticket> rejected = controller.admit(WorkloadClass.HEAVY, UUID.randomUUID());
+
+        try {
+            rejected.get();
+            fail("job should have been rejected");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(EsRejectedExecutionException.class));
+        }
+        assertThat(stats(controller, WorkloadClass.HEAVY).rejected(), is(1L));
+    }
+
+    @Test
+    public void testPointLaneIsNotBlockedByHeavyJobs() throws Exception {
+        AdmissionController controller = newController(true);
+        controller.admit(WorkloadClass.HEAVY, UUID.randomUUID());
+        controller.admit(WorkloadClass.HEAVY, UUID.randomUUID());
+
+        assertThat(controller.admit(WorkloadClass.POINT, UUID.randomUUID()).isDone(), is(true));
+        assertThat(stats(controller, WorkloadClass.POINT).active(), is(1));
+    }
+
+    @Test
+    public void testKilledJobIsRemovedFromQueue() throws Exception {
+        AdmissionController controller = newController(true);
+        ListenableFuture<Ticket> running = controller.admit(WorkloadClass.HEAVY, UUID.randomUUID());
+        UUID jobId = UUID.randomUUID();
+        ListenableFuture<Ticket> queued = controller.admit(WorkloadClass.HEAVY, jobId);
+
+        controller.killJob(jobId);
+        try {
+            queued.get();
+            fail("queued job should have been killed");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(JobKilledException.class));
+        }
+        assertThat(stats(controller, WorkloadClass.HEAVY).queued(), is(0));
+
+        running.get().release();
+        assertThat(stats(controller, WorkloadClass.HEAVY).active(), is(0));
+    }
+
+    @Test
+    public void testKillAllRemovesQueuedJobs() throws Exception {
+        AdmissionController controller = newController(true);
+        controller.admit(WorkloadClass.HEAVY, UUID.randomUUID());
+        ListenableFuture<Ticket> queued = controller.admit(WorkloadClass.HEAVY, UUID.randomUUID());
+
+        controller.killAllJobs(System.nanoTime());
+        assertThat(queued.isDone(), is(true));
+        assertThat(stats(controller, WorkloadClass.HEAVY).queued(), is(0));
+    }
+
+    @Test
+    public void testCancelledJobIsRemovedFromQueue() throws Exception {
+        AdmissionController controller = newController(true);
+        ListenableFuture<Ticket> running = controller.admit(WorkloadClass.HEAVY, UUID.randomUUID());
+        ListenableFuture<Ticket> queued = controller.admit(WorkloadClass.HEAVY, UUID.randomUUID());
+
+        queued.cancel(false);
+        assertThat(stats(controller, WorkloadClass.HEAVY).queued(), is(0));
+
+        // the slot isn't handed over to the cancelled job
+        running.get().release();
+        assertThat(stats(controller, WorkloadClass.HEAVY).active(), is(0));
+    }
+
+    @Test
+    public void testJobsAreNotQueuedIfDisabled() throws Exception {
+        AdmissionController controller = newController(false);
+        for (int i = 0; i < 5; i++) {
+            assertThat(controller.admit(WorkloadClass.HEAVY, UUID.randomUUID()).isDone(), is(true));
+        }
+        LaneStats stats = stats(controller, WorkloadClass.HEAVY);
+        assertThat(stats.enabled(), is(false));
+        assertThat(stats.active(), is(5));
+        assertThat(stats.queued(), is(0));
+    }
+}
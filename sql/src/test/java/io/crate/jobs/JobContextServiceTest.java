@@ -22,6 +22,7 @@
 package io.crate.jobs;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.crate.Streamer;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.operation.PageDownstream;
@@ -39,6 +40,7 @@ import org.junit.Test;
 
 import javax.annotation.Nonnull;
 import java.lang.reflect.Field;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
@@ -46,6 +48,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.mock;
 
 public class JobContextServiceTest extends CrateUnitTest {
@@ -237,6 +240,45 @@ public class JobContextServiceTest extends CrateUnitTest {
         assertThat(jobContextService.killJobs(jobsToKill), is(1L));
     }
 
+    @Test
+    public void testProfileIsAvailableOnceTheProfiledJobFinished() throws Throwable {
+        UUID jobId = UUID.randomUUID();
+        JobExecutionContext.Builder builder = jobContextService.newBuilder(jobId, "n1", true);
+        assertThat(builder.profile(), is(true));
+        DummySubContext subContext = new DummySubContext(1);
+        builder.addSubContext(subContext);
+        JobExecutionContext ctx = jobContextService.createContext(builder);
+        ctx.start();
+
+        ListenableFuture<List<PhaseProfile>> profile = jobContextService.collectProfile(jobId);
+        assertThat(profile.isDone(), is(false));
+
+        subContext.close();
+        List<PhaseProfile> phaseProfiles = profile.get();
+        assertThat(phaseProfiles.size(), is(1));
+        assertThat(phaseProfiles.get(0).phaseId(), is(1));
+        assertThat(phaseProfiles.get(0).name(), is("dummy 1"));
+        assertThat(phaseProfiles.get(0).error(), nullValue());
+
+        // a profile can only be collected once
+        assertThat(jobContextService.collectProfile(jobId).get().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testProfileOfJobWhichIsNotProfiledIsEmpty() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        JobExecutionContext.Builder builder = jobContextService.newBuilder(jobId, "n1", false);
+        assertThat(builder.profile(), is(false));
+        DummySubContext subContext = new DummySubContext(1);
+        builder.addSubContext(subContext);
+        jobContextService.createContext(builder);
+
+        ListenableFuture<List<PhaseProfile>> profile = jobContextService.collectProfile(jobId);
+        assertThat(profile.isDone(), is(true));
+        assertThat(profile.get().isEmpty(), is(true));
+        subContext.close();
+    }
+
     private JobExecutionContext getJobExecutionContextWithOneActiveSubContext(JobContextService jobContextService) throws Exception {
         JobExecutionContext.Builder builder1 = jobContextService.newBuilder(UUID.randomUUID());
         PageDownstreamContext pageDownstreamContext =
@@ -22,6 +22,7 @@
 package io.crate.jobs;
 
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.SettableFuture;
 import io.crate.Streamer;
 import io.crate.action.job.SharedShardContexts;
 import io.crate.breaker.RamAccountingContext;
@@ -44,11 +45,16 @@ import org.mockito.Mockito;
 
 import javax.annotation.Nonnull;
 import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.*;
 
@@ -199,6 +205,41 @@ public class JobExecutionContextTest extends CrateUnitTest {
         killThread.join(500);
     }
 
+    @Test
+    public void testProfileWallTimeIsMeasuredFromTheStartOfTheSubContext() throws Throwable {
+        SettableFuture<List<PhaseProfile>> profile = SettableFuture.create();
+        JobExecutionContext.Builder builder =
+                new JobExecutionContext.Builder(UUID.randomUUID(), coordinatorNode, mock(StatsTables.class), profile);
+        DummySubContext slowStart = new DummySubContext(1) {
+            @Override
+            protected void innerStart() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    throw Throwables.propagate(e);
+                }
+            }
+        };
+        DummySubContext closeOnStart = new DummySubContext(2) {
+            @Override
+            protected void innerStart() {
+                close();
+            }
+        };
+        builder.addSubContext(slowStart);
+        builder.addSubContext(closeOnStart);
+        JobExecutionContext jobExecutionContext = builder.build();
+        jobExecutionContext.start();
+        slowStart.close();
+
+        Map<Integer, PhaseProfile> profiles = new HashMap<>();
+        for (PhaseProfile phaseProfile : profile.get(5, TimeUnit.SECONDS)) {
+            profiles.put(phaseProfile.phaseId(), phaseProfile);
+        }
+        assertThat(profiles.get(1).wallTimeNanos(), greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100)));
+        assertThat(profiles.get(2).wallTimeNanos(), lessThan(TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
     private static class SlowKillExecutionSubContext extends AbstractExecutionSubContext {
 
         private static final ESLogger LOGGER = Loggers.getLogger(SlowKillExecutionSubContext.class);
@@ -21,26 +21,38 @@
 
 package io.crate.jobs;
 
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.crate.Streamer;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.concurrent.CompletionState;
+import io.crate.core.collections.Bucket;
+import io.crate.core.collections.BucketPage;
 import io.crate.core.collections.Row1;
 import io.crate.core.collections.SingleRowBucket;
+import io.crate.executor.transport.StreamBucket;
 import io.crate.concurrent.CompletionListener;
+import io.crate.operation.PageConsumeListener;
 import io.crate.operation.PageDownstream;
 import io.crate.operation.PageResultListener;
 import io.crate.operation.projectors.FlatProjectorChain;
 import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.logging.Loggers;
 import org.hamcrest.Matchers;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.Matchers.is;
@@ -78,6 +90,116 @@ public class PageDownstreamContextTest extends CrateUnitTest {
         assertThat(t.getMessage(), is("Same bucket of a page set more than once. node=n1 method=setBucket phaseId=1 bucket=1"));
     }
 
+    @Test
+    public void testBucketsWithPageIdxAreConsumedInOrder() throws Exception {
+        final List<ListenableFuture<Bucket>> pages = new ArrayList<>();
+        final List<PageConsumeListener> consumeListeners = new ArrayList<>();
+        PageDownstream pageDownstream = mock(PageDownstream.class);
+        doAnswer(new Answer() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                // the futures of a page must be taken when it's passed on
+                pages.add(Iterables.getOnlyElement(((BucketPage) invocation.getArguments()[0]).buckets()));
+                consumeListeners.add((PageConsumeListener) invocation.getArguments()[1]);
+                return null;
+            }
+        }).when(pageDownstream).nextPage(any(BucketPage.class), any(PageConsumeListener.class));
+
+        PageDownstreamContext ctx = new PageDownstreamContext(Loggers.getLogger(PageDownstreamContext.class), "n1",
+                1, "dummy", pageDownstream, new Streamer[0], RAM_ACCOUNTING_CONTEXT, 1, mock(FlatProjectorChain.class));
+
+        PageResultListener listener1 = mock(PageResultListener.class);
+        PageResultListener listener2 = mock(PageResultListener.class);
+
+        // second page arrives first and is buffered
+        ctx.setBucket(0, 1, new SingleRowBucket(new Row1("b")), true, listener2);
+        assertThat(pages.size(), is(0));
+
+        ctx.setBucket(0, 0, new SingleRowBucket(new Row1("a")), false, listener1);
+        assertThat(pages.size(), is(1));
+        assertThat(pages.get(0).get().iterator().next().get(0), is((Object) "a"));
+
+        // the buffered page is only passed on after the first one has been consumed
+        consumeListeners.get(0).needMore();
+        verify(listener1, times(1)).needMore(true);
+        assertThat(pages.size(), is(2));
+        assertThat(pages.get(1).get().iterator().next().get(0), is((Object) "b"));
+        verify(listener2, never()).needMore(anyBoolean());
+    }
+
+    private static StreamBucket streamBucket(String value) throws Exception {
+        StreamBucket.Builder builder = new StreamBucket.Builder(new Streamer[]{DataTypes.STRING.streamer()});
+        builder.add(new Row1(new BytesRef(value)));
+        return builder.build();
+    }
+
+    @Test
+    public void testBufferedBucketsAreAccountedUntilTheyAreApplied() throws Exception {
+        RamAccountingContext ramAccountingContext = mock(RamAccountingContext.class);
+        PageDownstream pageDownstream = mock(PageDownstream.class);
+        PageDownstreamContext ctx = new PageDownstreamContext(Loggers.getLogger(PageDownstreamContext.class), "n1",
+                1, "dummy", pageDownstream, new Streamer[0], ramAccountingContext, 1, mock(FlatProjectorChain.class));
+
+        StreamBucket first = streamBucket("a");
+        StreamBucket second = streamBucket("bbbbbbbb");
+        ctx.setBucket(0, 1, second, true, mock(PageResultListener.class));
+        verify(ramAccountingContext, times(1)).addBytes(second.sizeInBytes());
+
+        // the first bucket is applied directly, which makes the second one the next bucket of the upstream
+        ctx.setBucket(0, 0, first, false, mock(PageResultListener.class));
+        verify(ramAccountingContext, never()).addBytes(first.sizeInBytes());
+        verify(ramAccountingContext, never()).addBytes(-second.sizeInBytes());
+
+        ArgumentCaptor<PageConsumeListener> consumeListener = ArgumentCaptor.forClass(PageConsumeListener.class);
+        verify(pageDownstream, times(1)).nextPage(any(BucketPage.class), consumeListener.capture());
+        consumeListener.getValue().needMore();
+        verify(ramAccountingContext, times(1)).addBytes(-second.sizeInBytes());
+    }
+
+    @Test
+    public void testBufferedBucketIsRejectedIfBreakerTrips() throws Exception {
+        final List<ListenableFuture<Bucket>> pages = new ArrayList<>();
+        final List<PageConsumeListener> consumeListeners = new ArrayList<>();
+        PageDownstream pageDownstream = mock(PageDownstream.class);
+        doAnswer(new Answer() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                pages.add(Iterables.getOnlyElement(((BucketPage) invocation.getArguments()[0]).buckets()));
+                consumeListeners.add((PageConsumeListener) invocation.getArguments()[1]);
+                return null;
+            }
+        }).when(pageDownstream).nextPage(any(BucketPage.class), any(PageConsumeListener.class));
+        RamAccountingContext ramAccountingContext = mock(RamAccountingContext.class);
+        StreamBucket second = streamBucket("b");
+        doThrow(new CircuitBreakingException("too much")).when(ramAccountingContext).addBytes(second.sizeInBytes());
+
+        PageDownstreamContext ctx = new PageDownstreamContext(Loggers.getLogger(PageDownstreamContext.class), "n1",
+                1, "dummy", pageDownstream, new Streamer[0], ramAccountingContext, 1, mock(FlatProjectorChain.class));
+
+        PageResultListener listener2 = mock(PageResultListener.class);
+        ctx.setBucket(0, 1, second, true, listener2);
+        verify(listener2, times(1)).needMore(false);
+        verify(ramAccountingContext, times(1)).addBytes(-second.sizeInBytes());
+
+        ctx.setBucket(0, 0, new SingleRowBucket(new Row1("a")), false, mock(PageResultListener.class));
+        consumeListeners.get(0).needMore();
+        assertThat(pages.size(), is(2));
+        expectedException.expectCause(instanceOf(CircuitBreakingException.class));
+        pages.get(1).get();
+    }
+
+    @Test
+    public void testPendingBucketsAreAnsweredOnClose() throws Exception {
+        PageDownstream pageDownstream = mock(PageDownstream.class);
+        PageDownstreamContext ctx = new PageDownstreamContext(Loggers.getLogger(PageDownstreamContext.class), "n1",
+                1, "dummy", pageDownstream, new Streamer[0], RAM_ACCOUNTING_CONTEXT, 1, mock(FlatProjectorChain.class));
+
+        PageResultListener listener = mock(PageResultListener.class);
+        ctx.setBucket(0, 1, new SingleRowBucket(new Row1("b")), true, listener);
+        ctx.kill(null);
+        verify(listener, times(1)).needMore(false);
+    }
+
     @Test
     public void testKillCallsDownstream() throws Exception {
         PageDownstream downstream = mock(PageDownstream.class);
@@ -171,6 +171,22 @@ public class LuceneQueryBuilderTest extends CrateUnitTest {
         assertThat(query, instanceOf(LuceneQueryBuilder.Visitor.FunctionFilter.class));
     }
 
+    @Test
+    public void testCanBeAnsweredFromIndex() throws Exception {
+        assertThat(canBeAnsweredFromIndex("x <= 10 and name = 'foo'"), is(true));
+        assertThat(canBeAnsweredFromIndex("x in (1, 2) or not (name like 'f%' or d is null)"), is(true));
+        assertThat(canBeAnsweredFromIndex("_id = 'foo'"), is(true));
+
+        assertThat(canBeAnsweredFromIndex("name = name"), is(false));
+        assertThat(canBeAnsweredFromIndex("x <= 10 and substr(name, 1, 1) = 'f'"), is(false));
+        assertThat(canBeAnsweredFromIndex("y_array = [1, 2]"), is(false));
+        assertThat(canBeAnsweredFromIndex("_score >= 0.5"), is(false));
+    }
+
+    private boolean canBeAnsweredFromIndex(String expression) {
+        return LuceneQueryBuilder.canBeAnsweredFromIndex(asWhereClause(expression).query());
+    }
+
     @Test
     public void testLteQuery() throws Exception {
         Query query = convert("x <= 10");
@@ -25,6 +25,7 @@ import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.metadata.*;
 import io.crate.operation.collect.files.FileInputFactory;
+import io.crate.operation.collect.files.FileReadingCollector;
 import io.crate.operation.collect.sources.CollectSourceResolver;
 import io.crate.operation.collect.sources.FileCollectSource;
 import io.crate.operation.reference.sys.node.NodeSysExpression;
@@ -35,6 +36,7 @@ import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.CollectingRowReceiver;
 import io.crate.types.DataTypes;
 import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.test.cluster.NoopClusterService;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.junit.Before;
@@ -79,7 +81,7 @@ public class MapSideDataCollectOperationTest extends CrateUnitTest {
         };
         CollectSourceResolver collectSourceResolver = mock(CollectSourceResolver.class);
         when(collectSourceResolver.getService(any(RoutedCollectPhase.class)))
-                .thenReturn(new FileCollectSource(functions, clusterService, Collections.<String, FileInputFactory>emptyMap()));
+                .thenReturn(new FileCollectSource(Settings.EMPTY, functions, clusterService, Collections.<String, FileInputFactory>emptyMap()));
         MapSideDataCollectOperation collectOperation = new MapSideDataCollectOperation(
                 functions,
                 referenceResolver,
@@ -105,7 +107,9 @@ public class MapSideDataCollectOperationTest extends CrateUnitTest {
                 ),
                 Arrays.<Projection>asList(),
                 null,
-                false
+                false,
+                FileReadingCollector.FileFormat.JSON,
+                null
         );
         String threadPoolName = JobCollectContext.threadPoolName(collectNode, "noop_id");
 
@@ -21,22 +21,27 @@
 
 package io.crate.operation.collect;
 
-import io.crate.core.collections.BlockingEvictingQueue;
-import io.crate.core.collections.NoopQueue;
+import com.google.common.collect.Iterables;
+import io.crate.core.collections.StripedRingBuffer;
 import io.crate.metadata.settings.CrateSettings;
 import io.crate.operation.reference.sys.job.JobContext;
 import io.crate.operation.reference.sys.job.JobContextLog;
 import io.crate.operation.reference.sys.operation.OperationContext;
 import io.crate.operation.reference.sys.operation.OperationContextLog;
+import io.crate.operation.reference.sys.operation.OperationStats;
+import io.crate.operation.reference.sys.query.QueryStats;
+import io.crate.operation.reference.sys.query.SlowQuery;
 import io.crate.test.integration.CrateUnitTest;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.node.settings.NodeSettingsService;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.BlockingQueue;
 
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.core.Is.is;
 
 public class StatsTablesTest extends CrateUnitTest {
@@ -51,8 +56,8 @@ public class StatsTablesTest extends CrateUnitTest {
         assertThat(stats.lastJobsLogSize, is(CrateSettings.STATS_JOBS_LOG_SIZE.defaultValue()));
         assertThat(stats.lastOperationsLogSize, is(CrateSettings.STATS_OPERATIONS_LOG_SIZE.defaultValue()));
 
-        // even though logSizes are > 0 it must be a NoopQueue because the stats are disabled
-        assertThat(stats.jobsLog.get(), Matchers.instanceOf(NoopQueue.class));
+        // even though logSizes are > 0 the log must not keep entries because the stats are disabled
+        assertThat(stats.jobsLog.capacity(), is(0));
 
         stats.listener.onRefreshSettings(Settings.builder()
                 .put(CrateSettings.STATS_ENABLED.settingName(), true)
@@ -62,14 +67,14 @@ public class StatsTablesTest extends CrateUnitTest {
         assertThat(stats.lastJobsLogSize, is(CrateSettings.STATS_JOBS_LOG_SIZE.defaultValue()));
         assertThat(stats.lastOperationsLogSize, is(200));
 
-        assertThat(stats.jobsLog.get(), Matchers.instanceOf(BlockingEvictingQueue.class));
+        assertThat(stats.jobsLog.capacity(), is(CrateSettings.STATS_JOBS_LOG_SIZE.defaultValue()));
 
 
         stats.listener.onRefreshSettings(Settings.builder()
                 .put(CrateSettings.STATS_ENABLED.settingName(), false).build());
 
         // logs got wiped:
-        assertThat(stats.jobsLog.get(), Matchers.instanceOf(NoopQueue.class));
+        assertThat(stats.jobsLog.capacity(), is(0));
         assertThat(stats.isEnabled(), is(false));
     }
 
@@ -80,25 +85,25 @@ public class StatsTablesTest extends CrateUnitTest {
                 .put(CrateSettings.STATS_ENABLED.settingName(), true).build();
         StatsTables stats = new StatsTables(settings, nodeSettingsService);
 
-        stats.jobsLog.get().add(new JobContextLog(new JobContext(UUID.randomUUID(), "select 1", 1L), null));
+        stats.jobsLog.add(new JobContextLog(new JobContext(UUID.randomUUID(), "select 1", 1L), null));
 
         stats.listener.onRefreshSettings(Settings.builder()
                 .put(CrateSettings.STATS_ENABLED.settingName(), true)
                 .put(CrateSettings.STATS_JOBS_LOG_SIZE.settingName(), 200).build());
 
-        assertThat(stats.jobsLog.get().size(), is(1));
+        assertThat(stats.jobsLog.size(), is(1));
 
 
-        stats.operationsLog.get().add(new OperationContextLog(
+        stats.operationsLog.add(new OperationContextLog(
                 new OperationContext(1, UUID.randomUUID(), "foo", 2L), null));
-        stats.operationsLog.get().add(new OperationContextLog(
+        stats.operationsLog.add(new OperationContextLog(
                 new OperationContext(1, UUID.randomUUID(), "foo", 3L), null));
 
         stats.listener.onRefreshSettings(Settings.builder()
                 .put(CrateSettings.STATS_ENABLED.settingName(), true)
                 .put(CrateSettings.STATS_OPERATIONS_LOG_SIZE.settingName(), 1).build());
 
-        assertThat(stats.operationsLog.get().size(), is(1));
+        assertThat(stats.operationsLog.size(), is(1));
     }
 
     @Test
@@ -116,12 +121,158 @@ public class StatsTablesTest extends CrateUnitTest {
 
         stats.operationFinished(ctxB.id, ctxB.jobId, null, -1);
 
-        BlockingQueue<OperationContextLog> queue = stats.operationsLog.get();
-        assertTrue(queue.contains(new OperationContextLog(ctxB, null)));
-        assertFalse(queue.contains(new OperationContextLog(ctxA, null)));
+        StripedRingBuffer<OperationContextLog> log = stats.operationsLog;
+        assertTrue(Iterables.contains(log, new OperationContextLog(ctxB, null)));
+        assertFalse(Iterables.contains(log, new OperationContextLog(ctxA, null)));
 
         stats.operationFinished(ctxA.id, ctxA.jobId, null, -1);
-        assertTrue(queue.contains(new OperationContextLog(ctxA, null)));
+        assertTrue(Iterables.contains(log, new OperationContextLog(ctxA, null)));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testOperationStatsAreRolledUpIntoJobsLog() throws Exception {
+        NodeSettingsService nodeSettingsService = new NodeSettingsService(Settings.EMPTY);
+        Settings settings = Settings.builder()
+                .put(CrateSettings.STATS_ENABLED.settingName(), true).build();
+        StatsTables stats = new StatsTables(settings, nodeSettingsService);
+
+        UUID jobId = UUID.randomUUID();
+        stats.jobStarted(jobId, "select 1");
+        OperationStats operationStats = new OperationStats();
+        stats.operationStarted(1, jobId, "collect", operationStats);
+        stats.jobFinished(jobId, null);
+
+        // operations may finish after the job, their stats are still accounted
+        OperationStats.Measurement measurement = operationStats.startMeasurement();
+        operationStats.addRowsOut(10);
+        measurement.stop();
+        stats.operationFinished(1, jobId, null, -1);
+
+        JobContextLog jobContextLog = Iterables.getOnlyElement(stats.jobsLog);
+        OperationContextLog operationContextLog = Iterables.getOnlyElement(stats.operationsLog);
+        assertThat(operationContextLog.stats().rowsOut(), is(10L));
+        assertThat(jobContextLog.cpuTimeNanos(), is(Math.max(0L, operationStats.cpuTimeNanos())));
+        assertThat(jobContextLog.allocatedBytes(), is(Math.max(0L, operationStats.allocatedBytes())));
+    }
+
+    @Test
+    public void testOnlySampledJobsAreTracked() throws Exception {
+        NodeSettingsService nodeSettingsService = new NodeSettingsService(Settings.EMPTY);
+        Settings settings = Settings.builder()
+                .put(CrateSettings.STATS_ENABLED.settingName(), true)
+                .put(CrateSettings.STATS_SAMPLING_INTERVAL.settingName(), 4).build();
+        StatsTables stats = new StatsTables(settings, nodeSettingsService);
+
+        int sampled = 0;
+        for (int i = 0; i < 100; i++) {
+            UUID jobId = new UUID(0L, i);
+            if ((jobId.hashCode() & Integer.MAX_VALUE) % 4 == 0) {
+                sampled++;
+            }
+            stats.jobStarted(jobId, "select 1");
+            stats.operationStarted(1, jobId, "collect");
+            stats.operationFinished(1, jobId, null, -1);
+            stats.jobFinished(jobId, null);
+        }
+        assertThat(sampled, Matchers.greaterThan(0));
+        assertThat(stats.jobsLog.size(), is(sampled));
+        assertThat(stats.operationsLog.size(), is(sampled));
+        assertThat(stats.activeRequests(), is(0L));
+    }
+
+    @Test
+    public void testJobsAreRemovedIfSamplingIntervalChangesWhileRunning() throws Exception {
+        NodeSettingsService nodeSettingsService = new NodeSettingsService(Settings.EMPTY);
+        Settings settings = Settings.builder()
+                .put(CrateSettings.STATS_ENABLED.settingName(), true).build();
+        StatsTables stats = new StatsTables(settings, nodeSettingsService);
+
+        UUID jobId = new UUID(0L, 1L);
+        stats.jobStarted(jobId, "select 1");
+        stats.operationStarted(1, jobId, "collect");
+        // the job wouldn't be sampled with the new interval
+        assertThat((jobId.hashCode() & Integer.MAX_VALUE) % 1000, Matchers.not(0));
+        stats.listener.onRefreshSettings(Settings.builder()
+                .put(CrateSettings.STATS_ENABLED.settingName(), true)
+                .put(CrateSettings.STATS_SAMPLING_INTERVAL.settingName(), 1000).build());
+        stats.operationFinished(1, jobId, null, -1);
+        stats.jobFinished(jobId, null);
+
+        assertThat(stats.jobsGetter().get().iterator().hasNext(), is(false));
+        assertThat(stats.operationsGetter().get().iterator().hasNext(), is(false));
+        assertThat(stats.jobsLog.size(), is(1));
+        assertThat(stats.operationsLog.size(), is(1));
+    }
+
+    @Test
+    public void testQueryStatsAreGroupedByFingerprintAndEvicted() throws Exception {
+        NodeSettingsService nodeSettingsService = new NodeSettingsService(Settings.EMPTY);
+        Settings settings = Settings.builder()
+                .put(CrateSettings.STATS_ENABLED.settingName(), true)
+                .put(CrateSettings.STATS_QUERY_STATS_SIZE.settingName(), 2).build();
+        StatsTables stats = new StatsTables(settings, nodeSettingsService);
+
+        stats.queryFinished("select * from t where id = 1", 2_000_000L, 1L, false);
+        stats.queryFinished("SELECT * FROM t WHERE id = 2", 4_000_000L, 0L, false);
+        stats.queryFinished("select * from t where id = 3", 6_000_000L, -1L, true);
+
+        QueryStats queryStats = (QueryStats) Iterables.getOnlyElement(stats.queryStatsGetter().get());
+        assertThat(queryStats.fingerprint(), is("select * from t where id = ?"));
+        assertThat(queryStats.calls(), is(3L));
+        assertThat(queryStats.errors(), is(1L));
+        assertThat(queryStats.rows(), is(1L));
+        assertThat(queryStats.totalTime(), is(12.0));
+        // latencies are tracked with a relative error of 1%
+        assertThat(queryStats.maxTime(), closeTo(6.0, 0.06));
+
+        stats.queryFinished("select 1", 1_000L, 1L, false);
+        stats.queryFinished("select * from t where id = 4", 1_000L, 1L, false);
+        stats.queryFinished("select * from t limit 10", 1_000L, 10L, false);
+        assertThat(Iterables.size(stats.queryStatsGetter().get()), is(2));
+
+        stats.listener.onRefreshSettings(Settings.builder()
+                .put(CrateSettings.STATS_ENABLED.settingName(), false).build());
+        assertThat(Iterables.size(stats.queryStatsGetter().get()), is(0));
+    }
+
+    @Test
+    public void testSlowQueries() throws Exception {
+        NodeSettingsService nodeSettingsService = new NodeSettingsService(Settings.EMPTY);
+        Settings settings = Settings.builder()
+                .put(CrateSettings.STATS_ENABLED.settingName(), true)
+                .put(CrateSettings.STATS_SLOW_QUERY_THRESHOLD.settingName(), "100ms")
+                .put(CrateSettings.STATS_SLOW_QUERY_LOG_SIZE.settingName(), 2).build();
+        StatsTables stats = new StatsTables(settings, nodeSettingsService);
+
+        assertThat(stats.isSlowQuery(99_000_000L), is(false));
+        assertThat(stats.isSlowQuery(100_000_000L), is(true));
+
+        UUID jobId = UUID.randomUUID();
+        stats.jobStarted(jobId, "select * from t");
+        stats.operationStarted(1, jobId, "collect");
+        stats.operationFinished(1, jobId, null, -1);
+        stats.operationStarted(2, jobId, "mergeOnHandler");
+        Map<String, Object> timings = stats.operationTimings(jobId);
+        assertThat(timings.keySet(), Matchers.contains("1", "2"));
+        assertThat(((Map) timings.get("1")).get("name"), is((Object) "collect"));
+        assertThat(stats.operationTimings(UUID.randomUUID()).size(), is(0));
+
+        for (int i = 0; i < 3; i++) {
+            stats.slowQueryFinished(new SlowQuery(jobId, "select * from t", null, null,
+                Collections.<String>emptyList(), Collections.<String>emptyList(), timings, 200_000_000L, 1L, null));
+        }
+        assertThat(Iterables.size(stats.slowQueriesGetter().get()), is(2));
+
+        // the slow query log doesn't depend on stats being enabled
+        stats.listener.onRefreshSettings(Settings.builder()
+                .put(CrateSettings.STATS_SLOW_QUERY_THRESHOLD.settingName(), "100ms")
+                .put(CrateSettings.STATS_SLOW_QUERY_LOG_SIZE.settingName(), 2)
+                .put(CrateSettings.STATS_ENABLED.settingName(), false).build());
+        assertThat(Iterables.size(stats.slowQueriesGetter().get()), is(2));
+
+        stats.listener.onRefreshSettings(Settings.EMPTY);
+        assertThat(stats.isSlowQuery(Long.MAX_VALUE), is(false));
+        assertThat(stats.slowQueries.capacity(), is(CrateSettings.STATS_SLOW_QUERY_LOG_SIZE.defaultValue()));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import io.crate.analyze.symbol.Symbol;
+import io.crate.metadata.ColumnIdent;
+import io.crate.operation.reference.file.LineContext;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.ArrayType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static io.crate.testing.TestingHelpers.createReference;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class CSVLineParserTest extends CrateUnitTest {
+
+    private final LineContext lineContext = new LineContext();
+
+    private static CSVLineParser parser(boolean header) {
+        return new CSVLineParser(new CSVOptions((byte) ',', (byte) '"', header, Arrays.<Symbol>asList(
+            createReference("id", DataTypes.INTEGER),
+            createReference("name", DataTypes.STRING),
+            createReference("score", DataTypes.DOUBLE),
+            createReference("tags", new ArrayType(DataTypes.STRING)))));
+    }
+
+    private String parse(CSVLineParser parser, String line) {
+        parser.parse(line.getBytes(StandardCharsets.UTF_8), lineContext);
+        return lineContext.sourceAsBytesRef().utf8ToString();
+    }
+
+    @Test
+    public void testParseWithoutHeaderUsesTableColumns() throws Exception {
+        assertThat(parse(parser(false), "1,Arthur,1.5,\"[\"\"a\"\", \"\"b\"\"]\""),
+            is("{\"id\":1,\"name\":\"Arthur\",\"score\":1.5,\"tags\":[\"a\",\"b\"]}"));
+    }
+
+    @Test
+    public void testParseWithHeader() throws Exception {
+        CSVLineParser parser = parser(true);
+        parser.parseHeader("name,id,unknown".getBytes(StandardCharsets.UTF_8));
+        assertThat(parse(parser, "Trillian,2,42"), is("{\"name\":\"Trillian\",\"id\":2,\"unknown\":\"42\"}"));
+        assertThat(lineContext.get(new ColumnIdent("id")), is((Object) 2));
+    }
+
+    @Test
+    public void testQuotedValues() throws Exception {
+        CSVLineParser parser = parser(false);
+        parser.parse("3,\"Ford, \"\"Prefect\"\"\"".getBytes(StandardCharsets.UTF_8), lineContext);
+        assertThat(lineContext.get(new ColumnIdent("name")),
+            is((Object) new BytesRef("Ford, \"Prefect\"")));
+    }
+
+    @Test
+    public void testEmptyValueIsNullAndQuotedEmptyValueIsEmptyString() throws Exception {
+        CSVLineParser parser = parser(false);
+        parser.parse("4,\"\",,".getBytes(StandardCharsets.UTF_8), lineContext);
+        assertThat(lineContext.get(new ColumnIdent("id")), is((Object) 4));
+        assertThat(lineContext.get(new ColumnIdent("name")), is((Object) new BytesRef("")));
+        assertThat(lineContext.get(new ColumnIdent("score")), nullValue());
+        assertThat(lineContext.get(new ColumnIdent("tags")), nullValue());
+    }
+
+    @Test
+    public void testTooManyValues() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The CSV line has 5 values but there are only 4 columns");
+        parser(false).parse("1,a,1.0,,x".getBytes(StandardCharsets.UTF_8), lineContext);
+    }
+
+    @Test
+    public void testUnterminatedQuote() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The quoted CSV value starting at position 3 isn't terminated");
+        parser(false).parse("1,\"Arthur".getBytes(StandardCharsets.UTF_8), lineContext);
+    }
+
+    @Test
+    public void testCharacterAfterClosingQuote() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The quoted CSV value ending at position 10 must be followed by a delimiter");
+        parser(false).parse("1,\"Arthur\"x".getBytes(StandardCharsets.UTF_8), lineContext);
+    }
+
+    @Test
+    public void testInvalidValueForType() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Cannot convert value 'one' of column 'id' to type integer");
+        parser(false).parse("one,Arthur".getBytes(StandardCharsets.UTF_8), lineContext);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.collect.files;
+
+import io.crate.operation.projectors.writer.ColumnarWriter;
+import io.crate.operation.reference.file.LineContext;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.ArrayType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.*;
+
+public class ColumnarReaderTest extends CrateUnitTest {
+
+    private static final int NUM_ROWS = ColumnarWriter.MAX_ROWS_PER_GROUP + 1000;
+
+    private static byte[] write(Object[]... rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ColumnarWriter writer = new ColumnarWriter(out,
+            Arrays.asList("id", "name", "tags"),
+            Arrays.<DataType>asList(DataTypes.LONG, DataTypes.STRING, new ArrayType(DataTypes.STRING)))) {
+            for (Object[] row : rows) {
+                writer.write(row);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        byte[] bytes = write(
+            new Object[]{1L, new BytesRef("Arthur"), new Object[]{new BytesRef("a"), new BytesRef("b")}},
+            new Object[]{2L, null, null});
+
+        LineContext lineContext = new LineContext();
+        try (ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(bytes))) {
+            assertThat(reader.columnNames(), arrayContaining("id", "name", "tags"));
+
+            assertThat(reader.next(), is(true));
+            lineContext.values(reader.columnNames(), reader.values());
+            assertThat(lineContext.sourceAsBytesRef().utf8ToString(),
+                is("{\"id\":1,\"name\":\"Arthur\",\"tags\":[\"a\",\"b\"]}"));
+
+            assertThat(reader.next(), is(true));
+            lineContext.values(reader.columnNames(), reader.values());
+            assertThat(lineContext.sourceAsBytesRef().utf8ToString(), is("{\"id\":2}"));
+
+            assertThat(reader.next(), is(false));
+        }
+    }
+
+    @Test
+    public void testChunksAreCompressedAndHaveStats() throws Exception {
+        Object[][] rows = new Object[NUM_ROWS][];
+        for (int i = 0; i < NUM_ROWS; i++) {
+            rows[i] = new Object[]{(long) i, new BytesRef("name " + (i % 10)), null};
+        }
+        byte[] bytes = write(rows);
+        // uncompressed every id alone takes 9 bytes
+        assertThat(bytes.length, lessThan(NUM_ROWS * 9));
+
+        try (ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(bytes))) {
+            for (int i = 0; i < NUM_ROWS; i++) {
+                assertThat(reader.next(), is(true));
+                assertThat(reader.values()[0], is((Object) (long) i));
+                if (i == 0) {
+                    assertThat(reader.min(0), is((Object) 0L));
+                    assertThat(reader.max(0), is((Object) (ColumnarWriter.MAX_ROWS_PER_GROUP - 1L)));
+                    assertThat(reader.min(1), is((Object) new BytesRef("name 0")));
+                    assertThat(reader.max(1), is((Object) new BytesRef("name 9")));
+                    assertThat(reader.min(2), nullValue());
+                } else if (i == NUM_ROWS - 1) {
+                    assertThat(reader.min(0), is((Object) (long) ColumnarWriter.MAX_ROWS_PER_GROUP));
+                    assertThat(reader.max(0), is((Object) (long) i));
+                }
+            }
+            assertThat(reader.next(), is(false));
+        }
+    }
+
+    @Test
+    public void testInvalidFile() throws Exception {
+        expectedException.expect(IOException.class);
+        expectedException.expectMessage("The file isn't in the columnar format");
+        new ColumnarReader(new ByteArrayInputStream("{\"id\": 1}\n".getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -28,7 +28,9 @@ import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectInputStream;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.google.common.base.Joiner;
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
+import io.crate.analyze.symbol.Symbol;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Row;
 import io.crate.external.S3ClientHelper;
@@ -43,13 +45,17 @@ import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.CollectingRowReceiver;
 import io.crate.testing.TestingHelpers;
 import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import javax.annotation.Nullable;
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.SocketTimeoutException;
@@ -70,6 +76,9 @@ import static org.mockito.Mockito.when;
 
 public class FileReadingCollectorTest extends CrateUnitTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private static File tmpFile;
     private static File tmpFileGz;
     private static File tmpFileEmptyLine;
@@ -225,6 +234,88 @@ public class FileReadingCollectorTest extends CrateUnitTest {
         assertThat(it.hasNext(), is(false));
     }
 
+    @Test
+    public void testCollectSplitFileReadsEachLineOnce() throws Throwable {
+        File file = temporaryFolder.newFile("split.json");
+        List<String> expectedLines = new ArrayList<>();
+        try (FileWriter writer = new FileWriter(file)) {
+            for (int i = 0; i < 200; i++) {
+                // lines of different lengths so that the ranges end at arbitrary positions within the lines
+                String line = "{\"id\": " + i + ", \"name\": \"" + Strings.repeat("x", i % 17) + "\"}";
+                expectedLines.add(line);
+                writer.write(line);
+                writer.write(i % 3 == 0 ? "\r\n" : "\n");
+            }
+        }
+        String uri = Paths.get(file.toURI()).toUri().toString();
+
+        for (long splitSize : new long[] { 1, 7, 29, 64, 1024, file.length() - 1 }) {
+            List<String> lines = new ArrayList<>();
+            // two nodes with shared storage and three readers per node
+            for (int readerNumber = 0; readerNumber < 2; readerNumber++) {
+                for (int localReaderNumber = 0; localReaderNumber < 3; localReaderNumber++) {
+                    CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+                    getObjects(Collections.singletonList(uri), null, null, rowReceiver,
+                        true, 2, readerNumber, 3, localReaderNumber, splitSize, null);
+                    for (Row row : rowReceiver.result()) {
+                        lines.add(((BytesRef) row.get(0)).utf8ToString());
+                    }
+                }
+            }
+            Collections.sort(lines);
+            List<String> sortedExpectedLines = new ArrayList<>(expectedLines);
+            Collections.sort(sortedExpectedLines);
+            assertThat("splitSize=" + splitSize, lines, is(sortedExpectedLines));
+        }
+    }
+
+    @Test
+    public void testCollectSplitFileWithoutSharedStorageIsReadByEachNode() throws Throwable {
+        CollectingRowReceiver first = new CollectingRowReceiver();
+        getObjects(Collections.singletonList(Paths.get(tmpFile.toURI()).toUri().toString()), null, null, first,
+            false, 2, 0, 1, 0, 10, null);
+        assertCorrectResult(first.result());
+
+        CollectingRowReceiver second = new CollectingRowReceiver();
+        getObjects(Collections.singletonList(Paths.get(tmpFile.toURI()).toUri().toString()), null, null, second,
+            false, 2, 1, 1, 0, 10, null);
+        assertCorrectResult(second.result());
+    }
+
+    @Test
+    public void testCollectCSVWithHeaderFromSplitFile() throws Throwable {
+        File file = temporaryFolder.newFile("data.csv");
+        List<String> expectedLines = new ArrayList<>();
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("name,id,details\n");
+            for (int i = 0; i < 50; i++) {
+                writer.write("\"Arthur, " + i + "\"," + i + ",\"{\"\"age\"\": " + (i % 7) + "}\"\n");
+                expectedLines.add("{\"name\":\"Arthur, " + i + "\",\"id\":" + i + ",\"details\":{\"age\":" + (i % 7) + "}}");
+            }
+        }
+        CSVOptions csvOptions = new CSVOptions((byte) ',', (byte) '"', true, Arrays.<Symbol>asList(
+            createReference("id", DataTypes.LONG),
+            createReference("name", DataTypes.STRING),
+            createReference("details", DataTypes.OBJECT)));
+        String uri = Paths.get(file.toURI()).toUri().toString();
+
+        for (long splitSize : new long[] { 0, 3, 40, 256 }) {
+            List<String> lines = new ArrayList<>();
+            for (int localReaderNumber = 0; localReaderNumber < 3; localReaderNumber++) {
+                CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+                getObjects(Collections.singletonList(uri), null, null, rowReceiver,
+                    false, 1, 0, 3, localReaderNumber, splitSize, csvOptions);
+                for (Row row : rowReceiver.result()) {
+                    lines.add(((BytesRef) row.get(0)).utf8ToString());
+                }
+            }
+            Collections.sort(lines);
+            List<String> sortedExpectedLines = new ArrayList<>(expectedLines);
+            Collections.sort(sortedExpectedLines);
+            assertThat("splitSize=" + splitSize, lines, is(sortedExpectedLines));
+        }
+    }
+
     private void assertCorrectResult(Bucket rows) throws Throwable {
         Iterator<Row> it = rows.iterator();
         assertThat(it.next(), isRow("{\"name\": \"Arthur\", \"id\": 4, \"details\": {\"age\": 38}}"));
@@ -248,6 +339,20 @@ public class FileReadingCollectorTest extends CrateUnitTest {
     }
 
     private void getObjects(Collection<String> fileUris, String compression, final S3ObjectInputStream s3InputStream, RowReceiver rowReceiver) throws Throwable {
+        getObjects(fileUris, compression, s3InputStream, rowReceiver, false, 1, 0, 1, 0, 0, null);
+    }
+
+    private void getObjects(Collection<String> fileUris,
+                            String compression,
+                            final S3ObjectInputStream s3InputStream,
+                            RowReceiver rowReceiver,
+                            boolean shared,
+                            int numReaders,
+                            int readerNumber,
+                            int numLocalReaders,
+                            int localReaderNumber,
+                            long splitSize,
+                            @Nullable CSVOptions csvOptions) throws Throwable {
         FileCollectInputSymbolVisitor.Context context =
                 inputSymbolVisitor.extractImplementations(createReference("_raw", DataTypes.STRING));
         FileReadingCollector collector = new FileReadingCollector(
@@ -255,7 +360,8 @@ public class FileReadingCollectorTest extends CrateUnitTest {
                 context.topLevelInputs(),
                 context.expressions(),
                 rowReceiver,
-                FileReadingCollector.FileFormat.JSON,
+                csvOptions == null ? FileReadingCollector.FileFormat.JSON : FileReadingCollector.FileFormat.CSV,
+                csvOptions,
                 compression,
                 ImmutableMap.of(
                         LocalFsFileInputFactory.NAME, new LocalFsFileInputFactory(),
@@ -283,9 +389,12 @@ public class FileReadingCollectorTest extends CrateUnitTest {
                         });
                     }
                 }),
-                false,
-                1,
-                0
+                shared,
+                numReaders,
+                readerNumber,
+                numLocalReaders,
+                localReaderNumber,
+                splitSize
         );
         rowReceiver.prepare();
         collector.doCollect();
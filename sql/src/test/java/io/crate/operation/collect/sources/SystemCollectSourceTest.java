@@ -29,6 +29,7 @@ import io.crate.analyze.WhereClause;
 import io.crate.analyze.symbol.Reference;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.core.collections.Row;
+import io.crate.jobs.AdmissionController;
 import io.crate.metadata.*;
 import io.crate.metadata.shard.unassigned.UnassignedShard;
 import io.crate.operation.collect.StatsTables;
@@ -62,6 +63,7 @@ public class SystemCollectSourceTest {
     public void testOrderBySymbolsDoNotAppearTwiceInRows() throws Exception {
         SystemCollectSource collectSource = new SystemCollectSource(
             mock(DiscoveryService.class),
+            mock(AdmissionController.class),
             mock(Functions.class),
             mock(StatsTables.class, Answers.RETURNS_MOCKS.get()),
             mock(InformationSchemaIterables.class, Answers.RETURNS_MOCKS.get()),
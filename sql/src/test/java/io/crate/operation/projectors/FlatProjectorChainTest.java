@@ -47,7 +47,7 @@ public class FlatProjectorChainTest extends CrateUnitTest {
         RamAccountingContext ramAccountingContext = mock(RamAccountingContext.class);
 
         UUID jobId = UUID.randomUUID();
-        when(factory.create(topN, ramAccountingContext, jobId)).thenReturn(new SimpleTopNProjector(ImmutableList.<Input<?>>of(), Collections.<CollectExpression<Row, Object>>emptyList(), 0, 1));
+        when(factory.create(topN, ramAccountingContext, jobId, null)).thenReturn(new SimpleTopNProjector(ImmutableList.<Input<?>>of(), Collections.<CollectExpression<Row, Object>>emptyList(), 0, 1));
         FlatProjectorChain chain = FlatProjectorChain.withAttachedDownstream(factory, ramAccountingContext, ImmutableList.<Projection>of(topN), finalDownstream, jobId);
         chain.prepare();
 
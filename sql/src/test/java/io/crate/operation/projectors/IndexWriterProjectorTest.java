@@ -83,11 +83,14 @@ public class IndexWriterProjectorTest extends SQLTransportIntegrationTest {
                 sourceInput,
                 collectExpressions,
                 20,
+                1024,
+                4096,
                 null,
                 null,
                 false,
                 false,
-                UUID.randomUUID()
+                UUID.randomUUID(),
+                null
         );
         writerProjector.downstream(collectingRowReceiver);
         final RowDownstream rowDownstream = RowMergers.passThroughRowMerger(writerProjector);
@@ -88,9 +88,12 @@ public class IndexWriterProjectorUnitTest extends CrateUnitTest {
                 sourceInput,
                 collectExpressions,
                 20,
+                IndexWriterProjector.DEFAULT_SHARD_BATCH_SIZE.bytes(),
+                IndexWriterProjector.DEFAULT_BUFFER_SIZE.bytes(),
                 null, null,
                 false,
                 false,
+                null,
                 null
         );
         indexWriter.downstream(rowReceiver);
@@ -128,10 +131,13 @@ public class IndexWriterProjectorUnitTest extends CrateUnitTest {
                 sourceInput,
                 collectExpressions,
                 20,
+                IndexWriterProjector.DEFAULT_SHARD_BATCH_SIZE.bytes(),
+                IndexWriterProjector.DEFAULT_BUFFER_SIZE.bytes(),
                 null, null,
                 false,
                 false,
-                UUID.randomUUID()
+                UUID.randomUUID(),
+                null
         );
         indexWriter.downstream(rowReceiver);
         indexWriter.prepare();
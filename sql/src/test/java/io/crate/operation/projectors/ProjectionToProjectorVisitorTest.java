@@ -121,7 +121,7 @@ public class ProjectionToProjectorVisitorTest extends CrateUnitTest {
         projection.outputs(Arrays.<Symbol>asList(Literal.newLiteral("foo"), new InputColumn(0)));
 
         CollectingRowReceiver collectingProjector = new CollectingRowReceiver();
-        Projector projector = visitor.create(projection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID());
+        Projector projector = visitor.create(projection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID(), null);
         projector.downstream(collectingProjector);
         assertThat(projector, instanceOf(SimpleTopNProjector.class));
 
@@ -147,7 +147,7 @@ public class ProjectionToProjectorVisitorTest extends CrateUnitTest {
                 new Boolean[]{null, null}
         );
         projection.outputs(Arrays.<Symbol>asList(Literal.newLiteral("foo"), new InputColumn(0), new InputColumn(1)));
-        Projector projector = visitor.create(projection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID());
+        Projector projector = visitor.create(projection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID(), null);
         assertThat(projector, instanceOf(SortingTopNProjector.class));
     }
 
@@ -158,7 +158,7 @@ public class ProjectionToProjectorVisitorTest extends CrateUnitTest {
                 Aggregation.finalAggregation(avgInfo, Arrays.<Symbol>asList(new InputColumn(1)), Aggregation.Step.ITER),
                 Aggregation.finalAggregation(countInfo, Arrays.<Symbol>asList(new InputColumn(0)), Aggregation.Step.ITER)
         ));
-        Projector projector = visitor.create(projection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID());
+        Projector projector = visitor.create(projection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID(), null);
 
         CollectingRowReceiver collectingProjector = new CollectingRowReceiver();
         projector.downstream(collectingProjector);
@@ -185,7 +185,7 @@ public class ProjectionToProjectorVisitorTest extends CrateUnitTest {
                 Aggregation.finalAggregation(countInfo, Arrays.<Symbol>asList(new InputColumn(0)), Aggregation.Step.ITER)
         ));
 
-        Projector projector = visitor.create(projection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID());
+        Projector projector = visitor.create(projection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID(), null);
 
         // use a topN projection in order to get sorted outputs
         TopNProjection topNProjection = new TopNProjection(10, 0,
@@ -195,7 +195,7 @@ public class ProjectionToProjectorVisitorTest extends CrateUnitTest {
         topNProjection.outputs(Arrays.<Symbol>asList(
                 new InputColumn(0, DataTypes.STRING), new InputColumn(1, DataTypes.STRING),
                 new InputColumn(2, DataTypes.DOUBLE), new InputColumn(3, DataTypes.LONG)));
-        Projector topNProjector = visitor.create(topNProjection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID());
+        Projector topNProjector = visitor.create(topNProjection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID(), null);
         projector.downstream(topNProjector);
 
         CollectingRowReceiver collector = new CollectingRowReceiver();
@@ -236,7 +236,7 @@ public class ProjectionToProjectorVisitorTest extends CrateUnitTest {
         projection.outputs(Arrays.<Symbol>asList(new InputColumn(0), new InputColumn(1)));
 
         CollectingRowReceiver collectingProjector = new CollectingRowReceiver();
-        Projector projector = visitor.create(projection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID());
+        Projector projector = visitor.create(projection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID(), null);
         projector.downstream(collectingProjector);
         assertThat(projector, instanceOf(FilterProjector.class));
 
@@ -166,7 +166,8 @@ public class ShardProjectorChainTest extends CrateUnitTest {
                 ImmutableList.of(groupProjection, topN),
                 finalDownstream(),
                 projectionToProjectorVisitor,
-                RAM_ACCOUNTING_CONTEXT);
+                RAM_ACCOUNTING_CONTEXT,
+                null);
 
         assertThat(chain.nodeProjectors.size(), is(1));
         assertThat(chain.nodeProjectors.get(0), instanceOf(SimpleTopNProjector.class));
@@ -197,7 +198,8 @@ public class ShardProjectorChainTest extends CrateUnitTest {
                 ImmutableList.of(groupProjection1, groupProjection2, topN),
                 finalDownstream(),
                 projectionToProjectorVisitor,
-                RAM_ACCOUNTING_CONTEXT);
+                RAM_ACCOUNTING_CONTEXT,
+                null);
 
         assertThat(chain.nodeProjectors.size(), is(2));
         assertThat(chain.nodeProjectors.get(0), instanceOf(GroupingProjector.class));
@@ -224,7 +226,8 @@ public class ShardProjectorChainTest extends CrateUnitTest {
                 ImmutableList.of(groupProjection, topN),
                 finalDownstream(),
                 projectionToProjectorVisitor,
-                RAM_ACCOUNTING_CONTEXT);
+                RAM_ACCOUNTING_CONTEXT,
+                null);
 
         assertThat(chain.nodeProjectors.size(), is(2));
         assertThat(chain.nodeProjectors.get(0), instanceOf(GroupingProjector.class));
@@ -251,7 +254,8 @@ public class ShardProjectorChainTest extends CrateUnitTest {
                 ImmutableList.of(groupProjection, topN),
                 finalDownstream(),
                 projectionToProjectorVisitor,
-                RAM_ACCOUNTING_CONTEXT);
+                RAM_ACCOUNTING_CONTEXT,
+                null);
 
         assertThat(chain.nodeProjectors.size(), is(2));
         assertThat(chain.nodeProjectors.get(0), instanceOf(GroupingProjector.class));
@@ -278,7 +282,8 @@ public class ShardProjectorChainTest extends CrateUnitTest {
                 ImmutableList.<Projection>of(groupProjection),
                 finalDownstream(),
                 projectionToProjectorVisitor,
-                RAM_ACCOUNTING_CONTEXT);
+                RAM_ACCOUNTING_CONTEXT,
+                null);
         assertThat(chain.nodeProjectors.size(), is(0));
         assertThat(chain.shardProjectors.size(), is(0));
 
@@ -303,7 +308,8 @@ public class ShardProjectorChainTest extends CrateUnitTest {
                 ImmutableList.of(groupProjection, topN),
                 finalDownstream,
                 projectionToProjectorVisitor,
-                RAM_ACCOUNTING_CONTEXT);
+                RAM_ACCOUNTING_CONTEXT,
+                null);
         chain.prepare();
         verify(finalDownstream, times(1)).prepare();
     }
@@ -66,6 +66,7 @@ public class WriterProjectorTest extends CrateUnitTest {
                 uri,
                 null,
                 null,
+                null,
                 ImmutableSet.<CollectExpression<Row, ?>>of(),
                 new HashMap<ColumnIdent, Object>(),
                 null,
@@ -113,6 +114,7 @@ public class WriterProjectorTest extends CrateUnitTest {
                 uri,
                 null,
                 null,
+                null,
                 ImmutableSet.<CollectExpression<Row, ?>>of(),
                 new HashMap<ColumnIdent, Object>(),
                 null,
@@ -136,6 +138,7 @@ public class WriterProjectorTest extends CrateUnitTest {
                 uri,
                 null,
                 null,
+                null,
                 ImmutableSet.<CollectExpression<Row, ?>>of(),
                 new HashMap<ColumnIdent, Object>(),
                 null,
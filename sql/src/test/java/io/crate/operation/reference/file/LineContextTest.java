@@ -23,8 +23,12 @@ package io.crate.operation.reference.file;
 
 import io.crate.metadata.ColumnIdent;
 import io.crate.test.integration.CrateUnitTest;
+import org.apache.lucene.util.BytesRef;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class LineContextTest extends CrateUnitTest {
     @Test
     public void testGet() throws Exception {
@@ -37,4 +41,18 @@ public class LineContextTest extends CrateUnitTest {
         assertNull(context.get(new ColumnIdent("details", "invalid")));
         assertEquals(43, context.get(new ColumnIdent("details", "age")));
     }
+
+    @Test
+    public void testValues() throws Exception {
+        LineContext context = new LineContext();
+
+        Map<String, Object> details = new HashMap<>();
+        details.put("age", 43);
+        context.values(new String[] { "name", "details", "id" }, new Object[] { new BytesRef("foo"), details, null });
+
+        assertEquals(new BytesRef("foo"), context.get(new ColumnIdent("name")));
+        assertEquals(43, context.get(new ColumnIdent("details", "age")));
+        assertNull(context.get(new ColumnIdent("id")));
+        assertEquals("{\"name\":\"foo\",\"details\":{\"age\":43}}", context.sourceAsBytesRef().utf8ToString());
+    }
 }
@@ -23,6 +23,7 @@ package io.crate.operation.reference.sys;
 import com.google.common.collect.ImmutableMap;
 import io.crate.Build;
 import io.crate.Version;
+import io.crate.executor.transport.TransportCoalescingGetAction;
 import io.crate.metadata.NestedReferenceResolver;
 import io.crate.metadata.ReferenceInfo;
 import io.crate.metadata.RowGranularity;
@@ -37,6 +38,8 @@ import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.action.admin.cluster.node.info.NodeInfo;
 import org.elasticsearch.action.admin.cluster.node.stats.NodeStats;
+import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
+import org.elasticsearch.action.bulk.ShardBatchStats;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.inject.AbstractModule;
@@ -200,6 +203,20 @@ public class SysNodesExpressionsTest extends CrateUnitTest {
 
             ThreadPool threadPool = new ThreadPool(getClass().getName());
             bind(ThreadPool.class).toInstance(threadPool);
+
+            TransportCoalescingGetAction coalescingGetAction = mock(TransportCoalescingGetAction.class);
+            when(coalescingGetAction.lookups()).thenReturn(120L);
+            when(coalescingGetAction.batches()).thenReturn(10L);
+            when(coalescingGetAction.largestBatch()).thenReturn(32);
+            bind(TransportCoalescingGetAction.class).toInstance(coalescingGetAction);
+
+            ShardBatchStats shardBatchStats = mock(ShardBatchStats.class);
+            when(shardBatchStats.batches()).thenReturn(40L);
+            when(shardBatchStats.fullBatches()).thenReturn(30L);
+            when(shardBatchStats.avgFillRatio()).thenReturn(0.8);
+            BulkRetryCoordinatorPool bulkRetryCoordinatorPool = mock(BulkRetryCoordinatorPool.class);
+            when(bulkRetryCoordinatorPool.shardBatchStats()).thenReturn(shardBatchStats);
+            bind(BulkRetryCoordinatorPool.class).toInstance(bulkRetryCoordinatorPool);
         }
     }
 
@@ -434,6 +451,28 @@ public class SysNodesExpressionsTest extends CrateUnitTest {
         assertEquals(4, cores);
     }
 
+    @Test
+    public void testLookups() throws Exception {
+        ReferenceInfo refInfo = refInfo("sys.nodes.lookups", DataTypes.OBJECT, RowGranularity.NODE);
+        NestedObjectExpression ref = (NestedObjectExpression) resolver.getImplementation(refInfo);
+
+        Map<String, Object> v = ref.value();
+        assertEquals(120L, v.get("coalesced"));
+        assertEquals(10L, v.get("batches"));
+        assertEquals(32, v.get("largest_batch"));
+    }
+
+    @Test
+    public void testShardBatches() throws Exception {
+        ReferenceInfo refInfo = refInfo("sys.nodes.shard_batches", DataTypes.OBJECT, RowGranularity.NODE);
+        NestedObjectExpression ref = (NestedObjectExpression) resolver.getImplementation(refInfo);
+
+        Map<String, Object> v = ref.value();
+        assertEquals(40L, v.get("sent"));
+        assertEquals(30L, v.get("full"));
+        assertEquals(0.8, v.get("avg_fill_ratio"));
+    }
+
     @Test
     public void testNestedBytesRefExpressionsString() throws Exception {
         ReferenceInfo refInfo = refInfo("sys.nodes.version", DataTypes.OBJECT, RowGranularity.NODE);
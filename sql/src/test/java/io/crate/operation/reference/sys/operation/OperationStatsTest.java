@@ -0,0 +1,147 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.reference.sys.operation;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import io.crate.core.collections.Row1;
+import io.crate.operation.projectors.RepeatHandle;
+import io.crate.operation.projectors.ResumeHandle;
+import io.crate.operation.projectors.RowReceiver;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.CollectingRowReceiver;
+import org.elasticsearch.action.bulk.AdaptiveBulkController;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+
+public class OperationStatsTest extends CrateUnitTest {
+
+    @Test
+    public void testRowCounting() throws Exception {
+        OperationStats stats = new OperationStats();
+        CollectingRowReceiver collectingRowReceiver = new CollectingRowReceiver();
+        RowReceiver rowReceiver = stats.countRowsIn(stats.countRowsOut(collectingRowReceiver));
+
+        rowReceiver.setNextRow(new Row1(1));
+        rowReceiver.setNextRow(new Row1(2));
+        stats.addRowsIn(3);
+
+        assertThat(collectingRowReceiver.rows.size(), is(2));
+        assertThat(stats.rowsIn(), is(5L));
+        assertThat(stats.rowsOut(), is(2L));
+    }
+
+    @Test
+    public void testNestedMeasurementIsNotAccountedToOuterMeasurement() throws Exception {
+        OperationStats outer = new OperationStats();
+        OperationStats inner = new OperationStats();
+
+        OperationStats.Measurement outerMeasurement = outer.startMeasurement();
+        OperationStats.Measurement innerMeasurement = inner.startMeasurement();
+        long[] garbage = burnCpu();
+        innerMeasurement.stop();
+        outerMeasurement.stop();
+        assertThat(garbage.length, greaterThan(0));
+
+        if (inner.cpuTimeNanos() == -1L) {
+            assertThat(outer.cpuTimeNanos(), is(-1L));
+        } else {
+            assertThat(inner.cpuTimeNanos(), greaterThan(outer.cpuTimeNanos()));
+        }
+        if (inner.allocatedBytes() == -1L) {
+            assertThat(outer.allocatedBytes(), is(-1L));
+        } else {
+            assertThat(inner.allocatedBytes(), greaterThan(outer.allocatedBytes()));
+        }
+    }
+
+    @Test
+    public void testResumedAndRepeatedWorkIsMeasured() throws Exception {
+        OperationStats stats = new OperationStats();
+        assumeTrue("allocated bytes must be measurable", stats.allocatedBytes() != -1L);
+        CollectingRowReceiver collectingRowReceiver = new CollectingRowReceiver();
+        RowReceiver rowReceiver = stats.countRowsOut(collectingRowReceiver);
+        final long[][] garbage = new long[1][];
+
+        rowReceiver.pauseProcessed(new ResumeHandle() {
+            @Override
+            public void resume(boolean async) {
+                garbage[0] = burnCpu();
+            }
+        });
+        collectingRowReceiver.resumeUpstream(false);
+        long resumedBytes = stats.allocatedBytes();
+        assertThat(resumedBytes, greaterThanOrEqualTo(8L << 16));
+
+        rowReceiver.finish(new RepeatHandle() {
+            @Override
+            public void repeat() {
+                garbage[0] = burnCpu();
+            }
+        });
+        collectingRowReceiver.repeatUpstream();
+        assertThat(stats.allocatedBytes() - resumedBytes, greaterThanOrEqualTo(8L << 16));
+    }
+
+    @Test
+    public void testMeasuredExecutorMeasuresTasks() throws Exception {
+        OperationStats stats = new OperationStats();
+        assumeTrue("allocated bytes must be measurable", stats.allocatedBytes() != -1L);
+        final long[][] garbage = new long[1][];
+        stats.measured(MoreExecutors.directExecutor()).execute(new Runnable() {
+            @Override
+            public void run() {
+                garbage[0] = burnCpu();
+            }
+        });
+        assertThat(stats.allocatedBytes(), greaterThanOrEqualTo(8L << 16));
+    }
+
+    @Test
+    public void testBulkSizeAndConcurrencyAreAveragedOverControllers() throws Exception {
+        OperationStats stats = new OperationStats();
+        assertThat(stats.bulkSize(), is(-1));
+        assertThat(stats.bulkConcurrency(), is(-1));
+
+        AdaptiveBulkController first = new AdaptiveBulkController(100, 4, 1000L);
+        AdaptiveBulkController second = new AdaptiveBulkController(200, 4, 1000L);
+        second.onResponse(0L, 10L);
+        stats.addBulkController(first);
+        stats.addBulkController(second);
+        // controllers with a fixed bulk size are ignored
+        stats.addBulkController(AdaptiveBulkController.fixed(1000));
+
+        assertThat(stats.bulkSize(), is((100 + 225) / 2));
+        assertThat(stats.bulkConcurrency(), is(1));
+    }
+
+    private static long[] burnCpu() {
+        long[] values = new long[1 << 16];
+        for (int round = 0; round < 50; round++) {
+            for (int i = 1; i < values.length; i++) {
+                values[i] = values[i - 1] * 31 + i + round;
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.reference.sys.query;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.Matchers.*;
+
+public class LatencyHistogramTest extends CrateUnitTest {
+
+    @Test
+    public void testPercentiles() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram(2);
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i);
+        }
+        assertThat(histogram.count(), is(10_000L));
+        assertThat(histogram.min(), is(1L));
+        assertRelativeError(histogram.max(), 10_000L);
+        assertRelativeError(histogram.valueAtPercentile(50.0), 5_000L);
+        assertRelativeError(histogram.valueAtPercentile(99.0), 9_900L);
+        assertRelativeError(histogram.valueAtPercentile(100.0), 10_000L);
+    }
+
+    @Test
+    public void testValuesRecordedAfterReadAreAccumulated() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram(2);
+        histogram.record(10L);
+        assertThat(histogram.count(), is(1L));
+        histogram.record(20L);
+        assertThat(histogram.count(), is(2L));
+        assertThat(histogram.min(), is(10L));
+        assertThat(histogram.max(), is(20L));
+    }
+
+    @Test
+    public void testValuesOfTheOldestIntervalAreDroppedOnRotate() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram(2);
+        histogram.record(10L);
+        histogram.rotate();
+        histogram.record(20L);
+        assertThat(histogram.count(), is(2L));
+        assertThat(histogram.min(), is(10L));
+
+        histogram.rotate();
+        assertThat(histogram.count(), is(1L));
+        assertThat(histogram.min(), is(20L));
+
+        histogram.rotate();
+        assertThat(histogram.count(), is(0L));
+    }
+
+    @Test
+    public void testConcurrentRecording() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram(2);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (long i = 1; i <= 10_000; i++) {
+                        histogram.record(i);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        while (threads.get(0).isAlive()) {
+            histogram.valueAtPercentile(99.0);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(histogram.count(), is(40_000L));
+        assertRelativeError(histogram.valueAtPercentile(50.0), 5_000L);
+    }
+
+    @Test
+    public void testEmptyHistogram() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram(2);
+        assertThat(histogram.count(), is(0L));
+        assertThat(histogram.min(), is(0L));
+        assertThat(histogram.max(), is(0L));
+        assertThat(histogram.valueAtPercentile(99.0), is(0L));
+    }
+
+    private static void assertRelativeError(long actual, long expected) {
+        assertThat(actual, greaterThanOrEqualTo(expected));
+        assertThat((double) actual, lessThanOrEqualTo(expected * 1.01));
+    }
+}
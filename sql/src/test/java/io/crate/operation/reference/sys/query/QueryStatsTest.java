@@ -0,0 +1,91 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.reference.sys.query;
+
+import com.google.common.base.Ticker;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+
+public class QueryStatsTest extends CrateUnitTest {
+
+    private static class ManualTicker extends Ticker {
+
+        private long nanos = 0;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(long nanos) {
+            this.nanos += nanos;
+        }
+    }
+
+    @Test
+    public void testStatsCoverTheLastIntervals() throws Exception {
+        ManualTicker ticker = new ManualTicker();
+        QueryStats stats = new QueryStats("select ?", ticker);
+
+        stats.record(100_000L, 10L, false);
+        stats.record(200_000L, -1L, true);
+        ticker.advance(QueryStats.INTERVAL_NANOS);
+        stats.record(5_000L, 1L, false);
+
+        assertThat(stats.calls(), is(3L));
+        assertThat(stats.errors(), is(1L));
+        assertThat(stats.rows(), is(11L));
+        assertThat(stats.totalTime(), is(305.0));
+        assertThat(stats.maxTime(), closeTo(200.0, 2.0));
+
+        // the interval of the first two executions drops out of the window
+        ticker.advance((QueryStats.INTERVALS - 1) * QueryStats.INTERVAL_NANOS);
+        assertThat(stats.calls(), is(1L));
+        assertThat(stats.errors(), is(0L));
+        assertThat(stats.rows(), is(1L));
+        assertThat(stats.totalTime(), is(5.0));
+        assertThat(stats.maxTime(), closeTo(5.0, 0.05));
+        assertThat(stats.percentileTime(99.0), closeTo(5.0, 0.05));
+
+        ticker.advance(QueryStats.INTERVAL_NANOS);
+        assertThat(stats.calls(), is(0L));
+        assertThat(stats.meanTime(), is(0.0));
+    }
+
+    @Test
+    public void testIdleTimeLongerThanTheWindowDropsAllValues() throws Exception {
+        ManualTicker ticker = new ManualTicker();
+        QueryStats stats = new QueryStats("select ?", ticker);
+        stats.record(1_000L, 1L, false);
+
+        ticker.advance(100 * QueryStats.INTERVALS * QueryStats.INTERVAL_NANOS);
+        assertThat(stats.calls(), is(0L));
+        assertThat(stats.rows(), is(0L));
+
+        stats.record(2_000L, 2L, false);
+        assertThat(stats.calls(), is(1L));
+        assertThat(stats.rows(), is(2L));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.reference.sys.query;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class SlowQueryTest extends CrateUnitTest {
+
+    @Test
+    public void testRenderParameters() throws Exception {
+        assertThat(SlowQuery.renderParameters(new Object[0], new Object[0][], false), nullValue());
+        assertThat(SlowQuery.renderParameters(new Object[]{1, "foo", new Object[]{2}}, new Object[0][], false),
+            is("[1, foo, [2]]"));
+        assertThat(SlowQuery.renderParameters(new Object[0], new Object[][]{{1, "foo"}, {2, "bar"}}, false),
+            is("[[1, foo], [2, bar]]"));
+    }
+
+    @Test
+    public void testRenderRedactedParameters() throws Exception {
+        assertThat(SlowQuery.renderParameters(new Object[]{1, "secret"}, new Object[0][], true), is("[?, ?]"));
+        assertThat(SlowQuery.renderParameters(new Object[0], new Object[][]{{1, "foo"}, {2, "bar"}}, true),
+            is("[[?, ?], [?, ?]]"));
+    }
+
+    @Test
+    public void testRenderedParametersAreTruncated() throws Exception {
+        String rendered = SlowQuery.renderParameters(new Object[]{new String(new char[2000]).replace('\0', 'x')},
+            new Object[0][], false);
+        assertThat(rendered.length(), is(SlowQuery.MAX_PARAMETERS_LENGTH + 3));
+    }
+
+    @Test
+    public void testCollectNodesAndShards() throws Exception {
+        Map<String, Object> planMap = ImmutableMap.<String, Object>of(
+            "planType", "QueryThenFetch",
+            "subPlan", ImmutableMap.of(
+                "collectPhase", ImmutableMap.of(
+                    "executionNodes", ImmutableSet.of("n1", "n2"),
+                    "routing", ImmutableMap.of(
+                        "n1", ImmutableMap.of("t1", ImmutableList.of(0, 1)),
+                        "n3", ImmutableMap.of("t1", ImmutableList.of(2))))),
+            "localMerge", ImmutableMap.of("executionNodes", ImmutableSet.of()));
+        Set<String> nodes = new TreeSet<>();
+        Set<String> shards = new TreeSet<>();
+        SlowQuery.collectNodesAndShards(planMap, nodes, shards);
+
+        assertThat(nodes, contains("n1", "n2", "n3"));
+        assertThat(shards, contains("[t1][0]", "[t1][1]", "[t1][2]"));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.reference.sys.query;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+
+public class StatementFingerprintTest extends CrateUnitTest {
+
+    @Test
+    public void testLiteralsAreReplaced() throws Exception {
+        assertThat(StatementFingerprint.of("SELECT name FROM t WHERE id = 10 AND x = 'it''s' and y > 1.5e3"),
+            is("select name from t where id = ? and x = ? and y > ?"));
+    }
+
+    @Test
+    public void testWhitespaceAndTrailingSemicolon() throws Exception {
+        assertThat(StatementFingerprint.of("  select *\n\tfrom   t ;  "), is("select * from t"));
+    }
+
+    @Test
+    public void testParameterPlaceholdersAreUnified() throws Exception {
+        assertThat(StatementFingerprint.of("select * from t where a = $1 and b = ?"),
+            is("select * from t where a = ? and b = ?"));
+    }
+
+    @Test
+    public void testListsAreCollapsed() throws Exception {
+        assertThat(StatementFingerprint.of("select * from t where id in (1, 2,3)"),
+            is(StatementFingerprint.of("select * from t where id in (?)")));
+        assertThat(StatementFingerprint.of("insert into t (a, b) values (1, 'foo')"),
+            is("insert into t (a, b) values (?)"));
+    }
+
+    @Test
+    public void testOtherListsAreNotCollapsed() throws Exception {
+        assertThat(StatementFingerprint.of("select substr(name, 1, 2), ?, ? from t where id in (1, 2) limit 10 offset 5"),
+            is("select substr(name, ?, ?), ?, ? from t where id in (?) limit ? offset ?"));
+        assertThat(StatementFingerprint.of("select * from t where id in (1, abs(-2, 3))"),
+            is("select * from t where id in (?, abs(-?, ?))"));
+        assertThat(StatementFingerprint.of("select * from t where domain(?, ?) = 1"),
+            is("select * from t where domain(?, ?) = ?"));
+    }
+
+    @Test
+    public void testQuotedIdentifiersKeepTheirCase() throws Exception {
+        assertThat(StatementFingerprint.of("select \"Name\", col1 from \"Doc\".T1"),
+            is("select \"Name\", col1 from \"Doc\".t1"));
+    }
+}
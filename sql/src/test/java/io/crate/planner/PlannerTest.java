@@ -173,6 +173,21 @@ public class PlannerTest extends AbstractPlannerTest {
         assertThat(plan.indices(), is(new String[]{".partitioned.parted.04130", ".partitioned.parted.04232chj"}));
     }
 
+    @Test
+    public void testBulkDeleteByIdPlan() throws Exception {
+        ESDelete plan = (ESDelete) plan("delete from users where id = ?", new Object[][]{
+                new Object[]{1},
+                new Object[]{null},
+                new Object[]{2},
+        });
+        assertThat(plan.numBulkResponses(), is(3));
+        assertThat(plan.docKeys().size(), is(2));
+        assertThat(plan.docKeys().get(0), isDocKey(1L));
+        assertThat(plan.docKeys().get(1), isDocKey(2L));
+        // the where clause of the 2nd argument set can't match, the indices must still refer to the argument sets
+        assertThat(plan.bulkIndices(), contains(0, 2));
+    }
+
     @Test
     public void testMultiDeletePlan() throws Exception {
         Delete plan = plan("delete from users where id in (1, 2)");
@@ -697,12 +712,16 @@ public class PlannerTest extends AbstractPlannerTest {
         assertFalse(collectPhase.whereClause().hasQuery());
         assertThat(collectPhase.projections().size(), is(1));
         assertThat(collectPhase.projections().get(0), instanceOf(UpdateProjection.class));
-        assertThat(collectPhase.toCollect().size(), is(1));
+        assertThat(collectPhase.toCollect().size(), is(3));
         assertThat(collectPhase.toCollect().get(0), instanceOf(Reference.class));
         assertThat(((Reference)collectPhase.toCollect().get(0)).info().ident().columnIdent().fqn(), is("_uid"));
+        assertThat(((Reference)collectPhase.toCollect().get(1)).info().ident().columnIdent().fqn(), is("_version"));
+        assertThat(((Reference)collectPhase.toCollect().get(2)).info().ident().columnIdent().fqn(), is("_raw"));
 
         UpdateProjection updateProjection = (UpdateProjection)collectPhase.projections().get(0);
         assertThat(updateProjection.uidSymbol(), instanceOf(InputColumn.class));
+        assertThat(updateProjection.versionSymbol(), isInputColumn(1));
+        assertThat(updateProjection.sourceSymbol(), isInputColumn(2));
 
         assertThat(updateProjection.assignmentsColumns()[0], is("name"));
         Symbol symbol = updateProjection.assignments()[0];
@@ -730,6 +749,18 @@ public class PlannerTest extends AbstractPlannerTest {
         assertThat(symbol, isLiteral("Vogon lyric fan", DataTypes.STRING));
     }
 
+    @Test
+    public void testBulkUpdateByIdPlan() throws Exception {
+        UpsertById upsertById = (UpsertById) plan("update users set name='Vogon lyric fan' where id = ?", new Object[][]{
+                new Object[]{null},
+                new Object[]{1},
+                new Object[]{2},
+        });
+        assertThat(upsertById.numBulkResponses(), is(3));
+        assertThat(upsertById.items().size(), is(2));
+        assertThat(upsertById.bulkIndices(), contains(1, 2));
+    }
+
     @Test
     public void testUpdatePlanWithMultiplePrimaryKeyValues() throws Exception {
         UpsertById plan = plan("update users set name='Vogon lyric fan' where id in (1,2,3)");
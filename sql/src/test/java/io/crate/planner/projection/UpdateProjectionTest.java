@@ -21,8 +21,12 @@
 
 package io.crate.planner.projection;
 
+import io.crate.analyze.symbol.InputColumn;
 import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.Symbol;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.junit.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -42,4 +46,21 @@ public class UpdateProjectionTest {
         assertThat(u1.equals(u2), is(true));
         assertThat(u1.hashCode(), is(u2.hashCode()));
     }
+
+    @Test
+    public void testStreamingWithVersionAndSource() throws Exception {
+        UpdateProjection u1 = new UpdateProjection(
+                new InputColumn(0, DataTypes.STRING), new String[] { "foo" }, new Symbol[] { Literal.newLiteral(1) },
+                2L, new InputColumn(1, DataTypes.LONG), new InputColumn(2, DataTypes.STRING));
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        u1.writeTo(out);
+
+        UpdateProjection u2 = UpdateProjection.FACTORY.newInstance();
+        u2.readFrom(StreamInput.wrap(out.bytes()));
+
+        assertThat(u2, is(u1));
+        assertThat(u2.versionSymbol(), is((Symbol) new InputColumn(1, DataTypes.LONG)));
+        assertThat(u2.sourceSymbol(), is((Symbol) new InputColumn(2, DataTypes.STRING)));
+    }
 }
\ No newline at end of file
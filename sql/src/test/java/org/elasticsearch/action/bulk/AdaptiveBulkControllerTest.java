@@ -0,0 +1,129 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package org.elasticsearch.action.bulk;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+
+public class AdaptiveBulkControllerTest extends CrateUnitTest {
+
+    private static final long TARGET = 1000L;
+
+    @Test
+    public void testIncreaseAfterAWindowOfFastResponses() throws Exception {
+        AdaptiveBulkController controller = new AdaptiveBulkController(80, 4, TARGET);
+        assertThat(controller.bulkSize(), is(80));
+        assertThat(controller.concurrency(), is(1));
+
+        controller.onResponse(0L, 10L);
+        assertThat(controller.bulkSize(), is(90));
+        assertThat(controller.concurrency(), is(2));
+
+        // with 2 requests in flight it takes 2 responses until the next increase
+        controller.onResponse(10L, 20L);
+        assertThat(controller.concurrency(), is(2));
+        controller.onResponse(10L, 30L);
+        assertThat(controller.bulkSize(), is(100));
+        assertThat(controller.concurrency(), is(3));
+    }
+
+    @Test
+    public void testLimitsAreBounded() throws Exception {
+        AdaptiveBulkController controller = new AdaptiveBulkController(16, 2, TARGET);
+        for (int i = 0; i < 200; i++) {
+            controller.onResponse(i, i + 1);
+        }
+        assertThat(controller.bulkSize(), is(16 * AdaptiveBulkController.MAX_BULK_SIZE_FACTOR));
+        assertThat(controller.concurrency(), is(2));
+
+        long now = 1000L;
+        for (int i = 0; i < 20; i++) {
+            now += 10;
+            controller.onRejected(now, now + 1);
+        }
+        assertThat(controller.bulkSize(), is(1));
+        assertThat(controller.concurrency(), is(1));
+        assertThat(controller.rejections(), is(20L));
+    }
+
+    @Test
+    public void testSlowResponseHalvesTheLimits() throws Exception {
+        AdaptiveBulkController controller = new AdaptiveBulkController(80, 4, TARGET);
+        controller.onResponse(0L, 10L);
+        controller.onResponse(10L, 20L);
+        controller.onResponse(10L, 30L);
+        assertThat(controller.bulkSize(), is(100));
+        assertThat(controller.concurrency(), is(3));
+
+        controller.onResponse(100L, 100L + TARGET + 1);
+        assertThat(controller.bulkSize(), is(50));
+        assertThat(controller.concurrency(), is(1));
+    }
+
+    @Test
+    public void testRequestsSentBeforeTheLastDecreaseDoNotDecreaseAgain() throws Exception {
+        AdaptiveBulkController controller = new AdaptiveBulkController(80, 4, TARGET);
+        controller.onRejected(100L, 200L);
+        assertThat(controller.bulkSize(), is(40));
+
+        // sent before the decrease, e.g. in flight during the same congestion
+        controller.onRejected(150L, 210L);
+        controller.onResponse(150L, 150L + TARGET + 1);
+        assertThat(controller.bulkSize(), is(40));
+        assertThat(controller.rejections(), is(2L));
+
+        controller.onRejected(300L, 310L);
+        assertThat(controller.bulkSize(), is(20));
+    }
+
+    @Test
+    public void testDisabledControllerKeepsTheBulkSize() throws Exception {
+        AdaptiveBulkController controller = AdaptiveBulkController.fromSettings(
+            Settings.builder().put(AdaptiveBulkController.ENABLED_SETTING, false).build(), 100);
+        controller.onResponse(0L, 10L);
+        controller.onRejected(20L, 30L);
+        assertThat(controller.isEnabled(), is(false));
+        assertThat(controller.bulkSize(), is(100));
+        assertThat(controller.concurrency(), is(Integer.MAX_VALUE));
+        assertThat(controller.rejections(), is(1L));
+    }
+
+    @Test
+    public void testFromSettings() throws Exception {
+        AdaptiveBulkController controller = AdaptiveBulkController.fromSettings(
+            Settings.builder()
+                .put(AdaptiveBulkController.MAX_CONCURRENCY_SETTING, 1)
+                .put(AdaptiveBulkController.TARGET_LATENCY_SETTING, "10ms")
+                .build(), 100);
+        assertThat(controller.isEnabled(), is(true));
+        controller.onResponse(0L, 5_000_000L);
+        assertThat(controller.bulkSize(), is(112));
+        assertThat(controller.concurrency(), is(1));
+
+        controller.onResponse(5_000_000L, 20_000_000L);
+        assertThat(controller.bulkSize(), is(56));
+    }
+}
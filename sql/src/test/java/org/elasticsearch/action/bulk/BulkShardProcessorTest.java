@@ -46,6 +46,8 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.junit.Test;
 import org.mockito.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -91,6 +93,7 @@ public class BulkShardProcessorTest extends CrateUnitTest {
         BulkRetryCoordinator bulkRetryCoordinator = new BulkRetryCoordinator(threadPool);
         BulkRetryCoordinatorPool coordinatorPool = mock(BulkRetryCoordinatorPool.class);
         when(coordinatorPool.coordinator(any(ShardId.class))).thenReturn(bulkRetryCoordinator);
+        when(coordinatorPool.shardBatchStats()).thenReturn(new ShardBatchStats());
 
         ShardUpsertRequest.Builder builder = new ShardUpsertRequest.Builder(
                 TimeValue.timeValueMillis(10),
@@ -157,6 +160,7 @@ public class BulkShardProcessorTest extends CrateUnitTest {
         BulkRetryCoordinator bulkRetryCoordinator = new BulkRetryCoordinator(threadPool);
         BulkRetryCoordinatorPool coordinatorPool = mock(BulkRetryCoordinatorPool.class);
         when(coordinatorPool.coordinator(any(ShardId.class))).thenReturn(bulkRetryCoordinator);
+        when(coordinatorPool.shardBatchStats()).thenReturn(new ShardBatchStats());
 
         ShardUpsertRequest.Builder builder = new ShardUpsertRequest.Builder(
                 TimeValue.timeValueMillis(10),
@@ -237,6 +241,7 @@ public class BulkShardProcessorTest extends CrateUnitTest {
         BulkRetryCoordinator bulkRetryCoordinator = new BulkRetryCoordinator(threadPool);
         BulkRetryCoordinatorPool coordinatorPool = mock(BulkRetryCoordinatorPool.class);
         when(coordinatorPool.coordinator(any(ShardId.class))).thenReturn(bulkRetryCoordinator);
+        when(coordinatorPool.shardBatchStats()).thenReturn(new ShardBatchStats());
 
         ShardUpsertRequest.Builder builder = new ShardUpsertRequest.Builder(
                 TimeValue.timeValueMillis(10),
@@ -269,6 +274,157 @@ public class BulkShardProcessorTest extends CrateUnitTest {
         assertThat(bulkShardProcessor.add("foo", new ShardUpsertRequest.Item("1", null, new Object[]{"bar1"}, null), null), is(false));
     }
 
+    @Test
+    public void testShardRequestIsSentOnceFull() throws Exception {
+        final List<ShardUpsertRequest> requests = new ArrayList<>();
+        ShardBatchStats stats = new ShardBatchStats();
+        BulkShardProcessor<ShardUpsertRequest> bulkShardProcessor = batchingProcessor(requests, stats, 3, 1000, 10000);
+
+        bulkShardProcessor.add("foo", new ShardUpsertRequest.Item("1", null, new Object[]{"bar1"}, null), null, 10);
+        bulkShardProcessor.add("foo", new ShardUpsertRequest.Item("2", null, new Object[]{"bar2"}, null), null, 10);
+        bulkShardProcessor.add("foo", new ShardUpsertRequest.Item("1", null, new Object[]{"bar3"}, null), null, 10);
+        assertThat(requests.size(), is(0));
+
+        // the request of shard 1 reaches the bulk size, shard 2 has to wait
+        bulkShardProcessor.add("foo", new ShardUpsertRequest.Item("1", null, new Object[]{"bar4"}, null), null, 10);
+        assertThat(requests.size(), is(1));
+        assertThat(requests.get(0).shardId().id(), is(1));
+        assertThat(requests.get(0).itemIndices().size(), is(3));
+
+        // the request of shard 3 reaches the shard batch size
+        bulkShardProcessor.add("foo", new ShardUpsertRequest.Item("3", null, new Object[]{"bar5"}, null), null, 1000);
+        assertThat(requests.size(), is(2));
+        assertThat(requests.get(1).shardId().id(), is(3));
+
+        bulkShardProcessor.close();
+        assertThat(requests.size(), is(3));
+        assertThat(requests.get(2).shardId().id(), is(2));
+
+        assertThat(stats.batches(), is(3L));
+        assertThat(stats.fullBatches(), is(2L));
+        assertEquals((1.0 + 1.0 + 1.0 / 3) / 3, stats.avgFillRatio(), 0.01);
+    }
+
+    @Test
+    public void testRequestForExistingShardIsSentOnceItReachesTheShardBatchSize() throws Exception {
+        final List<ShardUpsertRequest> requests = new ArrayList<>();
+        BulkShardProcessor<ShardUpsertRequest> bulkShardProcessor =
+            batchingProcessor(requests, new ShardBatchStats(), 100, 1000, 1000);
+        ShardId shardId = new ShardId("foo", 1);
+
+        bulkShardProcessor.addForExistingShard(shardId, new ShardUpsertRequest.Item("1", null, new Object[]{"bar1"}, null), null, 600);
+        assertThat(requests.size(), is(0));
+
+        bulkShardProcessor.addForExistingShard(shardId, new ShardUpsertRequest.Item("2", null, new Object[]{"bar2"}, null), null, 600);
+        assertThat(requests.size(), is(1));
+        assertThat(requests.get(0).itemIndices().size(), is(2));
+
+        bulkShardProcessor.addForExistingShard(shardId, new ShardUpsertRequest.Item("3", null, new Object[]{"bar3"}, null), null, 600);
+        assertThat(requests.size(), is(1));
+    }
+
+    @Test
+    public void testLargestShardRequestsAreSentIfBufferIsFull() throws Exception {
+        final List<ShardUpsertRequest> requests = new ArrayList<>();
+        BulkShardProcessor<ShardUpsertRequest> bulkShardProcessor =
+            batchingProcessor(requests, new ShardBatchStats(), 100, 400, 500);
+
+        bulkShardProcessor.add("foo", new ShardUpsertRequest.Item("1", null, new Object[]{"bar1"}, null), null, 200);
+        bulkShardProcessor.add("foo", new ShardUpsertRequest.Item("2", null, new Object[]{"bar2"}, null), null, 100);
+        assertThat(requests.size(), is(0));
+
+        bulkShardProcessor.add("foo", new ShardUpsertRequest.Item("3", null, new Object[]{"bar3"}, null), null, 250);
+        // the buffer is full, the largest requests are sent until at most half of the buffer is used
+        assertThat(requests.size(), is(2));
+        assertThat(requests.get(0).shardId().id(), is(3));
+        assertThat(requests.get(1).shardId().id(), is(1));
+    }
+
+    @Test
+    public void testRequestsExceedingTheConcurrencyOfAShardAreQueued() throws Exception {
+        final List<ShardUpsertRequest> requests = new ArrayList<>();
+        final List<ActionListener<ShardResponse>> listeners = new ArrayList<>();
+        BulkShardProcessor<ShardUpsertRequest> bulkShardProcessor =
+            batchingProcessor(requests, listeners, new ShardBatchStats(), 1, 1000, 10000);
+        assertThat(bulkShardProcessor.controller().concurrency(), is(1));
+
+        bulkShardProcessor.add("foo", new ShardUpsertRequest.Item("1", null, new Object[]{"bar1"}, null), null, 10);
+        bulkShardProcessor.add("foo", new ShardUpsertRequest.Item("1", null, new Object[]{"bar2"}, null), null, 10);
+        bulkShardProcessor.add("foo", new ShardUpsertRequest.Item("2", null, new Object[]{"bar3"}, null), null, 10);
+        // the second request of shard 1 has to wait for the first one, shard 2 has its own concurrency
+        assertThat(requests.size(), is(2));
+        assertThat(requests.get(0).shardId().id(), is(1));
+        assertThat(requests.get(1).shardId().id(), is(2));
+
+        ShardResponse response = new ShardResponse();
+        response.add(requests.get(0).itemIndices().get(0));
+        listeners.get(0).onResponse(response);
+        assertThat(requests.size(), is(3));
+        assertThat(requests.get(2).shardId().id(), is(1));
+        // a fast response increases the concurrency and the bulk size
+        assertThat(bulkShardProcessor.controller().concurrency(), is(2));
+        assertThat(bulkShardProcessor.controller().bulkSize(), is(2));
+    }
+
+    private BulkShardProcessor<ShardUpsertRequest> batchingProcessor(final List<ShardUpsertRequest> requests,
+                                                                     ShardBatchStats stats,
+                                                                     int bulkSize,
+                                                                     long shardBatchBytes,
+                                                                     long bufferBytes) throws Exception {
+        return batchingProcessor(requests, new ArrayList<ActionListener<ShardResponse>>(),
+            stats, bulkSize, shardBatchBytes, bufferBytes);
+    }
+
+    private BulkShardProcessor<ShardUpsertRequest> batchingProcessor(final List<ShardUpsertRequest> requests,
+                                                                     final List<ActionListener<ShardResponse>> listeners,
+                                                                     ShardBatchStats stats,
+                                                                     int bulkSize,
+                                                                     long shardBatchBytes,
+                                                                     long bufferBytes) throws Exception {
+        ClusterService clusterService = mock(ClusterService.class);
+        OperationRouting operationRouting = mock(OperationRouting.class);
+        mockShard(operationRouting, 1);
+        mockShard(operationRouting, 2);
+        mockShard(operationRouting, 3);
+        when(clusterService.operationRouting()).thenReturn(operationRouting);
+
+        BulkRequestExecutor<ShardUpsertRequest> transportShardBulkAction =
+            new BulkRequestExecutor<ShardUpsertRequest>() {
+                @Override
+                public void execute(ShardUpsertRequest request, ActionListener<ShardResponse> listener) {
+                    requests.add(request);
+                    listeners.add(listener);
+                }
+            };
+
+        BulkRetryCoordinatorPool coordinatorPool = mock(BulkRetryCoordinatorPool.class);
+        when(coordinatorPool.coordinator(any(ShardId.class))).thenReturn(new BulkRetryCoordinator(threadPool));
+        when(coordinatorPool.shardBatchStats()).thenReturn(stats);
+
+        ShardUpsertRequest.Builder builder = new ShardUpsertRequest.Builder(
+            TimeValue.timeValueMillis(10),
+            false,
+            false,
+            null,
+            new Reference[]{fooRef},
+            UUID.randomUUID()
+        );
+        return new BulkShardProcessor<>(
+            clusterService,
+            mock(TransportBulkCreateIndicesAction.class),
+            new IndexNameExpressionResolver(Settings.EMPTY),
+            Settings.EMPTY,
+            coordinatorPool,
+            false,
+            bulkSize,
+            shardBatchBytes,
+            bufferBytes,
+            builder,
+            transportShardBulkAction,
+            UUID.randomUUID()
+        );
+    }
+
     private void mockShard(OperationRouting operationRouting, Integer shardId) {
         ShardIterator shardIterator = mock(ShardIterator.class);
         when(operationRouting.indexShards(